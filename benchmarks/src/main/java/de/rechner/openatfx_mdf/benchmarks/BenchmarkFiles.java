@@ -0,0 +1,80 @@
+package de.rechner.openatfx_mdf.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+
+
+/**
+ * Utility class resolving the MDF files used by the benchmarks.
+ *
+ * @author Christian Rechner
+ */
+public abstract class BenchmarkFiles {
+
+    /** The package of the bundled test vectors */
+    public static final String RESOURCE_PATH = "de/rechner/openatfx_mdf/";
+
+    /** The prefix of a file to generate, followed by the extension, a colon and the generator spec */
+    public static final String GENERATED_PREFIX = "generated.";
+
+    /**
+     * Returns the path of a MDF file. A file to generate is written to a temporary file, an existing file path (e.g. of
+     * a generated large file) is used directly, otherwise the bundled test vector is copied from the class path to a
+     * temporary file.
+     *
+     * @param file The file to generate, e.g. 'generated.mf4:channels=100;rows=1000000' (see
+     *            {@link GeneratorSpec#parse(String)}), the file path, or the path of the test vector relative to
+     *            {@link #RESOURCE_PATH}, e.g. 'mdf4/simple/Vector_MinimumFile.MF4'.
+     * @return The path.
+     * @throws IOException Test vector not found or error writing the temporary file.
+     */
+    public static Path getPath(String file) throws IOException {
+        if (isGenerated(file)) {
+            return generate(file);
+        }
+        Path path = Paths.get(file);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        InputStream in = BenchmarkFiles.class.getClassLoader().getResourceAsStream(RESOURCE_PATH + file);
+        if (in == null) {
+            throw new IOException("MDF file not found: " + file);
+        }
+        try {
+            String fileName = path.getFileName().toString();
+            Path tempFile = Files.createTempFile("bench", "_" + fileName);
+            tempFile.toFile().deleteOnExit();
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return tempFile;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Returns whether a file is generated by {@link #getPath(String)}.
+     *
+     * @param file The file.
+     * @return True, if the file starts with {@link #GENERATED_PREFIX} and has a generator spec.
+     */
+    public static boolean isGenerated(String file) {
+        return file.startsWith(GENERATED_PREFIX) && file.indexOf(':') > GENERATED_PREFIX.length();
+    }
+
+    private static Path generate(String file) throws IOException {
+        int idx = file.indexOf(':');
+        String extension = file.substring(GENERATED_PREFIX.length() - 1, idx);
+        GeneratorSpec spec = GeneratorSpec.parse(file.substring(idx + 1));
+        Path tempFile = Files.createTempFile("bench", extension);
+        tempFile.toFile().deleteOnExit();
+        GenerateMain.write(tempFile, spec);
+        return tempFile;
+    }
+
+}
@@ -0,0 +1,59 @@
+package de.rechner.openatfx_mdf.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Main class of the benchmarks jar, runs the JMH benchmarks selected by the command line arguments.
+ * <p>
+ * Unless given by the arguments <code>-rf</code> and <code>-rff</code>, the results are written as JSON to the file
+ * <code>jmh-result.json</code> to compare them with the results of an earlier run, e.g.:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar ConvertBenchmark -p file=/data/large.mf4 -rff large.json
+ * </pre>
+ *
+ * @author Christian Rechner
+ */
+public class BenchmarkMain {
+
+    /** The default result file */
+    public static final String RESULT_FILE = "jmh-result.json";
+
+    /**
+     * Main method.
+     *
+     * @param args The JMH command line arguments.
+     * @throws RunnerException Error running the benchmarks.
+     */
+    public static void main(String[] args) throws RunnerException {
+        CommandLineOptions cmdOptions;
+        try {
+            cmdOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (cmdOptions.shouldHelp()) {
+            cmdOptions.showHelp();
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmdOptions.getResult().hasValue()) {
+            builder.result(RESULT_FILE);
+        }
+        new Runner(builder.build()).run();
+    }
+
+}
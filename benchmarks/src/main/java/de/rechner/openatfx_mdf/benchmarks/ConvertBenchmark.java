@@ -0,0 +1,83 @@
+package de.rechner.openatfx_mdf.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.asam.ods.AoSession;
+import org.omg.CORBA.ORB;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.rechner.openatfx_mdf.MDFConverter;
+
+
+/**
+ * Macrobenchmark of the full conversion of a MDF file into a memory ODS session by
+ * {@link MDFConverter#getAoSessionForMDF(ORB, Path)}.
+ * <p>
+ * By default the bundled test vectors and two generated files having 5000 channels are converted. The generated files
+ * are written once per trial from the generator spec of the parameter, other sizes are benchmarked by passing a spec,
+ * e.g. <code>-p file='generated.mf4:dataGroups=100;channels=1000;rows=1000'</code>, or the path of an existing file,
+ * e.g. <code>-p file=/data/large.mf4</code>.
+ *
+ * @author Christian Rechner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConvertBenchmark {
+
+    @Param({ "mdf3/NI_RealTypes.mdf", "mdf4/simple/Vector_MinimumFile.MF4", "mdf4/simple/ETAS_SimpleSorted.mf4",
+            "mdf4/datatypes/integer_types/ETAS_IntegerTypes.mf4",
+            "mdf4/datatypes/integer_types/Vector_IntegerTypes.MF4",
+            "mdf4/compressed_data/datalist/Vector_DataList_Deflate.mf4",
+            "mdf4/events/trigger/dSPACE_HILAPITrigger.mf4",
+            "generated.mdf:dataGroups=10;channels=500;rows=10000",
+            "generated.mf4:dataGroups=10;channels=500;rows=10000" })
+    public String file;
+
+    private ORB orb;
+    private Path path;
+    private MDFConverter converter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.orb = ORB.init(new String[0], System.getProperties());
+        this.path = BenchmarkFiles.getPath(this.file);
+        this.converter = new MDFConverter();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.orb.destroy();
+        if (BenchmarkFiles.isGenerated(this.file)) {
+            Files.deleteIfExists(this.path);
+        }
+    }
+
+    @Benchmark
+    public String convert() throws Exception {
+        AoSession aoSession = this.converter.getAoSessionForMDF(this.orb, this.path);
+        try {
+            return aoSession.getName();
+        } finally {
+            aoSession.close();
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package de.rechner.openatfx_mdf.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import de.rechner.openatfx_mdf.mdf3.MDF3Generator;
+import de.rechner.openatfx_mdf.mdf4.MDF4Generator;
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+
+
+/**
+ * Command line tool writing a synthetic MDF file, e.g. to benchmark the conversion of large files.
+ * 
+ * <pre>
+ * GenerateMain &lt;spec&gt; &lt;path&gt;
+ * </pre>
+ * 
+ * The spec is a semicolon separated list of <code>key=value</code> pairs, see {@link GeneratorSpec#parse(String)}.
+ * Files having the extension '.mdf' or '.dat' are written as MDF3, all other files as MDF4, e.g.:
+ * 
+ * <pre>
+ * java -cp target/benchmarks.jar de.rechner.openatfx_mdf.benchmarks.GenerateMain "channels=100;rows=10000000" large.mf4
+ * </pre>
+ * 
+ * The exit code is 0 if the file was written, 1 on a write error and 2 on invalid arguments.
+ *
+ * @author Christian Rechner
+ */
+public class GenerateMain {
+
+    private static final String USAGE = "Usage: GenerateMain <spec> <path>";
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        GeneratorSpec spec;
+        try {
+            spec = GeneratorSpec.parse(args[0]);
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            Path path = Paths.get(args[1]);
+            long start = System.currentTimeMillis();
+            write(path, spec);
+            System.out.println("Written " + Files.size(path) + " bytes to " + path + " in "
+                    + (System.currentTimeMillis() - start) + "ms");
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) { // spec not supported by MDF3
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Writes a synthetic MDF file, as MDF3 for the extensions '.mdf' and '.dat', otherwise as MDF4.
+     *
+     * @param path The target file, overwritten if existing.
+     * @param spec The file spec.
+     * @throws IOException Error writing the file.
+     * @throws IllegalArgumentException Spec not supported by the MDF version.
+     */
+    public static void write(Path path, GeneratorSpec spec) throws IOException {
+        if (isMdf3(path)) {
+            MDF3Generator.write(path, spec);
+        } else {
+            MDF4Generator.write(path, spec);
+        }
+    }
+
+    private static boolean isMdf3(Path path) {
+        String fileName = String.valueOf(path.getFileName()).toLowerCase();
+        return fileName.endsWith(".mdf") || fileName.endsWith(".dat");
+    }
+
+}
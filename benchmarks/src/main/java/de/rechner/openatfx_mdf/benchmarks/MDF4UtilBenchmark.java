@@ -0,0 +1,81 @@
+package de.rechner.openatfx_mdf.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.rechner.openatfx_mdf.mdf4.MDF4Util;
+
+
+/**
+ * Microbenchmarks of the primitive readers of {@link MDF4Util}, each invocation reads a block worth of values.
+ *
+ * @author Christian Rechner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MDF4UtilBenchmark {
+
+    // number of 64 bit values per invocation, e.g. the links of a large CNBLOCK
+    private static final int VALUE_COUNT = 64;
+
+    private ByteBuffer longBb;
+    private ByteBuffer charsBb;
+    private int charsLength;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        this.longBb = ByteBuffer.allocate(VALUE_COUNT * 8).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            this.longBb.putLong(random.nextLong() & Long.MAX_VALUE); // in range of the range checks
+        }
+
+        byte[] chars = "Motordrehzahl \u00fcber Zeit [1/min]\0".getBytes(StandardCharsets.UTF_8);
+        this.charsLength = chars.length + 8; // zero padded to a multiple of 8 like in a TXBLOCK
+        this.charsBb = ByteBuffer.wrap(new byte[this.charsLength]);
+        this.charsBb.put(chars);
+    }
+
+    @Benchmark
+    public void readUInt64(Blackhole bh) throws IOException {
+        this.longBb.rewind();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            bh.consume(MDF4Util.readUInt64(this.longBb));
+        }
+    }
+
+    @Benchmark
+    public void readLink(Blackhole bh) throws IOException {
+        this.longBb.rewind();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            bh.consume(MDF4Util.readLink(this.longBb));
+        }
+    }
+
+    @Benchmark
+    public String readCharsUTF8() throws IOException {
+        this.charsBb.rewind();
+        return MDF4Util.readCharsUTF8(this.charsBb, this.charsLength);
+    }
+
+}
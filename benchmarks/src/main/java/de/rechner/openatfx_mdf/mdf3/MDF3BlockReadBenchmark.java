@@ -0,0 +1,133 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.rechner.openatfx_mdf.benchmarks.BenchmarkFiles;
+
+
+/**
+ * Microbenchmarks of the <code>read</code> methods of the MDF3 blocks. The position of each block type is looked up
+ * once in a bundled test vector, each invocation reads and parses the block from the file.
+ * <p>
+ * The bundled test vector contains neither a PRBLOCK nor a CEBLOCK, so these are not covered.
+ *
+ * @author Christian Rechner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MDF3BlockReadBenchmark {
+
+    @Param({ "ID", "HD", "TX", "DG", "CG", "CN", "CC" })
+    public String blockType;
+
+    @Param("mdf3/NI_RealTypes.mdf")
+    public String file;
+
+    private Path path;
+    private SeekableByteChannel sbc;
+    private long pos;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.path = BenchmarkFiles.getPath(this.file);
+        this.sbc = Files.newByteChannel(this.path, StandardOpenOption.READ);
+        Map<String, Long> positions = lookupPositions(IDBLOCK.read(this.path, this.sbc));
+        Long blockPos = positions.get(this.blockType);
+        if (blockPos == null) {
+            throw new IOException("No " + this.blockType + "BLOCK found in file: " + this.file);
+        }
+        this.pos = blockPos;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.sbc.close();
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        switch (this.blockType) {
+            case "ID":
+                return IDBLOCK.read(this.path, this.sbc);
+            case "HD":
+                return HDBLOCK.read(this.sbc);
+            case "TX":
+                return TXBLOCK.read(this.sbc, this.pos);
+            case "DG":
+                return DGBLOCK.read(this.sbc, this.pos);
+            case "CG":
+                return CGBLOCK.read(this.sbc, this.pos);
+            case "CN":
+                return CNBLOCK.read(this.sbc, this.pos);
+            case "CC":
+                return CCBLOCK.read(this.sbc, this.pos);
+            default:
+                throw new IOException("Unsupported block type: " + this.blockType);
+        }
+    }
+
+    /**
+     * Returns the position of the first block of each type found by walking the block tree.
+     *
+     * @param idBlock The IDBLOCK.
+     * @return Map of the positions by the block type identifier.
+     * @throws IOException Error reading from MDF file.
+     */
+    private static Map<String, Long> lookupPositions(IDBLOCK idBlock) throws IOException {
+        Map<String, Long> positions = new HashMap<String, Long>();
+        positions.put("ID", 0L);
+        HDBLOCK hdBlock = idBlock.getHDBlock();
+        positions.put("HD", hdBlock.getPos());
+        putLink(positions, "TX", hdBlock.getLnkFileCommentTxt());
+        DGBLOCK dgBlock = hdBlock.getFirstFileGroup();
+        while (dgBlock != null) {
+            putLink(positions, "DG", dgBlock.getPos());
+            CGBLOCK cgBlock = dgBlock.getNextCgBlock();
+            while (cgBlock != null) {
+                putLink(positions, "CG", cgBlock.getPos());
+                putLink(positions, "TX", cgBlock.getLnkChannelGroupComment());
+                CNBLOCK cnBlock = cgBlock.getFirstCnBlock();
+                while (cnBlock != null) {
+                    putLink(positions, "CN", cnBlock.getPos());
+                    putLink(positions, "CC", cnBlock.getLnkCcBlock());
+                    putLink(positions, "TX", cnBlock.getLnkChannelComment());
+                    cnBlock = cnBlock.getNextCnBlock();
+                }
+                cgBlock = cgBlock.getNextCgBlock();
+            }
+            dgBlock = dgBlock.getNextDgBlock();
+        }
+        return positions;
+    }
+
+    private static void putLink(Map<String, Long> positions, String blockType, long lnk) {
+        if (lnk > 0 && !positions.containsKey(blockType)) {
+            positions.put(blockType, lnk);
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.rechner.openatfx_mdf.benchmarks.BenchmarkFiles;
+
+
+/**
+ * Microbenchmarks of the bit-wise value extraction of MDF3 files: {@link BitInputStream#read(int)} and
+ * {@link Mdf3Util#readNumberValues(ByteBuffer, DGBLOCK, CGBLOCK, CNBLOCK)} over all records of the first channel
+ * group of a bundled test vector.
+ *
+ * @author Christian Rechner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class Mdf3UtilBenchmark {
+
+    @Param("mdf3/NI_RealTypes.mdf")
+    public String file;
+
+    private DGBLOCK dgBlock;
+    private CGBLOCK cgBlock;
+    private CNBLOCK cnBlock;
+    private ByteBuffer recordBb;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path path = BenchmarkFiles.getPath(this.file);
+        SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ);
+        IDBLOCK idBlock = IDBLOCK.read(path, sbc);
+        this.dgBlock = idBlock.getHDBlock().getFirstFileGroup();
+        this.cgBlock = this.dgBlock.getNextCgBlock();
+        this.cnBlock = this.cgBlock.getFirstCnBlock().getNextCnBlock(); // first value channel after the time channel
+        int recordIdOffset = (this.dgBlock.getNoRecordIds() > 0) ? 1 : 0;
+        int size = (int) ((this.cgBlock.getDataRecordSize() + recordIdOffset) * this.cgBlock.getNoOfRecords());
+        this.recordBb = ByteBuffer.allocate(size);
+        sbc.position(this.dgBlock.getLnkDataRecords());
+        while (this.recordBb.hasRemaining() && sbc.read(this.recordBb) > 0) {
+            // read all records
+        }
+        sbc.close();
+    }
+
+    @Benchmark
+    public void bitInputStreamRead(BitStream bitStream, Blackhole bh) throws IOException {
+        BitInputStream bis = new BitInputStream(bitStream.data);
+        while (bis.available() >= bitStream.bits) {
+            bh.consume(bis.read(bitStream.bits));
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer readNumberValues() throws IOException {
+        return Mdf3Util.readNumberValues(this.recordBb, this.dgBlock, this.cgBlock, this.cnBlock);
+    }
+
+    /**
+     * Random data read by a bit stream in chunks of a number of bits.
+     */
+    @State(Scope.Thread)
+    public static class BitStream {
+
+        // the size of the bit stream, the size of a typical record block
+        private static final int SIZE = 4096;
+
+        @Param({ "1", "3", "8" })
+        public int bits;
+
+        private byte[] data;
+
+        @Setup
+        public void setUp() {
+            this.data = new byte[SIZE];
+            new Random(42).nextBytes(this.data);
+        }
+
+    }
+
+}
@@ -0,0 +1,155 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.rechner.openatfx_mdf.benchmarks.BenchmarkFiles;
+
+
+/**
+ * Microbenchmarks of the <code>read</code> methods of the MDF4 blocks. The position of each block type is looked up
+ * once in a bundled test vector, each invocation reads and parses the block from the file.
+ * <p>
+ * None of the bundled test vectors contains a CHBLOCK, so it is not covered.
+ *
+ * @author Christian Rechner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MDF4BlockReadBenchmark {
+
+    @Param({ "ID", "HD", "FH", "MD", "DG", "CG", "CN", "CC", "TX", "SI", "DL", "DT" })
+    public String blockType;
+
+    @Param("mdf4/datatypes/integer_types/dSPACE_IntegerTypes.mf4")
+    public String file;
+
+    private Path path;
+    private SeekableByteChannel sbc;
+    private long pos;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.path = BenchmarkFiles.getPath(this.file);
+        this.sbc = Files.newByteChannel(this.path, StandardOpenOption.READ);
+        Map<String, Long> positions = lookupPositions(IDBLOCK.read(this.path, this.sbc));
+        Long blockPos = positions.get(this.blockType);
+        if (blockPos == null) {
+            throw new IOException("No " + this.blockType + "BLOCK found in file: " + this.file);
+        }
+        this.pos = blockPos;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.sbc.close();
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        switch (this.blockType) {
+            case "ID":
+                return IDBLOCK.read(this.path, this.sbc);
+            case "HD":
+                return HDBLOCK.read(this.sbc);
+            case "FH":
+                return FHBLOCK.read(this.sbc, this.pos);
+            case "MD":
+                return MDBLOCK.read(this.sbc, this.pos);
+            case "DG":
+                return DGBLOCK.read(this.sbc, this.pos);
+            case "CG":
+                return CGBLOCK.read(this.sbc, this.pos);
+            case "CN":
+                return CNBLOCK.read(this.sbc, this.pos);
+            case "CC":
+                return CCBLOCK.read(this.sbc, this.pos);
+            case "TX":
+                return TXBLOCK.read(this.sbc, this.pos);
+            case "SI":
+                return SIBLOCK.read(this.sbc, this.pos);
+            case "DL":
+                return DLBLOCK.read(this.sbc, this.pos);
+            case "DT":
+                return DTBLOCK.read(this.sbc, this.pos);
+            default:
+                throw new IOException("Unsupported block type: " + this.blockType);
+        }
+    }
+
+    /**
+     * Returns the position of the first block of each type found by walking the block tree.
+     *
+     * @param idBlock The IDBLOCK.
+     * @return Map of the positions by the block type identifier.
+     * @throws IOException Error reading from MDF file.
+     */
+    private static Map<String, Long> lookupPositions(IDBLOCK idBlock) throws IOException {
+        Map<String, Long> positions = new HashMap<String, Long>();
+        positions.put("ID", 0L);
+        HDBLOCK hdBlock = idBlock.getHDBlock();
+        positions.put("HD", hdBlock.getPos());
+        putLink(positions, "FH", hdBlock.getLnkFhFirst());
+        putLink(positions, "MD", hdBlock.getLnkMdComment());
+        DGBLOCK dgBlock = hdBlock.getDgFirstBlock();
+        while (dgBlock != null) {
+            putLink(positions, "DG", dgBlock.getPos());
+            BLOCK dataBlock = dgBlock.getDataBlock();
+            if (dataBlock instanceof DLBLOCK) {
+                putLink(positions, "DL", dataBlock.getPos());
+                long[] lnkDlData = ((DLBLOCK) dataBlock).getLnkDlData();
+                if (lnkDlData.length > 0) {
+                    putLink(positions, "DT", lnkDlData[0]);
+                }
+            } else if (dataBlock instanceof DTBLOCK) {
+                putLink(positions, "DT", dataBlock.getPos());
+            }
+            CGBLOCK cgBlock = dgBlock.getCgFirstBlock();
+            while (cgBlock != null) {
+                putLink(positions, "CG", cgBlock.getPos());
+                putLink(positions, "SI", cgBlock.getLnkSiAcqSource());
+                CNBLOCK cnBlock = cgBlock.getCnFirstBlock();
+                while (cnBlock != null) {
+                    putLink(positions, "CN", cnBlock.getPos());
+                    putLink(positions, "TX", cnBlock.getLnkTxName());
+                    putLink(positions, "CC", cnBlock.getLnkCcConversion());
+                    putLink(positions, "SI", cnBlock.getLnkSiSource());
+                    cnBlock = cnBlock.getCnNextBlock();
+                }
+                cgBlock = cgBlock.getCgNextBlock();
+            }
+            dgBlock = dgBlock.getDgNextBlock();
+        }
+        return positions;
+    }
+
+    private static void putLink(Map<String, Long> positions, String blockType, long lnk) {
+        if (lnk > 0 && !positions.containsKey(blockType)) {
+            positions.put(blockType, lnk);
+        }
+    }
+
+}
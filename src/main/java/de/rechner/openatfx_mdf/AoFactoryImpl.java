@@ -108,9 +108,12 @@ class AoFactoryImpl extends AoFactoryPOA {
     public AoSession newSessionNameValue(NameValue[] auth) throws AoException {
         try {
             File mdfFile = null;
+            ConvertOptions options = new ConvertOptions();
             for (NameValue nv : auth) {
                 if (nv.valName.equalsIgnoreCase("FILENAME")) {
                     mdfFile = new File(nv.value.u.stringVal());
+                } else if (!options.setOption(nv.valName, nv.value.u.stringVal())) {
+                    LOG.warn("Unknown session parameter: " + nv.valName);
                 }
             }
             if (mdfFile == null) {
@@ -118,13 +121,16 @@ class AoFactoryImpl extends AoFactoryPOA {
                                       "Parameter 'FILENAME' not found");
             }
             MDFConverter converter = new MDFConverter();
-            return converter.getAoSessionForMDF(orb, mdfFile.toPath());
+            return converter.getAoSessionForMDF(orb, mdfFile.toPath(), options);
         } catch (AoException aoe) {
             LOG.error(aoe.reason, aoe);
             throw aoe;
         } catch (ConvertException e) {
             LOG.error(e.getMessage(), e);
             throw new AoException(ErrorCode.AO_UNKNOWN_ERROR, SeverityFlag.ERROR, 0, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            LOG.error(e.getMessage(), e);
+            throw new AoException(ErrorCode.AO_BAD_PARAMETER, SeverityFlag.ERROR, 0, e.getMessage());
         }
     }
 
@@ -21,6 +21,7 @@ public class AoFactoryMain {
     public static void main(String[] args) {
         try {
             BasicConfigurator.configure();
+            ConvertMetrics.register();
 
             // configure ORB
             ORB orb = ORB.init(new String[0], System.getProperties());
@@ -0,0 +1,107 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.BasicConfigurator;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx_mdf.util.FileCollector;
+
+
+/**
+ * Command line tool converting a batch of MDF files to ATFX header files in parallel.
+ * 
+ * <pre>
+ * BatchConvertMain [-threads n] [-log file] [-force] [-option name=value]... (file|directory|glob)...
+ * </pre>
+ * 
+ * Directories are searched recursively for MDF files, glob patterns have to be quoted to not be expanded by the shell.
+ * The exit code is 0 if all files were converted or skipped, 1 if a file failed and 2 on invalid arguments.
+ * 
+ * @author Christian Rechner
+ */
+public class BatchConvertMain {
+
+    private static final String USAGE = "Usage: BatchConvertMain [-threads n] [-log file] [-force] "
+            + "[-option name=value]... (file|directory|glob)...";
+
+    public static void main(String[] args) {
+        BasicConfigurator.configure();
+        ConvertMetrics.register();
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path logFile = null;
+        boolean force = false;
+        ConvertOptions options = new ConvertOptions();
+        List<String> inputs = new ArrayList<String>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("-threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-log") && i + 1 < args.length) {
+                    logFile = Paths.get(args[++i]);
+                } else if (arg.equals("-force")) {
+                    force = true;
+                } else if (arg.equals("-option") && i + 1 < args.length) {
+                    String option = args[++i];
+                    int pos = option.indexOf('=');
+                    if (pos < 1 || !options.setOption(option.substring(0, pos), option.substring(pos + 1))) {
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                    }
+                } else if (arg.startsWith("-")) {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                } else {
+                    inputs.add(arg);
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("No input files given");
+            }
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        int exitCode = 0;
+        ORB orb = ORB.init(new String[0], System.getProperties());
+        try {
+            List<Path> files = FileCollector.collect(inputs);
+            System.out.println("Converting " + files.size() + " files using " + threads + " threads");
+
+            long start = System.currentTimeMillis();
+            List<BatchConverter.Result> results;
+            BatchConverter batchConverter = new BatchConverter(orb, options, threads, force);
+            if (logFile != null) {
+                try (Writer writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+                    results = batchConverter.convert(files, writer);
+                }
+            } else {
+                results = batchConverter.convert(files, null);
+            }
+            System.out.println(BatchConverter.getThroughput(results, System.currentTimeMillis() - start));
+
+            for (BatchConverter.Result result : results) {
+                if (BatchConverter.STATUS_FAILED.equals(result.getStatus())) {
+                    exitCode = 1;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            exitCode = 1;
+        } finally {
+            orb.destroy();
+        }
+        System.exit(exitCode);
+    }
+
+}
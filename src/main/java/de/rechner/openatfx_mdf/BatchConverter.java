@@ -0,0 +1,311 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx_mdf.util.FileCollector;
+
+
+/**
+ * Converts a batch of MDF files to ATFX header files in parallel.
+ * <p>
+ * The conversions run on a work-stealing fork/join pool. The files are forked in the given order (usually biggest
+ * first, see {@link FileCollector#collect(List)}) and the pool runs in FIFO mode, so the long conversions start first
+ * and the small ones fill the gaps at the end. All conversions share one ORB. Files whose ATFX header file is newer
+ * than the MDF file are skipped.
+ * <p>
+ * The result of each file is written as a line of tab separated values to an optional result log:
+ * 
+ * <pre>
+ * file	status	bytes	millis	message
+ * </pre>
+ * 
+ * @author Christian Rechner
+ */
+public class BatchConverter {
+
+    private static final Log LOG = LogFactory.getLog(BatchConverter.class);
+
+    /** The header line of the result log */
+    public static final String RESULT_LOG_HEADER = "file\tstatus\tbytes\tmillis\tmessage";
+
+    /** The status of a converted file */
+    public static final String STATUS_CONVERTED = "CONVERTED";
+
+    /** The status of a file skipped because its ATFX file is up to date */
+    public static final String STATUS_SKIPPED = "SKIPPED";
+
+    /** The status of a file that could not be converted */
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final ORB orb;
+    private final ConvertOptions options;
+    private final int parallelism;
+    private final boolean force;
+    private final MDFConverter converter;
+
+    /**
+     * Constructor.
+     * 
+     * @param orb The ORB shared by all conversions.
+     * @param options The conversion options.
+     * @param parallelism The number of conversions running in parallel.
+     * @param force True, to convert files even if the ATFX file is up to date.
+     */
+    public BatchConverter(ORB orb, ConvertOptions options, int parallelism, boolean force) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        this.orb = orb;
+        this.options = options;
+        this.parallelism = parallelism;
+        this.force = force;
+        this.converter = new MDFConverter();
+    }
+
+    /**
+     * Returns the conversion options.
+     * 
+     * @return The options.
+     */
+    public ConvertOptions getOptions() {
+        return this.options;
+    }
+
+    /**
+     * Converts the files.
+     * 
+     * @param files The files in the order to start the conversions.
+     * @param resultLog The writer of the result log, may be null.
+     * @return The results, in order of completion.
+     * @throws IOException Error writing the result log.
+     */
+    public List<Result> convert(List<Path> files, Writer resultLog) throws IOException {
+        ResultCollector collector = new ResultCollector(resultLog);
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null,
+                                             true);
+        try {
+            pool.invoke(new BatchTask(files, collector));
+        } finally {
+            pool.shutdown();
+        }
+        if (collector.error != null) {
+            throw collector.error;
+        }
+        return collector.results;
+    }
+
+    /**
+     * Converts a single file, returning the result instead of throwing.
+     * 
+     * @param mdfPath The MDF file.
+     * @return The result.
+     */
+    Result convert(Path mdfPath) {
+        long start = System.currentTimeMillis();
+        long bytes = 0;
+        try {
+            bytes = Files.size(mdfPath);
+            if (!this.force && FileCollector.isUpToDate(mdfPath, MDFConverter.getATFXPath(mdfPath))) {
+                return new Result(mdfPath, STATUS_SKIPPED, bytes, 0, "up to date");
+            }
+            this.converter.writeATFXHeader(this.orb, mdfPath, this.options);
+            return new Result(mdfPath, STATUS_CONVERTED, bytes, System.currentTimeMillis() - start, "");
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            return new Result(mdfPath, STATUS_FAILED, bytes, System.currentTimeMillis() - start, e.getMessage());
+        } catch (ConvertException e) {
+            return new Result(mdfPath, STATUS_FAILED, bytes, System.currentTimeMillis() - start, e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.error(e.getMessage(), e);
+            return new Result(mdfPath, STATUS_FAILED, bytes, System.currentTimeMillis() - start, e.toString());
+        }
+    }
+
+    /**
+     * Returns a summary of the throughput of a batch conversion.
+     * 
+     * @param results The results.
+     * @param millis The elapsed time in milliseconds.
+     * @return The summary.
+     */
+    public static String getThroughput(List<Result> results, long millis) {
+        int converted = 0;
+        int skipped = 0;
+        int failed = 0;
+        long bytes = 0;
+        for (Result result : results) {
+            if (STATUS_CONVERTED.equals(result.getStatus())) {
+                converted++;
+                bytes += result.getBytes();
+            } else if (STATUS_SKIPPED.equals(result.getStatus())) {
+                skipped++;
+            } else {
+                failed++;
+            }
+        }
+        double seconds = Math.max(millis, 1) / 1000d;
+        double mb = bytes / (1024d * 1024d);
+        return String.format(Locale.ROOT, "Converted %d files (%d skipped, %d failed), %.1f MB in %.1f s: "
+                                     + "%.2f files/s, %.2f MB/s", converted, skipped, failed, mb, seconds,
+                             converted / seconds, mb / seconds);
+    }
+
+    /**
+     * The result of a single file.
+     */
+    public static class Result {
+
+        private final Path file;
+        private final String status;
+        private final long bytes;
+        private final long millis;
+        private final String message;
+
+        public Result(Path file, String status, long bytes, long millis, String message) {
+            this.file = file;
+            this.status = status;
+            this.bytes = bytes;
+            this.millis = millis;
+            this.message = message == null ? "" : message;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Returns the result as line of the result log, without line separator.
+         * 
+         * @return The tab separated values.
+         */
+        public String toLogLine() {
+            return file + "\t" + status + "\t" + bytes + "\t" + millis + "\t" + message.replaceAll("[\t\r\n]+", " ");
+        }
+
+        @Override
+        public String toString() {
+            return "Result [file=" + file + ", status=" + status + ", bytes=" + bytes + ", millis=" + millis + "]";
+        }
+
+    }
+
+    /**
+     * Collects the results of the parallel conversions and writes them to the result log as they complete, so the log
+     * of an aborted batch is still valid.
+     */
+    private static class ResultCollector {
+
+        private final Writer resultLog;
+        private final List<Result> results;
+        private IOException error;
+
+        public ResultCollector(Writer resultLog) throws IOException {
+            this.resultLog = resultLog;
+            this.results = Collections.synchronizedList(new ArrayList<Result>());
+            if (resultLog != null) {
+                resultLog.write(RESULT_LOG_HEADER);
+                resultLog.write(System.lineSeparator());
+                resultLog.flush();
+            }
+        }
+
+        public synchronized void add(Result result) {
+            this.results.add(result);
+            LOG.info(result.getStatus() + " " + result.getFile() + " (" + result.getMillis() + "ms)");
+            if (this.resultLog != null && this.error == null) {
+                try {
+                    this.resultLog.write(result.toLogLine());
+                    this.resultLog.write(System.lineSeparator());
+                    this.resultLog.flush();
+                } catch (IOException e) {
+                    this.error = e;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Forks one task per file in the given order and waits for all.
+     */
+    private class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> files;
+        private final ResultCollector collector;
+
+        public BatchTask(List<Path> files, ResultCollector collector) {
+            this.files = files;
+            this.collector = collector;
+        }
+
+        @Override
+        protected void compute() {
+            List<FileTask> tasks = new ArrayList<FileTask>(this.files.size());
+            for (Path file : this.files) {
+                FileTask task = new FileTask(file, this.collector);
+                ConvertMetrics.fileQueued();
+                task.fork();
+                tasks.add(task);
+            }
+            for (FileTask task : tasks) {
+                task.join();
+            }
+        }
+
+    }
+
+    /**
+     * Converts a single file.
+     */
+    private class FileTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+        private final ResultCollector collector;
+
+        public FileTask(Path file, ResultCollector collector) {
+            this.file = file;
+            this.collector = collector;
+        }
+
+        @Override
+        protected void compute() {
+            ConvertMetrics.fileDequeued();
+            this.collector.add(convert(this.file));
+        }
+
+    }
+
+}
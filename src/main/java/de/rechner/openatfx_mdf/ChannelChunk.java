@@ -0,0 +1,63 @@
+package de.rechner.openatfx_mdf;
+
+import java.util.List;
+
+import de.rechner.openatfx_mdf.util.ChannelSource;
+
+
+/**
+ * A chunk of consecutive rows of the physical values of several channels of a channel group, as published by the
+ * {@link ChannelPublisher}.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelChunk {
+
+    private final List<ChannelSource> channels;
+    private final long firstRow;
+    private final int rowCount;
+    private final double[][] values;
+
+    /**
+     * Constructor.
+     *
+     * @param channels The channels.
+     * @param firstRow The index of the first row of the chunk.
+     * @param rowCount The number of rows.
+     * @param values The values, one array per channel having at least rowCount values.
+     */
+    public ChannelChunk(List<ChannelSource> channels, long firstRow, int rowCount, double[][] values) {
+        this.channels = channels;
+        this.firstRow = firstRow;
+        this.rowCount = rowCount;
+        this.values = values;
+    }
+
+    public List<ChannelSource> getChannels() {
+        return channels;
+    }
+
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the values of a channel.
+     *
+     * @param index The index of the channel within the channel list.
+     * @return The values, the first rowCount values are valid.
+     */
+    public double[] getValues(int index) {
+        return values[index];
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelChunk [firstRow=" + firstRow + ", rowCount=" + rowCount + ", channels=" + channels.size() + "]";
+    }
+
+}
@@ -0,0 +1,200 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.rechner.openatfx_mdf.util.ChannelSource;
+
+
+/**
+ * Publisher of the physical values of several channels of a channel group as chunks of a fixed number of rows.
+ * <p>
+ * The chunks are read lazily from the MDF file when requested by a subscriber, so the memory used is bounded by the
+ * demand of the subscriber and not by the size of the file. Each subscriber receives all rows from the first row on.
+ * The chunks are read and delivered by the given executor, or on the thread calling
+ * {@link Flow.Subscription#request(long)} if no executor is given. Subscribers sharing a reader are served one after
+ * another.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelPublisher implements Flow.Publisher<ChannelChunk> {
+
+    /** The default number of rows of a chunk */
+    public static final int DEFAULT_CHUNK_ROWS = 8192;
+
+    private final ChannelReader reader;
+    private final List<ChannelSource> channels;
+    private final int chunkRows;
+    private final Executor executor;
+
+    /**
+     * Constructor, the chunks are delivered on the requesting thread.
+     *
+     * @param reader The reader of the MDF file.
+     * @param channels The channels, all of the same channel group.
+     * @param chunkRows The number of rows of a chunk.
+     */
+    public ChannelPublisher(ChannelReader reader, List<ChannelSource> channels, int chunkRows) {
+        this(reader, channels, chunkRows, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param reader The reader of the MDF file.
+     * @param channels The channels, all of the same channel group.
+     * @param chunkRows The number of rows of a chunk.
+     * @param executor The executor delivering the chunks, null to deliver on the requesting thread.
+     * @throws IllegalArgumentException No channels, channels of different groups or invalid chunk size.
+     */
+    public ChannelPublisher(ChannelReader reader, List<ChannelSource> channels, int chunkRows, Executor executor) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("No channels given");
+        }
+        for (ChannelSource channel : channels) {
+            if (channel.getGroupIndex() != channels.get(0).getGroupIndex()) {
+                throw new IllegalArgumentException("Channels of different channel groups: " + channels);
+            }
+        }
+        if (chunkRows < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkRows);
+        }
+        this.reader = reader;
+        this.channels = new ArrayList<ChannelSource>(channels);
+        this.chunkRows = chunkRows;
+        this.executor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.Flow.Publisher#subscribe(de.rechner.openatfx_mdf.Flow.Subscriber)
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChannelChunk> subscriber) {
+        ChunkSubscription subscription = new ChunkSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        // signals the completion of an empty channel group without demand
+        subscription.schedule();
+    }
+
+    /**
+     * The subscription of a single subscriber. The drain loop is entered by one thread at a time, a request during the
+     * loop (e.g. from <code>onNext</code>) only increases the demand.
+     */
+    private class ChunkSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super ChannelChunk> subscriber;
+        private final AtomicLong demand;
+        private final AtomicInteger work;
+        private final long rowCount;
+
+        private volatile boolean cancelled;
+        private volatile Throwable badRequest;
+        private long nextRow;
+        private boolean done;
+
+        public ChunkSubscription(Flow.Subscriber<? super ChannelChunk> subscriber) {
+            this.subscriber = subscriber;
+            this.demand = new AtomicLong();
+            this.work = new AtomicInteger();
+            this.rowCount = channels.get(0).getRowCount();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n < 1) {
+                this.badRequest = new IllegalArgumentException("Non-positive number of requested chunks: " + n);
+            } else {
+                long current;
+                long updated;
+                do {
+                    current = this.demand.get();
+                    updated = current + n;
+                    if (updated < 0) { // unbounded
+                        updated = Long.MAX_VALUE;
+                    }
+                } while (!this.demand.compareAndSet(current, updated));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        void schedule() {
+            if (this.work.getAndIncrement() == 0) {
+                if (executor == null) {
+                    run();
+                } else {
+                    executor.execute(this);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = this.work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            while (!this.cancelled && !this.done) {
+                if (this.badRequest != null) {
+                    this.done = true;
+                    this.subscriber.onError(this.badRequest);
+                    return;
+                }
+                if (this.nextRow >= this.rowCount) {
+                    this.done = true;
+                    this.subscriber.onComplete();
+                    return;
+                }
+                if (this.demand.get() == 0) {
+                    return;
+                }
+                ChannelChunk chunk;
+                try {
+                    int rows = (int) Math.min(chunkRows, this.rowCount - this.nextRow);
+                    chunk = readChunk(this.nextRow, rows);
+                } catch (IOException e) {
+                    this.done = true;
+                    this.subscriber.onError(e);
+                    return;
+                } catch (RuntimeException e) {
+                    this.done = true;
+                    this.subscriber.onError(e);
+                    return;
+                }
+                this.nextRow += chunk.getRowCount();
+                if (this.demand.get() != Long.MAX_VALUE) {
+                    this.demand.decrementAndGet();
+                }
+                this.subscriber.onNext(chunk);
+            }
+        }
+
+    }
+
+    private ChannelChunk readChunk(long firstRow, int rowCount) throws IOException {
+        double[][] values = new double[this.channels.size()][rowCount];
+        int rows;
+        synchronized (this.reader) {
+            rows = this.reader.readPhys(this.channels, firstRow, rowCount, values);
+        }
+        if (rows < 1) {
+            throw new IOException("No rows read at row " + firstRow);
+        }
+        return new ChannelChunk(this.channels, firstRow, rows, values);
+    }
+
+}
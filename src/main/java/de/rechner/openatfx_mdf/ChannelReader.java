@@ -0,0 +1,471 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+import de.rechner.openatfx_mdf.util.ChannelSource;
+import de.rechner.openatfx_mdf.util.NumericConversion;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+import de.rechner.openatfx_mdf.util.RecordHandler;
+import de.rechner.openatfx_mdf.util.RecordReader;
+import de.rechner.openatfx_mdf.util.TableLookup;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+
+
+/**
+ * Reader for the values of numeric channels directly from a MDF3 or MDF4 file, without creating a ODS session.
+ * <p>
+ * The values of a row range of a channel are read into a primitive buffer given by the caller, starting at its
+ * position. The buffer may be reused for the next chunk, so a channel of any length can be read with constant memory
+ * and without boxing. A reader must not be shared by several threads.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelReader implements Closeable {
+
+    private static final int RAW_DOUBLE = 0;
+    private static final int PHYS_DOUBLE = 1;
+    private static final int RAW_LONG = 2;
+    private static final int RAW_INT = 3;
+    private static final int TABLE_INDEX = 4;
+    private static final int CODE_INT = 5;
+    private static final int CODE_SHORT = 6;
+
+    private final SeekableByteChannel sbc;
+    private final List<ChannelSource> channels;
+    private final RecordReader recordReader;
+    private final ColumnHandler columnHandler;
+    private final GroupHandler groupHandler;
+
+    private ChannelReader(SeekableByteChannel sbc, List<ChannelSource> channels) {
+        this.sbc = sbc;
+        this.channels = Collections.unmodifiableList(channels);
+        this.recordReader = new RecordReader(sbc);
+        this.columnHandler = new ColumnHandler();
+        this.groupHandler = new GroupHandler();
+    }
+
+    /**
+     * Opens a MDF file for reading channel values.
+     *
+     * @param mdfFile The MDF file.
+     * @return The reader, has to be closed by the caller.
+     * @throws IOException Error reading the file or unsupported file.
+     */
+    public static ChannelReader open(Path mdfFile) throws IOException {
+        SeekableByteChannel sbc = Files.newByteChannel(mdfFile, StandardOpenOption.READ);
+        try {
+            String version = MDFConverter.readMDFVersion(sbc);
+            List<ChannelSource> channels;
+            if (version.startsWith("3")) {
+                de.rechner.openatfx_mdf.mdf3.IDBLOCK idBlock = de.rechner.openatfx_mdf.mdf3.IDBLOCK.read(mdfFile, sbc);
+                channels = de.rechner.openatfx_mdf.mdf3.ChannelSources.read(idBlock);
+            } else if (version.startsWith("4")) {
+                de.rechner.openatfx_mdf.mdf4.IDBLOCK idBlock = de.rechner.openatfx_mdf.mdf4.IDBLOCK.read(mdfFile, sbc);
+                channels = de.rechner.openatfx_mdf.mdf4.ChannelSources.read(idBlock);
+            } else {
+                throw new IOException("Unsupported MDF version: " + version);
+            }
+            return new ChannelReader(sbc, channels);
+        } catch (IOException e) {
+            sbc.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns all numeric channels of the file.
+     *
+     * @return The channels, in file order.
+     */
+    public List<ChannelSource> getChannels() {
+        return this.channels;
+    }
+
+    /**
+     * Returns the first channel having given name.
+     *
+     * @param name The channel name.
+     * @return The channel, null if not found.
+     */
+    public ChannelSource getChannel(String name) {
+        for (ChannelSource channel : this.channels) {
+            if (channel.getName().equals(name)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the channel having given name within a channel group.
+     *
+     * @param groupIndex The index of the channel group.
+     * @param name The channel name.
+     * @return The channel, null if not found.
+     */
+    public ChannelSource getChannel(int groupIndex, String name) {
+        for (ChannelSource channel : this.channels) {
+            if (channel.getGroupIndex() == groupIndex && channel.getName().equals(name)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads raw values into a double buffer.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file.
+     */
+    public int readRaw(ChannelSource channel, long firstRow, DoubleBuffer target) throws IOException {
+        return read(channel, firstRow, target.remaining(), RAW_DOUBLE, target, null, null, null);
+    }
+
+    /**
+     * Reads physical values, the raw values converted by the conversion of the channel, into a double buffer.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file or conversion not supported.
+     */
+    public int readPhys(ChannelSource channel, long firstRow, DoubleBuffer target) throws IOException {
+        if (channel.getConversion() == null) {
+            throw new IOException("Conversion of channel '" + channel.getName() + "' not supported");
+        }
+        return read(channel, firstRow, target.remaining(), PHYS_DOUBLE, target, null, null, null);
+    }
+
+    /**
+     * Reads the raw values of an integer channel into a long buffer. Unsigned 64 bit values above
+     * {@link Long#MAX_VALUE} are negative.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file.
+     * @throws IllegalArgumentException The channel has floating point values.
+     */
+    public int readRaw(ChannelSource channel, long firstRow, LongBuffer target) throws IOException {
+        if (!channel.isInteger()) {
+            throw new IllegalArgumentException("Channel '" + channel.getName() + "' has no integer values");
+        }
+        return read(channel, firstRow, target.remaining(), RAW_LONG, null, target, null, null);
+    }
+
+    /**
+     * Reads the raw values of an integer channel having values fitting into 32 bits into an int buffer.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file.
+     * @throws IllegalArgumentException The values of the channel do not fit into an int.
+     */
+    public int readRaw(ChannelSource channel, long firstRow, IntBuffer target) throws IOException {
+        RawValueDecoder decoder = channel.getDecoder();
+        boolean fits;
+        if (decoder == null) {
+            fits = channel.getRowCount() <= Integer.MAX_VALUE;
+        } else if (decoder.getKind() == RawValueDecoder.SIGNED) {
+            fits = decoder.getBitCount() <= 32;
+        } else {
+            fits = decoder.getKind() == RawValueDecoder.UNSIGNED && decoder.getBitCount() <= 31;
+        }
+        if (!fits) {
+            throw new IllegalArgumentException("Values of channel '" + channel.getName() + "' do not fit into int");
+        }
+        return read(channel, firstRow, target.remaining(), RAW_INT, null, null, target, null);
+    }
+
+    /**
+     * Reads the index of the matching entry of the text conversion table for each row into an int buffer, -1 if the
+     * default text applies. The index refers to the table in file order, e.g. to the texts of a MDF4 value to text
+     * conversion.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file.
+     * @throws IllegalArgumentException The channel has no text conversion.
+     */
+    public int readTableIndices(ChannelSource channel, long firstRow, IntBuffer target) throws IOException {
+        if (channel.getTextLookup() == null) {
+            throw new IllegalArgumentException("Channel '" + channel.getName() + "' has no text conversion");
+        }
+        return read(channel, firstRow, target.remaining(), TABLE_INDEX, null, null, target, null);
+    }
+
+    /**
+     * Reads the text of each row as code of the dictionary of the channel into an int buffer. The texts are resolved
+     * by {@link TextDictionary#getText(int)}.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file.
+     * @throws IllegalArgumentException The channel has no text dictionary.
+     */
+    public int readCodes(ChannelSource channel, long firstRow, IntBuffer target) throws IOException {
+        checkDictionary(channel);
+        return read(channel, firstRow, target.remaining(), CODE_INT, null, null, target, null);
+    }
+
+    /**
+     * Reads the text of each row as code of the dictionary of the channel into a short buffer. The texts are resolved
+     * by {@link TextDictionary#getText(int)}.
+     *
+     * @param channel The channel.
+     * @param firstRow The index of the first row to read.
+     * @param target The target buffer, filled from its position up to its limit or the last row.
+     * @return The number of values read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file.
+     * @throws IllegalArgumentException The channel has no text dictionary or the codes do not fit into a short.
+     */
+    public int readCodes(ChannelSource channel, long firstRow, ShortBuffer target) throws IOException {
+        checkDictionary(channel);
+        if (!channel.getDictionary().isShortCodes()) {
+            throw new IllegalArgumentException("Codes of channel '" + channel.getName() + "' do not fit into short");
+        }
+        return read(channel, firstRow, target.remaining(), CODE_SHORT, null, null, null, target);
+    }
+
+    private static void checkDictionary(ChannelSource channel) {
+        if (channel.getTextLookup() == null || channel.getDictionary() == null) {
+            throw new IllegalArgumentException("Channel '" + channel.getName() + "' has no text dictionary");
+        }
+    }
+
+    /**
+     * Reads the physical values of several channels of the same channel group in a single pass over the records.
+     *
+     * @param channels The channels, all of the same channel group.
+     * @param firstRow The index of the first row to read.
+     * @param rowCount The maximum number of rows to read.
+     * @param targets The target arrays, one per channel, filled starting at index 0.
+     * @return The number of rows read, 0 if the first row is behind the last row.
+     * @throws IOException Error reading the file or conversion not supported.
+     * @throws IllegalArgumentException The channels are not of the same channel group.
+     */
+    public int readPhys(List<ChannelSource> channels, long firstRow, int rowCount, double[][] targets)
+            throws IOException {
+        if (channels.isEmpty()) {
+            return 0;
+        }
+        ChannelSource first = channels.get(0);
+        for (ChannelSource channel : channels) {
+            if (channel.getGroupIndex() != first.getGroupIndex()) {
+                throw new IllegalArgumentException("Channels of different channel groups: " + channels);
+            }
+            if (channel.getConversion() == null) {
+                throw new IOException("Conversion of channel '" + channel.getName() + "' not supported");
+            }
+        }
+        if (firstRow < 0) {
+            throw new IllegalArgumentException("Invalid first row: " + firstRow);
+        }
+        int count = (int) Math.max(0, Math.min(rowCount, first.getRowCount() - firstRow));
+        if (count == 0) {
+            return 0;
+        }
+
+        // virtual channels: the raw value is the row index
+        boolean stored = false;
+        for (int c = 0; c < channels.size(); c++) {
+            ChannelSource channel = channels.get(c);
+            if (channel.isVirtual()) {
+                NumericConversion conversion = channel.getConversion();
+                double[] target = targets[c];
+                for (int i = 0; i < count; i++) {
+                    target[i] = conversion.convert(firstRow + i);
+                }
+            } else {
+                stored = true;
+            }
+        }
+        if (!stored) {
+            return count;
+        }
+
+        GroupHandler handler = this.groupHandler;
+        handler.channels = channels;
+        handler.targets = targets;
+        handler.filled = 0;
+        try {
+            this.recordReader.read(first.getFragments(), first.getRecordSize(), firstRow, count, handler);
+        } finally {
+            handler.channels = null;
+            handler.targets = null;
+        }
+        return count;
+    }
+
+    private int read(ChannelSource channel, long firstRow, int maxCount, int mode, DoubleBuffer doubleTarget,
+            LongBuffer longTarget, IntBuffer intTarget, ShortBuffer shortTarget) throws IOException {
+        if (firstRow < 0) {
+            throw new IllegalArgumentException("Invalid first row: " + firstRow);
+        }
+        int count = (int) Math.max(0, Math.min(maxCount, channel.getRowCount() - firstRow));
+        if (count == 0) {
+            return 0;
+        }
+
+        // virtual channel: the raw value is the row index
+        if (channel.isVirtual()) {
+            NumericConversion conversion = channel.getConversion();
+            for (int i = 0; i < count; i++) {
+                long row = firstRow + i;
+                if (mode == RAW_DOUBLE) {
+                    doubleTarget.put(row);
+                } else if (mode == PHYS_DOUBLE) {
+                    doubleTarget.put(conversion.convert(row));
+                } else if (mode == RAW_LONG) {
+                    longTarget.put(row);
+                } else {
+                    intTarget.put((int) row);
+                }
+            }
+            return count;
+        }
+
+        ColumnHandler handler = this.columnHandler;
+        handler.channel = channel;
+        handler.mode = mode;
+        handler.doubleTarget = doubleTarget;
+        handler.longTarget = longTarget;
+        handler.intTarget = intTarget;
+        handler.shortTarget = shortTarget;
+        try {
+            this.recordReader.read(channel.getFragments(), channel.getRecordSize(), firstRow, count, handler);
+        } finally {
+            handler.channel = null;
+            handler.doubleTarget = null;
+            handler.longTarget = null;
+            handler.intTarget = null;
+            handler.shortTarget = null;
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        this.sbc.close();
+    }
+
+    /**
+     * Record handler decoding the values of a single channel into the target buffer of the current read. The scratch
+     * column is kept for subsequent reads.
+     */
+    private static class ColumnHandler implements RecordHandler {
+
+        private ChannelSource channel;
+        private int mode;
+        private DoubleBuffer doubleTarget;
+        private LongBuffer longTarget;
+        private IntBuffer intTarget;
+        private ShortBuffer shortTarget;
+        private double[] column = new double[0];
+
+        @Override
+        public void handleRecords(byte[] data, int offset, int recordCount, int recordSize) {
+            RawValueDecoder decoder = this.channel.getDecoder();
+            if (this.mode == RAW_LONG) {
+                for (int i = 0; i < recordCount; i++) {
+                    this.longTarget.put(decoder.decodeLong(data, offset + i * recordSize));
+                }
+                return;
+            } else if (this.mode == RAW_INT) {
+                for (int i = 0; i < recordCount; i++) {
+                    this.intTarget.put((int) decoder.decodeLong(data, offset + i * recordSize));
+                }
+                return;
+            }
+
+            if (this.column.length < recordCount) {
+                this.column = new double[recordCount];
+            }
+            decoder.decodeColumn(data, offset, recordCount, recordSize, this.column);
+            if (this.mode == TABLE_INDEX) {
+                TableLookup lookup = this.channel.getTextLookup();
+                for (int i = 0; i < recordCount; i++) {
+                    this.intTarget.put(lookup.indexOf(this.column[i]));
+                }
+                return;
+            } else if (this.mode == CODE_INT) {
+                this.channel.getDictionary().encode(this.channel.getTextLookup(), this.column, recordCount,
+                                                    this.intTarget);
+                return;
+            } else if (this.mode == CODE_SHORT) {
+                this.channel.getDictionary().encode(this.channel.getTextLookup(), this.column, recordCount,
+                                                    this.shortTarget);
+                return;
+            } else if (this.mode == PHYS_DOUBLE) {
+                NumericConversion conversion = this.channel.getConversion();
+                for (int i = 0; i < recordCount; i++) {
+                    this.column[i] = conversion.convert(this.column[i]);
+                }
+            }
+            this.doubleTarget.put(this.column, 0, recordCount);
+        }
+
+    }
+
+    /**
+     * Record handler decoding the physical values of several channels of a channel group into the target arrays of the
+     * current read.
+     */
+    private static class GroupHandler implements RecordHandler {
+
+        private List<ChannelSource> channels;
+        private double[][] targets;
+        private int filled;
+        private double[] column = new double[0];
+
+        @Override
+        public void handleRecords(byte[] data, int offset, int recordCount, int recordSize) {
+            if (this.column.length < recordCount) {
+                this.column = new double[recordCount];
+            }
+            for (int c = 0; c < this.channels.size(); c++) {
+                ChannelSource channel = this.channels.get(c);
+                if (channel.isVirtual()) {
+                    continue;
+                }
+                channel.getDecoder().decodeColumn(data, offset, recordCount, recordSize, this.column);
+                NumericConversion conversion = channel.getConversion();
+                double[] target = this.targets[c];
+                for (int i = 0; i < recordCount; i++) {
+                    target[this.filled + i] = conversion.convert(this.column[i]);
+                }
+            }
+            this.filled += recordCount;
+        }
+
+    }
+
+}
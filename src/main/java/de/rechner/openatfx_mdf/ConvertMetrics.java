@@ -0,0 +1,335 @@
+package de.rechner.openatfx_mdf;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.rechner.openatfx_mdf.util.LatencyHistogram;
+import de.rechner.openatfx_mdf.util.LatencyStatistics;
+
+
+/**
+ * Counters and latency histograms of the conversion and session activity of this JVM, to size and tune a server
+ * without attaching a profiler.
+ * <p>
+ * The counters are updated through the static methods by the block readers, the session writers and the converters;
+ * they are always collected, as an update is a single atomic operation. Calling {@link #register()} makes them
+ * available as MXBean <code>de.rechner.openatfx_mdf:type=ConvertMetrics</code>.
+ * <p>
+ * The block reads and conversion phases are also passed to the installed {@link ConvertTracer}. If the system property
+ * <code>openatfx_mdf.jfr</code> is set to <code>true</code>, the Java Flight Recorder tracer is installed, which is
+ * only available if built with the profile 'java11'.
+ *
+ * @author Christian Rechner
+ */
+public class ConvertMetrics implements ConvertMetricsMXBean {
+
+    private static final Log LOG = LogFactory.getLog(ConvertMetrics.class);
+
+    /** The object name of the MXBean */
+    public static final String OBJECT_NAME = "de.rechner.openatfx_mdf:type=ConvertMetrics";
+
+    /** The system property enabling the Java Flight Recorder events */
+    public static final String PROPERTY_JFR = "openatfx_mdf.jfr";
+
+    private static final String JFR_TRACER_CLASS = "de.rechner.openatfx_mdf.jfr.JfrConvertTracer";
+
+    private static final ConvertMetrics INSTANCE = new ConvertMetrics();
+
+    private static volatile ConvertTracer tracer;
+
+    static {
+        if (Boolean.getBoolean(PROPERTY_JFR)) {
+            installJfrTracer();
+        }
+    }
+
+    private final AtomicLong sessionsOpened;
+    private final AtomicLong filesConverted;
+    private final AtomicLong filesFailed;
+    private final ConcurrentMap<String, AtomicLong> blocksRead;
+    private final AtomicLong blockBytesRead;
+    private final AtomicLong dataBytesRead;
+    private final AtomicLong cacheHits;
+    private final AtomicLong cacheMisses;
+    private final LatencyHistogram blockParseLatency;
+    private final LatencyHistogram xmlParseLatency;
+    private final LatencyHistogram odsWriteLatency;
+    private final AtomicInteger queueDepth;
+
+    /**
+     * Constructor.
+     */
+    ConvertMetrics() {
+        this.sessionsOpened = new AtomicLong();
+        this.filesConverted = new AtomicLong();
+        this.filesFailed = new AtomicLong();
+        this.blocksRead = new ConcurrentHashMap<String, AtomicLong>();
+        this.blockBytesRead = new AtomicLong();
+        this.dataBytesRead = new AtomicLong();
+        this.cacheHits = new AtomicLong();
+        this.cacheMisses = new AtomicLong();
+        this.blockParseLatency = new LatencyHistogram();
+        this.xmlParseLatency = new LatencyHistogram();
+        this.odsWriteLatency = new LatencyHistogram();
+        this.queueDepth = new AtomicInteger();
+    }
+
+    /**
+     * Returns the metrics of this JVM.
+     *
+     * @return The metrics.
+     */
+    public static ConvertMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics at the platform MBean server, does nothing if already registered.
+     */
+    public static void register() {
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            mbs.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            LOG.warn("Unable to register MXBean '" + OBJECT_NAME + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Installs a tracer receiving all block reads and conversion phases.
+     *
+     * @param convertTracer The tracer, null to remove the installed tracer.
+     */
+    public static void setTracer(ConvertTracer convertTracer) {
+        tracer = convertTracer;
+    }
+
+    /**
+     * Returns the installed tracer.
+     *
+     * @return The tracer, null if none installed.
+     */
+    public static ConvertTracer getTracer() {
+        return tracer;
+    }
+
+    /**
+     * Installs the tracer emitting Java Flight Recorder events.
+     *
+     * @return True, if installed, false if not available.
+     */
+    public static boolean installJfrTracer() {
+        try {
+            setTracer((ConvertTracer) Class.forName(JFR_TRACER_CLASS).newInstance());
+            return true;
+        } catch (ClassNotFoundException e) {
+            LOG.warn("Java Flight Recorder events not available, build with profile 'java11'");
+        } catch (InstantiationException e) {
+            LOG.warn("Unable to install Java Flight Recorder tracer: " + e.getMessage());
+        } catch (IllegalAccessException e) {
+            LOG.warn("Unable to install Java Flight Recorder tracer: " + e.getMessage());
+        } catch (LinkageError e) { // e.g. running on java < 11
+            LOG.warn("Unable to install Java Flight Recorder tracer: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Counts an opened ODS session.
+     */
+    public static void sessionOpened() {
+        INSTANCE.sessionsOpened.incrementAndGet();
+    }
+
+    /**
+     * Counts a converted file.
+     *
+     * @param success True, if the file was converted, false if the conversion failed.
+     */
+    public static void fileConverted(boolean success) {
+        if (success) {
+            INSTANCE.filesConverted.incrementAndGet();
+        } else {
+            INSTANCE.filesFailed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts a block read.
+     *
+     * @param type The block type identifier.
+     * @param pos The position of the block within the file.
+     * @param length The length of the block in bytes.
+     * @param startNanos The value of {@link System#nanoTime()} before reading the block.
+     */
+    public static void blockRead(String type, long pos, long length, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        INSTANCE.blockParseLatency.record(nanos);
+        AtomicLong counter = INSTANCE.blocksRead.get(type);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = INSTANCE.blocksRead.putIfAbsent(type, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.incrementAndGet();
+        INSTANCE.blockBytesRead.addAndGet(length);
+        ConvertTracer t = tracer;
+        if (t != null) {
+            t.blockRead(type, pos, length, false, nanos);
+        }
+    }
+
+    /**
+     * Counts bytes of data records read.
+     *
+     * @param length The number of bytes.
+     */
+    public static void dataRead(long length) {
+        INSTANCE.dataBytesRead.addAndGet(length);
+    }
+
+    /**
+     * Counts an access to the conversion cache.
+     *
+     * @param hit True, if the entry was found.
+     */
+    public static void cacheAccess(boolean hit) {
+        if (hit) {
+            INSTANCE.cacheHits.incrementAndGet();
+        } else {
+            INSTANCE.cacheMisses.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the latency of a conversion phase.
+     *
+     * @param phase The name of the phase.
+     * @param nanos The latency in nanoseconds.
+     */
+    static void phaseEnded(String phase, long nanos) {
+        if (ConvertPhase.XML_PARSE.equals(phase)) {
+            INSTANCE.xmlParseLatency.record(nanos);
+        } else if (ConvertPhase.WRITE_TST.equals(phase)) {
+            INSTANCE.odsWriteLatency.record(nanos);
+        }
+    }
+
+    /**
+     * Counts a file queued for conversion.
+     */
+    public static void fileQueued() {
+        INSTANCE.queueDepth.incrementAndGet();
+    }
+
+    /**
+     * Counts a queued file whose conversion started (or was cancelled).
+     */
+    public static void fileDequeued() {
+        INSTANCE.queueDepth.decrementAndGet();
+    }
+
+    @Override
+    public long getSessionsOpened() {
+        return this.sessionsOpened.get();
+    }
+
+    @Override
+    public long getFilesConverted() {
+        return this.filesConverted.get();
+    }
+
+    @Override
+    public long getFilesFailed() {
+        return this.filesFailed.get();
+    }
+
+    @Override
+    public Map<String, Long> getBlocksRead() {
+        Map<String, Long> map = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : this.blocksRead.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().get());
+        }
+        return map;
+    }
+
+    @Override
+    public long getBlockBytesRead() {
+        return this.blockBytesRead.get();
+    }
+
+    @Override
+    public long getDataBytesRead() {
+        return this.dataBytesRead.get();
+    }
+
+    @Override
+    public long getConversionCacheHits() {
+        return this.cacheHits.get();
+    }
+
+    @Override
+    public long getConversionCacheMisses() {
+        return this.cacheMisses.get();
+    }
+
+    @Override
+    public double getConversionCacheHitRate() {
+        long hits = this.cacheHits.get();
+        long total = hits + this.cacheMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public LatencyStatistics getBlockParseLatency() {
+        return this.blockParseLatency.getStatistics();
+    }
+
+    @Override
+    public LatencyStatistics getXmlParseLatency() {
+        return this.xmlParseLatency.getStatistics();
+    }
+
+    @Override
+    public LatencyStatistics getOdsWriteLatency() {
+        return this.odsWriteLatency.getStatistics();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    @Override
+    public void reset() {
+        this.sessionsOpened.set(0);
+        this.filesConverted.set(0);
+        this.filesFailed.set(0);
+        this.blocksRead.clear();
+        this.blockBytesRead.set(0);
+        this.dataBytesRead.set(0);
+        this.cacheHits.set(0);
+        this.cacheMisses.set(0);
+        this.blockParseLatency.reset();
+        this.xmlParseLatency.reset();
+        this.odsWriteLatency.reset();
+    }
+
+}
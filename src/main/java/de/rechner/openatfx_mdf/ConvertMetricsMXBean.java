@@ -0,0 +1,113 @@
+package de.rechner.openatfx_mdf;
+
+import java.util.Map;
+
+import de.rechner.openatfx_mdf.util.LatencyStatistics;
+
+
+/**
+ * Management interface of the {@link ConvertMetrics}, registered as
+ * <code>de.rechner.openatfx_mdf:type=ConvertMetrics</code>.
+ *
+ * @author Christian Rechner
+ */
+public interface ConvertMetricsMXBean {
+
+    /**
+     * Returns the number of ODS sessions opened on MDF files.
+     *
+     * @return The number of sessions.
+     */
+    long getSessionsOpened();
+
+    /**
+     * Returns the number of MDF files converted to ATFX.
+     *
+     * @return The number of files.
+     */
+    long getFilesConverted();
+
+    /**
+     * Returns the number of MDF files failed to convert.
+     *
+     * @return The number of files.
+     */
+    long getFilesFailed();
+
+    /**
+     * Returns the number of blocks read, by block type (e.g. "##CN" for MDF4, "CN" for MDF3).
+     *
+     * @return The number of blocks by type.
+     */
+    Map<String, Long> getBlocksRead();
+
+    /**
+     * Returns the number of bytes of blocks read.
+     *
+     * @return The number of bytes.
+     */
+    long getBlockBytesRead();
+
+    /**
+     * Returns the number of bytes of data records read.
+     *
+     * @return The number of bytes.
+     */
+    long getDataBytesRead();
+
+    /**
+     * Returns the number of conversions and lookup tables found in the conversion cache.
+     *
+     * @return The number of hits.
+     */
+    long getConversionCacheHits();
+
+    /**
+     * Returns the number of conversions and lookup tables not found in the conversion cache.
+     *
+     * @return The number of misses.
+     */
+    long getConversionCacheMisses();
+
+    /**
+     * Returns the ratio of conversion cache hits to all accesses.
+     *
+     * @return The hit rate between 0 and 1, 0 if the cache was not accessed.
+     */
+    double getConversionCacheHitRate();
+
+    /**
+     * Returns the latencies of reading and parsing a single block.
+     *
+     * @return The latency statistics.
+     */
+    LatencyStatistics getBlockParseLatency();
+
+    /**
+     * Returns the latencies of parsing the XML content of a MDBLOCK and writing it to the session.
+     *
+     * @return The latency statistics.
+     */
+    LatencyStatistics getXmlParseLatency();
+
+    /**
+     * Returns the latencies of writing the content of a MDF file to a ODS session, including the block and XML
+     * parsing.
+     *
+     * @return The latency statistics.
+     */
+    LatencyStatistics getOdsWriteLatency();
+
+    /**
+     * Returns the number of files waiting for conversion by the batch converter or the watch folder service.
+     *
+     * @return The number of waiting files.
+     */
+    int getQueueDepth();
+
+    /**
+     * Resets all counters and histograms, except the queue depth.
+     */
+    void reset();
+
+}
@@ -0,0 +1,400 @@
+package de.rechner.openatfx_mdf;
+
+import de.rechner.openatfx_mdf.util.MinMaxPyramid;
+import de.rechner.openatfx_mdf.util.NameFilter;
+import de.rechner.openatfx_mdf.util.TimeIndex;
+import de.rechner.openatfx_mdf.util.ZoneMap;
+
+
+/**
+ * Options controlling the conversion of an MDF file.
+ * <p>
+ * By default only the header information of the MDF file is converted. Options requiring a pass over the measurement
+ * data have to be enabled explicitly. The channels and channel groups to convert may be limited by name filters, see
+ * {@link NameFilter} for the syntax.
+ *
+ * @author Christian Rechner
+ */
+public class ConvertOptions {
+
+    /** Session parameter name to enable the channel statistics */
+    public static final String PARAM_STATISTICS = "STATISTICS";
+
+    /** Session parameter name to enable the min/max preview pyramid */
+    public static final String PARAM_PREVIEW = "PREVIEW";
+
+    /** Session parameter name for the comma separated reduction factors of the preview pyramid */
+    public static final String PARAM_PREVIEW_FACTORS = "PREVIEW_FACTORS";
+
+    /** Session parameter name for the maximum number of buckets of a preview pyramid level */
+    public static final String PARAM_PREVIEW_MAX_BUCKETS = "PREVIEW_MAX_BUCKETS";
+
+    /** Session parameter name to enable the time index */
+    public static final String PARAM_TIME_INDEX = "TIME_INDEX";
+
+    /** Session parameter name for the number of rows between two time index entries */
+    public static final String PARAM_TIME_INDEX_STRIDE = "TIME_INDEX_STRIDE";
+
+    /** Session parameter name to enable the zone maps */
+    public static final String PARAM_ZONE_MAP = "ZONE_MAP";
+
+    /** Session parameter name for the number of rows of a zone map chunk */
+    public static final String PARAM_ZONE_MAP_ROWS = "ZONE_MAP_ROWS";
+
+    /** Session parameter name for the filter of the channel names */
+    public static final String PARAM_CHANNELS = "CHANNELS";
+
+    /** Session parameter name for the filter of the channel group names */
+    public static final String PARAM_GROUPS = "GROUPS";
+
+    /** Session parameter name to enable the detection of equidistant master channels */
+    public static final String PARAM_IMPLICIT_LINEAR = "IMPLICIT_LINEAR";
+
+    /** Session parameter name to enable the detection of constant channels */
+    public static final String PARAM_IMPLICIT_CONSTANT = "IMPLICIT_CONSTANT";
+
+    /** Session parameter name to enable the recovery of unfinalized MDF4 files */
+    public static final String PARAM_RECOVER_UNFINALIZED = "RECOVER_UNFINALIZED";
+
+    /** Session parameter name to enable writing each lookup table only once */
+    public static final String PARAM_SHARED_LOOKUP_TABLES = "SHARED_LOOKUP_TABLES";
+
+    // compute and write channel statistics
+    private boolean statistics;
+
+    // build and write the min/max preview pyramid
+    private boolean preview;
+    private int[] previewFactors;
+    private int previewMaxBuckets;
+
+    // build and write the time index
+    private boolean timeIndex;
+    private int timeIndexStride;
+
+    // build and write the zone maps
+    private boolean zoneMap;
+    private int zoneMapRows;
+
+    // the channels and channel groups to convert
+    private NameFilter channelFilter;
+    private NameFilter groupFilter;
+
+    // write equidistant master channels as implicit linear columns
+    private boolean implicitLinear;
+
+    // write constant channels as implicit constant columns
+    private boolean implicitConstant;
+
+    // read unfinalized MDF4 files by repairing the block model in memory
+    private boolean recoverUnfinalized;
+
+    // write each lookup table only once, shared by all channels using it
+    private boolean sharedLookupTables;
+
+    /**
+     * Constructor using default options.
+     */
+    public ConvertOptions() {
+        this.statistics = false;
+        this.preview = false;
+        this.previewFactors = MinMaxPyramid.DEFAULT_FACTORS;
+        this.previewMaxBuckets = MinMaxPyramid.DEFAULT_MAX_BUCKETS;
+        this.timeIndex = false;
+        this.timeIndexStride = TimeIndex.DEFAULT_STRIDE;
+        this.zoneMap = false;
+        this.zoneMapRows = ZoneMap.DEFAULT_CHUNK_ROWS;
+        this.channelFilter = NameFilter.ALL;
+        this.groupFilter = NameFilter.ALL;
+        this.implicitLinear = false;
+        this.implicitConstant = false;
+        this.recoverUnfinalized = false;
+        this.sharedLookupTables = false;
+    }
+
+    /**
+     * Returns whether the channel statistics (min, max, mean, standard deviation, NaN count, first and last master
+     * value) will be computed and written to the 'AoLocalColumn' and 'AoMeasurementQuantity' instances. This requires
+     * a pass over the data of each channel group.
+     *
+     * @return True, if statistics are enabled.
+     */
+    public boolean isStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(boolean statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns whether a min/max pyramid of each channel will be built and written as preview 'AoMeasurement', having
+     * one 'AoSubMatrix' per channel group and reduction factor.
+     *
+     * @return True, if the preview is enabled.
+     */
+    public boolean isPreview() {
+        return preview;
+    }
+
+    public void setPreview(boolean preview) {
+        this.preview = preview;
+    }
+
+    public int[] getPreviewFactors() {
+        return previewFactors.clone();
+    }
+
+    /**
+     * Sets the reduction factors of the preview pyramid levels.
+     *
+     * @param previewFactors The factors, increasing and each a multiple of the previous one.
+     * @throws IllegalArgumentException if the factors are not valid.
+     */
+    public void setPreviewFactors(int[] previewFactors) {
+        MinMaxPyramid.checkFactors(previewFactors);
+        this.previewFactors = previewFactors.clone();
+    }
+
+    public int getPreviewMaxBuckets() {
+        return previewMaxBuckets;
+    }
+
+    /**
+     * Sets the maximum number of buckets of a preview pyramid level. The buckets are kept in memory until the channel
+     * group has been read; a level having more buckets is not written.
+     *
+     * @param previewMaxBuckets The maximum number of buckets, at least 1.
+     * @throws IllegalArgumentException if the number of buckets is not valid.
+     */
+    public void setPreviewMaxBuckets(int previewMaxBuckets) {
+        if (previewMaxBuckets < 1) {
+            throw new IllegalArgumentException("Invalid preview maximum buckets: " + previewMaxBuckets);
+        }
+        this.previewMaxBuckets = previewMaxBuckets;
+    }
+
+    /**
+     * Returns whether a sparse index over the master channel of each channel group will be built, allowing to map a
+     * master value range to the range of rows.
+     *
+     * @return True, if the time index is enabled.
+     */
+    public boolean isTimeIndex() {
+        return timeIndex;
+    }
+
+    public void setTimeIndex(boolean timeIndex) {
+        this.timeIndex = timeIndex;
+    }
+
+    public int getTimeIndexStride() {
+        return timeIndexStride;
+    }
+
+    /**
+     * Sets the number of rows between two time index entries.
+     *
+     * @param timeIndexStride The stride, at least 1.
+     * @throws IllegalArgumentException if the stride is not valid.
+     */
+    public void setTimeIndexStride(int timeIndexStride) {
+        if (timeIndexStride < 1) {
+            throw new IllegalArgumentException("Invalid time index stride: " + timeIndexStride);
+        }
+        this.timeIndexStride = timeIndexStride;
+    }
+
+    /**
+     * Returns whether a zone map (minimum and maximum value per chunk of rows) of each channel will be built, allowing
+     * to skip chunks not matching a range predicate.
+     *
+     * @return True, if the zone maps are enabled.
+     */
+    public boolean isZoneMap() {
+        return zoneMap;
+    }
+
+    public void setZoneMap(boolean zoneMap) {
+        this.zoneMap = zoneMap;
+    }
+
+    public int getZoneMapRows() {
+        return zoneMapRows;
+    }
+
+    /**
+     * Sets the number of rows of a zone map chunk.
+     *
+     * @param zoneMapRows The number of rows, at least 1.
+     * @throws IllegalArgumentException if the number of rows is not valid.
+     */
+    public void setZoneMapRows(int zoneMapRows) {
+        if (zoneMapRows < 1) {
+            throw new IllegalArgumentException("Invalid zone map rows: " + zoneMapRows);
+        }
+        this.zoneMapRows = zoneMapRows;
+    }
+
+    /**
+     * Returns the filter of the channels to convert. Channels not accepted get neither an 'AoLocalColumn' nor an
+     * 'AoExternalComponent' instance and are not decoded. Master channels are always converted.
+     *
+     * @return The channel filter, {@link NameFilter#ALL} by default.
+     */
+    public NameFilter getChannelFilter() {
+        return channelFilter;
+    }
+
+    public void setChannelFilter(NameFilter channelFilter) {
+        this.channelFilter = channelFilter;
+    }
+
+    /**
+     * Returns the filter of the channel groups to convert, matched against the 'AoSubMatrix' name (e.g.
+     * <code>sm_00001</code>) and the acquisition name or comment of the channel group. Channel groups not accepted are
+     * skipped entirely; the remaining 'AoSubMatrix' instances keep their names.
+     *
+     * @return The channel group filter, {@link NameFilter#ALL} by default.
+     */
+    public NameFilter getGroupFilter() {
+        return groupFilter;
+    }
+
+    public void setGroupFilter(NameFilter groupFilter) {
+        this.groupFilter = groupFilter;
+    }
+
+    /**
+     * Returns whether the stored master channels will be checked for equidistant values, which are then written as
+     * 'implicit_linear' local columns without external component. Virtual master channels are always written as
+     * 'implicit_linear' local columns, as their values are not stored at all.
+     *
+     * @return True, if the detection of equidistant master channels is enabled.
+     */
+    public boolean isImplicitLinear() {
+        return implicitLinear;
+    }
+
+    public void setImplicitLinear(boolean implicitLinear) {
+        this.implicitLinear = implicitLinear;
+    }
+
+    /**
+     * Returns whether the channels will be checked for having the same value in all records, which are then written
+     * as 'implicit_constant' local columns without external component. Master channels are not checked.
+     *
+     * @return True, if the detection of constant channels is enabled.
+     */
+    public boolean isImplicitConstant() {
+        return implicitConstant;
+    }
+
+    public void setImplicitConstant(boolean implicitConstant) {
+        this.implicitConstant = implicitConstant;
+    }
+
+    /**
+     * Returns whether unfinalized MDF4 files (e.g. left by a crashed logger) will be read by repairing the cycle
+     * counts, the length of the last data block and open data lists in memory, without modifying the file. Otherwise
+     * unfinalized files are rejected.
+     *
+     * @return True, if the recovery is enabled.
+     */
+    public boolean isRecoverUnfinalized() {
+        return recoverUnfinalized;
+    }
+
+    public void setRecoverUnfinalized(boolean recoverUnfinalized) {
+        this.recoverUnfinalized = recoverUnfinalized;
+    }
+
+    /**
+     * Returns whether identical lookup tables (MDF3 formulas 11 and 12) will be written only once as 'AoSubMatrix',
+     * shared by all channels using the same conversion block or a conversion block having the same content.
+     * <p>
+     * This changes the structure of the lookup 'AoMeasurement': by default each channel with a lookup table gets its
+     * own lookup 'AoSubMatrix' named after the channel. With shared lookup tables only the first channel using a table
+     * has a lookup 'AoSubMatrix' named after it; every channel references its lookup 'AoSubMatrix' by the instance
+     * attribute {@value de.rechner.openatfx_mdf.util.LookupTableHelper#ATTR_LOOKUP_SM} of its 'AoLocalColumn'.
+     *
+     * @return True, if lookup tables are shared.
+     */
+    public boolean isSharedLookupTables() {
+        return sharedLookupTables;
+    }
+
+    public void setSharedLookupTables(boolean sharedLookupTables) {
+        this.sharedLookupTables = sharedLookupTables;
+    }
+
+    /**
+     * Returns whether any option requires a pass over the measurement data.
+     *
+     * @return True, if the data has to be read.
+     */
+    public boolean isDataScanRequired() {
+        return this.statistics || this.preview || this.timeIndex || this.zoneMap || this.implicitLinear
+                || this.implicitConstant;
+    }
+
+    /**
+     * Sets an option by its session parameter name, e.g. <code>STATISTICS=true</code>.
+     *
+     * @param name The parameter name, case insensitive.
+     * @param value The value.
+     * @return True, if the parameter is a known option.
+     * @throws IllegalArgumentException if the value is not valid.
+     */
+    public boolean setOption(String name, String value) {
+        if (name.equalsIgnoreCase(PARAM_STATISTICS)) {
+            this.statistics = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_PREVIEW)) {
+            this.preview = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_PREVIEW_FACTORS)) {
+            String[] parts = value.split(",");
+            int[] factors = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                factors[i] = Integer.parseInt(parts[i].trim());
+            }
+            setPreviewFactors(factors);
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_PREVIEW_MAX_BUCKETS)) {
+            setPreviewMaxBuckets(Integer.parseInt(value.trim()));
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_TIME_INDEX)) {
+            this.timeIndex = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_TIME_INDEX_STRIDE)) {
+            setTimeIndexStride(Integer.parseInt(value.trim()));
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_ZONE_MAP)) {
+            this.zoneMap = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_ZONE_MAP_ROWS)) {
+            setZoneMapRows(Integer.parseInt(value.trim()));
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_CHANNELS)) {
+            this.channelFilter = NameFilter.parse(value);
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_GROUPS)) {
+            this.groupFilter = NameFilter.parse(value);
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_IMPLICIT_LINEAR)) {
+            this.implicitLinear = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_IMPLICIT_CONSTANT)) {
+            this.implicitConstant = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_RECOVER_UNFINALIZED)) {
+            this.recoverUnfinalized = Boolean.parseBoolean(value.trim());
+            return true;
+        } else if (name.equalsIgnoreCase(PARAM_SHARED_LOOKUP_TABLES)) {
+            this.sharedLookupTables = Boolean.parseBoolean(value.trim());
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.rechner.openatfx_mdf;
+
+/**
+ * A timed phase of a conversion. The latency of a phase is recorded in the {@link ConvertMetrics} and the phase is
+ * reported to the installed {@link ConvertTracer}. A phase left by an exception is not reported.
+ *
+ * @author Christian Rechner
+ */
+public final class ConvertPhase {
+
+    /** Writing the 'AoTest' instance and all its children */
+    public static final String WRITE_TST = "writeTst";
+
+    /** Writing the 'AoMeasurement' instance and all its children */
+    public static final String WRITE_MEA = "writeMea";
+
+    /** Writing the 'AoSubMatrix' instances and all their children */
+    public static final String WRITE_SM = "writeSm";
+
+    /** Writing the 'AoLocalColumn' instances of a submatrix */
+    public static final String WRITE_LC = "writeLc";
+
+    /** Parsing the XML content of a MDBLOCK */
+    public static final String XML_PARSE = "xmlParse";
+
+    /** Writing a lookup table measurement */
+    public static final String LOOKUP_TABLE = "lookupTable";
+
+    private final String name;
+    private final long startNanos;
+    private final ConvertTracer tracer;
+    private final Object traceContext;
+
+    private ConvertPhase(String name, long startNanos, ConvertTracer tracer, Object traceContext) {
+        this.name = name;
+        this.startNanos = startNanos;
+        this.tracer = tracer;
+        this.traceContext = traceContext;
+    }
+
+    /**
+     * Begins a phase.
+     *
+     * @param name The name of the phase.
+     * @param detail The object of the phase (e.g. the file or submatrix name), may be null.
+     * @return The phase.
+     */
+    public static ConvertPhase begin(String name, String detail) {
+        ConvertTracer tracer = ConvertMetrics.getTracer();
+        Object traceContext = (tracer == null) ? null : tracer.beginPhase(name, detail);
+        return new ConvertPhase(name, System.nanoTime(), tracer, traceContext);
+    }
+
+    /**
+     * Ends the phase.
+     */
+    public void end() {
+        ConvertMetrics.phaseEnded(this.name, System.nanoTime() - this.startNanos);
+        if (this.tracer != null) {
+            this.tracer.endPhase(this.traceContext);
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package de.rechner.openatfx_mdf;
+
+/**
+ * Summary of the conversion of an MDF file, logged after the conversion.
+ *
+ * @author Christian Rechner
+ */
+public class ConvertSummary {
+
+    private int groupCount;
+    private int channelCount;
+    private int implicitLinearCount;
+    private int implicitConstantCount;
+
+    /**
+     * Counts a converted channel group.
+     */
+    public void addGroup() {
+        this.groupCount++;
+    }
+
+    /**
+     * Counts a converted channel.
+     */
+    public void addChannel() {
+        this.channelCount++;
+    }
+
+    /**
+     * Counts a channel written as 'implicit_linear' local column.
+     */
+    public void addImplicitLinear() {
+        this.implicitLinearCount++;
+    }
+
+    /**
+     * Counts a channel written as 'implicit_constant' local column.
+     */
+    public void addImplicitConstant() {
+        this.implicitConstantCount++;
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    public int getImplicitLinearCount() {
+        return implicitLinearCount;
+    }
+
+    public int getImplicitConstantCount() {
+        return implicitConstantCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "groups=" + groupCount + ", channels=" + channelCount + ", implicit_linear=" + implicitLinearCount
+                + ", implicit_constant=" + implicitConstantCount;
+    }
+
+}
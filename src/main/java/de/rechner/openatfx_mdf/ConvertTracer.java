@@ -0,0 +1,38 @@
+package de.rechner.openatfx_mdf;
+
+/**
+ * Hook receiving the block reads and the phases of a conversion, e.g. to emit Java Flight Recorder events. A tracer is
+ * installed by {@link ConvertMetrics#setTracer(ConvertTracer)} and called by many threads concurrently.
+ *
+ * @author Christian Rechner
+ */
+public interface ConvertTracer {
+
+    /**
+     * Called after a block has been read.
+     *
+     * @param type The block type identifier.
+     * @param pos The position of the block within the file.
+     * @param length The length of the block in bytes.
+     * @param cacheHit True, if the block was not read from the file. Blocks are currently always read from the file.
+     * @param parseNanos The time of reading and parsing the block in nanoseconds.
+     */
+    void blockRead(String type, long pos, long length, boolean cacheHit, long parseNanos);
+
+    /**
+     * Called at the begin of a phase of the conversion.
+     *
+     * @param phase The name of the phase, see the constants of {@link ConvertPhase}.
+     * @param detail The object of the phase (e.g. the file or submatrix name), may be null.
+     * @return The context passed to {@link #endPhase(Object)}, may be null.
+     */
+    Object beginPhase(String phase, String detail);
+
+    /**
+     * Called at the successful end of a phase.
+     *
+     * @param context The context returned by {@link #beginPhase(String, String)}.
+     */
+    void endPhase(Object context);
+
+}
@@ -0,0 +1,82 @@
+package de.rechner.openatfx_mdf;
+
+/**
+ * The reactive streams interfaces having the same signatures as <code>java.util.concurrent.Flow</code> of Java 9, which
+ * is not available for the Java 7 target of this library. Adapting to the JDK interfaces only requires delegating the
+ * methods.
+ *
+ * @author Christian Rechner
+ */
+public abstract class Flow {
+
+    /**
+     * A producer of items received by subscribers.
+     *
+     * @param <T> The item type.
+     */
+    public static interface Publisher<T> {
+
+        /**
+         * Adds a subscriber, the subscriber receives a {@link Subscription} by {@link Subscriber#onSubscribe}.
+         *
+         * @param subscriber The subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+
+    }
+
+    /**
+     * A receiver of items, items are only received after requesting them.
+     *
+     * @param <T> The item type.
+     */
+    public static interface Subscriber<T> {
+
+        /**
+         * Called before any other method for a new subscription.
+         *
+         * @param subscription The subscription.
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called with the next item, at most as often as requested.
+         *
+         * @param item The item.
+         */
+        void onNext(T item);
+
+        /**
+         * Called on an unrecoverable error, no other methods are called afterwards.
+         *
+         * @param throwable The error.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Called when all items have been received, no other methods are called afterwards.
+         */
+        void onComplete();
+
+    }
+
+    /**
+     * The link between a publisher and a subscriber.
+     */
+    public static interface Subscription {
+
+        /**
+         * Adds given number of items to the demand of the subscriber.
+         *
+         * @param n The number of items, a value less than 1 signals an error.
+         */
+        void request(long n);
+
+        /**
+         * Stops sending items to the subscriber.
+         */
+        void cancel();
+
+    }
+
+}
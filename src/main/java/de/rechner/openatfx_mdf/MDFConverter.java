@@ -80,6 +80,18 @@ public class MDFConverter {
         }
     }
 
+    /**
+     * Returns the path of the ATFX header file written for a MDF file: the same file name with suffix '.atfx' in the
+     * same directory.
+     * 
+     * @param mdfPath The MDF file.
+     * @return The ATFX file.
+     */
+    public static Path getATFXPath(Path mdfPath) {
+        String fileName = FileUtil.getFileNameWithoutExtension(mdfPath.getFileName().toString()) + ".atfx";
+        return mdfPath.resolveSibling(fileName);
+    }
+
     /**
      * Writes the ATFX header file for given ATFX.<br/>
      * The file will get the same file name as the MDF file with suffix '.atfx'.<br/>
@@ -90,21 +102,50 @@ public class MDFConverter {
      * @throws ConvertException
      */
     public void writeATFXHeader(ORB orb, Path mdfPath) throws ConvertException {
+        writeATFXHeader(orb, mdfPath, new ConvertOptions());
+    }
+
+    /**
+     * Writes the ATFX header file for given ATFX using given conversion options.
+     * <p>
+     * If the conversion fails, the ATFX header file is deleted, so a later run does not consider the MDF file as
+     * converted.
+     * 
+     * @param orb The ORB.
+     * @param mdfPath The source file, may point to a MDF3 or MDF4 file.
+     * @param options The conversion options.
+     * @throws ConvertException
+     */
+    public void writeATFXHeader(ORB orb, Path mdfPath, ConvertOptions options) throws ConvertException {
         if (orb == null) {
             throw new ConvertException("orb must not be null!");
         }
         if (mdfPath == null) {
             throw new ConvertException("mdfFile must not be null!");
         }
+        if (options == null) {
+            throw new ConvertException("options must not be null!");
+        }
 
+        // obtain target file name, overwrite if existing
+        File targetAtfxFile = getATFXPath(mdfPath).toFile();
+        boolean written = false;
+        try {
+            writeATFXHeader(orb, mdfPath, options, targetAtfxFile);
+            written = true;
+        } finally {
+            if (!written && targetAtfxFile.exists() && !targetAtfxFile.delete()) {
+                LOG.warn("Unable to delete ATFX header '" + targetAtfxFile + "' of failed conversion");
+            }
+        }
+    }
+
+    private void writeATFXHeader(ORB orb, Path mdfPath, ConvertOptions options, File targetAtfxFile)
+            throws ConvertException {
         long start = System.currentTimeMillis();
         AoSession aoSession = null;
         SeekableByteChannel sbc = null;
         try {
-            // obtain target file name, overwrite if existing
-            File mdfFile = mdfPath.toFile();
-            String fileName = FileUtil.getFileNameWithoutExtension(mdfFile.getName()) + ".atfx";
-            File targetAtfxFile = new File(mdfFile.getParentFile(), fileName);
             copyATFXfromTemplate(targetAtfxFile);
 
             // create new AoSession
@@ -116,27 +157,37 @@ public class MDFConverter {
 
             // open MDF file
             sbc = Files.newByteChannel(mdfPath, StandardOpenOption.READ);
+            if (options.isRecoverUnfinalized()) {
+                sbc = de.rechner.openatfx_mdf.mdf4.MDF4Recovery.recover(sbc);
+            }
 
             // check whether MDF3 or MDF4 and write MDF content to session
             String version = readMDFVersion(sbc);
+            ConvertSummary summary = null;
             if (version.startsWith("3")) {
-                de.rechner.openatfx_mdf.mdf3.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf3.AoSessionWriter();
+                de.rechner.openatfx_mdf.mdf3.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf3.AoSessionWriter(options);
                 de.rechner.openatfx_mdf.mdf3.IDBLOCK idBlock = de.rechner.openatfx_mdf.mdf3.IDBLOCK.read(mdfPath, sbc);
                 writer.writeTst(modelCache, idBlock);
+                summary = writer.getSummary();
             } else if (version.startsWith("4")) {
-                de.rechner.openatfx_mdf.mdf4.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf4.AoSessionWriter();
+                de.rechner.openatfx_mdf.mdf4.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf4.AoSessionWriter(options);
                 de.rechner.openatfx_mdf.mdf4.IDBLOCK idBlock = de.rechner.openatfx_mdf.mdf4.IDBLOCK.read(mdfPath, sbc);
                 writer.writeTst(modelCache, idBlock);
+                summary = writer.getSummary();
             }
 
             aoSession.commitTransaction();
 
             LOG.info("Wrote ATFX header '" + targetAtfxFile + "' in " + (System.currentTimeMillis() - start) + "ms");
+            logSummary(summary);
+            ConvertMetrics.fileConverted(true);
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
+            ConvertMetrics.fileConverted(false);
             throw new ConvertException(e.getMessage(), e);
         } catch (AoException e) {
             LOG.error(e.reason, e);
+            ConvertMetrics.fileConverted(false);
             throw new ConvertException(e.reason, e);
         } finally {
             if (sbc != null) {
@@ -167,12 +218,28 @@ public class MDFConverter {
      * @throws ConvertException Error opening the session.
      */
     public AoSession getAoSessionForMDF(ORB orb, Path mdfPath) throws ConvertException {
+        return getAoSessionForMDF(orb, mdfPath, new ConvertOptions());
+    }
+
+    /**
+     * Opens an MDF file using given conversion options.
+     * 
+     * @param orb The ORB.
+     * @param mdfPath The source file, may point to a MDF3 or MDF4 file.
+     * @param options The conversion options.
+     * @return The ASAM ODS session object.
+     * @throws ConvertException Error opening the session.
+     */
+    public AoSession getAoSessionForMDF(ORB orb, Path mdfPath, ConvertOptions options) throws ConvertException {
         if (orb == null) {
             throw new ConvertException("orb must not be null!");
         }
         if (mdfPath == null) {
             throw new ConvertException("mdfFile must not be null!");
         }
+        if (options == null) {
+            throw new ConvertException("options must not be null!");
+        }
 
         long start = System.currentTimeMillis();
         SeekableByteChannel sbc = null;
@@ -186,20 +253,28 @@ public class MDFConverter {
 
             // open MDF file
             sbc = Files.newByteChannel(mdfPath, StandardOpenOption.READ);
+            if (options.isRecoverUnfinalized()) {
+                sbc = de.rechner.openatfx_mdf.mdf4.MDF4Recovery.recover(sbc);
+            }
 
             // check whether MDF3 or MDF4
             String version = readMDFVersion(sbc);
+            ConvertSummary summary = null;
             if (version.startsWith("3")) {
-                de.rechner.openatfx_mdf.mdf3.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf3.AoSessionWriter();
+                de.rechner.openatfx_mdf.mdf3.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf3.AoSessionWriter(options);
                 de.rechner.openatfx_mdf.mdf3.IDBLOCK idBlock = de.rechner.openatfx_mdf.mdf3.IDBLOCK.read(mdfPath, sbc);
                 writer.writeTst(modelCache, idBlock);
+                summary = writer.getSummary();
             } else if (version.startsWith("4")) {
-                de.rechner.openatfx_mdf.mdf4.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf4.AoSessionWriter();
+                de.rechner.openatfx_mdf.mdf4.AoSessionWriter writer = new de.rechner.openatfx_mdf.mdf4.AoSessionWriter(options);
                 de.rechner.openatfx_mdf.mdf4.IDBLOCK idBlock = de.rechner.openatfx_mdf.mdf4.IDBLOCK.read(mdfPath, sbc);
                 writer.writeTst(modelCache, idBlock);
+                summary = writer.getSummary();
             }
 
             LOG.info("Read MDF header in " + (System.currentTimeMillis() - start) + "ms");
+            logSummary(summary);
+            ConvertMetrics.sessionOpened();
             return aoSession;
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
@@ -219,6 +294,44 @@ public class MDFConverter {
         }
     }
 
+    /**
+     * Logs the summary of a conversion.
+     * 
+     * @param summary The summary, null if the MDF version is not supported.
+     */
+    private static void logSummary(ConvertSummary summary) {
+        if (summary != null) {
+            LOG.info("Conversion summary: " + summary);
+        }
+    }
+
+    /**
+     * Returns whether the MDF file read from the byte channel is finalized: the file identifier is not "UnFinMF " and no
+     * standard or custom unfinalized flags are set (MDF 3.3 and MDF4).
+     * 
+     * @param sbc The byte channel.
+     * @return True, if finalized.
+     * @throws IOException Error reading from channel.
+     */
+    static boolean isFinalized(SeekableByteChannel sbc) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(64);
+        bb.order(ByteOrder.LITTLE_ENDIAN);
+        sbc.position(0);
+        while (bb.hasRemaining()) {
+            if (sbc.read(bb) < 0) { // header not yet complete
+                return false;
+            }
+        }
+        byte[] b = new byte[8];
+        bb.rewind();
+        bb.get(b);
+        if (new String(b, "ISO-8859-1").equals("UnFinMF ")) {
+            return false;
+        }
+        // UINT16: id_unfin_flags, UINT16: id_custom_unfin_flags
+        return bb.getShort(60) == 0 && bb.getShort(62) == 0;
+    }
+
     /**
      * Reads the MDF version string from the byte channel.
      * 
@@ -226,7 +339,7 @@ public class MDFConverter {
      * @return The MDF version string.
      * @throws IOException Error reading from channel.
      */
-    private static String readMDFVersion(SeekableByteChannel sbc) throws IOException {
+    static String readMDFVersion(SeekableByteChannel sbc) throws IOException {
         // read block
         ByteBuffer bb = ByteBuffer.allocate(64);
         bb.order(ByteOrder.LITTLE_ENDIAN);
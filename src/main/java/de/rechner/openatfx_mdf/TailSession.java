@@ -0,0 +1,415 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.asam.ods.AoException;
+import org.asam.ods.AoSession;
+import org.asam.ods.ApplicationElement;
+import org.asam.ods.ApplicationRelation;
+import org.asam.ods.InstanceElement;
+import org.asam.ods.InstanceElementIterator;
+import org.asam.ods.NameValueUnit;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx_mdf.util.GroupLayout;
+import de.rechner.openatfx_mdf.util.ODSHelper;
+import de.rechner.openatfx_mdf.util.ODSModelCache;
+
+
+/**
+ * Session on a MDF file still being recorded. The session is opened once, each refresh only reads the channel groups
+ * of the file to find the new records and appends them to the existing instances:
+ * <ul>
+ * <li>the number of rows of each 'AoSubMatrix' instance is updated,</li>
+ * <li>for each 'AoLocalColumn' referencing the file, a new 'AoExternalComponent' instance referencing the new records
+ * is created.</li>
+ * </ul>
+ * The data itself is not read, so the cost of a refresh does not depend on the number of records. Unfinalized MDF4
+ * files are read with {@link de.rechner.openatfx_mdf.mdf4.MDF4Recovery} if enabled by the conversion options.
+ * <p>
+ * The results of the data scan (statistics, preview, index) describe the records available when the session was
+ * opened. The options {@link ConvertOptions#PARAM_IMPLICIT_CONSTANT} and {@link ConvertOptions#PARAM_IMPLICIT_LINEAR}
+ * are not supported, as a channel constant or equidistant so far may change later. MDF4 virtual master channels are
+ * written as 'implicit_linear' local columns regardless of the options, their values are the record index and remain
+ * valid for appended records.
+ *
+ * @author Christian Rechner
+ */
+public class TailSession implements Closeable {
+
+    private static final Log LOG = LogFactory.getLog(TailSession.class);
+
+    /** The attributes of an 'AoExternalComponent' instance copied from the first instance of a local column */
+    private static final String[] EC_ATTRS = { "fl", "vt", "vb", "bs", "vo", "bo", "bc" };
+
+    /**
+     * Listener notified about the rows appended by a refresh.
+     */
+    public interface Listener {
+
+        /**
+         * Called after rows have been appended to a 'AoSubMatrix' instance.
+         *
+         * @param smName The name of the 'AoSubMatrix' instance.
+         * @param firstRow The index of the first new row.
+         * @param rowCount The number of new rows.
+         */
+        void rowsAppended(String smName, long firstRow, long rowCount);
+
+    }
+
+    private final Path mdfPath;
+    private final ConvertOptions options;
+    private final AoSession aoSession;
+    private final ODSModelCache modelCache;
+    private final NumberFormat countFormat;
+    private final Map<Integer, GroupTail> groups;
+    private final List<Listener> listeners;
+
+    private long lastSize;
+    private long lastModified;
+    private ScheduledExecutorService timer;
+
+    /**
+     * Opens the session on a MDF file.
+     *
+     * @param orb The ORB.
+     * @param mdfPath The MDF file.
+     * @param options The conversion options.
+     * @throws ConvertException Error opening the session.
+     */
+    public TailSession(ORB orb, Path mdfPath, ConvertOptions options) throws ConvertException {
+        if (options.isImplicitConstant()) {
+            throw new ConvertException("Option " + ConvertOptions.PARAM_IMPLICIT_CONSTANT
+                    + " is not supported for a tail session");
+        }
+        if (options.isImplicitLinear()) {
+            throw new ConvertException("Option " + ConvertOptions.PARAM_IMPLICIT_LINEAR
+                    + " is not supported for a tail session");
+        }
+        this.mdfPath = mdfPath;
+        this.options = options;
+        this.countFormat = new DecimalFormat("00000");
+        this.groups = new HashMap<Integer, GroupTail>();
+        this.listeners = new ArrayList<Listener>();
+        try {
+            this.lastSize = Files.size(mdfPath);
+            this.lastModified = Files.getLastModifiedTime(mdfPath).toMillis();
+        } catch (IOException e) {
+            throw new ConvertException(e.getMessage(), e);
+        }
+        this.aoSession = new MDFConverter().getAoSessionForMDF(orb, mdfPath, options);
+        try {
+            this.modelCache = new ODSModelCache(this.aoSession);
+            readGroupTails();
+        } catch (AoException e) {
+            LOG.error(e.reason, e);
+            closeSession();
+            throw new ConvertException(e.reason, e);
+        }
+    }
+
+    /**
+     * Returns the ASAM ODS session, the instances are updated by each refresh.
+     *
+     * @return The session.
+     */
+    public AoSession getAoSession() {
+        return this.aoSession;
+    }
+
+    /**
+     * Adds a listener notified about appended rows.
+     *
+     * @param listener The listener.
+     */
+    public synchronized void addListener(Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Appends the records written since the last refresh. Nothing is read if neither the size nor the modification
+     * time of the file changed since the last successful refresh, a failed refresh is retried by the next call.
+     *
+     * @return The total number of rows appended to all 'AoSubMatrix' instances.
+     * @throws ConvertException Error reading the file or writing to the session.
+     */
+    public synchronized long refresh() throws ConvertException {
+        SeekableByteChannel sbc = null;
+        try {
+            long size = Files.size(this.mdfPath);
+            long modified = Files.getLastModifiedTime(this.mdfPath).toMillis();
+            if (size == this.lastSize && modified == this.lastModified) {
+                return 0;
+            }
+
+            sbc = Files.newByteChannel(this.mdfPath, StandardOpenOption.READ);
+            if (this.options.isRecoverUnfinalized()) {
+                sbc = de.rechner.openatfx_mdf.mdf4.MDF4Recovery.recover(sbc);
+            }
+            Map<Integer, GroupLayout> layouts = readGroupLayouts(sbc);
+
+            long appended = 0;
+            for (Map.Entry<Integer, GroupTail> entry : this.groups.entrySet()) {
+                GroupLayout layout = layouts.get(entry.getKey());
+                if (layout != null && layout.getRowCount() > entry.getValue().rows) {
+                    appended += append(entry.getValue(), layout);
+                }
+            }
+            this.lastSize = size;
+            this.lastModified = modified;
+            return appended;
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+            throw new ConvertException(e.getMessage(), e);
+        } catch (AoException e) {
+            LOG.error(e.reason, e);
+            throw new ConvertException(e.reason, e);
+        } finally {
+            if (sbc != null) {
+                try {
+                    sbc.close();
+                } catch (IOException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts refreshing the session periodically in a background thread.
+     *
+     * @param intervalMillis The delay between two refreshes in milliseconds.
+     */
+    public synchronized void start(long intervalMillis) {
+        if (this.timer != null) {
+            throw new IllegalStateException("Tail session already started");
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "tail-" + mdfPath.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            }
+
+        });
+        this.timer.scheduleWithFixedDelay(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (ConvertException e) {
+                    // already logged, the next refresh may succeed once the logger has written the block
+                }
+            }
+
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic refresh and closes the session.
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService t;
+        synchronized (this) {
+            t = this.timer;
+            this.timer = null;
+        }
+        if (t != null) {
+            t.shutdown();
+            try {
+                t.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeSession();
+    }
+
+    private void closeSession() {
+        try {
+            this.aoSession.close();
+        } catch (AoException e) {
+            LOG.error(e.reason, e);
+        }
+    }
+
+    /**
+     * Collects the 'AoSubMatrix' instances of the channel groups and the first 'AoExternalComponent' of their local
+     * columns.
+     */
+    private void readGroupTails() throws AoException {
+        ApplicationElement aeSm = this.modelCache.getApplicationElement("sm");
+        ApplicationRelation relSmLc = this.modelCache.getApplicationRelation("sm", "lc", "lcs");
+        ApplicationRelation relLcEc = this.modelCache.getApplicationRelation("lc", "ec", "ecs");
+        InstanceElementIterator smIter = aeSm.getInstances("sm_*");
+        try {
+            for (InstanceElement ieSm : smIter.nextN(smIter.getCount())) {
+                int groupIndex;
+                try {
+                    groupIndex = Integer.parseInt(ieSm.getName().substring(3)) - 1;
+                } catch (NumberFormatException e) { // e.g. index submatrix
+                    continue;
+                }
+                GroupTail groupTail = new GroupTail(ieSm, ieSm.getValue("rows").value.u.longVal());
+                InstanceElementIterator lcIter = ieSm.getRelatedInstances(relSmLc, "*");
+                try {
+                    for (InstanceElement ieLc : lcIter.nextN(lcIter.getCount())) {
+                        InstanceElementIterator ecIter = ieLc.getRelatedInstances(relLcEc, "*");
+                        try {
+                            int ecCount = ecIter.getCount();
+                            if (ecCount > 0) {
+                                InstanceElement ieEc = ecIter.nextOne();
+                                groupTail.columns.add(new ColumnTail(ieLc, ieEc.getValueSeq(EC_ATTRS), ecCount));
+                            }
+                        } finally {
+                            ecIter.destroy();
+                        }
+                    }
+                } finally {
+                    lcIter.destroy();
+                }
+                this.groups.put(groupIndex, groupTail);
+            }
+        } finally {
+            smIter.destroy();
+        }
+    }
+
+    /**
+     * Appends the new records of a channel group.
+     */
+    private long append(GroupTail groupTail, GroupLayout layout) throws AoException, IOException {
+        long firstRow = groupTail.rows;
+        long rowCount = layout.getRowCount() - firstRow;
+        if (!groupTail.columns.isEmpty()) {
+            List<long[]> ranges = getRecordRanges(layout, firstRow, layout.getRowCount());
+            ApplicationElement aeEc = this.modelCache.getApplicationElement("ec");
+            ApplicationRelation relLcEc = this.modelCache.getApplicationRelation("lc", "ec", "ecs");
+            for (ColumnTail column : groupTail.columns) {
+                for (long[] range : ranges) {
+                    column.ecCount++;
+                    InstanceElement ieEc = aeEc.createInstance("ec_" + this.countFormat.format(column.ecCount));
+                    List<NameValueUnit> nvuEcList = new ArrayList<NameValueUnit>();
+                    for (NameValueUnit nvu : column.template) {
+                        if (nvu.value.flag != 0) {
+                            nvuEcList.add(nvu);
+                        }
+                    }
+                    nvuEcList.add(ODSHelper.createLongLongNVU("so", range[0]));
+                    nvuEcList.add(ODSHelper.createLongNVU("cl", (int) range[1]));
+                    ieEc.setValueSeq(nvuEcList.toArray(new NameValueUnit[0]));
+                    column.ieLc.createRelation(relLcEc, ieEc);
+                }
+            }
+        }
+        groupTail.ieSm.setValue(ODSHelper.createLongNVU("rows", (int) layout.getRowCount()));
+        groupTail.rows = layout.getRowCount();
+
+        String smName = groupTail.ieSm.getName();
+        LOG.info("Appended " + rowCount + " rows to '" + smName + "'");
+        for (Listener listener : this.listeners) {
+            listener.rowsAppended(smName, firstRow, rowCount);
+        }
+        return rowCount;
+    }
+
+    /**
+     * Returns the contiguous ranges of a number of records as array of start position and number of records.
+     */
+    private static List<long[]> getRecordRanges(GroupLayout layout, long firstRow, long endRow) throws IOException {
+        List<long[]> ranges = new ArrayList<long[]>();
+        long fragmentStart = 0; // position of the fragment within the data of the group
+        long row = firstRow;
+        for (long[] fragment : layout.getFragments()) {
+            long fragmentEnd = fragmentStart + fragment[1];
+            long rowPos = row * layout.getRecordSize();
+            if (row < endRow && rowPos < fragmentEnd) {
+                if (rowPos + layout.getRecordSize() > fragmentEnd) {
+                    throw new IOException("Unable to reference record " + row + " spanning two data blocks");
+                }
+                long count = Math.min(endRow - row, (fragmentEnd - rowPos) / layout.getRecordSize());
+                ranges.add(new long[] { fragment[0] + (rowPos - fragmentStart), count });
+                row += count;
+            }
+            fragmentStart = fragmentEnd;
+        }
+        if (row < endRow) {
+            throw new IOException("Records " + row + "-" + endRow + " not found in data blocks");
+        }
+        return ranges;
+    }
+
+    /**
+     * Reads the record layout of all 'sorted' channel groups, by the index of the data group.
+     */
+    private Map<Integer, GroupLayout> readGroupLayouts(SeekableByteChannel sbc) throws IOException {
+        String version = MDFConverter.readMDFVersion(sbc);
+        if (version.startsWith("3")) {
+            return de.rechner.openatfx_mdf.mdf3.ChannelSources.readGroupLayouts(de.rechner.openatfx_mdf.mdf3.IDBLOCK
+                    .read(this.mdfPath, sbc));
+        } else if (version.startsWith("4")) {
+            return de.rechner.openatfx_mdf.mdf4.ChannelSources.readGroupLayouts(de.rechner.openatfx_mdf.mdf4.IDBLOCK
+                    .read(this.mdfPath, sbc));
+        }
+        throw new IOException("Unsupported MDF version: " + version);
+    }
+
+    /**
+     * The state of a 'AoSubMatrix' instance.
+     */
+    private static class GroupTail {
+
+        private final InstanceElement ieSm;
+        private final List<ColumnTail> columns;
+        private long rows;
+
+        public GroupTail(InstanceElement ieSm, long rows) {
+            this.ieSm = ieSm;
+            this.columns = new ArrayList<ColumnTail>();
+            this.rows = rows;
+        }
+
+    }
+
+    /**
+     * The state of a 'AoLocalColumn' instance referencing the file.
+     */
+    private static class ColumnTail {
+
+        private final InstanceElement ieLc;
+        private final NameValueUnit[] template;
+        private int ecCount;
+
+        public ColumnTail(InstanceElement ieLc, NameValueUnit[] template, int ecCount) {
+            this.ieLc = ieLc;
+            this.template = template;
+            this.ecCount = ecCount;
+        }
+
+    }
+
+}
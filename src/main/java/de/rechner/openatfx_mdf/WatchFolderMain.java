@@ -0,0 +1,108 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.log4j.BasicConfigurator;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx_mdf.util.ConversionJournal;
+
+
+/**
+ * Command line tool running the {@link WatchFolderService} until the JVM is stopped.
+ * 
+ * <pre>
+ * WatchFolderMain [-threads n] [-journal file] [-settle millis] [-force] [-option name=value]... directory
+ * </pre>
+ * 
+ * The journal defaults to the file 'convert-journal.tsv' in the watched directory.
+ * 
+ * @author Christian Rechner
+ */
+public class WatchFolderMain {
+
+    private static final String USAGE = "Usage: WatchFolderMain [-threads n] [-journal file] [-settle millis] [-force] "
+            + "[-option name=value]... directory";
+
+    public static void main(String[] args) {
+        BasicConfigurator.configure();
+        ConvertMetrics.register();
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path journalFile = null;
+        long settleMillis = WatchFolderService.DEFAULT_SETTLE_MILLIS;
+        boolean force = false;
+        ConvertOptions options = new ConvertOptions();
+        Path directory = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("-threads") && i + 1 < args.length) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (arg.equals("-journal") && i + 1 < args.length) {
+                    journalFile = Paths.get(args[++i]);
+                } else if (arg.equals("-settle") && i + 1 < args.length) {
+                    settleMillis = Long.parseLong(args[++i]);
+                } else if (arg.equals("-force")) {
+                    force = true;
+                } else if (arg.equals("-option") && i + 1 < args.length) {
+                    String option = args[++i];
+                    int pos = option.indexOf('=');
+                    if (pos < 1 || !options.setOption(option.substring(0, pos), option.substring(pos + 1))) {
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                    }
+                } else if (arg.startsWith("-") || directory != null) {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                } else {
+                    directory = Paths.get(arg);
+                }
+            }
+            if (directory == null || !Files.isDirectory(directory)) {
+                throw new IllegalArgumentException("No directory given");
+            }
+        } catch (IllegalArgumentException e) { // includes NumberFormatException
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (journalFile == null) {
+            journalFile = directory.resolve("convert-journal.tsv");
+        }
+
+        final ORB orb = ORB.init(new String[0], System.getProperties());
+        try {
+            ConversionJournal journal = new ConversionJournal(journalFile);
+            BatchConverter converter = new BatchConverter(orb, options, threads, force);
+            final WatchFolderService service = new WatchFolderService(directory, converter, journal, settleMillis,
+                                                                      threads);
+            final Thread watchThread = new Thread(service, "watch-folder");
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+
+                @Override
+                public void run() {
+                    try {
+                        service.close();
+                        watchThread.join();
+                    } catch (IOException e) {
+                        System.err.println(e.getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+            });
+            watchThread.start();
+            watchThread.join();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package de.rechner.openatfx_mdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.rechner.openatfx_mdf.util.ConversionJournal;
+import de.rechner.openatfx_mdf.util.FileCollector;
+
+
+/**
+ * Long running service converting the MDF files dropped into a directory.
+ * <p>
+ * New and modified files are reported by a {@link WatchService}. A file is converted once it is stable: its size and
+ * modification time did not change for the settle time and the file is finalized (no unfinalized flags are set, see
+ * {@link MDFConverter#isFinalized(SeekableByteChannel)}); unfinalized files are converted as well if their recovery is
+ * enabled, see {@link ConvertOptions#isRecoverUnfinalized()}. Stable files are converted by a fixed number of threads.
+ * The processed files are recorded in a {@link ConversionJournal}, so a restarted service skips all files converted
+ * before and only picks up new, modified or failed files. Only the directory itself is watched, not its sub
+ * directories.
+ * 
+ * @author Christian Rechner
+ */
+public class WatchFolderService implements Runnable, Closeable {
+
+    private static final Log LOG = LogFactory.getLog(WatchFolderService.class);
+
+    /** The default time in milliseconds a file has to be unchanged before being converted */
+    public static final long DEFAULT_SETTLE_MILLIS = 2000;
+
+    // the interval of checking the stability of the pending files
+    private static final long POLL_MILLIS = 500;
+
+    private final Path directory;
+    private final BatchConverter converter;
+    private final ConversionJournal journal;
+    private final long settleMillis;
+    private final ExecutorService executor;
+    private final WatchService watchService;
+
+    // the pending files: last observed size, modification time and the time of the last change
+    private final Map<Path, long[]> pending;
+    // the files being converted
+    private final Set<Path> running;
+
+    private volatile boolean closed;
+    // the thread running the watch loop
+    private volatile Thread watchThread;
+
+    /**
+     * Constructor, starts watching the directory.
+     * 
+     * @param directory The watched directory.
+     * @param converter The converter of the single files.
+     * @param journal The journal of the processed files.
+     * @param settleMillis The time in milliseconds a file has to be unchanged before being converted.
+     * @param threads The maximum number of files converted in parallel.
+     * @throws IOException Error registering the watch service.
+     */
+    public WatchFolderService(Path directory, BatchConverter converter, ConversionJournal journal, long settleMillis,
+            int threads) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.converter = converter;
+        this.journal = journal;
+        this.settleMillis = settleMillis;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.pending = new HashMap<Path, long[]>();
+        this.running = new HashSet<Path>();
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        this.directory.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Watches the directory until closed. The files already existing are handled first.
+     * 
+     * @see java.lang.Runnable#run()
+     */
+    @Override
+    public void run() {
+        this.watchThread = Thread.currentThread();
+        try {
+            LOG.info("Watching directory '" + this.directory + "', " + this.journal.size() + " files in journal");
+            scanDirectory();
+            while (!this.closed) {
+                WatchKey key = this.watchService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            scanDirectory();
+                        } else {
+                            addPending(this.directory.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                checkPending();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops watching and waits for the running conversions. The watch loop is stopped first, so no file is submitted
+     * after the executor has been shut down.
+     * 
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.watchService.close();
+        try {
+            Thread thread = this.watchThread;
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.join();
+            }
+            this.executor.shutdown();
+            this.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            this.executor.shutdown();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scanDirectory() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+            for (Path file : stream) {
+                addPending(file);
+            }
+        }
+    }
+
+    private void addPending(Path file) {
+        if (FileCollector.hasMdfExtension(file) && !this.pending.containsKey(file)) {
+            this.pending.put(file, new long[] { -1, -1, 0 });
+        }
+    }
+
+    /**
+     * Submits the pending files that did not change for the settle time.
+     */
+    private void checkPending() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, long[]>> iter = this.pending.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<Path, long[]> entry = iter.next();
+            Path file = entry.getKey();
+            long[] observed = entry.getValue();
+            long size;
+            long lastModified;
+            try {
+                if (!Files.isRegularFile(file)) {
+                    iter.remove();
+                    continue;
+                }
+                size = Files.size(file);
+                lastModified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) { // e.g. deleted meanwhile
+                iter.remove();
+                continue;
+            }
+            if (size != observed[0] || lastModified != observed[1]) {
+                observed[0] = size;
+                observed[1] = lastModified;
+                observed[2] = now;
+                continue;
+            }
+            if (now - observed[2] < this.settleMillis || isRunning(file)) {
+                continue;
+            }
+            if (this.journal.isDone(file, size, lastModified)) {
+                iter.remove();
+                continue;
+            }
+            if (!this.converter.getOptions().isRecoverUnfinalized() && !isFinalized(file)) {
+                // wait for the logger to finalize the file
+                observed[2] = now;
+                continue;
+            }
+            iter.remove();
+            submit(file, size, lastModified);
+        }
+    }
+
+    private void submit(final Path file, final long size, final long lastModified) {
+        synchronized (this.running) {
+            this.running.add(file);
+        }
+        ConvertMetrics.fileQueued();
+        this.executor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                ConvertMetrics.fileDequeued();
+                try {
+                    BatchConverter.Result result = converter.convert(file);
+                    LOG.info(result.getStatus() + " " + file + " (" + result.getMillis() + "ms)");
+                    journal.add(file, size, lastModified, result.getStatus());
+                } catch (IOException e) {
+                    LOG.error("Unable to write journal: " + e.getMessage(), e);
+                } finally {
+                    synchronized (running) {
+                        running.remove(file);
+                    }
+                }
+            }
+
+        });
+    }
+
+    private boolean isRunning(Path file) {
+        synchronized (this.running) {
+            return this.running.contains(file);
+        }
+    }
+
+    private static boolean isFinalized(Path file) {
+        try (SeekableByteChannel sbc = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            return MDFConverter.isFinalized(sbc);
+        } catch (IOException e) { // e.g. still locked by the writer
+            return false;
+        }
+    }
+
+}
@@ -29,10 +29,20 @@ import org.asam.ods.SeverityFlag;
 import org.asam.ods.T_LONGLONG;
 
 import de.rechner.openatfx_mdf.ConvertException;
+import de.rechner.openatfx_mdf.ConvertOptions;
+import de.rechner.openatfx_mdf.ConvertPhase;
+import de.rechner.openatfx_mdf.ConvertSummary;
+import de.rechner.openatfx_mdf.util.ConversionCache;
 import de.rechner.openatfx_mdf.util.FileUtil;
+import de.rechner.openatfx_mdf.util.GroupScanWriter;
+import de.rechner.openatfx_mdf.util.IndexHelper;
 import de.rechner.openatfx_mdf.util.LookupTableHelper;
+import de.rechner.openatfx_mdf.util.NumericConversion;
 import de.rechner.openatfx_mdf.util.ODSHelper;
 import de.rechner.openatfx_mdf.util.ODSModelCache;
+import de.rechner.openatfx_mdf.util.PreviewHelper;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+import de.rechner.openatfx_mdf.util.StatisticsHelper;
 
 
 /**
@@ -52,13 +62,53 @@ public class AoSessionWriter {
 
     private final LookupTableHelper lookupTableHelper;
 
+    private final ConvertOptions options;
+
+    private final ConversionCache conversionCache;
+
+    // the conversion blocks read, by position; channels may share a conversion block
+    private final Map<Long, CCBLOCK> ccBlocks;
+
+    private final StatisticsHelper statisticsHelper;
+
+    private final PreviewHelper previewHelper;
+
+    private final IndexHelper indexHelper;
+
+    private final ConvertSummary summary;
+
     /**
      * Constructor.
      */
     public AoSessionWriter() {
+        this(new ConvertOptions());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param options The conversion options.
+     */
+    public AoSessionWriter(ConvertOptions options) {
         this.mdfDateFormat = new SimpleDateFormat(MDF_DATEFORMAT);
         this.countFormat = new DecimalFormat("00000");
-        this.lookupTableHelper = new LookupTableHelper();
+        this.lookupTableHelper = new LookupTableHelper(options.isSharedLookupTables());
+        this.options = options;
+        this.conversionCache = new ConversionCache();
+        this.ccBlocks = new HashMap<Long, CCBLOCK>();
+        this.statisticsHelper = new StatisticsHelper();
+        this.previewHelper = new PreviewHelper();
+        this.indexHelper = new IndexHelper();
+        this.summary = new ConvertSummary();
+    }
+
+    /**
+     * Returns the summary of the conversion.
+     * 
+     * @return The summary.
+     */
+    public ConvertSummary getSummary() {
+        return this.summary;
     }
 
     /**
@@ -70,6 +120,8 @@ public class AoSessionWriter {
      * @throws IOException Error reading from MDF file.
      */
     public void writeTst(ODSModelCache modelCache, IDBLOCK idBlock) throws AoException, IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_TST,
+                                                String.valueOf(idBlock.getMdfFilePath().getFileName()));
         ApplicationElement aeEnv = modelCache.getApplicationElement("env");
         ApplicationElement aeTst = modelCache.getApplicationElement("tst");
         ApplicationRelation relEnvPrj = modelCache.getApplicationRelation("env", "tst", "tsts");
@@ -93,6 +145,7 @@ public class AoSessionWriter {
 
         // write 'AoMeasurement' instance
         writeMea(modelCache, ieTst, idBlock);
+        phase.end();
     }
 
     /**
@@ -107,6 +160,7 @@ public class AoSessionWriter {
      */
     private InstanceElement writeMea(ODSModelCache modelCache, InstanceElement ieTst, IDBLOCK idBlock)
             throws AoException, IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_MEA, null);
         Path fileName = idBlock.getMdfFilePath().getFileName();
         if (fileName == null) {
             throw new IOException("Unable to obtain file name!");
@@ -155,6 +209,7 @@ public class AoSessionWriter {
         // write 'AoSubMatrix' instances
         writeSm(modelCache, ieMea, idBlock, hdBlock, meqNames);
 
+        phase.end();
         return ieMea;
     }
 
@@ -170,6 +225,7 @@ public class AoSessionWriter {
      */
     private void writeSm(ODSModelCache modelCache, InstanceElement ieMea, IDBLOCK idBlock, HDBLOCK hdBlock,
             Map<String, Integer> meqNames) throws AoException, IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_SM, null);
         ApplicationElement aeSm = modelCache.getApplicationElement("sm");
         ApplicationRelation relMeaSm = modelCache.getApplicationRelation("mea", "sm", "sms");
 
@@ -188,11 +244,13 @@ public class AoSessionWriter {
             // if sorted, only one channel group block is available
             CGBLOCK cgBlock = dgBlock.getNextCgBlock();
 
-            // skip channel groups having no channels (or optionally no values)
-            if (cgBlock != null) {
+            // skip channel groups having no channels (or optionally no values) or not accepted by the filter
+            String smName = "sm_" + countFormat.format(grpNo);
+            if (cgBlock != null && acceptGroup(smName, cgBlock)) {
 
                 // create SubMatrix instance
-                InstanceElement ieSm = aeSm.createInstance("sm_" + countFormat.format(grpNo));
+                InstanceElement ieSm = aeSm.createInstance(smName);
+                this.summary.addGroup();
                 ieMea.createRelation(relMeaSm, ieSm);
 
                 List<NameValueUnit> nvuList = new ArrayList<NameValueUnit>(3);
@@ -211,6 +269,24 @@ public class AoSessionWriter {
             dgBlock = dgBlock.getNextDgBlock();
             grpNo++;
         }
+        phase.end();
+    }
+
+    /**
+     * Returns whether a channel group is accepted by the group filter of the conversion options.
+     * 
+     * @param smName The name of the 'AoSubMatrix' instance.
+     * @param cgBlock The CGBLOCK.
+     * @return True, if the channel group is to be converted.
+     * @throws IOException Error reading from MDF file.
+     */
+    private boolean acceptGroup(String smName, CGBLOCK cgBlock) throws IOException {
+        if (this.options.getGroupFilter().isAll()) {
+            return true;
+        }
+        TXBLOCK channelGroupComment = cgBlock.getChannelGroupComment();
+        String comment = (channelGroupComment == null) ? null : channelGroupComment.getText();
+        return this.options.getGroupFilter().accept(smName, comment);
     }
 
     /**
@@ -226,18 +302,23 @@ public class AoSessionWriter {
      */
     private void writeLc(ODSModelCache modelCache, InstanceElement ieMea, InstanceElement ieSm, IDBLOCK idBlock,
             DGBLOCK dgBlock, CGBLOCK cgBlock, Map<String, Integer> meqNames) throws AoException, IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_LC, ieSm.getName());
         ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
         ApplicationElement aeLc = modelCache.getApplicationElement("lc");
         ApplicationRelation relSmLc = modelCache.getApplicationRelation("sm", "lc", "lcs");
         ApplicationRelation relMeaMeq = modelCache.getApplicationRelation("mea", "meq", "meqs");
         ApplicationRelation relLcMeq = modelCache.getApplicationRelation("lc", "meq", "meq");
 
+        // all channels of the group are scanned in a single pass over the records
+        GroupScanWriter scanWriter = new GroupScanWriter(this.options, this.statisticsHelper, this.previewHelper,
+                                                        this.indexHelper, this.summary);
+
         // iterate over channel blocks
         CNBLOCK cnBlock = cgBlock.getFirstCnBlock();
         while (cnBlock != null) {
 
             // build signal name - parse the device info
-            String meqName = readMeqName(cnBlock);
+            String meqName = ChannelSources.readMeqName(cnBlock);
             String device = null;
             String[] str = meqName.split("\\\\");
             if (str.length > 0) {
@@ -260,10 +341,17 @@ public class AoSessionWriter {
                 }
             }
 
+            // skip channels not accepted by the filter, the master channel is always needed
+            if (cnBlock.getChannelType() != 1 && !this.options.getChannelFilter().accept(meqName)) {
+                cnBlock = cnBlock.getNextCnBlock();
+                continue;
+            }
+
             // create 'AoLocalColumn' instance
-            CCBLOCK ccBlock = cnBlock.getCcBlock();
+            CCBLOCK ccBlock = getCcBlock(cnBlock);
             InstanceElement ieLc = aeLc.createInstance(meqName);
             ieSm.createRelation(relSmLc, ieLc);
+            this.summary.addChannel();
 
             List<NameValueUnit> nvuLcList = new ArrayList<NameValueUnit>(8);
             // sequence_representation
@@ -338,43 +426,80 @@ public class AoSessionWriter {
             // create 'AoUnit' instance if not yet existing
             writeUnit(ieMeq, ccBlock);
 
+            // lookup table of a conversion block shared with a previous channel: already written
+            boolean lookupTable = (ccBlock != null)
+                    && ((ccBlock.getFormulaIdent() == 11) || (ccBlock.getFormulaIdent() == 12));
+            if (lookupTable && this.lookupTableHelper.referenceLookupTable(ieLc, ccBlock.getPos())) {
+                lookupTable = false;
+            }
+
             // special handling for formula 11 'ASAM-MCD2 Text Table, (COMPU_VTAB)': create lookup table
-            if ((ccBlock != null) && (ccBlock.getFormulaIdent() == 11)) {
+            if (lookupTable && (ccBlock.getFormulaIdent() == 11)) {
+                ConvertPhase lookupPhase = ConvertPhase.begin(ConvertPhase.LOOKUP_TABLE, meqName);
                 double[] keys = ccBlock.getKeysForTextTable();
                 String[] values = ccBlock.getValuesForTextTable();
-                this.lookupTableHelper.createMCD2TextTableMeasurement(modelCache, ieMea, ieLc, keys, values);
+                this.lookupTableHelper.createMCD2TextTableMeasurement(modelCache, ieMea, ieLc, ccBlock.getPos(), keys,
+                                                                      values);
+                lookupPhase.end();
             }
             // special handling for formula 12 'ASAM-MCD2 Text Range Table (COMPU_VTAB_RANGE)': create lookup table
-            else if ((ccBlock != null) && (ccBlock.getFormulaIdent() == 12)) {
+            else if (lookupTable && (ccBlock.getFormulaIdent() == 12)) {
+                ConvertPhase lookupPhase = ConvertPhase.begin(ConvertPhase.LOOKUP_TABLE, meqName);
                 double[] keysMin = ccBlock.getLowerRangeKeysForTextRangeTable();
                 double[] keysMax = ccBlock.getUpperRangeKeysForTextRangeTable();
                 String[] values = ccBlock.getValuesForTextRangeTable();
                 String defaultValue = ccBlock.getDefaultTextForTextRangeTable();
-                this.lookupTableHelper.createMCD2TextRangeTableMeasurement(modelCache, ieMea, ieLc, keysMin, keysMax,
-                                                                           values, defaultValue);
+                this.lookupTableHelper.createMCD2TextRangeTableMeasurement(modelCache, ieMea, ieLc, ccBlock.getPos(),
+                                                                           keysMin, keysMax, values, defaultValue);
+                lookupPhase.end();
+            }
+
+            // register channel for the data scan (statistics, preview)
+            if (this.options.isDataScanRequired()) {
+                RawValueDecoder decoder = ChannelSources.createDecoder(idBlock, dgBlock, cgBlock, cnBlock);
+                NumericConversion conversion = null;
+                if (decoder != null) {
+                    conversion = this.conversionCache.getConversion(ccBlock, decoder.getBitCount(),
+                                                                    decoder.isInteger(),
+                                                                    decoder.getKind() == RawValueDecoder.SIGNED);
+                }
+                if (conversion != null) {
+                    scanWriter.addChannel(ieLc, ieMeq, decoder, conversion, cnBlock.getChannelType() == 1);
+                } else {
+                    LOG.warn("Unable to scan values of channel '" + meqName + "'");
+                }
             }
 
             // jump to next channel
             cnBlock = cnBlock.getNextCnBlock();
         }
+
+        // read the records and write the scan results
+        if (!scanWriter.isEmpty()) {
+            dgBlock.readDataRecords(cgBlock, scanWriter.getScan());
+            scanWriter.write(modelCache, ieMea, ieSm);
+        }
+        phase.end();
     }
 
-    private static String readMeqName(CNBLOCK cnBlock) throws IOException {
-        String meqName = cnBlock.getSignalName();
-        TXBLOCK signalDisplayIdentifier = cnBlock.getSignalDisplayIdentifier();
-        TXBLOCK mcdUniqueName = cnBlock.getMcdUniqueName();
-        if (signalDisplayIdentifier != null) {
-            String signalDisplayIdentifierTxt = signalDisplayIdentifier.getText().trim();
-            if (signalDisplayIdentifierTxt.length() > 0) {
-                meqName = signalDisplayIdentifierTxt;
-            }
-        } else if (mcdUniqueName != null) {
-            String mcdUniqueNameTxt = mcdUniqueName.getText().trim();
-            if (mcdUniqueNameTxt.length() > 0) {
-                meqName = mcdUniqueNameTxt;
-            }
+    /**
+     * Returns the conversion block of a channel, read only once for all channels sharing it.
+     * 
+     * @param cnBlock The MDF channel block.
+     * @return The CCBLOCK, null if the channel has no conversion.
+     * @throws IOException Error reading from MDF file.
+     */
+    private CCBLOCK getCcBlock(CNBLOCK cnBlock) throws IOException {
+        long pos = cnBlock.getLnkCcBlock();
+        if (pos <= 0) {
+            return null;
+        }
+        CCBLOCK ccBlock = this.ccBlocks.get(pos);
+        if (ccBlock == null) {
+            ccBlock = cnBlock.getCcBlock();
+            this.ccBlocks.put(pos, ccBlock);
         }
-        return meqName;
+        return ccBlock;
     }
 
     private void writeUnit(InstanceElement ieMeq, CCBLOCK ccBlock) throws AoException {
@@ -6,6 +6,16 @@ import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+import de.rechner.openatfx_mdf.util.ConversionBlock;
+import de.rechner.openatfx_mdf.util.Conversions;
+import de.rechner.openatfx_mdf.util.KeyLookupTable;
+import de.rechner.openatfx_mdf.util.NumericConversion;
+import de.rechner.openatfx_mdf.util.RangeLookupTable;
+import de.rechner.openatfx_mdf.util.TableLookup;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+import de.rechner.openatfx_mdf.util.ValueLookupTable;
+
 
 /**
  * <p>
@@ -16,7 +26,7 @@ import java.util.Arrays;
  * 
  * @author Christian Rechner
  */
-class CCBLOCK extends BLOCK {
+class CCBLOCK extends BLOCK implements ConversionBlock {
 
     public static String BLOCK_ID = "CC";
 
@@ -55,7 +65,7 @@ class CCBLOCK extends BLOCK {
     // ... Parameter (for type 0,6,7,8,9) or table (for type 1, 2, 11, or 12) or text (for type
     // 10), depending on the conversion formula identifier. See formula-specific block
     // supplement.
-    private double[] valuePairsForFormula; // formula = 0,6,7,8,9
+    private double[] valuePairsForFormula; // formula = 0,1,2,6,7,8,9
 
     private double[] keysForTextTable; // formula = 11
     private String[] valuesForTextTable; // formula = 11
@@ -179,6 +189,141 @@ class CCBLOCK extends BLOCK {
         this.valuesForTextRangeTable = valuesForTextRangeTable;
     }
 
+    /**
+     * Returns the lookup for the tabular conversions 'tabular with interpolation' (formula 1) and 'tabular' (formula
+     * 2). The table is sorted once, each lookup is a binary search.
+     * 
+     * @return The lookup table, null if the formula is not tabular.
+     */
+    public ValueLookupTable getValueTableLookup() {
+        if ((this.formulaIdent != 1) && (this.formulaIdent != 2)) {
+            return null;
+        }
+        int n = this.valuePairsForFormula.length / 2;
+        double[] keys = new double[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = this.valuePairsForFormula[i * 2];
+            values[i] = this.valuePairsForFormula[i * 2 + 1];
+        }
+        return new ValueLookupTable(keys, values, this.formulaIdent == 1);
+    }
+
+    /**
+     * Returns the lookup for the text conversions 'ASAM-MCD2 Text Table' (formula 11) and 'ASAM-MCD2 Text Range Table'
+     * (formula 12). The index returned by the lookup refers to the arrays returned by
+     * <code>getValuesForTextTable()</code> resp. <code>getValuesForTextRangeTable()</code>.
+     * 
+     * @param integerRaw Whether the raw values are integers; the upper limit of a range belongs to the range only for
+     *            integer values.
+     * @return The lookup table, null if the formula is not a text table.
+     */
+    @Override
+    public TableLookup getTextTableLookup(boolean integerRaw) {
+        if (this.formulaIdent == 11) {
+            return new KeyLookupTable(this.keysForTextTable);
+        } else if (this.formulaIdent == 12) {
+            return new RangeLookupTable(this.lowerRangeKeysForTextRangeTable, this.upperRangeKeysForTextRangeTable,
+                                        integerRaw);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the dictionary of the text conversions 'ASAM-MCD2 Text Table' (formula 11) and 'ASAM-MCD2 Text Range
+     * Table' (formula 12). Together with {@link #getTextTableLookup(boolean)} a channel may be encoded as a column of
+     * dictionary codes.
+     * 
+     * @return The dictionary, null if the formula is not a text table.
+     */
+    @Override
+    public TextDictionary getTextDictionary() {
+        if (this.formulaIdent == 11) {
+            return new TextDictionary(this.valuesForTextTable, null);
+        } else if (this.formulaIdent == 12) {
+            return new TextDictionary(this.valuesForTextRangeTable, this.defaultTextForTextRangeTable);
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see de.rechner.openatfx_mdf.util.ConversionBlock#isTextConversion()
+     */
+    @Override
+    public boolean isTextConversion() {
+        return (this.formulaIdent == 11) || (this.formulaIdent == 12);
+    }
+
+    /**
+     * Returns the numeric conversion of this block.
+     * <p>
+     * Formula 10 (ASAM-MCD2 Text formula) would require an expression evaluator, the text tables (formulas 11 and 12)
+     * and the date/time formulas do not have a numeric result. For those null is returned.
+     * 
+     * @param integerRaw Not used, no MDF3 formula depends on the type of the raw values.
+     * @return The conversion, null if not numeric.
+     */
+    @Override
+    public NumericConversion getNumericConversion(boolean integerRaw) {
+        final double[] p = this.valuePairsForFormula;
+        // 'parametric, linear': phys = int * P2 + P1
+        if (this.formulaIdent == 0) {
+            return Conversions.linear(p[0], p[1]);
+        }
+        // 'tabular with interpolation', 'tabular'
+        else if ((this.formulaIdent == 1) || (this.formulaIdent == 2)) {
+            return Conversions.valueTable(getValueTableLookup());
+        }
+        // 'polynomial function': phys = (P2 - (P4 * (int - P5 - P6))) / (P3 * (int - P5 - P6) - P1)
+        else if (this.formulaIdent == 6) {
+            return new NumericConversion() {
+
+                @Override
+                public double convert(double raw) {
+                    double x = raw - p[4] - p[5];
+                    return (p[1] - (p[3] * x)) / (p[2] * x - p[0]);
+                }
+            };
+        }
+        // 'exponential function'
+        else if (this.formulaIdent == 7) {
+            return new NumericConversion() {
+
+                @Override
+                public double convert(double raw) {
+                    if (p[3] == 0) {
+                        return Math.log(((raw - p[6]) * p[5] - p[2]) / p[0]) / p[1];
+                    }
+                    return Math.log((p[2] / (raw - p[6]) - p[5]) / p[3]) / p[4];
+                }
+            };
+        }
+        // 'logarithmic function'
+        else if (this.formulaIdent == 8) {
+            return new NumericConversion() {
+
+                @Override
+                public double convert(double raw) {
+                    if (p[3] == 0) {
+                        return Math.exp(((raw - p[6]) * p[5] - p[2]) / p[0]) / p[1];
+                    }
+                    return Math.exp((p[2] / (raw - p[6]) - p[5]) / p[3]) / p[4];
+                }
+            };
+        }
+        // 'ASAP2 Rational conversion formula'
+        else if (this.formulaIdent == 9) {
+            return Conversions.rational(p);
+        }
+        // '1:1 conversion formula'
+        else if (this.formulaIdent == 65535) {
+            return Conversions.IDENTITY;
+        }
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -206,6 +351,7 @@ class CCBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CCBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         CCBLOCK block = new CCBLOCK(sbc, pos);
 
         // read block
@@ -216,7 +362,7 @@ class CCBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -256,7 +402,7 @@ class CCBLOCK extends BLOCK {
         block.setNoOfValuePairsForFormula(Mdf3Util.readUInt16(bb));
 
         int formula = block.getFormulaIdent();
-        if ((formula == 0) || formula == 1 || (formula == 6) || (formula == 7) || (formula == 8) || (formula == 9)) {
+        if ((formula == 0) || (formula == 6) || (formula == 7) || (formula == 8) || (formula == 9)) {
 
             // read block
             bb = ByteBuffer.allocate(block.getNoOfValuePairsForFormula() * 8);
@@ -272,6 +418,22 @@ class CCBLOCK extends BLOCK {
             block.setValuePairsForFormula(d);
         }
 
+        else if ((formula == 1) || (formula == 2)) {
+
+            // read block, the table consists of pairs (internal value, physical value)
+            bb = ByteBuffer.allocate(block.getNoOfValuePairsForFormula() * 16);
+            bb.order(ByteOrder.LITTLE_ENDIAN);
+            sbc.position(pos + 46);
+            sbc.read(bb);
+            bb.rewind();
+
+            double[] d = new double[block.getNoOfValuePairsForFormula() * 2];
+            for (int i = 0; i < d.length; i++) {
+                d[i] = Mdf3Util.readReal(bb);
+            }
+            block.setValuePairsForFormula(d);
+        }
+
         else if (formula == 11) {
 
             // read block
@@ -326,6 +488,7 @@ class CCBLOCK extends BLOCK {
             block.setValuesForTextRangeTable(valuesForTextRangeTable);
         }
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -81,6 +83,7 @@ class CEBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CEBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         CEBLOCK block = new CEBLOCK(sbc, pos);
 
         // read block
@@ -91,7 +94,7 @@ class CEBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -111,6 +114,7 @@ class CEBLOCK extends BLOCK {
             block.setCeBlockVectorCAN(CEBLOCK_VectorCAN.read(sbc, pos + 6));
         }
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
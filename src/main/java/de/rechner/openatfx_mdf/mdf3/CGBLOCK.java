@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -160,6 +162,7 @@ class CGBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CGBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         CGBLOCK block = new CGBLOCK(sbc, pos);
 
         // read block header
@@ -170,7 +173,7 @@ class CGBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -213,6 +216,7 @@ class CGBLOCK extends BLOCK {
             block.setLnkFirstSrBlock(Mdf3Util.readLink(bb));
         }
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -306,6 +308,7 @@ class CNBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CNBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         CNBLOCK block = new CNBLOCK(sbc, pos);
 
         // read block
@@ -316,7 +319,7 @@ class CNBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -390,6 +393,7 @@ class CNBLOCK extends BLOCK {
         // larger than 8kBytes
         block.setByteOffset(Mdf3Util.readUInt16(bb));
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
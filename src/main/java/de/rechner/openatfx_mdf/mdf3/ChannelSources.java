@@ -0,0 +1,194 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.rechner.openatfx_mdf.util.ChannelSource;
+import de.rechner.openatfx_mdf.util.ConversionCache;
+import de.rechner.openatfx_mdf.util.GroupLayout;
+import de.rechner.openatfx_mdf.util.NumericConversion;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+import de.rechner.openatfx_mdf.util.TableLookup;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+
+
+/**
+ * Utility class collecting the sources of all numeric channels of a MDF3 file, to read the values directly from the
+ * file without a ODS session.
+ *
+ * @author Christian Rechner
+ */
+public abstract class ChannelSources {
+
+    private static final Log LOG = LogFactory.getLog(ChannelSources.class);
+
+    /**
+     * Returns the sources of all numeric channels of a 'sorted' MDF3 file, the channel groups are numbered by their
+     * data group starting with 0.
+     *
+     * @param idBlock The IDBLOCK.
+     * @return The channel sources, in file order.
+     * @throws IOException Error reading from MDF file or 'unsorted' file.
+     */
+    public static List<ChannelSource> read(IDBLOCK idBlock) throws IOException {
+        List<ChannelSource> sources = new ArrayList<ChannelSource>();
+        ConversionCache conversionCache = new ConversionCache();
+        int groupIndex = 0;
+        DGBLOCK dgBlock = idBlock.getHDBlock().getFirstFileGroup();
+        while (dgBlock != null) {
+            if (dgBlock.getNoChannelGroups() > 1) {
+                throw new IOException("Currently only 'sorted' MDF3 files are supported, found 'unsorted' data! "
+                        + "[DGBLOCK=" + dgBlock + "]");
+            }
+            CGBLOCK cgBlock = dgBlock.getNextCgBlock();
+            if (cgBlock != null) {
+                int recordSize = dgBlock.getRecordSize(cgBlock);
+                long rowCount = cgBlock.getNoOfRecords();
+                List<long[]> fragments = Collections.singletonList(new long[] { dgBlock.getLnkDataRecords(),
+                        rowCount * recordSize });
+                CNBLOCK cnBlock = cgBlock.getFirstCnBlock();
+                while (cnBlock != null) {
+                    RawValueDecoder decoder = createDecoder(idBlock, dgBlock, cgBlock, cnBlock);
+                    if (decoder != null) {
+                        String name = readMeqName(cnBlock).split("\\\\")[0].trim();
+                        boolean signed = decoder.getKind() == RawValueDecoder.SIGNED;
+                        NumericConversion conversion = conversionCache.getConversion(cnBlock.getCcBlock(),
+                                                                                     decoder.getBitCount(),
+                                                                                     decoder.isInteger(), signed);
+                        TableLookup textLookup = conversionCache.getTextLookup(cnBlock.getCcBlock(),
+                                                                               decoder.getBitCount(),
+                                                                               decoder.isInteger(), signed);
+                        TextDictionary dictionary = conversionCache.getTextDictionary(cnBlock.getCcBlock());
+                        sources.add(new ChannelSource(groupIndex, name, cnBlock.getChannelType() == 1, rowCount,
+                                                      recordSize, fragments, decoder, conversion, textLookup,
+                                                      dictionary));
+                    }
+                    cnBlock = cnBlock.getNextCnBlock();
+                }
+            }
+            groupIndex++;
+            dgBlock = dgBlock.getNextDgBlock();
+        }
+        return sources;
+    }
+
+    /**
+     * Returns the record layout of all 'sorted' channel groups by the index of their data group starting with 0, only
+     * the DGBLOCKs and CGBLOCKs are read.
+     *
+     * @param idBlock The IDBLOCK.
+     * @return The layouts, 'unsorted' data groups are left out.
+     * @throws IOException Error reading from MDF file.
+     */
+    public static Map<Integer, GroupLayout> readGroupLayouts(IDBLOCK idBlock) throws IOException {
+        Map<Integer, GroupLayout> layouts = new HashMap<Integer, GroupLayout>();
+        int groupIndex = 0;
+        DGBLOCK dgBlock = idBlock.getHDBlock().getFirstFileGroup();
+        while (dgBlock != null) {
+            CGBLOCK cgBlock = dgBlock.getNextCgBlock();
+            if (cgBlock != null && dgBlock.getNoChannelGroups() == 1) {
+                int recordSize = dgBlock.getRecordSize(cgBlock);
+                long rowCount = cgBlock.getNoOfRecords();
+                List<long[]> fragments = Collections.singletonList(new long[] { dgBlock.getLnkDataRecords(),
+                        rowCount * recordSize });
+                layouts.put(groupIndex, new GroupLayout(rowCount, recordSize, fragments));
+            }
+            groupIndex++;
+            dgBlock = dgBlock.getNextDgBlock();
+        }
+        return layouts;
+    }
+
+    /**
+     * Creates the decoder for the raw values of a numeric channel.
+     * 
+     * @param idBlock The IDBLOCK.
+     * @param dgBlock The DGBLOCK.
+     * @param cgBlock The CGBLOCK.
+     * @param cnBlock The CNBLOCK.
+     * @return The decoder, null if the channel is not numeric or not supported.
+     */
+    static RawValueDecoder createDecoder(IDBLOCK idBlock, DGBLOCK dgBlock, CGBLOCK cgBlock, CNBLOCK cnBlock) {
+        int dt = cnBlock.getSignalDataType();
+        boolean defaultBigEndian = idBlock.getIdByteOrder() != 0;
+        int kind;
+        boolean bigEndian;
+        if (dt == 0) { // unsigned integer, default byte order
+            kind = RawValueDecoder.UNSIGNED;
+            bigEndian = defaultBigEndian;
+        } else if (dt == 1) { // signed integer, default byte order
+            kind = RawValueDecoder.SIGNED;
+            bigEndian = defaultBigEndian;
+        } else if (dt == 2 || dt == 3) { // IEEE 754 floating-point, default byte order
+            kind = RawValueDecoder.FLOAT;
+            bigEndian = defaultBigEndian;
+        } else if (dt == 9) { // unsigned integer BEO
+            kind = RawValueDecoder.UNSIGNED;
+            bigEndian = true;
+        } else if (dt == 10) { // signed integer BEO
+            kind = RawValueDecoder.SIGNED;
+            bigEndian = true;
+        } else if (dt == 11 || dt == 12) { // IEEE 754 floating-point BEO
+            kind = RawValueDecoder.FLOAT;
+            bigEndian = true;
+        } else if (dt == 13) { // unsigned integer LEO
+            kind = RawValueDecoder.UNSIGNED;
+            bigEndian = false;
+        } else if (dt == 14) { // signed integer LEO
+            kind = RawValueDecoder.SIGNED;
+            bigEndian = false;
+        } else if (dt == 15 || dt == 16) { // IEEE 754 floating-point LEO
+            kind = RawValueDecoder.FLOAT;
+            bigEndian = false;
+        } else { // string, byte array
+            return null;
+        }
+
+        int recordIdOffset = (dgBlock.getNoRecordIds() > 0) ? 1 : 0;
+        try {
+            RawValueDecoder decoder = new RawValueDecoder(recordIdOffset + cnBlock.getByteOffset(),
+                                                          cnBlock.getNumberOfFirstBits(), cnBlock.getNumberOfBits(),
+                                                          kind, bigEndian);
+            if (decoder.getRequiredRecordSize() > dgBlock.getRecordSize(cgBlock)) {
+                return null;
+            }
+            return decoder;
+        } catch (IllegalArgumentException e) {
+            LOG.warn(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the name of a channel, the signal display identifier or the MCD unique name if given.
+     * 
+     * @param cnBlock The CNBLOCK.
+     * @return The name, may contain the device name separated by a backslash.
+     * @throws IOException Error reading from MDF file.
+     */
+    static String readMeqName(CNBLOCK cnBlock) throws IOException {
+        String meqName = cnBlock.getSignalName();
+        TXBLOCK signalDisplayIdentifier = cnBlock.getSignalDisplayIdentifier();
+        TXBLOCK mcdUniqueName = cnBlock.getMcdUniqueName();
+        if (signalDisplayIdentifier != null) {
+            String signalDisplayIdentifierTxt = signalDisplayIdentifier.getText().trim();
+            if (signalDisplayIdentifierTxt.length() > 0) {
+                meqName = signalDisplayIdentifierTxt;
+            }
+        } else if (mcdUniqueName != null) {
+            String mcdUniqueNameTxt = mcdUniqueName.getText().trim();
+            if (mcdUniqueNameTxt.length() > 0) {
+                meqName = mcdUniqueNameTxt;
+            }
+        }
+        return meqName;
+    }
+
+}
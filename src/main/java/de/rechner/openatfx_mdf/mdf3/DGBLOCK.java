@@ -5,6 +5,10 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+import de.rechner.openatfx_mdf.util.RecordHandler;
+import de.rechner.openatfx_mdf.util.RecordReader;
+
 
 /**
  * <p>
@@ -45,7 +49,7 @@ class DGBLOCK extends BLOCK {
      * @param sbc The byte channel pointing to the MDF file.
      * @param pos The position of the block within the MDF file.
      */
-    private DGBLOCK(SeekableByteChannel sbc, long pos) {
+    DGBLOCK(SeekableByteChannel sbc, long pos) {
         super(sbc, pos);
     }
 
@@ -123,6 +127,28 @@ class DGBLOCK extends BLOCK {
         return null;
     }
 
+    /**
+     * Returns the size of a data record of given channel group, including the record ids.
+     * 
+     * @param cgBlock The channel group of this ('sorted') data group.
+     * @return The record size in bytes.
+     */
+    public int getRecordSize(CGBLOCK cgBlock) {
+        return cgBlock.getDataRecordSize() + this.noRecordIds;
+    }
+
+    /**
+     * Reads all data records of a 'sorted' data group in a single pass.
+     * 
+     * @param cgBlock The channel group of this data group.
+     * @param handler The handler receiving the records.
+     * @throws IOException Error reading the records.
+     */
+    public void readDataRecords(CGBLOCK cgBlock, RecordHandler handler) throws IOException {
+        new RecordReader(this.sbc).read(this.lnkDataRecords, getRecordSize(cgBlock), cgBlock.getNoOfRecords(),
+                                        handler);
+    }
+
     /**
      * Reads a DGBLOCK from the channel starting at pos
      * 
@@ -132,6 +158,7 @@ class DGBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static DGBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         DGBLOCK block = new DGBLOCK(sbc, pos);
 
         // read block
@@ -142,7 +169,7 @@ class DGBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -171,6 +198,7 @@ class DGBLOCK extends BLOCK {
         // 2 = record ID (UINT8) before and after each data record
         block.setNoRecordIds(Mdf3Util.readUInt16(bb));
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
@@ -1,11 +1,12 @@
 package de.rechner.openatfx_mdf.mdf3;
 
 import java.io.IOException;
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -231,6 +232,7 @@ class HDBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static HDBLOCK read(SeekableByteChannel sbc) throws IOException {
+        long start = System.nanoTime();
         HDBLOCK block = new HDBLOCK(sbc, 64);
 
         // read block header
@@ -241,7 +243,7 @@ class HDBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -290,8 +292,7 @@ class HDBLOCK extends BLOCK {
         if (block.getLength() > 164) {
 
             // UINT64 1 Time stamp at which recording was started in nanoseconds
-            BigInteger nanoseconds = Mdf3Util.readUInt64(bb);
-            block.setTimestamp(nanoseconds.longValue());
+            block.setTimestamp(Mdf3Util.readUInt64(bb));
 
             // INT16 1 UTC time offset in hours (= GMT time zone)
             block.setUtcTimeOffsetHours(Mdf3Util.readInt16(bb));
@@ -304,6 +305,7 @@ class HDBLOCK extends BLOCK {
 
         }
 
+        ConvertMetrics.blockRead(block.getId(), 64, block.getLength(), start);
         return block;
     }
 
@@ -6,6 +6,8 @@ import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -166,6 +168,7 @@ public class IDBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static IDBLOCK read(Path mdfFilePath, SeekableByteChannel sbc) throws IOException {
+        long start = System.nanoTime();
         IDBLOCK idBlock = new IDBLOCK(mdfFilePath, sbc);
 
         // read block
@@ -211,7 +214,7 @@ public class IDBLOCK extends BLOCK {
         idBlock.setIdCodePageNumber(Mdf3Util.readUInt16(bb));
 
         // skip 28 reserved bytes
-        Mdf3Util.readChars(bb, 28);
+        Mdf3Util.skip(bb, 28);
 
         // UINT16 1 Standard Flags for unfinalized MDF
         idBlock.setIdUnfinFlags(Mdf3Util.readUInt16(bb));
@@ -227,6 +230,7 @@ public class IDBLOCK extends BLOCK {
                     + idBlock.getIdCustomUnfinFlags() + "'");
         }
 
+        ConvertMetrics.blockRead("ID", 0, 64, start);
         return idBlock;
     }
 
@@ -1,21 +1,47 @@
 package de.rechner.openatfx_mdf.mdf3;
 
 import java.io.IOException;
-import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 
 /**
  * Utility class having methods to read MDF3 file contents.
+ * <p>
+ * The methods reading from byte buffers do not allocate temporary objects; only the returned strings are created,
+ * block identifiers are returned as shared constants.
  * 
  * @author Christian Rechner
  */
 abstract class Mdf3Util {
 
-    private static final String CHARSET_ISO8859 = "ISO-8859-1";
+    private static final Charset CHARSET_ISO8859 = StandardCharsets.ISO_8859_1;
+
+    // the known block identifiers, looked up by their 2 bytes read as little-endian short
+    private static final String[] BLOCK_IDS = { "HD", "TX", "PR", "TR", "SR", "DG", "CG", "CN", "CC", "CD", "CE" };
+    private static final short[] BLOCK_ID_KEYS = new short[BLOCK_IDS.length];
+    static {
+        for (int i = 0; i < BLOCK_IDS.length; i++) {
+            BLOCK_ID_KEYS[i] = ByteBuffer.wrap(BLOCK_IDS[i].getBytes(CHARSET_ISO8859)).order(ByteOrder.LITTLE_ENDIAN)
+                                         .getShort();
+        }
+    }
+
+    // strings of direct or read-only buffers are copied into a per thread scratch array up to this length
+    private static final int MAX_SCRATCH_LENGTH = 4096;
+
+    private static final ThreadLocal<byte[]> SCRATCH = new ThreadLocal<byte[]>() {
+
+        @Override
+        protected byte[] initialValue() {
+            return new byte[256];
+        }
+
+    };
 
     public static String readChars(SeekableByteChannel channel, int length) throws IOException {
         ByteBuffer bb = ByteBuffer.allocate(length);
@@ -26,21 +52,60 @@ abstract class Mdf3Util {
     }
 
     public static String readChars(ByteBuffer bb, int length) throws IOException {
-        byte[] b = new byte[length];
-        bb.get(b);
+        int pos = bb.position();
+        bb.position(pos + length); // checks the length
 
         // lookup null character for string termination
         int strLength = 0;
-        for (int i = 0; i < b.length; i++) {
-            if (b[i] == 0) {
-                break;
-            }
+        while (strLength < length && bb.get(pos + strLength) != 0) {
             strLength++;
         }
 
+        // decode in place if possible
+        if (bb.hasArray()) {
+            return new String(bb.array(), bb.arrayOffset() + pos, strLength, CHARSET_ISO8859);
+        }
+        byte[] b = (strLength <= MAX_SCRATCH_LENGTH) ? SCRATCH.get() : new byte[strLength];
+        if (b.length < strLength) {
+            b = new byte[Math.max(strLength, b.length * 2)];
+            SCRATCH.set(b);
+        }
+        for (int i = 0; i < strLength; i++) {
+            b[i] = bb.get(pos + i);
+        }
         return new String(b, 0, strLength, CHARSET_ISO8859);
     }
 
+    /**
+     * Read the 2 character block type identifier from the byte buffer. Known identifiers are returned as shared
+     * constants without creating a string.
+     * 
+     * @param bb The byte buffer.
+     * @return The identifier.
+     * @throws IOException Error decoding the identifier.
+     */
+    public static String readBlockId(ByteBuffer bb) throws IOException {
+        int pos = bb.position();
+        short key = bb.getShort();
+        for (int i = 0; i < BLOCK_ID_KEYS.length; i++) {
+            if (BLOCK_ID_KEYS[i] == key) {
+                return BLOCK_IDS[i];
+            }
+        }
+        bb.position(pos);
+        return readChars(bb, 2);
+    }
+
+    /**
+     * Skips a number of bytes of the byte buffer, e.g. reserved bytes.
+     * 
+     * @param bb The byte buffer.
+     * @param length The number of bytes to skip.
+     */
+    public static void skip(ByteBuffer bb, int length) {
+        bb.position(bb.position() + length);
+    }
+
     public static double readReal(FileChannel channel) throws IOException {
         ByteBuffer bb = ByteBuffer.allocate(8);
         bb.order(ByteOrder.LITTLE_ENDIAN);
@@ -57,14 +122,13 @@ abstract class Mdf3Util {
         return bb.getShort() > 0;
     }
 
-    public static BigInteger readUInt64(ByteBuffer bb) {
-        byte[] data = new byte[8];
-        bb.get(data);
-        long l1 = (((long) data[0] & 0xff) << 0) | (((long) data[1] & 0xff) << 8) | (((long) data[2] & 0xff) << 16)
-                | (((long) data[3] & 0xff) << 24);
-        long l2 = (((long) data[4] & 0xff) << 0) | (((long) data[5] & 0xff) << 8) | (((long) data[6] & 0xff) << 16)
-                | (((long) data[7] & 0xff) << 24);
-        return BigInteger.valueOf((l1 << 0) | (l2 << 32));
+    public static long readUInt64(ByteBuffer bb) throws IOException {
+        long value = bb.getLong();
+        if (value < 0) {
+            throw new IOException("UINT64 value at buffer position " + (bb.position() - 8)
+                    + " exceeds the supported range: 0x" + Long.toHexString(value));
+        }
+        return value;
     }
 
     public static long readUInt32(ByteBuffer bb) throws IOException {
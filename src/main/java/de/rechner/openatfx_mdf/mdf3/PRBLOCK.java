@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -58,6 +60,7 @@ class PRBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static PRBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         PRBLOCK block = new PRBLOCK(sbc, pos);
 
         // read block
@@ -68,7 +71,7 @@ class PRBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
 
         // UINT16 1 Block size of this block in bytes
         block.setLength(Mdf3Util.readUInt16(bb));
@@ -79,6 +82,7 @@ class PRBLOCK extends BLOCK {
         // CHAR variable Program-specific data
         block.setText(Mdf3Util.readChars(sbc, block.getLength() - 5));
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
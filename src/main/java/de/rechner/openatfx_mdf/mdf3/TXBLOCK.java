@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -59,6 +61,7 @@ class TXBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static TXBLOCK read(SeekableByteChannel sbc, long pos) throws IOException {
+        long start = System.nanoTime();
         TXBLOCK block = new TXBLOCK(sbc, pos);
 
         // read block
@@ -69,7 +72,7 @@ class TXBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 2 Block type identifier
-        block.setId(Mdf3Util.readChars(bb, 2));
+        block.setId(Mdf3Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
@@ -80,6 +83,7 @@ class TXBLOCK extends BLOCK {
         // CHAR variable Text (new line indicated by CR and LF; end of text indicated by 0)
         block.setText(Mdf3Util.readChars(sbc, block.getLength() - 5));
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
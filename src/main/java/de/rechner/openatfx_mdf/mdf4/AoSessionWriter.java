@@ -17,9 +17,20 @@ import org.asam.ods.InstanceElement;
 import org.asam.ods.NameValueUnit;
 import org.asam.ods.T_LONGLONG;
 
+import de.rechner.openatfx_mdf.ConvertOptions;
+import de.rechner.openatfx_mdf.ConvertPhase;
+import de.rechner.openatfx_mdf.ConvertSummary;
+import de.rechner.openatfx_mdf.util.ConversionCache;
 import de.rechner.openatfx_mdf.util.FileUtil;
+import de.rechner.openatfx_mdf.util.GroupScanWriter;
+import de.rechner.openatfx_mdf.util.ImplicitColumnHelper;
+import de.rechner.openatfx_mdf.util.IndexHelper;
+import de.rechner.openatfx_mdf.util.NumericConversion;
 import de.rechner.openatfx_mdf.util.ODSHelper;
 import de.rechner.openatfx_mdf.util.ODSModelCache;
+import de.rechner.openatfx_mdf.util.PreviewHelper;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+import de.rechner.openatfx_mdf.util.StatisticsHelper;
 
 
 /**
@@ -37,12 +48,53 @@ public class AoSessionWriter {
     /** The XML parser object used for parsing the embedded XML contents */
     private final MDF4XMLParser xmlParser;
 
+    /** The conversion options */
+    private final ConvertOptions options;
+
+    /** The numeric conversions, cached by conversion block */
+    private final ConversionCache conversionCache;
+
+    /** The writer for the channel statistics */
+    private final StatisticsHelper statisticsHelper;
+
+    /** The writer for the min/max preview */
+    private final PreviewHelper previewHelper;
+
+    /** The writer for the indexes */
+    private final IndexHelper indexHelper;
+
+    private final ConvertSummary summary;
+
     /**
      * Constructor.
      */
     public AoSessionWriter() {
+        this(new ConvertOptions());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param options The conversion options.
+     */
+    public AoSessionWriter(ConvertOptions options) {
         this.xmlParser = new MDF4XMLParser();
         this.countFormat = new DecimalFormat("00000");
+        this.options = options;
+        this.conversionCache = new ConversionCache();
+        this.statisticsHelper = new StatisticsHelper();
+        this.previewHelper = new PreviewHelper();
+        this.indexHelper = new IndexHelper();
+        this.summary = new ConvertSummary();
+    }
+
+    /**
+     * Returns the summary of the conversion.
+     * 
+     * @return The summary.
+     */
+    public ConvertSummary getSummary() {
+        return this.summary;
     }
 
     /**
@@ -54,6 +106,8 @@ public class AoSessionWriter {
      * @throws IOException Error reading from MDF file.
      */
     public void writeTst(ODSModelCache modelCache, IDBLOCK idBlock) throws AoException, IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_TST,
+                                                String.valueOf(idBlock.getMdfFilePath().getFileName()));
         ApplicationElement aeEnv = modelCache.getApplicationElement("env");
         ApplicationElement aeTst = modelCache.getApplicationElement("tst");
         ApplicationRelation relEnvPrj = modelCache.getApplicationRelation("env", "tst", "tsts");
@@ -77,6 +131,7 @@ public class AoSessionWriter {
 
         // write 'AoMeasurement' instance
         writeMea(modelCache, ieTst, idBlock);
+        phase.end();
     }
 
     /**
@@ -91,6 +146,7 @@ public class AoSessionWriter {
      */
     private void writeMea(ODSModelCache modelCache, InstanceElement ieTst, IDBLOCK idBlock) throws AoException,
             IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_MEA, null);
         Path fileName = idBlock.getMdfFilePath().getFileName();
         if (fileName == null) {
             throw new IOException("Unable to obtain file name!");
@@ -109,7 +165,9 @@ public class AoSessionWriter {
         if (block instanceof TXBLOCK) {
             nvuList.add(ODSHelper.createStringNVU("desc", ((TXBLOCK) block).getTxData()));
         } else if (block instanceof MDBLOCK) {
+            ConvertPhase xmlPhase = ConvertPhase.begin(ConvertPhase.XML_PARSE, "HD");
             this.xmlParser.writeHDCommentToMea(ieMea, ((MDBLOCK) block).getMdData());
+            xmlPhase.end();
         }
         Calendar cal = Calendar.getInstance();
         cal.setTimeInMillis(hdBlock.getStartTimeNs() / 1000000);
@@ -152,6 +210,7 @@ public class AoSessionWriter {
 
         // write submatrices
         writeSm(modelCache, ieMea, hdBlock);
+        phase.end();
     }
 
     /**
@@ -191,7 +250,9 @@ public class AoSessionWriter {
             nvuList.add(ODSHelper.createShortNVU("dst_offset_min", hdBlock.getDstOffsetMin()));
             ieFh.setValueSeq(nvuList.toArray(new NameValueUnit[0]));
 
+            ConvertPhase xmlPhase = ConvertPhase.begin(ConvertPhase.XML_PARSE, "FH");
             this.xmlParser.writeFHCommentToFh(ieFh, fhBlock.getMdCommentBlock().getMdData());
+            xmlPhase.end();
 
             no++;
             fhBlock = fhBlock.getFhNextBlock();
@@ -209,6 +270,7 @@ public class AoSessionWriter {
      */
     private void writeSm(ODSModelCache modelCache, InstanceElement ieMea, HDBLOCK hdBlock) throws AoException,
             IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_SM, null);
         ApplicationElement aeSm = modelCache.getApplicationElement("sm");
         ApplicationRelation relMeaSm = modelCache.getApplicationRelation("mea", "sm", "sms");
 
@@ -224,8 +286,9 @@ public class AoSessionWriter {
                         + dgBlock + "]");
             }
 
-            // skip channel groups having no channels (or optionally no values)
-            if (cgBlock != null) {
+            // skip channel groups having no channels (or optionally no values) or not accepted by the filter
+            String smName = "sm_" + countFormat.format(grpNo);
+            if (cgBlock != null && acceptGroup(smName, cgBlock)) {
 
                 // check flags (not yet supported)
                 if (cgBlock.getFlags() != 0) {
@@ -237,7 +300,8 @@ public class AoSessionWriter {
                 }
 
                 // create SubMatrix instance
-                InstanceElement ieSm = aeSm.createInstance("sm_" + countFormat.format(grpNo));
+                InstanceElement ieSm = aeSm.createInstance(smName);
+                this.summary.addGroup();
                 List<NameValueUnit> nvuList = new ArrayList<>();
                 TXBLOCK txAcqName = cgBlock.getTxAcqNameBlock();
                 if (txAcqName != null) {
@@ -251,7 +315,9 @@ public class AoSessionWriter {
                 if (block instanceof TXBLOCK) {
                     nvuList.add(ODSHelper.createStringNVU("desc", ((TXBLOCK) block).getTxData()));
                 } else if (block instanceof MDBLOCK) {
+                    ConvertPhase xmlPhase = ConvertPhase.begin(ConvertPhase.XML_PARSE, "CG");
                     this.xmlParser.writeCGCommentToCg(ieSm, ((MDBLOCK) block).getMdData());
+                    xmlPhase.end();
                 }
                 nvuList.add(ODSHelper.createLongNVU("rows", (int) cgBlock.getCycleCount()));
                 ieSm.setValueSeq(nvuList.toArray(new NameValueUnit[0]));
@@ -264,6 +330,24 @@ public class AoSessionWriter {
             dgBlock = dgBlock.getDgNextBlock();
             grpNo++;
         }
+        phase.end();
+    }
+
+    /**
+     * Returns whether a channel group is accepted by the group filter of the conversion options.
+     * 
+     * @param smName The name of the 'AoSubMatrix' instance.
+     * @param cgBlock The CGBLOCK.
+     * @return True, if the channel group is to be converted.
+     * @throws IOException Error reading from MDF file.
+     */
+    private boolean acceptGroup(String smName, CGBLOCK cgBlock) throws IOException {
+        if (this.options.getGroupFilter().isAll()) {
+            return true;
+        }
+        TXBLOCK txAcqName = cgBlock.getTxAcqNameBlock();
+        String acqName = (txAcqName == null) ? null : txAcqName.getTxData();
+        return this.options.getGroupFilter().accept(smName, acqName);
     }
 
     /**
@@ -279,12 +363,17 @@ public class AoSessionWriter {
      */
     private void writeLc(ODSModelCache modelCache, InstanceElement ieMea, InstanceElement ieSm, DGBLOCK dgBlock,
             CGBLOCK cgBlock) throws AoException, IOException {
+        ConvertPhase phase = ConvertPhase.begin(ConvertPhase.WRITE_LC, ieSm.getName());
         // ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
         ApplicationElement aeLc = modelCache.getApplicationElement("lc");
         ApplicationRelation relSmLc = modelCache.getApplicationRelation("sm", "lc", "lcs");
         // ApplicationRelation relMeaMeq = modelCache.getApplicationRelation("mea", "meq", "meqs");
         // ApplicationRelation relLcMeq = modelCache.getApplicationRelation("lc", "meq", "meq");
 
+        // all channels of the group are scanned in a single pass over the records
+        GroupScanWriter scanWriter = new GroupScanWriter(this.options, this.statisticsHelper, this.previewHelper,
+                                                        this.indexHelper, this.summary);
+
         // iterate over channel blocks
         CNBLOCK cnBlock = cgBlock.getCnFirstBlock();
         while (cnBlock != null) {
@@ -300,6 +389,13 @@ public class AoSessionWriter {
             TXBLOCK txBlock = cnBlock.getCnTxNameBlock();
             String signalName = txBlock.getTxData();
 
+            // skip channels not accepted by the filter, master channels are always needed
+            boolean master = cnBlock.getChannelType() == 2 || cnBlock.getChannelType() == 3;
+            if (!master && !this.options.getChannelFilter().accept(signalName)) {
+                cnBlock = cnBlock.getCnNextBlock();
+                continue;
+            }
+
             // cn_si_source
             SIBLOCK siBlock = cnBlock.getSiSourceBlock();
             if (siBlock != null) {
@@ -323,6 +419,17 @@ public class AoSessionWriter {
             // create instance of 'AoLocalColumn'
             InstanceElement ieLc = aeLc.createInstance(signalName);
             ieSm.createRelation(relSmLc, ieLc);
+            this.summary.addChannel();
+
+            // virtual master channel: the values are given by the record index, nothing is stored
+            if (cnBlock.getChannelType() == 3) {
+                writeVirtualMasterLc(modelCache, ieLc, cnBlock);
+            }
+
+            // register channel for the data scan (statistics, preview)
+            if (this.options.isDataScanRequired()) {
+                registerScanChannel(scanWriter, dgBlock, cgBlock, cnBlock, ieLc);
+            }
 
             // create instance of 'AoMeasurementQuantity' (if not yet existing)
 
@@ -448,6 +555,85 @@ public class AoSessionWriter {
             // jump to next channel
             cnBlock = cnBlock.getCnNextBlock();
         }
+
+        // read the records and write the scan results
+        if (!scanWriter.isEmpty()) {
+            dgBlock.readDataRecords(cgBlock, scanWriter.getScan());
+            scanWriter.write(modelCache, ieMea, ieSm);
+        }
+        phase.end();
+    }
+
+    /**
+     * Writes a virtual master channel as 'implicit_linear' local column. The raw value of a virtual master channel is
+     * the record index, so its physical values are linear if the conversion is linear. For other conversions the
+     * sequence representation and generation parameters of the conversion are written, see
+     * {@link SequenceRepresentations#getSeqRep(CCBLOCK)}.
+     * 
+     * @param modelCache The application model cache.
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param cnBlock The CNBLOCK.
+     * @throws AoException Error writing to session.
+     * @throws IOException Error reading from MDF file.
+     */
+    private void writeVirtualMasterLc(ODSModelCache modelCache, InstanceElement ieLc, CNBLOCK cnBlock)
+            throws AoException, IOException {
+        CCBLOCK ccBlock = cnBlock.getCcConversionBlock();
+        if (ccBlock == null || ccBlock.getType() == 0 || ccBlock.getType() == 1) {
+            double start = 0;
+            double increment = 1;
+            if (ccBlock != null && ccBlock.getType() == 1) { // linear conversion: phys = P2 * int + P1
+                start = ccBlock.getVal()[0];
+                increment = ccBlock.getVal()[1];
+            }
+            ImplicitColumnHelper.writeImplicitLinear(modelCache, ieLc, start, increment);
+            this.summary.addImplicitLinear();
+        } else {
+            LOG.warn("Non linear conversion of virtual master channel, values not implicit: " + cnBlock);
+            double[] par = SequenceRepresentations.getGenerationParameters(ccBlock);
+            ieLc.setValue(ODSHelper.createEnumNVU("srp", SequenceRepresentations.getSeqRep(ccBlock)));
+            ieLc.setValue(ODSHelper.createDoubleSeqNVU("par", par));
+        }
+        ieLc.setValue(ODSHelper.createShortNVU("idp", (short) 1));
+    }
+
+    /**
+     * Registers a channel for the single pass over the records of its channel group.
+     * 
+     * @param scanWriter The scan of the channel group.
+     * @param dgBlock The DGBLOCK.
+     * @param cgBlock The CGBLOCK.
+     * @param cnBlock The CNBLOCK.
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @throws IOException Error reading from MDF file.
+     */
+    private void registerScanChannel(GroupScanWriter scanWriter, DGBLOCK dgBlock, CGBLOCK cgBlock, CNBLOCK cnBlock,
+            InstanceElement ieLc) throws IOException {
+        // virtual master channel: the raw value is the record index
+        if (cnBlock.getChannelType() == 3) {
+            NumericConversion conversion = this.conversionCache.getConversion(cnBlock.getCcConversionBlock(), 64, true,
+                                                                              false);
+            if (conversion != null) {
+                scanWriter.setVirtualMaster(ieLc, conversion);
+            }
+            return;
+        }
+        // fixed length data and master channels only
+        if (cnBlock.getChannelType() != 0 && cnBlock.getChannelType() != 2) {
+            return;
+        }
+        RawValueDecoder decoder = ChannelSources.createDecoder(dgBlock, cgBlock, cnBlock);
+        NumericConversion conversion = null;
+        if (decoder != null) {
+            conversion = this.conversionCache.getConversion(cnBlock.getCcConversionBlock(), decoder.getBitCount(),
+                                                            decoder.isInteger(),
+                                                            decoder.getKind() == RawValueDecoder.SIGNED);
+        }
+        if (conversion == null) {
+            LOG.warn("Unable to scan values of channel: " + cnBlock);
+            return;
+        }
+        scanWriter.addChannel(ieLc, null, decoder, conversion, cnBlock.getChannelType() == 2);
     }
 
     /**************************************************************************************
@@ -482,7 +668,9 @@ public class AoSessionWriter {
         if (block instanceof TXBLOCK) {
             nvuList.add(ODSHelper.createStringNVU("src_cmt", ((TXBLOCK) block).getTxData()));
         } else if (block instanceof MDBLOCK) {
+            ConvertPhase xmlPhase = ConvertPhase.begin(ConvertPhase.XML_PARSE, "SI");
             this.xmlParser.writeSICommentToCg(ie, ((MDBLOCK) block).getMdData());
+            xmlPhase.end();
         }
         // si_type
         nvuList.add(ODSHelper.createEnumNVU("src_type", siBlock.getSourceType()));
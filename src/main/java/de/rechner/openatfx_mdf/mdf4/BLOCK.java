@@ -128,7 +128,7 @@ abstract class BLOCK {
         channel.position(pos);
         channel.read(bb);
         bb.rewind();
-        return MDF4Util.readCharsISO8859(bb, 4);
+        return MDF4Util.readBlockId(bb);
     }
 
 }
\ No newline at end of file
@@ -6,6 +6,16 @@ import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+import de.rechner.openatfx_mdf.util.ConversionBlock;
+import de.rechner.openatfx_mdf.util.Conversions;
+import de.rechner.openatfx_mdf.util.KeyLookupTable;
+import de.rechner.openatfx_mdf.util.NumericConversion;
+import de.rechner.openatfx_mdf.util.RangeLookupTable;
+import de.rechner.openatfx_mdf.util.TableLookup;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+import de.rechner.openatfx_mdf.util.ValueLookupTable;
+
 
 /**
  * <p>
@@ -17,7 +27,7 @@ import java.util.Arrays;
  * 
  * @author Christian Rechner
  */
-class CCBLOCK extends BLOCK {
+class CCBLOCK extends BLOCK implements ConversionBlock {
 
     public static String BLOCK_ID = "##CC";
 
@@ -265,11 +275,22 @@ class CCBLOCK extends BLOCK {
         return null;
     }
 
+    /**
+     * Returns the TXBLOCKs referenced by <code>cc_ref</code>.
+     * 
+     * @return The blocks, an element is null for a link to nil; null if there are no references.
+     * @throws IOException Error reading the TXBLOCKs or a reference to a nested CCBLOCK (scale conversion), which is
+     *             not supported.
+     */
     public TXBLOCK[] getCcRefBlocks() throws IOException {
         if (this.lnkCcRef.length > 0) {
             TXBLOCK[] ccRef = new TXBLOCK[this.lnkCcRef.length];
             for (int i = 0; i < ccRef.length; i++) {
                 if (lnkCcRef[i] > 0) {
+                    if (getBlockType(this.sbc, this.lnkCcRef[i]).equals(BLOCK_ID)) {
+                        throw new IOException("Scale conversion referenced by cc_ref[" + i + "] of CCBLOCK at "
+                                + getPos() + " not supported");
+                    }
                     ccRef[i] = TXBLOCK.read(this.sbc, this.lnkCcRef[i]);
                 }
             }
@@ -278,6 +299,150 @@ class CCBLOCK extends BLOCK {
         return null;
     }
 
+    /**
+     * Returns the lookup for the conversions 'value to value tabular look-up' with (type 4) or without (type 5)
+     * interpolation. The table is sorted once, each lookup is a binary search.
+     * 
+     * @return The lookup table, null if the conversion is no value to value table.
+     */
+    public ValueLookupTable getValueTableLookup() {
+        if ((this.type != 4) && (this.type != 5)) {
+            return null;
+        }
+        int n = this.val.length / 2;
+        double[] keys = new double[n];
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = this.val[i * 2];
+            values[i] = this.val[i * 2 + 1];
+        }
+        return new ValueLookupTable(keys, values, this.type == 4);
+    }
+
+    /**
+     * Returns the lookup for the conversions 'value range to value' (type 6), 'value to text/scale' (type 7) and 'value
+     * range to text/scale' (type 8).
+     * <p>
+     * The index returned by the lookup is the number of the table entry: for type 6 the physical value is found at
+     * <code>val[index*3+2]</code>, for types 7 and 8 the text or scale conversion at <code>cc_ref[index]</code>. The
+     * default value (index -1) is the last element of <code>val</code> resp. <code>cc_ref</code>.
+     * 
+     * @param integerRaw Whether the raw values are integers; the upper limit of a range belongs to the range only for
+     *            integer values.
+     * @return The lookup table, null if the conversion is none of the types above.
+     */
+    public TableLookup getTableLookup(boolean integerRaw) {
+        if (this.type == 6) {
+            int n = (this.val.length - 1) / 3;
+            double[] lower = new double[n];
+            double[] upper = new double[n];
+            for (int i = 0; i < n; i++) {
+                lower[i] = this.val[i * 3];
+                upper[i] = this.val[i * 3 + 1];
+            }
+            return new RangeLookupTable(lower, upper, integerRaw);
+        } else if (this.type == 7) {
+            return new KeyLookupTable(this.val);
+        } else if (this.type == 8) {
+            int n = this.val.length / 2;
+            double[] lower = new double[n];
+            double[] upper = new double[n];
+            for (int i = 0; i < n; i++) {
+                lower[i] = this.val[i * 2];
+                upper[i] = this.val[i * 2 + 1];
+            }
+            return new RangeLookupTable(lower, upper, integerRaw);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the lookup for the conversions 'value to text/scale' (type 7) and 'value range to text/scale' (type 8),
+     * see {@link #getTableLookup(boolean)}.
+     * 
+     * @param integerRaw Whether the raw values are integers.
+     * @return The lookup table, null if the conversion is none of the types above.
+     */
+    @Override
+    public TableLookup getTextTableLookup(boolean integerRaw) {
+        return isTextConversion() ? getTableLookup(integerRaw) : null;
+    }
+
+    /**
+     * Returns the dictionary of the conversions 'value to text' (type 7) and 'value range to text' (type 8). Together
+     * with {@link #getTableLookup(boolean)} a channel may be encoded as a column of dictionary codes.
+     * 
+     * @return The dictionary, null if the conversion is none of the types above.
+     * @throws IOException Error reading the TXBLOCKs or a table entry referring to a scale conversion.
+     */
+    @Override
+    public TextDictionary getTextDictionary() throws IOException {
+        if ((this.type != 7) && (this.type != 8)) {
+            return null;
+        }
+        // without references no table entry has a text, not even the default
+        if (this.lnkCcRef.length == 0) {
+            return new TextDictionary(new String[this.type == 7 ? this.val.length : this.val.length / 2], null);
+        }
+        // the last reference is the default text
+        TXBLOCK[] txBlocks = getCcRefBlocks();
+        String[] values = new String[this.lnkCcRef.length - 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (txBlocks[i] == null) ? null : txBlocks[i].getTxData();
+        }
+        TXBLOCK defaultBlock = txBlocks[values.length];
+        return new TextDictionary(values, defaultBlock == null ? null : defaultBlock.getTxData());
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see de.rechner.openatfx_mdf.util.ConversionBlock#isTextConversion()
+     */
+    @Override
+    public boolean isTextConversion() {
+        return (this.type == 7) || (this.type == 8);
+    }
+
+    /**
+     * Returns the numeric conversion of this block.
+     * <p>
+     * The algebraic conversion (type 3) would require an expression evaluator, the text conversions (types 7 to 10) do
+     * not have a numeric result. For those null is returned.
+     * 
+     * @param integerRaw Whether the raw values are integers, see {@link #getTableLookup(boolean)}.
+     * @return The conversion, null if not numeric.
+     */
+    @Override
+    public NumericConversion getNumericConversion(boolean integerRaw) {
+        // 1:1 conversion
+        if (this.type == 0) {
+            return Conversions.IDENTITY;
+        }
+        // linear conversion: phys = P2 * int + P1
+        else if (this.type == 1) {
+            return Conversions.linear(this.val[0], this.val[1]);
+        }
+        // rational conversion
+        else if (this.type == 2) {
+            return Conversions.rational(this.val);
+        }
+        // value to value tabular look-up with/without interpolation
+        else if ((this.type == 4) || (this.type == 5)) {
+            return Conversions.valueTable(getValueTableLookup());
+        }
+        // value range to value tabular look-up
+        else if (this.type == 6) {
+            int n = (this.val.length - 1) / 3;
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = this.val[i * 3 + 2];
+            }
+            return Conversions.lookupTable(getTableLookup(integerRaw), values, this.val[n * 3]);
+        }
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -301,6 +466,7 @@ class CCBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CCBLOCK read(SeekableByteChannel channel, long pos) throws IOException {
+        long start = System.nanoTime();
         CCBLOCK block = new CCBLOCK(channel, pos);
 
         // read block header
@@ -311,13 +477,13 @@ class CCBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -379,6 +545,7 @@ class CCBLOCK extends BLOCK {
         }
         block.setLnkCcRef(lnkCcRef);
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
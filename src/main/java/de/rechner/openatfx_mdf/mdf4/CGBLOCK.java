@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -261,6 +263,7 @@ class CGBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CGBLOCK read(SeekableByteChannel channel, long pos) throws IOException {
+        long start = System.nanoTime();
         CGBLOCK block = new CGBLOCK(channel, pos);
 
         // read block header
@@ -271,13 +274,13 @@ class CGBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -317,7 +320,7 @@ class CGBLOCK extends BLOCK {
         block.setPathSeparator(MDF4Util.readUInt16(bb));
 
         // BYTE 4 Reserved.
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT32: Number of data Bytes (after record ID) used for signal values in record.
         block.setDataBytes(MDF4Util.readUInt32(bb));
@@ -325,6 +328,7 @@ class CGBLOCK extends BLOCK {
         // UINT32: Number of additional Bytes for record used for invalidation bits.
         block.setInvalBytes(MDF4Util.readUInt32(bb));
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
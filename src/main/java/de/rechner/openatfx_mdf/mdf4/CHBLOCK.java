@@ -5,6 +5,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -62,6 +64,7 @@ class CHBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CHBLOCK read(SeekableByteChannel channel, long pos) throws IOException {
+        long start = System.nanoTime();
         CHBLOCK block = new CHBLOCK(channel, pos);
 
         // read block header
@@ -72,13 +75,13 @@ class CHBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -95,6 +98,7 @@ class CHBLOCK extends BLOCK {
 
         // TODO: implement reading
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
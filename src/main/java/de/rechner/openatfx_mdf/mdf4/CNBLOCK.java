@@ -6,6 +6,8 @@ import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -504,6 +506,7 @@ class CNBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static CNBLOCK read(SeekableByteChannel channel, long pos) throws IOException {
+        long start = System.nanoTime();
         CNBLOCK block = new CNBLOCK(channel, pos);
 
         // read block header
@@ -514,13 +517,13 @@ class CNBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -616,6 +619,7 @@ class CNBLOCK extends BLOCK {
         }
         block.setLnkDefaultX(lnkDefX);
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
@@ -0,0 +1,163 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.rechner.openatfx_mdf.util.ChannelSource;
+import de.rechner.openatfx_mdf.util.ConversionCache;
+import de.rechner.openatfx_mdf.util.GroupLayout;
+import de.rechner.openatfx_mdf.util.NumericConversion;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+import de.rechner.openatfx_mdf.util.TableLookup;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+
+
+/**
+ * Utility class collecting the sources of all numeric channels of a MDF4 file, to read the values directly from the
+ * file without a ODS session.
+ *
+ * @author Christian Rechner
+ */
+public abstract class ChannelSources {
+
+    private static final Log LOG = LogFactory.getLog(ChannelSources.class);
+
+    /**
+     * Returns the sources of all numeric fixed length and master channels of a 'sorted' MDF4 file, the channel groups
+     * are numbered by their data group starting with 0. Channel groups having an unsupported data storage (e.g.
+     * compressed data) are skipped.
+     *
+     * @param idBlock The IDBLOCK.
+     * @return The channel sources, in file order.
+     * @throws IOException Error reading from MDF file or 'unsorted' file.
+     */
+    public static List<ChannelSource> read(IDBLOCK idBlock) throws IOException {
+        List<ChannelSource> sources = new ArrayList<ChannelSource>();
+        ConversionCache conversionCache = new ConversionCache();
+        int groupIndex = 0;
+        DGBLOCK dgBlock = idBlock.getHDBlock().getDgFirstBlock();
+        while (dgBlock != null) {
+            CGBLOCK cgBlock = dgBlock.getCgFirstBlock();
+            if (cgBlock != null && cgBlock.getLnkCgNext() > 0) {
+                throw new IOException("Only 'sorted' MDF4 files are supported, found 'unsorted' data! [DGBLOCK="
+                        + dgBlock + "]");
+            }
+            List<long[]> fragments = null;
+            if (cgBlock != null) {
+                try {
+                    fragments = dgBlock.getDataFragments();
+                } catch (IOException e) { // e.g. compressed data
+                    LOG.warn("Skipping channel group " + groupIndex + ": " + e.getMessage());
+                }
+            }
+            if (fragments != null) {
+                int recordSize = dgBlock.getRecordSize(cgBlock);
+                long rowCount = cgBlock.getCycleCount();
+                CNBLOCK cnBlock = cgBlock.getCnFirstBlock();
+                while (cnBlock != null) {
+                    String name = cnBlock.getCnTxNameBlock().getTxData();
+                    CCBLOCK ccBlock = cnBlock.getCcConversionBlock();
+                    int channelType = cnBlock.getChannelType();
+                    if (channelType == 3) { // virtual master: the raw value is the record index
+                        NumericConversion conversion = conversionCache.getConversion(ccBlock, 64, true, false);
+                        sources.add(new ChannelSource(groupIndex, name, true, rowCount, recordSize, fragments, null,
+                                                      conversion, null, null));
+                    } else if (channelType == 0 || channelType == 2) {
+                        RawValueDecoder decoder = createDecoder(dgBlock, cgBlock, cnBlock);
+                        if (decoder != null) {
+                            boolean signed = decoder.getKind() == RawValueDecoder.SIGNED;
+                            NumericConversion conversion = conversionCache.getConversion(ccBlock,
+                                                                                         decoder.getBitCount(),
+                                                                                         decoder.isInteger(), signed);
+                            TableLookup textLookup = conversionCache.getTextLookup(ccBlock, decoder.getBitCount(),
+                                                                                   decoder.isInteger(), signed);
+                            TextDictionary dictionary = getTextDictionary(conversionCache, ccBlock);
+                            sources.add(new ChannelSource(groupIndex, name, channelType == 2, rowCount, recordSize,
+                                                          fragments, decoder, conversion, textLookup, dictionary));
+                        }
+                    }
+                    cnBlock = cnBlock.getCnNextBlock();
+                }
+            }
+            groupIndex++;
+            dgBlock = dgBlock.getDgNextBlock();
+        }
+        return sources;
+    }
+
+    private static TextDictionary getTextDictionary(ConversionCache conversionCache, CCBLOCK ccBlock) {
+        try {
+            return conversionCache.getTextDictionary(ccBlock);
+        } catch (IOException e) { // e.g. a table entry referring to a scale conversion
+            LOG.warn("No text dictionary for conversion at " + ccBlock.getPos() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the record layout of all 'sorted' channel groups by the index of their data group starting with 0, only
+     * the DGBLOCKs, CGBLOCKs and the headers of the data blocks are read.
+     *
+     * @param idBlock The IDBLOCK.
+     * @return The layouts, 'unsorted' data groups are left out.
+     * @throws IOException Error reading from MDF file or unsupported data storage.
+     */
+    public static Map<Integer, GroupLayout> readGroupLayouts(IDBLOCK idBlock) throws IOException {
+        Map<Integer, GroupLayout> layouts = new HashMap<Integer, GroupLayout>();
+        int groupIndex = 0;
+        DGBLOCK dgBlock = idBlock.getHDBlock().getDgFirstBlock();
+        while (dgBlock != null) {
+            CGBLOCK cgBlock = dgBlock.getCgFirstBlock();
+            if (cgBlock != null && cgBlock.getLnkCgNext() == 0) {
+                layouts.put(groupIndex, new GroupLayout(cgBlock.getCycleCount(), dgBlock.getRecordSize(cgBlock),
+                                                        dgBlock.getDataFragments()));
+            }
+            groupIndex++;
+            dgBlock = dgBlock.getDgNextBlock();
+        }
+        return layouts;
+    }
+
+    /**
+     * Creates the decoder for the raw values of a numeric channel.
+     * 
+     * @param dgBlock The DGBLOCK.
+     * @param cgBlock The CGBLOCK.
+     * @param cnBlock The CNBLOCK.
+     * @return The decoder, null if the channel is not numeric or not supported.
+     */
+    static RawValueDecoder createDecoder(DGBLOCK dgBlock, CGBLOCK cgBlock, CNBLOCK cnBlock) {
+        int dt = cnBlock.getDataType();
+        int kind;
+        if (dt == 0 || dt == 1) { // unsigned integer LE/BE
+            kind = RawValueDecoder.UNSIGNED;
+        } else if (dt == 2 || dt == 3) { // signed integer LE/BE
+            kind = RawValueDecoder.SIGNED;
+        } else if (dt == 4 || dt == 5) { // IEEE 754 floating-point LE/BE
+            kind = RawValueDecoder.FLOAT;
+        } else { // strings, byte arrays, MIME, CANopen
+            return null;
+        }
+        boolean bigEndian = (dt % 2) == 1;
+
+        try {
+            RawValueDecoder decoder = new RawValueDecoder((int) (dgBlock.getRecIdSize() + cnBlock.getByteOffset()),
+                                                          cnBlock.getBitOffset(), (int) cnBlock.getBitCount(), kind,
+                                                          bigEndian);
+            if (decoder.getRequiredRecordSize() > dgBlock.getRecordSize(cgBlock)) {
+                return null;
+            }
+            return decoder;
+        } catch (IllegalArgumentException e) {
+            LOG.warn(e.getMessage());
+            return null;
+        }
+    }
+
+}
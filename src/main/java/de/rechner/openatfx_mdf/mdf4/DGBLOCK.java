@@ -4,6 +4,12 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.rechner.openatfx_mdf.ConvertMetrics;
+import de.rechner.openatfx_mdf.util.RecordHandler;
+import de.rechner.openatfx_mdf.util.RecordReader;
 
 
 /**
@@ -57,7 +63,7 @@ class DGBLOCK extends BLOCK {
      * @param sbc The byte channel pointing to the MDF file.
      * @param pos The position of the block within the MDF file.
      */
-    private DGBLOCK(SeekableByteChannel sbc, long pos) {
+    DGBLOCK(SeekableByteChannel sbc, long pos) {
         super(sbc, pos);
     }
 
@@ -144,6 +150,68 @@ class DGBLOCK extends BLOCK {
         return null;
     }
 
+    /**
+     * Returns the data sections of this data group in file order, each given as array of the start position and the
+     * length in bytes. The data may be stored in a single DTBLOCK or a list of DTBLOCKs.
+     * 
+     * @return The data fragments, empty if no data.
+     * @throws IOException Error reading block or unsupported data storage (e.g. compressed).
+     */
+    public List<long[]> getDataFragments() throws IOException {
+        List<long[]> fragments = new ArrayList<long[]>();
+        if (this.lnkData <= 0) {
+            return fragments;
+        }
+        String blockType = getBlockType(this.sbc, this.lnkData);
+        if (blockType.equals(DTBLOCK.BLOCK_ID)) {
+            addDtFragment(fragments, this.lnkData);
+        } else if (blockType.equals(DLBLOCK.BLOCK_ID)) {
+            long lnkDl = this.lnkData;
+            while (lnkDl > 0) {
+                DLBLOCK dlBlock = DLBLOCK.read(this.sbc, lnkDl);
+                for (long lnkDt : dlBlock.getLnkDlData()) {
+                    String dataBlockType = getBlockType(this.sbc, lnkDt);
+                    if (!dataBlockType.equals(DTBLOCK.BLOCK_ID)) {
+                        throw new IOException("Unsupported block type for data list: " + dataBlockType);
+                    }
+                    addDtFragment(fragments, lnkDt);
+                }
+                lnkDl = dlBlock.getLnkDlNext();
+            }
+        } else {
+            throw new IOException("Unsupported block type for data: " + blockType);
+        }
+        return fragments;
+    }
+
+    private void addDtFragment(List<long[]> fragments, long lnkDt) throws IOException {
+        DTBLOCK dtBlock = DTBLOCK.read(this.sbc, lnkDt);
+        // block header: id, reserved, length, link count
+        fragments.add(new long[] { lnkDt + 24, dtBlock.getLength() - 24 });
+    }
+
+    /**
+     * Returns the size of a data record of given channel group, including the record id.
+     * 
+     * @param cgBlock The channel group.
+     * @return The record size in bytes.
+     */
+    public int getRecordSize(CGBLOCK cgBlock) {
+        return (int) (this.recIdSize + cgBlock.getDataBytes() + cgBlock.getInvalBytes());
+    }
+
+    /**
+     * Reads all data records of a 'sorted' data group in a single pass.
+     * 
+     * @param cgBlock The channel group of this data group.
+     * @param handler The handler receiving the records.
+     * @throws IOException Error reading the records.
+     */
+    public void readDataRecords(CGBLOCK cgBlock, RecordHandler handler) throws IOException {
+        new RecordReader(this.sbc).read(getDataFragments(), getRecordSize(cgBlock), cgBlock.getCycleCount(),
+                                        handler);
+    }
+
     /**
      * {@inheritDoc}
      * 
@@ -164,6 +232,7 @@ class DGBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static DGBLOCK read(SeekableByteChannel channel, long pos) throws IOException {
+        long start = System.nanoTime();
         DGBLOCK block = new DGBLOCK(channel, pos);
 
         // read block header
@@ -174,13 +243,13 @@ class DGBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -204,6 +273,7 @@ class DGBLOCK extends BLOCK {
         // UINT8: Number of Bytes used for record IDs in the data block.
         block.setRecIdSize(MDF4Util.readUInt8(bb));
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
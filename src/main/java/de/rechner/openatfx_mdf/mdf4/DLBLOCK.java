@@ -7,6 +7,8 @@ import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 import java.util.Arrays;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -136,6 +138,7 @@ class DLBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static DLBLOCK read(SeekableByteChannel channel, long pos) throws IOException {
+        long start = System.nanoTime();
         DLBLOCK block = new DLBLOCK(channel, pos);
 
         // read block header
@@ -146,13 +149,13 @@ class DLBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -179,7 +182,7 @@ class DLBLOCK extends BLOCK {
         block.setFlags(MDF4Util.readUInt8(bb));
 
         // BYTE 3: Reserved
-        bb.get(new byte[3]);
+        MDF4Util.skip(bb, 3);
 
         // UINT32: Number of referenced blocks
         block.setCount(MDF4Util.readUInt32(bb));
@@ -206,6 +209,7 @@ class DLBLOCK extends BLOCK {
         }
         block.setLnkDlData(lnkDlData);
 
+        ConvertMetrics.blockRead(block.getId(), pos, block.getLength(), start);
         return block;
     }
 
@@ -6,6 +6,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -306,6 +308,7 @@ class HDBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static HDBLOCK read(SeekableByteChannel sbc) throws IOException {
+        long start = System.nanoTime();
         HDBLOCK block = new HDBLOCK(sbc);
 
         // read block header
@@ -316,13 +319,13 @@ class HDBLOCK extends BLOCK {
         bb.rewind();
 
         // CHAR 4: Block type identifier
-        block.setId(MDF4Util.readCharsISO8859(bb, 4));
+        block.setId(MDF4Util.readBlockId(bb));
         if (!block.getId().equals(BLOCK_ID)) {
             throw new IOException("Wrong block type - expected '" + BLOCK_ID + "', found '" + block.getId() + "'");
         }
 
         // BYTE 4: Reserved used for 8-Byte alignment
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT64: Length of block
         block.setLength(MDF4Util.readUInt64(bb));
@@ -378,6 +381,7 @@ class HDBLOCK extends BLOCK {
         // REAL: Start distance in meters at start of measurement
         block.setStartDistanceM(MDF4Util.readReal(bb));
 
+        ConvertMetrics.blockRead(block.getId(), 64, block.getLength(), start);
         return block;
     }
 
@@ -6,6 +6,8 @@ import java.nio.ByteOrder;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Path;
 
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
 
 /**
  * <p>
@@ -147,6 +149,7 @@ public class IDBLOCK extends BLOCK {
      * @throws IOException The exception.
      */
     public static IDBLOCK read(Path mdfFilePath, SeekableByteChannel sbc) throws IOException {
+        long start = System.nanoTime();
         IDBLOCK block = new IDBLOCK(mdfFilePath, sbc);
 
         // read block
@@ -172,7 +175,7 @@ public class IDBLOCK extends BLOCK {
         block.setIdProg(MDF4Util.readCharsISO8859(bb, 8));
 
         // BYTE 4: id_reserved
-        bb.get(new byte[4]);
+        MDF4Util.skip(bb, 4);
 
         // UINT16: Version number
         block.setIdVer(MDF4Util.readUInt16(bb));
@@ -180,9 +183,12 @@ public class IDBLOCK extends BLOCK {
             throw new IOException("Unsupported MDF4 version, must be >400: " + block.getIdVer());
         }
 
+        // BYTE 30: id_reserved
+        MDF4Util.skip(bb, 30);
+
         // UINT16: Standard flags for unfinalized MDF.
         block.setIdUnfinFlags(MDF4Util.readUInt16(bb));
-        if (block.getIdCustomUnfinFlags() != 0) {
+        if (block.getIdUnfinFlags() != 0) {
             throw new IOException("Only finalized MDF file can be read, found unfinalized standard flag '"
                     + block.getIdUnfinFlags() + "'");
         }
@@ -194,6 +200,7 @@ public class IDBLOCK extends BLOCK {
                     + block.getIdCustomUnfinFlags() + "'");
         }
 
+        ConvertMetrics.blockRead("ID", 0, 64, start);
         return block;
     }
 
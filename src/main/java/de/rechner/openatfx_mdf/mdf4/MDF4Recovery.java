@@ -0,0 +1,310 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+
+/**
+ * Utility class repairing the block model of an unfinalized MDF4 file (e.g. left by a crashed logger) in memory, so
+ * the file can be read without running a finalizer rewriting the whole file.
+ * <p>
+ * Only the block headers and links are read, the data is not scanned:
+ * <ul>
+ * <li>links pointing outside the file or not to a block are ignored (read as 0),</li>
+ * <li>open data lists are closed behind the last valid data block,</li>
+ * <li>the length of the last data block is extended to the end of the file unless another block follows it, the length
+ * of any other data block is limited by the next known block,</li>
+ * <li>the cycle counts of 'sorted' channel groups are recomputed from the length of their data blocks.</li>
+ * </ul>
+ * The repairs are applied as patches of a {@link RecoveryChannel}. The cycle counts of 'unsorted' data groups and of
+ * VLSD channel groups cannot be recovered this way.
+ *
+ * @author Christian Rechner
+ */
+public abstract class MDF4Recovery {
+
+    private static final Log LOG = LogFactory.getLog(MDF4Recovery.class);
+
+    /** Bit of id_unfin_flags: update of cycle counters in CG/CA blocks required */
+    public static final int FLAG_CYCLE_COUNTERS = 1;
+
+    /** Bit of id_unfin_flags: update of the length of the last DT block required */
+    public static final int FLAG_LAST_DT_LENGTH = 4;
+
+    /** Bit of id_unfin_flags: update of the last DL block in each chained list of DL blocks required */
+    public static final int FLAG_LAST_DL = 16;
+
+    private static final String UNFINALIZED_ID = "UnFinMF ";
+
+    private static final int HD_POS = 64;
+
+    /**
+     * Returns a channel for reading a MDF4 file. If the file is not finalized, the block model is repaired by patches.
+     *
+     * @param sbc The channel of the MDF file.
+     * @return The given channel for finalized files or files of other versions, else a {@link RecoveryChannel}.
+     * @throws IOException Error reading the file.
+     */
+    public static SeekableByteChannel recover(SeekableByteChannel sbc) throws IOException {
+        ByteBuffer bb = read(sbc, 0, 64);
+        if (bb == null) {
+            return sbc;
+        }
+        byte[] b = new byte[8];
+        bb.get(b);
+        String idFile = new String(b, StandardCharsets.ISO_8859_1);
+        bb.get(b);
+        String idVers = new String(b, StandardCharsets.ISO_8859_1);
+        int unfinFlags = bb.getShort(60) & 0xFFFF;
+        int customUnfinFlags = bb.getShort(62) & 0xFFFF;
+        boolean unfinalized = idFile.equals(UNFINALIZED_ID) || unfinFlags != 0 || customUnfinFlags != 0;
+        if (!idVers.startsWith("4") || !unfinalized) {
+            return sbc;
+        }
+        LOG.warn("Recovering unfinalized MDF4 file, id_unfin_flags=" + unfinFlags + ", id_custom_unfin_flags="
+                + customUnfinFlags);
+
+        RecoveryChannel rc = new RecoveryChannel(sbc);
+        rc.patch(0, "MDF     ".getBytes(StandardCharsets.ISO_8859_1));
+        rc.patch(60, new byte[4]);
+        // a file having only the identifier set does not tell which steps are missing
+        if (unfinFlags == 0) {
+            unfinFlags = FLAG_CYCLE_COUNTERS | FLAG_LAST_DT_LENGTH | FLAG_LAST_DL;
+        }
+
+        Recovery recovery = new Recovery(rc, sbc.size());
+        recovery.repairLinks();
+        recovery.repairDataLengths((unfinFlags & FLAG_LAST_DT_LENGTH) != 0);
+        if ((unfinFlags & FLAG_CYCLE_COUNTERS) != 0) {
+            recovery.repairCycleCounts();
+        }
+        LOG.info("Recovered unfinalized MDF4 file by " + rc.getPatchCount() + " patches");
+        return rc;
+    }
+
+    private static ByteBuffer read(SeekableByteChannel sbc, long pos, int length) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(length);
+        bb.order(ByteOrder.LITTLE_ENDIAN);
+        sbc.position(pos);
+        while (bb.hasRemaining()) {
+            if (sbc.read(bb) < 0) {
+                return null;
+            }
+        }
+        bb.rewind();
+        return bb;
+    }
+
+    private static byte[] toBytes(long value, int length) {
+        ByteBuffer bb = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        bb.putLong(value);
+        byte[] b = new byte[length];
+        System.arraycopy(bb.array(), 0, b, 0, length);
+        return b;
+    }
+
+    /**
+     * The state of the recovery of a single file.
+     */
+    private static class Recovery {
+
+        private final RecoveryChannel rc;
+        private final long fileSize;
+
+        // the positions of all blocks found, to limit the length of data blocks
+        private final TreeSet<Long> blocks;
+        private final List<Long> dtBlocks;
+        private final List<long[]> dataGroups; // position of DG and first CG, number of CGs
+
+        public Recovery(RecoveryChannel rc, long fileSize) {
+            this.rc = rc;
+            this.fileSize = fileSize;
+            this.blocks = new TreeSet<Long>();
+            this.dtBlocks = new ArrayList<Long>();
+            this.dataGroups = new ArrayList<long[]>();
+        }
+
+        /**
+         * Walks the data groups, channel groups, channels and data lists, ignoring dangling links.
+         */
+        public void repairLinks() throws IOException {
+            this.blocks.add((long) HD_POS);
+            long linkPos = HD_POS + 24; // hd_dg_first
+            long dg = validLink(linkPos, "##DG");
+            while (dg > 0) {
+                this.blocks.add(dg);
+
+                // channel groups and channels
+                int cgCount = 0;
+                long cgFirst = validLink(dg + 32, "##CG");
+                long cg = cgFirst;
+                while (cg > 0) {
+                    this.blocks.add(cg);
+                    cgCount++;
+                    long cn = validLink(cg + 32, "##CN");
+                    while (cn > 0) {
+                        this.blocks.add(cn);
+                        cn = validLink(cn + 24, "##CN");
+                    }
+                    cg = validLink(cg + 24, "##CG");
+                }
+                this.dataGroups.add(new long[] { dg, cgFirst, cgCount });
+
+                // data blocks
+                long data = validLink(dg + 40, null);
+                if (data > 0) {
+                    String id = readId(data);
+                    if (id.equals(DTBLOCK.BLOCK_ID)) {
+                        this.blocks.add(data);
+                        this.dtBlocks.add(data);
+                    } else if (id.equals(DLBLOCK.BLOCK_ID)) {
+                        repairDataList(data);
+                    }
+                }
+
+                dg = validLink(dg + 24, "##DG");
+            }
+        }
+
+        /**
+         * Closes a chain of data lists behind the last valid data block.
+         */
+        private void repairDataList(long dl) throws IOException {
+            while (dl > 0) {
+                this.blocks.add(dl);
+                ByteBuffer bb = read(this.rc, dl, 24);
+                long linkCount = bb.getLong(16);
+                long countPos = dl + 24 + linkCount * 8 + 4;
+                ByteBuffer countBb = read(this.rc, countPos, 4);
+                long count = countBb == null ? 0 : countBb.getInt(0) & 0xFFFFFFFFL;
+                count = Math.min(count, linkCount - 1);
+                int valid = 0;
+                while (valid < count) {
+                    long dt = readLink(dl + 32 + valid * 8L);
+                    if (!isBlock(dt, DTBLOCK.BLOCK_ID)) {
+                        break;
+                    }
+                    this.blocks.add(dt);
+                    this.dtBlocks.add(dt);
+                    valid++;
+                }
+                if (valid < count || countBb == null) {
+                    this.rc.patch(countPos, toBytes(valid, 4));
+                }
+                if (valid < count) { // open list: ignore the following lists
+                    this.rc.patch(dl + 24, toBytes(0, 8));
+                    return;
+                }
+                dl = validLink(dl + 24, DLBLOCK.BLOCK_ID);
+            }
+        }
+
+        /**
+         * Extends the last data block to the end of the file and limits all others by the next known block.
+         */
+        public void repairDataLengths(boolean lastDtOpen) throws IOException {
+            for (long dt : this.dtBlocks) {
+                long length = read(this.rc, dt + 8, 8).getLong(0);
+                Long next = this.blocks.higher(dt);
+                long limit = next == null ? this.fileSize : Math.min(next, this.fileSize);
+                long repaired = length;
+                if (next == null && lastDtOpen && !isBlock(align(dt + Math.max(length, 24)), null)) {
+                    // no block behind the written length: the data was appended up to the end of the file
+                    repaired = limit - dt;
+                } else if (dt + length > limit) {
+                    repaired = limit - dt;
+                }
+                if (repaired != length) {
+                    LOG.info("Repaired length of DTBLOCK at " + dt + ": " + length + " -> " + repaired);
+                    this.rc.patch(dt + 8, toBytes(repaired, 8));
+                }
+            }
+        }
+
+        /**
+         * Recomputes the cycle counts of 'sorted' channel groups from the length of the data.
+         */
+        public void repairCycleCounts() throws IOException {
+            for (long[] dataGroup : this.dataGroups) {
+                if (dataGroup[2] != 1) {
+                    if (dataGroup[2] > 1) {
+                        LOG.warn("Unable to recover the cycle counts of 'unsorted' DGBLOCK at " + dataGroup[0]);
+                    }
+                    continue;
+                }
+                DGBLOCK dgBlock = DGBLOCK.read(this.rc, dataGroup[0]);
+                CGBLOCK cgBlock = CGBLOCK.read(this.rc, dataGroup[1]);
+                int recordSize = dgBlock.getRecordSize(cgBlock);
+                if (recordSize < 1 || (cgBlock.getFlags() & 1) != 0) { // VLSD channel group
+                    continue;
+                }
+                long dataBytes = 0;
+                try {
+                    for (long[] fragment : dgBlock.getDataFragments()) {
+                        dataBytes += fragment[1];
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Unable to recover the cycle count of CGBLOCK at " + dataGroup[1] + ": "
+                            + e.getMessage());
+                    continue;
+                }
+                long cycleCount = dataBytes / recordSize;
+                if (cycleCount != cgBlock.getCycleCount()) {
+                    LOG.info("Repaired cycle count of CGBLOCK at " + dataGroup[1] + ": " + cgBlock.getCycleCount()
+                            + " -> " + cycleCount);
+                    // cg_cycle_count follows the six links and cg_record_id
+                    this.rc.patch(dataGroup[1] + 80, toBytes(cycleCount, 8));
+                }
+            }
+        }
+
+        /**
+         * Reads a link, a link pointing outside the file or not to a block of the expected type is patched to 0.
+         */
+        private long validLink(long linkPos, String expectedId) throws IOException {
+            long link = readLink(linkPos);
+            if (link == 0) {
+                return 0;
+            }
+            if (!isBlock(link, expectedId)) {
+                LOG.warn("Ignoring dangling link at " + linkPos + " to " + link);
+                this.rc.patch(linkPos, toBytes(0, 8));
+                return 0;
+            }
+            return link;
+        }
+
+        private long align(long pos) {
+            return (pos + 7) & ~7L;
+        }
+
+        private long readLink(long linkPos) throws IOException {
+            ByteBuffer bb = read(this.rc, linkPos, 8);
+            return bb == null ? 0 : bb.getLong(0);
+        }
+
+        private boolean isBlock(long pos, String expectedId) throws IOException {
+            if (pos < HD_POS || pos + 24 > this.fileSize) {
+                return false;
+            }
+            String id = readId(pos);
+            return expectedId == null ? id.startsWith("##") : id.equals(expectedId);
+        }
+
+        private String readId(long pos) throws IOException {
+            ByteBuffer bb = read(this.rc, pos, 4);
+            return bb == null ? "" : new String(bb.array(), StandardCharsets.ISO_8859_1);
+        }
+
+    }
+
+}
@@ -2,10 +2,16 @@ package de.rechner.openatfx_mdf.mdf4;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 
 /**
  * Utility class having methods to read MDF file contents.
+ * <p>
+ * All methods read from little-endian buffers without allocating temporary objects; only the returned strings are
+ * created, block identifiers are returned as shared constants.
  * 
  * @author Christian Rechner
  */
@@ -13,11 +19,34 @@ public abstract class MDF4Util {
 
     // For the strings in the IDBLOCK and for the block identifiers, always single byte character (SBC) encoding is used
     // (standard ASCII extension ISO-8859-1 Latin character set).
-    private static final String CHARSET_ISO8859 = "ISO-8859-1";
+    private static final Charset CHARSET_ISO8859 = StandardCharsets.ISO_8859_1;
 
     // The string encoding used in an MDF file is UTF-8 (1-4 Bytes for each character).
     // This applies to TXBLOCK and MDBLOCK data.
-    private static final String CHARSET_UTF8 = "UTF-8";
+    private static final Charset CHARSET_UTF8 = StandardCharsets.UTF_8;
+
+    // the known block identifiers, looked up by their 4 bytes read as little-endian int
+    private static final String[] BLOCK_IDS = { "##HD", "##MD", "##TX", "##FH", "##CH", "##AT", "##EV", "##DG",
+            "##CG", "##SI", "##CN", "##CC", "##CA", "##DT", "##SR", "##RD", "##SD", "##DL", "##DZ", "##HL" };
+    private static final int[] BLOCK_ID_KEYS = new int[BLOCK_IDS.length];
+    static {
+        for (int i = 0; i < BLOCK_IDS.length; i++) {
+            BLOCK_ID_KEYS[i] = ByteBuffer.wrap(BLOCK_IDS[i].getBytes(CHARSET_ISO8859)).order(ByteOrder.LITTLE_ENDIAN)
+                                         .getInt();
+        }
+    }
+
+    // strings of direct or read-only buffers are copied into a per thread scratch array up to this length
+    private static final int MAX_SCRATCH_LENGTH = 4096;
+
+    private static final ThreadLocal<byte[]> SCRATCH = new ThreadLocal<byte[]>() {
+
+        @Override
+        protected byte[] initialValue() {
+            return new byte[256];
+        }
+
+    };
 
     /**
      * Read an 8-bit unsigned integer from the byte buffer.
@@ -74,15 +103,15 @@ public abstract class MDF4Util {
      * 
      * @param bb The byte buffer.
      * @return The value.
+     * @throws IOException The value exceeds the range of a signed 64-bit integer.
      */
-    public static long readUInt64(ByteBuffer bb) {
-        byte[] data = new byte[8];
-        bb.get(data);
-        long l1 = (((long) data[0] & 0xff) << 0) | (((long) data[1] & 0xff) << 8) | (((long) data[2] & 0xff) << 16)
-                | (((long) data[3] & 0xff) << 24);
-        long l2 = (((long) data[4] & 0xff) << 0) | (((long) data[5] & 0xff) << 8) | (((long) data[6] & 0xff) << 16)
-                | (((long) data[7] & 0xff) << 24);
-        return (l1 << 0) | (l2 << 32);
+    public static long readUInt64(ByteBuffer bb) throws IOException {
+        long value = bb.getLong();
+        if (value < 0) {
+            throw new IOException("UINT64 value at buffer position " + (bb.position() - 8)
+                    + " exceeds the supported range: 0x" + Long.toHexString(value));
+        }
+        return value;
     }
 
     /**
@@ -113,48 +142,77 @@ public abstract class MDF4Util {
      * 
      * @param bb The byte buffer.
      * @return The value.
-     * @throws IOException
+     * @throws IOException The link is negative.
      */
-    public static long readLink(ByteBuffer bb) {
-        byte[] data = new byte[8];
-        bb.get(data);
-        long l1 = (((long) data[0] & 0xff) << 0) | (((long) data[1] & 0xff) << 8) | (((long) data[2] & 0xff) << 16)
-                | (((long) data[3] & 0xff) << 24);
-        long l2 = (((long) data[4] & 0xff) << 0) | (((long) data[5] & 0xff) << 8) | (((long) data[6] & 0xff) << 16)
-                | (((long) data[7] & 0xff) << 24);
-        return (l1 << 0) | (l2 << 32);
+    public static long readLink(ByteBuffer bb) throws IOException {
+        long link = bb.getLong();
+        if (link < 0) {
+            throw new IOException("Invalid link at buffer position " + (bb.position() - 8) + ": 0x"
+                    + Long.toHexString(link));
+        }
+        return link;
     }
 
-    public static String readCharsISO8859(ByteBuffer bb, int length) throws IOException {
-        byte[] b = new byte[length];
-        bb.get(b);
+    /**
+     * Skips a number of bytes of the byte buffer, e.g. reserved bytes.
+     * 
+     * @param bb The byte buffer.
+     * @param length The number of bytes to skip.
+     */
+    public static void skip(ByteBuffer bb, int length) {
+        bb.position(bb.position() + length);
+    }
 
-        // lookup null character for string termination
-        int strLength = 0;
-        for (int i = 0; i < b.length; i++) {
-            if (b[i] == 0) {
-                break;
+    /**
+     * Read the 4 character block type identifier from the byte buffer. Known identifiers are returned as shared
+     * constants without creating a string.
+     * 
+     * @param bb The byte buffer.
+     * @return The identifier.
+     */
+    public static String readBlockId(ByteBuffer bb) {
+        int pos = bb.position();
+        int key = bb.getInt();
+        for (int i = 0; i < BLOCK_ID_KEYS.length; i++) {
+            if (BLOCK_ID_KEYS[i] == key) {
+                return BLOCK_IDS[i];
             }
-            strLength++;
         }
+        bb.position(pos);
+        return readChars(bb, 4, CHARSET_ISO8859);
+    }
 
-        return new String(b, 0, strLength, CHARSET_ISO8859);
+    public static String readCharsISO8859(ByteBuffer bb, int length) throws IOException {
+        return readChars(bb, length, CHARSET_ISO8859);
     }
 
     public static String readCharsUTF8(ByteBuffer bb, int length) throws IOException {
-        byte[] b = new byte[length];
-        bb.get(b);
+        return readChars(bb, length, CHARSET_UTF8);
+    }
+
+    private static String readChars(ByteBuffer bb, int length, Charset charset) {
+        int pos = bb.position();
+        bb.position(pos + length); // checks the length
 
         // lookup null character for string termination
         int strLength = 0;
-        for (int i = 0; i < b.length; i++) {
-            if (b[i] == 0) {
-                break;
-            }
+        while (strLength < length && bb.get(pos + strLength) != 0) {
             strLength++;
         }
 
-        return new String(b, 0, strLength, CHARSET_UTF8);
+        // decode in place if possible
+        if (bb.hasArray()) {
+            return new String(bb.array(), bb.arrayOffset() + pos, strLength, charset);
+        }
+        byte[] b = (strLength <= MAX_SCRATCH_LENGTH) ? SCRATCH.get() : new byte[strLength];
+        if (b.length < strLength) {
+            b = new byte[Math.max(strLength, b.length * 2)];
+            SCRATCH.set(b);
+        }
+        for (int i = 0; i < strLength; i++) {
+            b[i] = bb.get(pos + i);
+        }
+        return new String(b, 0, strLength, charset);
     }
 
 }
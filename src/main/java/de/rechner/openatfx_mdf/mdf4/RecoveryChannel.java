@@ -0,0 +1,112 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Read-only byte channel overlaying patches onto the bytes read from a MDF file. The blocks read through this channel
+ * see the patched values, so a damaged block model is repaired in memory without modifying the file.
+ *
+ * @author Christian Rechner
+ */
+public class RecoveryChannel implements SeekableByteChannel {
+
+    private final SeekableByteChannel delegate;
+    private final TreeMap<Long, byte[]> patches;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate The channel of the MDF file.
+     */
+    public RecoveryChannel(SeekableByteChannel delegate) {
+        this.delegate = delegate;
+        this.patches = new TreeMap<Long, byte[]>();
+    }
+
+    /**
+     * Replaces bytes of the file, patches must not overlap.
+     *
+     * @param pos The file position.
+     * @param data The bytes read instead of the file content.
+     */
+    public void patch(long pos, byte[] data) {
+        this.patches.put(pos, data);
+    }
+
+    /**
+     * Returns the number of patches.
+     *
+     * @return The number of patches.
+     */
+    public int getPatchCount() {
+        return this.patches.size();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        long pos = this.delegate.position();
+        int start = dst.position();
+        int n = this.delegate.read(dst);
+        if (n <= 0) {
+            return n;
+        }
+        Long from = this.patches.floorKey(pos);
+        for (Map.Entry<Long, byte[]> entry : this.patches.tailMap(from == null ? pos : from).entrySet()) {
+            long patchPos = entry.getKey();
+            if (patchPos >= pos + n) {
+                break;
+            }
+            byte[] data = entry.getValue();
+            for (int i = 0; i < data.length; i++) {
+                long p = patchPos + i;
+                if (p >= pos && p < pos + n) {
+                    dst.put(start + (int) (p - pos), data[i]);
+                }
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        return this.delegate.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        this.delegate.position(newPosition);
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return this.delegate.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.delegate.close();
+    }
+
+}
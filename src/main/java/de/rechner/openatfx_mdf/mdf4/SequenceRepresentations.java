@@ -0,0 +1,156 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import java.io.IOException;
+
+
+/**
+ * Utility class mapping MDF4 conversions to the ASAM ODS sequence representation and generation parameters of a local
+ * column referencing its raw values by an 'AoExternalComponent'.
+ * <p>
+ * The MDF4 writer does not yet write external components, so the mapping is only applied to virtual master channels
+ * having a non linear conversion; for all other local columns of the session a 'raw_*_external' sequence
+ * representation without external component would be invalid.
+ *
+ * @author Christian Rechner
+ */
+public abstract class SequenceRepresentations {
+
+    /**
+     * Returns the ASAM ODS sequence representation for the conversion of a channel.
+     *
+     * @param idBlock The IDBLOCK.
+     * @param channelName The name of the channel.
+     * @return The ASAM ODS sequence representation enum value.
+     * @throws IOException Error reading from MDF file or channel not found.
+     * @see #getSeqRep(CCBLOCK)
+     */
+    public static int getSeqRep(IDBLOCK idBlock, String channelName) throws IOException {
+        return getSeqRep(findChannel(idBlock, channelName).getCcConversionBlock());
+    }
+
+    /**
+     * Returns the ASAM ODS generation parameters for the conversion of a channel.
+     *
+     * @param idBlock The IDBLOCK.
+     * @param channelName The name of the channel.
+     * @return The generation parameters, empty if none.
+     * @throws IOException Error reading from MDF file or channel not found.
+     * @see #getGenerationParameters(CCBLOCK)
+     */
+    public static double[] getGenerationParameters(IDBLOCK idBlock, String channelName) throws IOException {
+        return getGenerationParameters(findChannel(idBlock, channelName).getCcConversionBlock());
+    }
+
+    /**
+     * Returns the first channel having given name.
+     *
+     * @param idBlock The IDBLOCK.
+     * @param channelName The name of the channel.
+     * @return The CNBLOCK.
+     * @throws IOException Error reading from MDF file or channel not found.
+     */
+    private static CNBLOCK findChannel(IDBLOCK idBlock, String channelName) throws IOException {
+        DGBLOCK dgBlock = idBlock.getHDBlock().getDgFirstBlock();
+        while (dgBlock != null) {
+            CGBLOCK cgBlock = dgBlock.getCgFirstBlock();
+            while (cgBlock != null) {
+                CNBLOCK cnBlock = cgBlock.getCnFirstBlock();
+                while (cnBlock != null) {
+                    if (channelName.equals(cnBlock.getCnTxNameBlock().getTxData())) {
+                        return cnBlock;
+                    }
+                    cnBlock = cnBlock.getCnNextBlock();
+                }
+                cgBlock = cgBlock.getCgNextBlock();
+            }
+            dgBlock = dgBlock.getDgNextBlock();
+        }
+        throw new IOException("Channel not found: " + channelName);
+    }
+
+    /**
+     * Returns the ASAM ODS sequence representation for a MDF4 conversion, see {@link #getSeqRep(int, double[])}.
+     *
+     * @param ccBlock The CCBLOCK, may be null.
+     * @return The ASAM ODS sequence representation enum value.
+     */
+    static int getSeqRep(CCBLOCK ccBlock) {
+        // CCBLOCK may be null, assume explicit
+        if (ccBlock == null) {
+            return 7;
+        }
+        return getSeqRep(ccBlock.getType(), ccBlock.getVal());
+    }
+
+    /**
+     * Returns the ASAM ODS sequence representation for a MDF4 conversion.
+     * <p>
+     * Linear conversions are mapped to 'raw_linear_external', rational conversions having a constant denominator to
+     * 'raw_polynomial_external' and all other rational conversions to 'raw_rational_external'. Channels with a 1:1
+     * conversion or a conversion not expressible by generation parameters (algebraic, tabular, text) are mapped to
+     * 'external_component'.
+     *
+     * @param ccType The conversion type (cc_type).
+     * @param ccVal The conversion parameters (cc_val).
+     * @return The ASAM ODS sequence representation enum value.
+     */
+    static int getSeqRep(int ccType, double[] ccVal) {
+        // 'linear' => 'raw_linear_external'
+        if (ccType == 1) {
+            return 8;
+        }
+        // 'rational' => 'raw_polynomial_external' or 'raw_rational_external'
+        else if (ccType == 2) {
+            return isPolynomial(ccVal) ? 9 : 13;
+        }
+        // all other => 'external_component'
+        return 7;
+    }
+
+    /**
+     * Returns the ASAM ODS generation parameters for a MDF4 conversion, see {@link #getSeqRep(CCBLOCK)}.
+     *
+     * @param ccBlock The CCBLOCK, may be null.
+     * @return The generation parameters, empty if none.
+     */
+    static double[] getGenerationParameters(CCBLOCK ccBlock) {
+        if (ccBlock == null) {
+            return new double[0];
+        }
+        return getGenerationParameters(ccBlock.getType(), ccBlock.getVal());
+    }
+
+    /**
+     * Returns the ASAM ODS generation parameters for a MDF4 conversion, see {@link #getSeqRep(int, double[])}.
+     *
+     * @param ccType The conversion type (cc_type).
+     * @param p The conversion parameters (cc_val).
+     * @return The generation parameters, empty if none.
+     */
+    static double[] getGenerationParameters(int ccType, double[] p) {
+        // 'linear': phys = P2 * int + P1
+        if (ccType == 1) {
+            return new double[] { p[0], p[1] };
+        }
+        // 'rational': phys = (P1 * int^2 + P2 * int + P3) / (P4 * int^2 + P5 * int + P6)
+        else if (ccType == 2) {
+            // constant denominator: polynomial of degree 2, coefficients in ascending order
+            if (isPolynomial(p)) {
+                return new double[] { 2, p[2] / p[5], p[1] / p[5], p[0] / p[5] };
+            }
+            return new double[] { p[0], p[1], p[2], p[3], p[4], p[5] };
+        }
+        return new double[0];
+    }
+
+    /**
+     * Returns whether the parameters of a rational conversion have a constant denominator.
+     *
+     * @param p The parameters P1 to P6.
+     * @return True, if P4 and P5 are zero and P6 is not.
+     */
+    private static boolean isPolynomial(double[] p) {
+        return p[3] == 0 && p[4] == 0 && p[5] != 0;
+    }
+
+}
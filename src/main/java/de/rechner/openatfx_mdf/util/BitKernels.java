@@ -0,0 +1,106 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * Kernels extracting a single bit position (e.g. of a 1-bit status signal) from a number of records, either into a
+ * byte column having one value 0/1 per record or into a packed bitmap having one bit per record.
+ * <p>
+ * If the records are one byte long, eight records are gathered at once: the bit of each of the eight bytes of a 64 bit
+ * word is moved to the lowest bit of its byte and the eight bits are collected into the top byte by a single
+ * multiplication.
+ *
+ * @author Christian Rechner
+ */
+public abstract class BitKernels {
+
+    // the lowest bit of each byte of a word
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    // moves the lowest bit of byte k to bit 56+k, no two partial products overlap
+    private static final long GATHER = 0x0102040810204080L;
+
+    /**
+     * Extracts a bit of each record into a byte column.
+     *
+     * @param data The data.
+     * @param offset The position of the byte holding the bit in the first record.
+     * @param count The number of records.
+     * @param stride The record size in bytes.
+     * @param bitOffset The bit position within the byte (0-7).
+     * @param target The target array receiving 0 or 1 per record, filled starting at index 0.
+     */
+    public static void unpackBits(byte[] data, int offset, int count, int stride, int bitOffset, byte[] target) {
+        int pos = offset;
+        for (int i = 0; i < count; i++) {
+            target[i] = (byte) ((data[pos] >>> bitOffset) & 1);
+            pos += stride;
+        }
+    }
+
+    /**
+     * Extracts a bit of each record into a double column, as used by
+     * {@link RawValueDecoder#decodeColumn(byte[], int, int, int, double[])}.
+     *
+     * @param data The data.
+     * @param offset The position of the byte holding the bit in the first record.
+     * @param count The number of records.
+     * @param stride The record size in bytes.
+     * @param bitOffset The bit position within the byte (0-7).
+     * @param target The target array receiving 0 or 1 per record, filled starting at index 0.
+     */
+    public static void unpackBits(byte[] data, int offset, int count, int stride, int bitOffset, double[] target) {
+        int pos = offset;
+        for (int i = 0; i < count; i++) {
+            target[i] = (data[pos] >>> bitOffset) & 1;
+            pos += stride;
+        }
+    }
+
+    /**
+     * Extracts a bit of each record into a packed bitmap. The bit of record i is stored as bit (i % 64) of
+     * bitmap[i / 64]; the remaining bits of the last word are cleared.
+     *
+     * @param data The data.
+     * @param offset The position of the byte holding the bit in the first record.
+     * @param count The number of records.
+     * @param stride The record size in bytes.
+     * @param bitOffset The bit position within the byte (0-7).
+     * @param bitmap The target bitmap, at least (count + 63) / 64 words long.
+     */
+    public static void packBits(byte[] data, int offset, int count, int stride, int bitOffset, long[] bitmap) {
+        int words = (count + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            bitmap[w] = 0;
+        }
+        int i = 0;
+        if (stride == 1) {
+            // word-at-a-time gather of eight records
+            ByteBuffer bb = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            for (; i + 8 <= count; i += 8) {
+                long word = bb.getLong(offset + i);
+                long bits = (((word >>> bitOffset) & LOW_BITS) * GATHER) >>> 56;
+                bitmap[i >>> 6] |= bits << (i & 63);
+            }
+        }
+        int pos = offset + i * stride;
+        for (; i < count; i++) {
+            bitmap[i >>> 6] |= (long) ((data[pos] >>> bitOffset) & 1) << (i & 63);
+            pos += stride;
+        }
+    }
+
+    /**
+     * Returns the bit of a record from a packed bitmap.
+     *
+     * @param bitmap The bitmap.
+     * @param index The record index.
+     * @return True, if the bit is set.
+     */
+    public static boolean isSet(long[] bitmap, long index) {
+        return (bitmap[(int) (index >>> 6)] & (1L << (index & 63))) != 0;
+    }
+
+}
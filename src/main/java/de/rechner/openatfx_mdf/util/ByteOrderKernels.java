@@ -0,0 +1,199 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+
+/**
+ * Bulk kernels decoding a column of byte aligned values of either byte order from a buffer of records into doubles.
+ * <p>
+ * The values are read through <code>ByteBuffer</code> views having the byte order of the data, so swapping big endian
+ * values is done by the JVM intrinsics instead of assembling every value byte by byte. If the values are contiguous
+ * (the stride equals the value size) typed buffer views are used, for 64 bit floating point values the whole column is
+ * copied by a single bulk get.
+ *
+ * @author Christian Rechner
+ */
+public abstract class ByteOrderKernels {
+
+    private static ByteBuffer wrap(byte[] data, int offset, int count, int stride, int size, ByteOrder order) {
+        int length = (count - 1) * stride + size;
+        return ByteBuffer.wrap(data, offset, length).slice().order(order);
+    }
+
+    /**
+     * Decodes 64 bit IEEE 754 floating point values.
+     *
+     * @param data The data.
+     * @param offset The offset of the first value.
+     * @param count The number of values.
+     * @param stride The distance of two values in bytes.
+     * @param order The byte order of the values.
+     * @param target The target array, filled starting at index 0.
+     */
+    public static void getDoubles(byte[] data, int offset, int count, int stride, ByteOrder order, double[] target) {
+        if (count < 1) {
+            return;
+        }
+        ByteBuffer bb = wrap(data, offset, count, stride, 8, order);
+        if (stride == 8) {
+            DoubleBuffer db = bb.asDoubleBuffer();
+            db.get(target, 0, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                target[i] = bb.getDouble(i * stride);
+            }
+        }
+    }
+
+    /**
+     * Decodes 32 bit IEEE 754 floating point values.
+     *
+     * @param data The data.
+     * @param offset The offset of the first value.
+     * @param count The number of values.
+     * @param stride The distance of two values in bytes.
+     * @param order The byte order of the values.
+     * @param target The target array, filled starting at index 0.
+     */
+    public static void getFloats(byte[] data, int offset, int count, int stride, ByteOrder order, double[] target) {
+        if (count < 1) {
+            return;
+        }
+        ByteBuffer bb = wrap(data, offset, count, stride, 4, order);
+        if (stride == 4) {
+            FloatBuffer fb = bb.asFloatBuffer();
+            for (int i = 0; i < count; i++) {
+                target[i] = fb.get(i);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                target[i] = bb.getFloat(i * stride);
+            }
+        }
+    }
+
+    /**
+     * Decodes 64 bit integer values.
+     *
+     * @param data The data.
+     * @param offset The offset of the first value.
+     * @param count The number of values.
+     * @param stride The distance of two values in bytes.
+     * @param order The byte order of the values.
+     * @param unsigned True, if the values are unsigned.
+     * @param target The target array, filled starting at index 0.
+     */
+    public static void getLongs(byte[] data, int offset, int count, int stride, ByteOrder order, boolean unsigned,
+            double[] target) {
+        if (count < 1) {
+            return;
+        }
+        ByteBuffer bb = wrap(data, offset, count, stride, 8, order);
+        if (stride == 8) {
+            LongBuffer lb = bb.asLongBuffer();
+            for (int i = 0; i < count; i++) {
+                target[i] = toDouble(lb.get(i), unsigned);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                target[i] = toDouble(bb.getLong(i * stride), unsigned);
+            }
+        }
+    }
+
+    /**
+     * Decodes 32 bit integer values.
+     *
+     * @param data The data.
+     * @param offset The offset of the first value.
+     * @param count The number of values.
+     * @param stride The distance of two values in bytes.
+     * @param order The byte order of the values.
+     * @param unsigned True, if the values are unsigned.
+     * @param target The target array, filled starting at index 0.
+     */
+    public static void getInts(byte[] data, int offset, int count, int stride, ByteOrder order, boolean unsigned,
+            double[] target) {
+        if (count < 1) {
+            return;
+        }
+        ByteBuffer bb = wrap(data, offset, count, stride, 4, order);
+        if (stride == 4) {
+            IntBuffer ib = bb.asIntBuffer();
+            for (int i = 0; i < count; i++) {
+                int v = ib.get(i);
+                target[i] = unsigned ? (v & 0xFFFFFFFFL) : v;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                int v = bb.getInt(i * stride);
+                target[i] = unsigned ? (v & 0xFFFFFFFFL) : v;
+            }
+        }
+    }
+
+    /**
+     * Decodes 16 bit integer values.
+     *
+     * @param data The data.
+     * @param offset The offset of the first value.
+     * @param count The number of values.
+     * @param stride The distance of two values in bytes.
+     * @param order The byte order of the values.
+     * @param unsigned True, if the values are unsigned.
+     * @param target The target array, filled starting at index 0.
+     */
+    public static void getShorts(byte[] data, int offset, int count, int stride, ByteOrder order, boolean unsigned,
+            double[] target) {
+        if (count < 1) {
+            return;
+        }
+        ByteBuffer bb = wrap(data, offset, count, stride, 2, order);
+        if (stride == 2) {
+            ShortBuffer sb = bb.asShortBuffer();
+            for (int i = 0; i < count; i++) {
+                short v = sb.get(i);
+                target[i] = unsigned ? (v & 0xFFFF) : v;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                short v = bb.getShort(i * stride);
+                target[i] = unsigned ? (v & 0xFFFF) : v;
+            }
+        }
+    }
+
+    /**
+     * Decodes 8 bit integer values.
+     *
+     * @param data The data.
+     * @param offset The offset of the first value.
+     * @param count The number of values.
+     * @param stride The distance of two values in bytes.
+     * @param unsigned True, if the values are unsigned.
+     * @param target The target array, filled starting at index 0.
+     */
+    public static void getBytes(byte[] data, int offset, int count, int stride, boolean unsigned, double[] target) {
+        int pos = offset;
+        for (int i = 0; i < count; i++) {
+            byte v = data[pos];
+            target[i] = unsigned ? (v & 0xFF) : v;
+            pos += stride;
+        }
+    }
+
+    private static double toDouble(long l, boolean unsigned) {
+        if (unsigned && l < 0) {
+            // unsigned 64 bit value
+            return (double) (l >>> 1) * 2.0 + (l & 1);
+        }
+        return l;
+    }
+
+}
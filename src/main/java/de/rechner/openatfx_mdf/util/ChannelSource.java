@@ -0,0 +1,122 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.List;
+
+
+/**
+ * Describes where and how the values of a numeric channel are stored in a MDF file: the data fragments and the record
+ * layout of its channel group, the decoder of the raw values and the conversion to physical values.
+ * <p>
+ * A virtual master channel has no decoder, its raw value is the row index. A channel having a text conversion has a
+ * lookup of the matching conversion table entry and, if all entries are texts, the dictionary shared by all channels of
+ * the conversion.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelSource {
+
+    private final int groupIndex;
+    private final String name;
+    private final boolean master;
+    private final long rowCount;
+    private final int recordSize;
+    private final List<long[]> fragments;
+    private final RawValueDecoder decoder;
+    private final NumericConversion conversion;
+    private final TableLookup textLookup;
+    private final TextDictionary dictionary;
+
+    /**
+     * Constructor.
+     *
+     * @param groupIndex The index of the channel group within the file.
+     * @param name The channel name.
+     * @param master True, if the channel is the master channel of its group.
+     * @param rowCount The number of rows (records) of the channel group.
+     * @param recordSize The record size in bytes.
+     * @param fragments The data fragments, each given as array of start position and length in bytes.
+     * @param decoder The decoder of the raw values, null for a virtual master channel.
+     * @param conversion The conversion to physical values, null if not supported.
+     * @param textLookup The lookup of the text conversion table, null if the channel has no text conversion.
+     * @param dictionary The dictionary of the text conversion, null if not available.
+     */
+    public ChannelSource(int groupIndex, String name, boolean master, long rowCount, int recordSize,
+            List<long[]> fragments, RawValueDecoder decoder, NumericConversion conversion, TableLookup textLookup,
+            TextDictionary dictionary) {
+        this.groupIndex = groupIndex;
+        this.name = name;
+        this.master = master;
+        this.rowCount = rowCount;
+        this.recordSize = recordSize;
+        this.fragments = fragments;
+        this.decoder = decoder;
+        this.conversion = conversion;
+        this.textLookup = textLookup;
+        this.dictionary = dictionary;
+    }
+
+    public int getGroupIndex() {
+        return groupIndex;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isMaster() {
+        return master;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    public List<long[]> getFragments() {
+        return fragments;
+    }
+
+    public RawValueDecoder getDecoder() {
+        return decoder;
+    }
+
+    public NumericConversion getConversion() {
+        return conversion;
+    }
+
+    public TableLookup getTextLookup() {
+        return textLookup;
+    }
+
+    public TextDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns whether the channel is a virtual channel without stored values.
+     *
+     * @return True, if the raw value is the row index.
+     */
+    public boolean isVirtual() {
+        return decoder == null;
+    }
+
+    /**
+     * Returns whether the raw values are integers.
+     *
+     * @return True for integer and virtual channels.
+     */
+    public boolean isInteger() {
+        return decoder == null || decoder.isInteger();
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelSource [groupIndex=" + groupIndex + ", name=" + name + ", master=" + master + ", rowCount="
+                + rowCount + "]";
+    }
+
+}
@@ -0,0 +1,157 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Statistics of a channel computed in a single pass over the data: minimum and maximum of the raw and the physical
+ * values, mean and standard deviation of the physical values (using Welford's algorithm), the number of NaN values and
+ * the master channel values of the first and the last sample.
+ * <p>
+ * NaN values are counted, but excluded from all other statistics.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelStatistics implements SampleListener {
+
+    private long count;
+    private long nanCount;
+    private double rawMin = Double.NaN;
+    private double rawMax = Double.NaN;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double mean;
+    private double m2;
+    private double firstTime = Double.NaN;
+    private double lastTime = Double.NaN;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.SampleListener#sample(long, double, double, double)
+     */
+    @Override
+    public void sample(long row, double time, double raw, double phys) {
+        if (this.count == 0 && this.nanCount == 0) {
+            this.firstTime = time;
+        }
+        this.lastTime = time;
+
+        if (Double.isNaN(phys)) {
+            this.nanCount++;
+            return;
+        }
+        if (this.count == 0) {
+            this.rawMin = raw;
+            this.rawMax = raw;
+            this.min = phys;
+            this.max = phys;
+        } else {
+            if (raw < this.rawMin) {
+                this.rawMin = raw;
+            } else if (raw > this.rawMax) {
+                this.rawMax = raw;
+            }
+            if (phys < this.min) {
+                this.min = phys;
+            } else if (phys > this.max) {
+                this.max = phys;
+            }
+        }
+        this.count++;
+        double delta = phys - this.mean;
+        this.mean += delta / this.count;
+        this.m2 += delta * (phys - this.mean);
+    }
+
+    /**
+     * Merges the statistics of another part of the same channel, which must have been recorded after this part.
+     *
+     * @param other The statistics to merge.
+     */
+    public void merge(ChannelStatistics other) {
+        if (other.count == 0 && other.nanCount == 0) {
+            return;
+        }
+        if (this.count == 0 && this.nanCount == 0) {
+            this.firstTime = other.firstTime;
+        }
+        this.lastTime = other.lastTime;
+        this.nanCount += other.nanCount;
+        if (other.count == 0) {
+            return;
+        }
+        if (this.count == 0) {
+            this.rawMin = other.rawMin;
+            this.rawMax = other.rawMax;
+            this.min = other.min;
+            this.max = other.max;
+            this.count = other.count;
+            this.mean = other.mean;
+            this.m2 = other.m2;
+            return;
+        }
+        this.rawMin = Math.min(this.rawMin, other.rawMin);
+        this.rawMax = Math.max(this.rawMax, other.rawMax);
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        long n = this.count + other.count;
+        double delta = other.mean - this.mean;
+        this.mean += delta * other.count / n;
+        this.m2 += other.m2 + delta * delta * ((double) this.count * other.count / n);
+        this.count = n;
+    }
+
+    /**
+     * Returns the number of values, excluding NaN values.
+     *
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getNanCount() {
+        return nanCount;
+    }
+
+    public double getRawMin() {
+        return rawMin;
+    }
+
+    public double getRawMax() {
+        return rawMax;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the arithmetic mean of the physical values.
+     *
+     * @return The mean, NaN if no values.
+     */
+    public double getMean() {
+        return this.count > 0 ? this.mean : Double.NaN;
+    }
+
+    /**
+     * Returns the (population) standard deviation of the physical values.
+     *
+     * @return The standard deviation, NaN if no values.
+     */
+    public double getStandardDeviation() {
+        return this.count > 0 ? Math.sqrt(this.m2 / this.count) : Double.NaN;
+    }
+
+    public double getFirstTime() {
+        return firstTime;
+    }
+
+    public double getLastTime() {
+        return lastTime;
+    }
+
+}
@@ -0,0 +1,69 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Detects channels having the same raw value in all records while scanning the records.
+ * <p>
+ * A constant channel can be written as 'implicit_constant' local column having its single value as generation
+ * parameter, so consumers read one value instead of the whole column.
+ *
+ * @author Christian Rechner
+ */
+public class ConstantDetector implements SampleListener {
+
+    private long count;
+    private long rawBits;
+    private double phys;
+    private boolean constant;
+
+    /**
+     * Constructor.
+     */
+    public ConstantDetector() {
+        this.count = 0;
+        this.constant = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.SampleListener#sample(long, double, double, double)
+     */
+    @Override
+    public void sample(long row, double time, double raw, double phys) {
+        if (!this.constant) {
+            return;
+        }
+        // compare the bits, so NaN values are constant too and 0.0 differs from -0.0
+        long bits = Double.doubleToLongBits(raw);
+        if (this.count == 0) {
+            this.rawBits = bits;
+            this.phys = phys;
+        } else if (bits != this.rawBits) {
+            this.constant = false;
+        }
+        this.count++;
+    }
+
+    /**
+     * Returns whether all raw values are equal. At least one value is required.
+     *
+     * @return True, if the channel is constant.
+     */
+    public boolean isConstant() {
+        return this.constant && this.count > 0;
+    }
+
+    /**
+     * Returns the physical value of the first record.
+     *
+     * @return The value.
+     */
+    public double getValue() {
+        return this.phys;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+}
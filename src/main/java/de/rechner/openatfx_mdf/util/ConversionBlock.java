@@ -0,0 +1,52 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+
+/**
+ * A conversion block (CCBLOCK) of a MDF3 or MDF4 file, providing the conversions cached by {@link ConversionCache}.
+ *
+ * @author Christian Rechner
+ */
+public interface ConversionBlock {
+
+    /**
+     * Returns the position of the block within the file, identifying the block.
+     *
+     * @return The position.
+     */
+    long getPos();
+
+    /**
+     * Returns whether the block converts raw values to texts (MDF3 formulas 11 and 12, MDF4 conversion types 7 and 8).
+     *
+     * @return True for a text conversion.
+     */
+    boolean isTextConversion();
+
+    /**
+     * Returns the numeric conversion of the block.
+     *
+     * @param integerRaw Whether the raw values are integers; the upper limit of a range belongs to the range only for
+     *            integer values.
+     * @return The conversion, null if not numeric or not supported.
+     */
+    NumericConversion getNumericConversion(boolean integerRaw);
+
+    /**
+     * Returns the lookup of the table entry matching a raw value for a text conversion.
+     *
+     * @param integerRaw Whether the raw values are integers; the upper limit of a range belongs to the range only for
+     *            integer values.
+     * @return The lookup, null if the block is no text conversion.
+     */
+    TableLookup getTextTableLookup(boolean integerRaw);
+
+    /**
+     * Returns the dictionary of the texts of a text conversion.
+     *
+     * @return The dictionary, null if the block is no text conversion.
+     * @throws IOException Error reading the texts, e.g. if a table entry refers to a scale conversion.
+     */
+    TextDictionary getTextDictionary() throws IOException;
+
+}
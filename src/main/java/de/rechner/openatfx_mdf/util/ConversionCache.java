@@ -0,0 +1,167 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
+
+/**
+ * Cache for the conversions of an MDF file, keyed by the position of the conversion block.
+ * <p>
+ * Many channels refer to the same conversion block, so the conversion, the lookup tables and the text dictionary built
+ * from it are shared.
+ * For integer channels having a bit count of at most 16 the conversion is evaluated for the complete domain of raw
+ * values once (see {@link PrecomputedConversion} and {@link DirectLookupTable}). As the domain depends on the bit
+ * count, the sign and the integer type of the channel, these are part of the cache key.
+ *
+ * @author Christian Rechner
+ */
+public class ConversionCache {
+
+    private final Map<Key, NumericConversion> conversions;
+    private final Map<Key, TableLookup> lookups;
+    private final Map<Long, TextDictionary> dictionaries;
+
+    /**
+     * Constructor.
+     */
+    public ConversionCache() {
+        this.conversions = new HashMap<Key, NumericConversion>();
+        this.lookups = new HashMap<Key, TableLookup>();
+        this.dictionaries = new HashMap<Long, TextDictionary>();
+    }
+
+    /**
+     * Returns the numeric conversion of a channel, created from the conversion block on first use and precomputed for
+     * narrow integer channels. Text conversions are not applied, so the raw values are used.
+     *
+     * @param ccBlock The conversion block, may be null.
+     * @param bitCount The bit count of the channel.
+     * @param integer Whether the raw values are integers.
+     * @param signed Whether the raw values are signed.
+     * @return The conversion, null if not supported.
+     */
+    public synchronized NumericConversion getConversion(ConversionBlock ccBlock, int bitCount, boolean integer,
+            boolean signed) {
+        if (ccBlock == null || ccBlock.isTextConversion()) {
+            return Conversions.IDENTITY;
+        }
+        Key key = new Key(ccBlock.getPos(), bitCount, integer, signed);
+        NumericConversion conversion = this.conversions.get(key);
+        ConvertMetrics.cacheAccess(conversion != null);
+        if (conversion == null) {
+            conversion = ccBlock.getNumericConversion(integer);
+            if (conversion == null) {
+                return null;
+            }
+            conversion = PrecomputedConversion.forChannel(conversion, bitCount, integer, signed);
+            this.conversions.put(key, conversion);
+        }
+        return conversion;
+    }
+
+    /**
+     * Returns the table lookup of a channel having a text conversion, created from the conversion block on first use
+     * and precomputed for narrow integer channels.
+     *
+     * @param ccBlock The conversion block, may be null.
+     * @param bitCount The bit count of the channel.
+     * @param integer Whether the raw values are integers.
+     * @param signed Whether the raw values are signed.
+     * @return The lookup, null if the channel has no text conversion.
+     */
+    public synchronized TableLookup getTextLookup(ConversionBlock ccBlock, int bitCount, boolean integer,
+            boolean signed) {
+        if (ccBlock == null || !ccBlock.isTextConversion()) {
+            return null;
+        }
+        Key key = new Key(ccBlock.getPos(), bitCount, integer, signed);
+        TableLookup lookup = this.lookups.get(key);
+        ConvertMetrics.cacheAccess(lookup != null);
+        if (lookup == null) {
+            lookup = ccBlock.getTextTableLookup(integer);
+            if (lookup == null) {
+                return null;
+            }
+            lookup = DirectLookupTable.forChannel(lookup, bitCount, integer, signed);
+            this.lookups.put(key, lookup);
+        }
+        return lookup;
+    }
+
+    /**
+     * Returns the text dictionary of a text conversion, created from the conversion block on first use. All channels
+     * using the same conversion block share the dictionary.
+     *
+     * @param ccBlock The conversion block, may be null.
+     * @return The dictionary, null if the block is no text conversion.
+     * @throws IOException Error reading the texts.
+     */
+    public synchronized TextDictionary getTextDictionary(ConversionBlock ccBlock) throws IOException {
+        if (ccBlock == null || !ccBlock.isTextConversion()) {
+            return null;
+        }
+        TextDictionary dictionary = this.dictionaries.get(ccBlock.getPos());
+        ConvertMetrics.cacheAccess(dictionary != null);
+        if (dictionary == null) {
+            dictionary = ccBlock.getTextDictionary();
+            if (dictionary == null) {
+                return null;
+            }
+            this.dictionaries.put(ccBlock.getPos(), dictionary);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the number of cached conversions, lookups and dictionaries.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return this.conversions.size() + this.lookups.size() + this.dictionaries.size();
+    }
+
+    /**
+     * The cache key.
+     */
+    private static class Key {
+
+        private final long ccPos;
+        private final int bitCount;
+        private final boolean integer;
+        private final boolean signed;
+
+        public Key(long ccPos, int bitCount, boolean integer, boolean signed) {
+            this.ccPos = ccPos;
+            this.bitCount = bitCount;
+            this.integer = integer;
+            this.signed = signed;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = 31 + (int) (ccPos ^ (ccPos >>> 32));
+            result = 31 * result + bitCount;
+            result = 31 * result + (integer ? 1231 : 1237);
+            return 31 * result + (signed ? 1231 : 1237);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return ccPos == other.ccPos && bitCount == other.bitCount && integer == other.integer
+                    && signed == other.signed;
+        }
+
+    }
+
+}
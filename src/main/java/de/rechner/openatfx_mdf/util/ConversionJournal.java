@@ -0,0 +1,102 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.rechner.openatfx_mdf.BatchConverter;
+
+
+/**
+ * Append-only journal of the files already processed, so a restarted conversion service does not convert them again.
+ * <p>
+ * Each line holds the tab separated absolute file path, size, last modification time in milliseconds and status. A
+ * file counts as done if its last entry has the status {@link BatchConverter#STATUS_CONVERTED} and its size and
+ * modification time are unchanged; a modified, failed or skipped file is processed again. A line written
+ * incompletely (e.g. on a crash) is ignored.
+ * 
+ * @author Christian Rechner
+ */
+public class ConversionJournal {
+
+    private final Path journalFile;
+    private final Map<Path, String> entries;
+
+    /**
+     * Opens a journal, reading the entries of an existing journal file.
+     * 
+     * @param journalFile The journal file, created if not existing.
+     * @throws IOException Error reading the journal file.
+     */
+    public ConversionJournal(Path journalFile) throws IOException {
+        this.journalFile = journalFile;
+        this.entries = new HashMap<Path, String>();
+        if (Files.isRegularFile(journalFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] values = line.split("\t");
+                    if (values.length == 4) {
+                        this.entries.put(normalize(Paths.get(values[0])), key(values[1], values[2], values[3]));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a file has been converted and not been modified afterwards.
+     * 
+     * @param file The file.
+     * @param size The current size of the file.
+     * @param lastModified The current modification time of the file in milliseconds.
+     * @return True, if converted.
+     */
+    public synchronized boolean isDone(Path file, long size, long lastModified) {
+        String key = this.entries.get(normalize(file));
+        return key(String.valueOf(size), String.valueOf(lastModified), BatchConverter.STATUS_CONVERTED).equals(key);
+    }
+
+    /**
+     * Appends an entry and writes it to the journal file immediately.
+     * 
+     * @param file The file.
+     * @param size The size of the processed file.
+     * @param lastModified The modification time of the processed file in milliseconds.
+     * @param status The status of the processing.
+     * @throws IOException Error writing the journal file.
+     */
+    public synchronized void add(Path file, long size, long lastModified, String status) throws IOException {
+        Path path = normalize(file);
+        try (Writer writer = Files.newBufferedWriter(this.journalFile, StandardCharsets.UTF_8,
+                                                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(path + "\t" + size + "\t" + lastModified + "\t" + status + System.lineSeparator());
+        }
+        this.entries.put(path, key(String.valueOf(size), String.valueOf(lastModified), status));
+    }
+
+    /**
+     * Returns the number of processed files.
+     * 
+     * @return The number of files.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    private static Path normalize(Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private static String key(String size, String lastModified, String status) {
+        return size + "/" + lastModified + "/" + status;
+    }
+
+}
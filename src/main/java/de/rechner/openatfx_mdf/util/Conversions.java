@@ -0,0 +1,94 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Factory for the numeric conversions that are common to MDF3 and MDF4.
+ *
+ * @author Christian Rechner
+ */
+public abstract class Conversions {
+
+    /** The 1:1 conversion */
+    public static final NumericConversion IDENTITY = new NumericConversion() {
+
+        @Override
+        public double convert(double raw) {
+            return raw;
+        }
+    };
+
+    /**
+     * Returns a linear conversion: <code>phys = factor * raw + offset</code>.
+     *
+     * @param offset The offset.
+     * @param factor The factor.
+     * @return The conversion.
+     */
+    public static NumericConversion linear(final double offset, final double factor) {
+        return new NumericConversion() {
+
+            @Override
+            public double convert(double raw) {
+                return factor * raw + offset;
+            }
+        };
+    }
+
+    /**
+     * Returns a rational conversion: <code>phys = (p1*raw^2 + p2*raw + p3) / (p4*raw^2 + p5*raw + p6)</code>.
+     *
+     * @param p The six parameters.
+     * @return The conversion.
+     */
+    public static NumericConversion rational(double[] p) {
+        final double p1 = p[0];
+        final double p2 = p[1];
+        final double p3 = p[2];
+        final double p4 = p[3];
+        final double p5 = p[4];
+        final double p6 = p[5];
+        return new NumericConversion() {
+
+            @Override
+            public double convert(double raw) {
+                return (p1 * raw * raw + p2 * raw + p3) / (p4 * raw * raw + p5 * raw + p6);
+            }
+        };
+    }
+
+    /**
+     * Returns a conversion using a value to value table.
+     *
+     * @param table The table.
+     * @return The conversion.
+     */
+    public static NumericConversion valueTable(final ValueLookupTable table) {
+        return new NumericConversion() {
+
+            @Override
+            public double convert(double raw) {
+                return table.lookup(raw);
+            }
+        };
+    }
+
+    /**
+     * Returns a conversion using a value (range) to value table.
+     *
+     * @param lookup The lookup of the table entry.
+     * @param values The physical values in table order.
+     * @param defaultValue The physical value if no table entry matches.
+     * @return The conversion.
+     */
+    public static NumericConversion lookupTable(final TableLookup lookup, final double[] values,
+            final double defaultValue) {
+        return new NumericConversion() {
+
+            @Override
+            public double convert(double raw) {
+                int idx = lookup.indexOf(raw);
+                return idx < 0 ? defaultValue : values[idx];
+            }
+        };
+    }
+
+}
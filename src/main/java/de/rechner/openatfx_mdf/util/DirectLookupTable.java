@@ -0,0 +1,74 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Fully precomputed table lookup for integer raw values with a bit count of at most 16.
+ * <p>
+ * The table entry index for every possible raw value is resolved once, so a lookup is a single array access. Raw
+ * values outside the integer domain of the channel are passed to the underlying lookup.
+ *
+ * @author Christian Rechner
+ */
+public class DirectLookupTable implements TableLookup {
+
+    /** The maximum bit count a table is precomputed for */
+    public static final int MAX_BIT_COUNT = 16;
+
+    // the underlying lookup
+    private final TableLookup lookup;
+
+    // the smallest raw value of the domain
+    private final long minRaw;
+
+    // the table index for each raw value of the domain, starting with minRaw
+    private final int[] indices;
+
+    /**
+     * Constructor.
+     *
+     * @param lookup The lookup to precompute.
+     * @param bitCount The bit count of the raw values, 1 to 16.
+     * @param signed Whether the raw values are signed.
+     */
+    private DirectLookupTable(TableLookup lookup, int bitCount, boolean signed) {
+        this.lookup = lookup;
+        this.minRaw = signed ? -(1L << (bitCount - 1)) : 0;
+        this.indices = new int[1 << bitCount];
+        for (int i = 0; i < this.indices.length; i++) {
+            this.indices[i] = lookup.indexOf(this.minRaw + i);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.TableLookup#indexOf(double)
+     */
+    @Override
+    public int indexOf(double raw) {
+        long l = (long) raw;
+        long i = l - this.minRaw;
+        if (l == raw && i >= 0 && i < this.indices.length) {
+            return this.indices[(int) i];
+        }
+        return this.lookup.indexOf(raw);
+    }
+
+    /**
+     * Returns the lookup to use for a channel. For integer channels having a bit count of at most
+     * {@link #MAX_BIT_COUNT} the lookup is precomputed, otherwise given lookup is returned unchanged.
+     *
+     * @param lookup The lookup.
+     * @param bitCount The bit count of the channel.
+     * @param integer Whether the raw values are integers.
+     * @param signed Whether the raw values are signed.
+     * @return The lookup.
+     */
+    public static TableLookup forChannel(TableLookup lookup, int bitCount, boolean integer, boolean signed) {
+        if (lookup == null || !integer || bitCount < 1 || bitCount > MAX_BIT_COUNT
+                || lookup instanceof DirectLookupTable) {
+            return lookup;
+        }
+        return new DirectLookupTable(lookup, bitCount, signed);
+    }
+
+}
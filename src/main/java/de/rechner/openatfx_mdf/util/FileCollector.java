@@ -0,0 +1,161 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Utility class collecting the MDF files of a batch conversion from files, directories and glob patterns.
+ * 
+ * @author Christian Rechner
+ */
+public abstract class FileCollector {
+
+    /** The file extensions of MDF files searched in directories */
+    public static final String[] MDF_EXTENSIONS = { "mdf", "dat", "mf4", "mf3" };
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    /**
+     * Collects the files given by a list of arguments, each may be
+     * <ul>
+     * <li>a file, which is taken regardless of its extension,</li>
+     * <li>a directory, which is searched recursively for files having a MDF file extension,</li>
+     * <li>a glob pattern (e.g. <code>/data/**&#47;*.mf4</code>), searched below its leading path without pattern
+     * characters.</li>
+     * </ul>
+     * The files are ordered by descending size, so scheduling them in this order starts the longest conversions first.
+     * 
+     * @param args The arguments.
+     * @return The distinct files, biggest first.
+     * @throws IOException Error reading a directory or a given file does not exist.
+     */
+    public static List<Path> collect(List<String> args) throws IOException {
+        final Map<Path, Long> sizes = new LinkedHashMap<Path, Long>();
+        for (String arg : args) {
+            if (isGlob(arg)) {
+                collectGlob(arg, sizes);
+                continue;
+            }
+            Path path = Paths.get(arg).toAbsolutePath().normalize();
+            if (Files.isDirectory(path)) {
+                Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                        if (attrs.isRegularFile() && hasMdfExtension(file)) {
+                            sizes.put(file, attrs.size());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                });
+            } else if (Files.isRegularFile(path)) {
+                sizes.put(path, Files.size(path));
+            } else {
+                throw new IOException("File not found: " + arg);
+            }
+        }
+        List<Path> files = new ArrayList<Path>(sizes.keySet());
+        Collections.sort(files, new Comparator<Path>() {
+
+            @Override
+            public int compare(Path o1, Path o2) {
+                long s1 = sizes.get(o1);
+                long s2 = sizes.get(o2);
+                return s1 > s2 ? -1 : (s1 < s2 ? 1 : 0);
+            }
+
+        });
+        return files;
+    }
+
+    /**
+     * Returns whether a target file exists and is not older than its source file.
+     * 
+     * @param source The source file.
+     * @param target The target file.
+     * @return True, if the target need not be written again.
+     * @throws IOException Error reading the file attributes.
+     */
+    public static boolean isUpToDate(Path source, Path target) throws IOException {
+        if (!Files.isRegularFile(target)) {
+            return false;
+        }
+        return Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) >= 0;
+    }
+
+    private static boolean isGlob(String arg) {
+        for (int i = 0; i < arg.length(); i++) {
+            if (GLOB_CHARS.indexOf(arg.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collectGlob(String glob, final Map<Path, Long> sizes) throws IOException {
+        // the leading path without pattern characters is the directory to search
+        String pattern = glob.replace('\\', '/');
+        int firstGlobChar = pattern.length();
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARS.indexOf(pattern.charAt(i)) >= 0) {
+                firstGlobChar = i;
+                break;
+            }
+        }
+        int slash = pattern.lastIndexOf('/', firstGlobChar);
+        String base = slash < 0 ? "" : pattern.substring(0, slash + 1);
+        final Path baseDir = Paths.get(base.length() > 0 ? base : ".").toAbsolutePath().normalize();
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(slash + 1));
+        if (!Files.isDirectory(baseDir)) {
+            return;
+        }
+        Files.walkFileTree(baseDir, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && matcher.matches(baseDir.relativize(file))) {
+                    sizes.put(file, attrs.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+    /**
+     * Returns whether a file has one of the {@link #MDF_EXTENSIONS}, ignoring the case.
+     * 
+     * @param file The file.
+     * @return True, if MDF file extension.
+     */
+    public static boolean hasMdfExtension(Path file) {
+        String ext = FileUtil.getFileExtension(file.getFileName().toString());
+        if (ext == null) {
+            return false;
+        }
+        ext = ext.toLowerCase(Locale.ROOT);
+        for (String mdfExt : MDF_EXTENSIONS) {
+            if (mdfExt.equals(ext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
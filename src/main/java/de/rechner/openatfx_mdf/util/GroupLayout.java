@@ -0,0 +1,42 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.List;
+
+
+/**
+ * Describes where the records of a 'sorted' channel group are stored in a MDF file.
+ *
+ * @author Christian Rechner
+ */
+public class GroupLayout {
+
+    private final long rowCount;
+    private final int recordSize;
+    private final List<long[]> fragments;
+
+    /**
+     * Constructor.
+     *
+     * @param rowCount The number of rows (records) of the channel group.
+     * @param recordSize The record size in bytes.
+     * @param fragments The data fragments, each given as array of start position and length in bytes.
+     */
+    public GroupLayout(long rowCount, int recordSize, List<long[]> fragments) {
+        this.rowCount = rowCount;
+        this.recordSize = recordSize;
+        this.fragments = fragments;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    public List<long[]> getFragments() {
+        return fragments;
+    }
+
+}
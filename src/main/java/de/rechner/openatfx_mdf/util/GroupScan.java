@@ -0,0 +1,202 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Single pass over the records of a channel group, decoding the values of all registered channels.
+ * <p>
+ * Each record is decoded once for all channels: the master channel value is computed first, then the raw and physical
+ * value of every channel is passed to its {@link SampleListener}s. This way statistics, indexes etc. for any number of
+ * channels cost one read of the data. The values of a block of records are decoded column wise, see
+ * {@link RawValueDecoder#decodeColumn(byte[], int, int, int, double[])}.
+ *
+ * @author Christian Rechner
+ */
+public class GroupScan implements RecordHandler {
+
+    // the master channel, decoder is null for a virtual master channel (raw value = record index)
+    private RawValueDecoder masterDecoder;
+    private NumericConversion masterConversion;
+
+    // the registered channels
+    private final List<ScanChannel> channels;
+
+    // the listeners called once per record with the master channel value
+    private final List<SampleListener> recordListeners;
+
+    // the number of records processed
+    private long row;
+
+    // the decoded master values and channel values of the current block of records
+    private double[] timeBuffer;
+    private double[] masterBuffer;
+    private double[] rawBuffer;
+
+    /**
+     * Constructor.
+     */
+    public GroupScan() {
+        this.channels = new ArrayList<ScanChannel>();
+        this.recordListeners = new ArrayList<SampleListener>();
+    }
+
+    /**
+     * Sets the master channel of the group. If not set, the time passed to the listeners is NaN.
+     *
+     * @param decoder The decoder of the master channel, null for a virtual master channel having the record index as
+     *            raw value.
+     * @param conversion The conversion of the master channel.
+     */
+    public void setMaster(RawValueDecoder decoder, NumericConversion conversion) {
+        this.masterDecoder = decoder;
+        this.masterConversion = conversion;
+    }
+
+    /**
+     * Registers a channel to decode.
+     *
+     * @param decoder The raw value decoder.
+     * @param conversion The numeric conversion.
+     * @return The channel index to be used for adding listeners.
+     */
+    public int addChannel(RawValueDecoder decoder, NumericConversion conversion) {
+        this.channels.add(new ScanChannel(decoder, conversion));
+        return this.channels.size() - 1;
+    }
+
+    /**
+     * Adds a listener to a registered channel.
+     *
+     * @param channelIndex The channel index.
+     * @param listener The listener.
+     */
+    public void addListener(int channelIndex, SampleListener listener) {
+        this.channels.get(channelIndex).listeners.add(listener);
+    }
+
+    /**
+     * Adds a listener called once per record, getting the raw and the physical value of the master channel.
+     *
+     * @param listener The listener.
+     */
+    public void addRecordListener(SampleListener listener) {
+        this.recordListeners.add(listener);
+    }
+
+    /**
+     * Returns whether there is anything to decode.
+     *
+     * @return True, if no channel has listeners.
+     */
+    public boolean isEmpty() {
+        for (ScanChannel channel : this.channels) {
+            if (!channel.listeners.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of records processed.
+     *
+     * @return The number of rows.
+     */
+    public long getRowCount() {
+        return this.row;
+    }
+
+    /**
+     * Returns whether a master channel has been set.
+     *
+     * @return True, if the master channel values are available.
+     */
+    public boolean hasMaster() {
+        return this.masterConversion != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.RecordHandler#handleRecords(byte[], int, int, int)
+     */
+    @Override
+    public void handleRecords(byte[] data, int offset, int recordCount, int recordSize) throws IOException {
+        ScanChannel[] active = activeChannels();
+        SampleListener[] recordListenerArr = this.recordListeners.toArray(new SampleListener[0]);
+        if (this.timeBuffer == null || this.timeBuffer.length < recordCount) {
+            this.timeBuffer = new double[recordCount];
+            this.masterBuffer = new double[recordCount];
+            this.rawBuffer = new double[recordCount];
+        }
+
+        // master values
+        double[] time = this.timeBuffer;
+        double[] masterRaw = this.masterBuffer;
+        if (this.masterConversion == null) {
+            Arrays.fill(masterRaw, 0, recordCount, Double.NaN);
+            Arrays.fill(time, 0, recordCount, Double.NaN);
+        } else {
+            if (this.masterDecoder == null) {
+                for (int i = 0; i < recordCount; i++) {
+                    masterRaw[i] = this.row + i;
+                }
+            } else {
+                this.masterDecoder.decodeColumn(data, offset, recordCount, recordSize, masterRaw);
+            }
+            for (int i = 0; i < recordCount; i++) {
+                time[i] = this.masterConversion.convert(masterRaw[i]);
+            }
+        }
+        for (SampleListener listener : recordListenerArr) {
+            for (int i = 0; i < recordCount; i++) {
+                listener.sample(this.row + i, time[i], masterRaw[i], time[i]);
+            }
+        }
+
+        // channel values
+        double[] raw = this.rawBuffer;
+        for (ScanChannel channel : active) {
+            channel.decoder.decodeColumn(data, offset, recordCount, recordSize, raw);
+            for (int i = 0; i < recordCount; i++) {
+                double phys = channel.conversion.convert(raw[i]);
+                for (SampleListener listener : channel.listeners) {
+                    listener.sample(this.row + i, time[i], raw[i], phys);
+                }
+            }
+        }
+        this.row += recordCount;
+    }
+
+    private ScanChannel[] activeChannels() {
+        List<ScanChannel> list = new ArrayList<ScanChannel>(this.channels.size());
+        for (ScanChannel channel : this.channels) {
+            if (!channel.listeners.isEmpty()) {
+                list.add(channel);
+            }
+        }
+        return list.toArray(new ScanChannel[0]);
+    }
+
+    /**
+     * A channel registered for the scan.
+     */
+    private static class ScanChannel {
+
+        private final RawValueDecoder decoder;
+        private final NumericConversion conversion;
+        private final List<SampleListener> listeners;
+
+        public ScanChannel(RawValueDecoder decoder, NumericConversion conversion) {
+            this.decoder = decoder;
+            this.conversion = conversion;
+            this.listeners = new ArrayList<SampleListener>();
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.asam.ods.AoException;
+import org.asam.ods.InstanceElement;
+
+import de.rechner.openatfx_mdf.ConvertOptions;
+import de.rechner.openatfx_mdf.ConvertSummary;
+
+
+/**
+ * Registers the channels of a channel group for a {@link GroupScan} according to the conversion options and writes the
+ * results (statistics, preview, time index, zone maps, implicit columns) to the session after the scan.
+ *
+ * @author Christian Rechner
+ */
+public class GroupScanWriter {
+
+    private static final Log LOG = LogFactory.getLog(GroupScanWriter.class);
+
+    private final ConvertOptions options;
+    private final StatisticsHelper statisticsHelper;
+    private final PreviewHelper previewHelper;
+    private final IndexHelper indexHelper;
+    private final ConvertSummary summary;
+
+    private final GroupScan scan;
+    private final List<ScannedChannel> channels;
+
+    // the master channel 'AoLocalColumn' and the pyramid of the master values
+    private InstanceElement ieMasterLc;
+    private final MinMaxPyramid masterPyramid;
+
+    // the index of the master values
+    private final TimeIndex timeIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param options The conversion options.
+     * @param statisticsHelper The helper to write the statistics.
+     * @param previewHelper The helper to write the preview.
+     * @param indexHelper The helper to write the indexes.
+     * @param summary The conversion summary.
+     */
+    public GroupScanWriter(ConvertOptions options, StatisticsHelper statisticsHelper, PreviewHelper previewHelper,
+            IndexHelper indexHelper, ConvertSummary summary) {
+        this.options = options;
+        this.statisticsHelper = statisticsHelper;
+        this.previewHelper = previewHelper;
+        this.indexHelper = indexHelper;
+        this.summary = summary;
+        this.scan = new GroupScan();
+        this.channels = new ArrayList<ScannedChannel>();
+        if (options.isPreview()) {
+            this.masterPyramid = new MinMaxPyramid(options.getPreviewFactors(), options.getPreviewMaxBuckets());
+            this.scan.addRecordListener(this.masterPyramid);
+        } else {
+            this.masterPyramid = null;
+        }
+        if (options.isTimeIndex()) {
+            this.timeIndex = new TimeIndex(options.getTimeIndexStride());
+            this.scan.addRecordListener(this.timeIndex);
+        } else {
+            this.timeIndex = null;
+        }
+    }
+
+    /**
+     * Registers a channel.
+     *
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param ieMeq The 'AoMeasurementQuantity' instance, may be null.
+     * @param decoder The raw value decoder.
+     * @param conversion The numeric conversion.
+     * @param master True, if the channel is the master channel of the group.
+     */
+    public void addChannel(InstanceElement ieLc, InstanceElement ieMeq, RawValueDecoder decoder,
+            NumericConversion conversion, boolean master) {
+        if (master) {
+            this.scan.setMaster(decoder, conversion);
+            this.ieMasterLc = ieLc;
+        }
+        int index = this.scan.addChannel(decoder, conversion);
+        ScannedChannel channel = new ScannedChannel(ieLc, ieMeq);
+        if (this.options.isStatistics()) {
+            channel.stats = new ChannelStatistics();
+            this.scan.addListener(index, channel.stats);
+        }
+        if (this.options.isPreview() && !master) {
+            channel.pyramid = new MinMaxPyramid(this.options.getPreviewFactors(),
+                                               this.options.getPreviewMaxBuckets());
+            this.scan.addListener(index, channel.pyramid);
+        }
+        if (this.options.isZoneMap()) {
+            channel.zoneMap = new ZoneMap(this.options.getZoneMapRows());
+            this.scan.addListener(index, channel.zoneMap);
+        }
+        if (this.options.isImplicitLinear() && master) {
+            channel.linear = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+            this.scan.addListener(index, channel.linear);
+        }
+        if (this.options.isImplicitConstant() && !master) {
+            channel.constant = new ConstantDetector();
+            this.scan.addListener(index, channel.constant);
+        }
+        this.channels.add(channel);
+    }
+
+    /**
+     * Sets a virtual master channel, having the record index as raw value.
+     *
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param conversion The numeric conversion.
+     */
+    public void setVirtualMaster(InstanceElement ieLc, NumericConversion conversion) {
+        this.scan.setMaster(null, conversion);
+        this.ieMasterLc = ieLc;
+    }
+
+    /**
+     * Returns the scan to pass the records to.
+     *
+     * @return The scan.
+     */
+    public GroupScan getScan() {
+        return this.scan;
+    }
+
+    /**
+     * Returns whether there is anything to scan.
+     *
+     * @return True, if no channel has been registered.
+     */
+    public boolean isEmpty() {
+        return this.scan.isEmpty() && (this.timeIndex == null || !this.scan.hasMaster());
+    }
+
+    /**
+     * Writes the results of the scan.
+     *
+     * @param modelCache The application model cache.
+     * @param ieMea The 'AoMeasurement' instance.
+     * @param ieSm The 'AoSubMatrix' instance of the channel group.
+     * @throws AoException Error writing to session.
+     * @throws IOException Error writing to session.
+     */
+    public void write(ODSModelCache modelCache, InstanceElement ieMea, InstanceElement ieSm) throws AoException,
+            IOException {
+        List<InstanceElement> previewLcs = new ArrayList<InstanceElement>();
+        List<MinMaxPyramid> previewPyramids = new ArrayList<MinMaxPyramid>();
+        List<InstanceElement> zoneMapLcs = new ArrayList<InstanceElement>();
+        List<ZoneMap> zoneMaps = new ArrayList<ZoneMap>();
+        for (ScannedChannel channel : this.channels) {
+            if (channel.stats != null) {
+                this.statisticsHelper.writeStatistics(channel.ieLc, channel.ieMeq, channel.stats);
+            }
+            if (channel.pyramid != null) {
+                channel.pyramid.finish();
+                previewLcs.add(channel.ieLc);
+                previewPyramids.add(channel.pyramid);
+            }
+            if (channel.zoneMap != null) {
+                zoneMapLcs.add(channel.ieLc);
+                zoneMaps.add(channel.zoneMap);
+            }
+        }
+        if (this.masterPyramid != null && !previewLcs.isEmpty()) {
+            this.masterPyramid.finish();
+            InstanceElement ieMaster = this.scan.hasMaster() ? this.ieMasterLc : null;
+            this.previewHelper.createPreview(modelCache, ieMea, ieSm, this.scan.getRowCount(), ieMaster,
+                                             this.masterPyramid, previewLcs, previewPyramids);
+        }
+        if (this.timeIndex != null && this.scan.hasMaster()) {
+            if (this.timeIndex.isMonotonic()) {
+                this.indexHelper.createTimeIndex(modelCache, ieMea, ieSm, this.ieMasterLc, this.timeIndex);
+            } else {
+                LOG.warn("Master channel values of '" + ieSm.getName()
+                        + "' are not monotonic, no time index written");
+            }
+        }
+        if (!zoneMaps.isEmpty() && this.scan.getRowCount() > 0) {
+            this.indexHelper.createZoneMaps(modelCache, ieMea, ieSm, zoneMapLcs, zoneMaps);
+        }
+        for (ScannedChannel channel : this.channels) {
+            if (channel.linear != null && channel.linear.isLinear()) {
+                ImplicitColumnHelper.writeImplicitLinear(modelCache, channel.ieLc, channel.linear.getStart(),
+                                                         channel.linear.getIncrement());
+                this.summary.addImplicitLinear();
+            } else if (channel.constant != null && channel.constant.isConstant()) {
+                ImplicitColumnHelper.writeImplicitConstant(modelCache, channel.ieLc, channel.constant.getValue());
+                this.summary.addImplicitConstant();
+            }
+        }
+    }
+
+    /**
+     * A channel registered for the scan.
+     */
+    private static class ScannedChannel {
+
+        private final InstanceElement ieLc;
+        private final InstanceElement ieMeq;
+        private ChannelStatistics stats;
+        private MinMaxPyramid pyramid;
+        private ZoneMap zoneMap;
+        private LinearDetector linear;
+        private ConstantDetector constant;
+
+        public ScannedChannel(InstanceElement ieLc, InstanceElement ieMeq) {
+            this.ieLc = ieLc;
+            this.ieMeq = ieMeq;
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package de.rechner.openatfx_mdf.util;
+
+import org.asam.ods.AoException;
+import org.asam.ods.ApplicationElement;
+import org.asam.ods.ApplicationRelation;
+import org.asam.ods.InstanceElement;
+import org.asam.ods.InstanceElementIterator;
+
+
+/**
+ * Helper class to turn 'AoLocalColumn' instances into implicit columns, whose values are given by the generation
+ * parameters instead of being read from an 'AoExternalComponent'.
+ *
+ * @author Christian Rechner
+ */
+public abstract class ImplicitColumnHelper {
+
+    /**
+     * Writes a local column as 'implicit_linear': value[i] = start + i * increment. Existing external components of
+     * the local column are removed.
+     *
+     * @param modelCache The application model cache.
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param start The value of the first row.
+     * @param increment The increment between two rows.
+     * @throws AoException Error writing to session.
+     */
+    public static void writeImplicitLinear(ODSModelCache modelCache, InstanceElement ieLc, double start,
+            double increment) throws AoException {
+        ieLc.setValue(ODSHelper.createEnumNVU("srp", 2));
+        ieLc.setValue(ODSHelper.createDoubleSeqNVU("par", new double[] { start, increment }));
+        removeExternalComponents(modelCache, ieLc);
+    }
+
+    /**
+     * Writes a local column as 'implicit_constant': value[i] = value. Existing external components of the local
+     * column are removed.
+     *
+     * @param modelCache The application model cache.
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param value The value of all rows.
+     * @throws AoException Error writing to session.
+     */
+    public static void writeImplicitConstant(ODSModelCache modelCache, InstanceElement ieLc, double value)
+            throws AoException {
+        ieLc.setValue(ODSHelper.createEnumNVU("srp", 1));
+        ieLc.setValue(ODSHelper.createDoubleSeqNVU("par", new double[] { value }));
+        removeExternalComponents(modelCache, ieLc);
+    }
+
+    /**
+     * Removes all 'AoExternalComponent' instances of a local column.
+     *
+     * @param modelCache The application model cache.
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @throws AoException Error writing to session.
+     */
+    private static void removeExternalComponents(ODSModelCache modelCache, InstanceElement ieLc) throws AoException {
+        ApplicationElement aeEc = modelCache.getApplicationElement("ec");
+        ApplicationRelation relLcEc = modelCache.getApplicationRelation("lc", "ec", "ecs");
+        InstanceElementIterator iter = ieLc.getRelatedInstances(relLcEc, "*");
+        try {
+            InstanceElement[] ieEcs = iter.nextN(iter.getCount());
+            for (InstanceElement ieEc : ieEcs) {
+                ieLc.removeRelation(relLcEc, ieEc);
+                aeEc.removeInstance(ieEc.getId(), false);
+            }
+        } finally {
+            iter.destroy();
+        }
+    }
+
+}
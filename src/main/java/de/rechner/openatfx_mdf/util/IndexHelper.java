@@ -0,0 +1,315 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.asam.ods.AoException;
+import org.asam.ods.ApplicationElement;
+import org.asam.ods.ApplicationRelation;
+import org.asam.ods.InstanceElement;
+import org.asam.ods.InstanceElementIterator;
+import org.asam.ods.NameValueUnit;
+import org.asam.ods.Relationship;
+
+
+/**
+ * Helper class to write the indexes of the channel groups to an index 'AoMeasurement' and to read them back.
+ * <p>
+ * The index measurement is created next to the measurement of the MDF file. The time index of a channel group is
+ * written as 'AoSubMatrix' named '&lt;submatrix&gt;_time_index', having an implicit linear column of the indexed
+ * rows and an explicit column of the master channel values at these rows. The zone maps of the channels of a channel
+ * group are written as 'AoSubMatrix' named '&lt;submatrix&gt;_zone_map', having an implicit linear column of the first
+ * rows of the chunks and an explicit minimum and maximum column per channel.
+ *
+ * @author Christian Rechner
+ */
+public class IndexHelper {
+
+    /** The suffix of the time index 'AoSubMatrix' names */
+    public static final String TIME_INDEX_SUFFIX = "_time_index";
+
+    /** The name of the 'AoSubMatrix' instance attribute holding the index stride */
+    public static final String ATTR_STRIDE = "index_stride";
+
+    /** The name of the 'AoSubMatrix' instance attribute holding the number of rows of the channel group */
+    public static final String ATTR_ROWS = "index_rows";
+
+    /** The name of the 'AoSubMatrix' instance attribute holding the master value of the last row */
+    public static final String ATTR_LAST_VALUE = "index_last_value";
+
+    /** The suffix of the zone map 'AoSubMatrix' names */
+    public static final String ZONE_MAP_SUFFIX = "_zone_map";
+
+    /** The name of the 'AoSubMatrix' instance attribute holding the number of rows of a zone map chunk */
+    public static final String ATTR_CHUNK_ROWS = "zone_map_rows";
+
+    private static final String MT_MASTER = "application/x-asam.aolocalcolumn.index.master";
+    private static final String MT_ZONE_MIN = "application/x-asam.aolocalcolumn.index.min";
+    private static final String MT_ZONE_MAX = "application/x-asam.aolocalcolumn.index.max";
+
+    // the cached index measurement instance element
+    private InstanceElement indexMeaIe;
+
+    /**
+     * Returns the index measurement, creating it if not yet existing.
+     *
+     * @param modelCache The application model cache.
+     * @param ieMea The 'AoMeasurement' instance of the MDF file.
+     * @return The index measurement.
+     * @throws AoException Error writing to session.
+     */
+    protected InstanceElement getIndexMea(ODSModelCache modelCache, InstanceElement ieMea) throws AoException {
+        if (this.indexMeaIe == null) {
+            ApplicationElement aeMea = modelCache.getApplicationElement("mea");
+            ApplicationRelation relMeaTst = modelCache.getApplicationRelation("mea", "tst", "tst");
+
+            // lookup parent 'AoTest' instance
+            InstanceElementIterator iter = ieMea.getRelatedInstancesByRelationship(Relationship.FATHER, "*");
+            InstanceElement ieTst = iter.nextOne();
+            iter.destroy();
+
+            String meaName = ieMea.getName() + "_index";
+            this.indexMeaIe = aeMea.createInstance(meaName);
+            this.indexMeaIe.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurement.index"));
+            this.indexMeaIe.setValue(ieMea.getValue("date_created"));
+            this.indexMeaIe.setValue(ieMea.getValue("mea_begin"));
+            this.indexMeaIe.setValue(ieMea.getValue("mea_end"));
+            this.indexMeaIe.createRelation(relMeaTst, ieTst);
+        }
+        return this.indexMeaIe;
+    }
+
+    /**
+     * Writes the time index of a channel group.
+     *
+     * @param modelCache The application model cache.
+     * @param ieMea The 'AoMeasurement' instance of the MDF file.
+     * @param ieSm The 'AoSubMatrix' instance of the channel group.
+     * @param ieMasterLc The 'AoLocalColumn' instance of the master channel.
+     * @param timeIndex The time index.
+     * @throws AoException Error writing to session.
+     * @throws IOException Error writing to session.
+     */
+    public synchronized void createTimeIndex(ODSModelCache modelCache, InstanceElement ieMea, InstanceElement ieSm,
+            InstanceElement ieMasterLc, TimeIndex timeIndex) throws AoException, IOException {
+        ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
+        ApplicationElement aeSm = modelCache.getApplicationElement("sm");
+        ApplicationElement aeLc = modelCache.getApplicationElement("lc");
+        ApplicationRelation relSmMea = modelCache.getApplicationRelation("sm", "mea", "mea");
+        ApplicationRelation relSmLc = modelCache.getApplicationRelation("sm", "lc", "lcs");
+        ApplicationRelation relMeaMeq = modelCache.getApplicationRelation("mea", "meq", "meqs");
+        ApplicationRelation relLcMeq = modelCache.getApplicationRelation("lc", "meq", "meq");
+        InstanceElement ieIndexMea = getIndexMea(modelCache, ieMea);
+        String smName = ieSm.getName() + TIME_INDEX_SUFFIX;
+        double[] values = timeIndex.getValues();
+
+        // create 'AoSubMatrix' instance
+        InstanceElement ieIndexSm = aeSm.createInstance(smName);
+        ieIndexSm.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aosubmatrix.index.time"));
+        ieIndexSm.setValue(ODSHelper.createLongNVU("rows", values.length));
+        ieIndexSm.addInstanceAttribute(ODSHelper.createLongNVU(ATTR_STRIDE, timeIndex.getStride()));
+        ieIndexSm.addInstanceAttribute(ODSHelper.createLongLongNVU(ATTR_ROWS, timeIndex.getRowCount()));
+        ieIndexSm.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_LAST_VALUE, timeIndex.getLastValue()));
+        ieIndexSm.createRelation(relSmMea, ieIndexMea);
+
+        // create 'AoLocalColumn' instance for the row
+        NameValueUnit[] nvuLcRow = new NameValueUnit[6];
+        nvuLcRow[0] = ODSHelper.createStringNVU("mt", "application/x-asam.aolocalcolumn.index.row");
+        nvuLcRow[1] = ODSHelper.createEnumNVU("srp", 2);
+        nvuLcRow[2] = ODSHelper.createShortNVU("idp", (short) 0);
+        nvuLcRow[3] = ODSHelper.createShortNVU("glb", (short) 15);
+        nvuLcRow[4] = ODSHelper.createEnumNVU("axistype", 1);
+        nvuLcRow[5] = ODSHelper.createDoubleSeqNVU("par", new double[] { 0, timeIndex.getStride() });
+        InstanceElement ieLcRow = aeLc.createInstance(smName + "_row");
+        ieLcRow.setValueSeq(nvuLcRow);
+        ieIndexSm.createRelation(relSmLc, ieLcRow);
+
+        InstanceElement ieMeqRow = aeMeq.createInstance(smName + "_row");
+        ieMeqRow.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurementquantity.index.row"));
+        ieMeqRow.setValue(ODSHelper.createEnumNVU("dt", 8));
+        ieIndexMea.createRelation(relMeaMeq, ieMeqRow);
+        ieLcRow.createRelation(relLcMeq, ieMeqRow);
+
+        // create 'AoLocalColumn' instance for the master values
+        NameValueUnit[] nvuLcMaster = new NameValueUnit[6];
+        nvuLcMaster[0] = ODSHelper.createStringNVU("mt", MT_MASTER);
+        nvuLcMaster[1] = ODSHelper.createEnumNVU("srp", 0);
+        nvuLcMaster[2] = ODSHelper.createShortNVU("idp", (short) 1);
+        nvuLcMaster[3] = ODSHelper.createShortNVU("glb", (short) 15);
+        nvuLcMaster[4] = ODSHelper.createEnumNVU("axistype", 0);
+        nvuLcMaster[5] = ODSHelper.createDoubleSeqNVU("val", values);
+        InstanceElement ieLcMaster = aeLc.createInstance(smName + "_" + ieMasterLc.getName());
+        ieLcMaster.setValueSeq(nvuLcMaster);
+        ieIndexSm.createRelation(relSmLc, ieLcMaster);
+
+        InstanceElement ieMeqMaster = aeMeq.createInstance(smName + "_" + ieMasterLc.getName());
+        ieMeqMaster.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurementquantity.index.master"));
+        ieMeqMaster.setValue(ODSHelper.createEnumNVU("dt", 7));
+        ieIndexMea.createRelation(relMeaMeq, ieMeqMaster);
+        ieLcMaster.createRelation(relLcMeq, ieMeqMaster);
+    }
+
+    /**
+     * Reads a time index written by {@link #createTimeIndex}.
+     *
+     * @param ieIndexSm The time index 'AoSubMatrix' instance.
+     * @return The time index.
+     * @throws AoException Error reading from session.
+     * @throws IOException Invalid time index.
+     */
+    public static TimeIndex readTimeIndex(InstanceElement ieIndexSm) throws AoException, IOException {
+        int stride = ODSHelper.getLongVal(ieIndexSm.getValue(ATTR_STRIDE));
+        long rowCount = ODSHelper.getLongLongVal(ieIndexSm.getValue(ATTR_ROWS));
+        double lastValue = ODSHelper.getDoubleVal(ieIndexSm.getValue(ATTR_LAST_VALUE));
+
+        InstanceElementIterator iter = ieIndexSm.getRelatedInstancesByRelationship(Relationship.CHILD, "*");
+        try {
+            for (int i = 0; i < iter.getCount(); i++) {
+                InstanceElement ieLc = iter.nextOne();
+                if (MT_MASTER.equals(ODSHelper.getStringVal(ieLc.getValue("mt")))) {
+                    return new TimeIndex(stride, ODSHelper.getDoubleSeq(ieLc.getValue("val")), rowCount, lastValue);
+                }
+            }
+        } finally {
+            iter.destroy();
+        }
+        throw new IOException("No master values found in time index: " + ieIndexSm.getName());
+    }
+
+    /**
+     * Writes the zone maps of the channels of a channel group. All zone maps must have the same number of chunk rows.
+     *
+     * @param modelCache The application model cache.
+     * @param ieMea The 'AoMeasurement' instance of the MDF file.
+     * @param ieSm The 'AoSubMatrix' instance of the channel group.
+     * @param lcs The 'AoLocalColumn' instances of the channels.
+     * @param zoneMaps The zone maps of the channels.
+     * @throws AoException Error writing to session.
+     * @throws IOException Error writing to session.
+     */
+    public synchronized void createZoneMaps(ODSModelCache modelCache, InstanceElement ieMea, InstanceElement ieSm,
+            List<InstanceElement> lcs, List<ZoneMap> zoneMaps) throws AoException, IOException {
+        ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
+        ApplicationElement aeSm = modelCache.getApplicationElement("sm");
+        ApplicationElement aeLc = modelCache.getApplicationElement("lc");
+        ApplicationRelation relSmMea = modelCache.getApplicationRelation("sm", "mea", "mea");
+        ApplicationRelation relSmLc = modelCache.getApplicationRelation("sm", "lc", "lcs");
+        ApplicationRelation relMeaMeq = modelCache.getApplicationRelation("mea", "meq", "meqs");
+        ApplicationRelation relLcMeq = modelCache.getApplicationRelation("lc", "meq", "meq");
+        InstanceElement ieIndexMea = getIndexMea(modelCache, ieMea);
+        String smName = ieSm.getName() + ZONE_MAP_SUFFIX;
+        ZoneMap first = zoneMaps.get(0);
+
+        // create 'AoSubMatrix' instance
+        InstanceElement ieZoneSm = aeSm.createInstance(smName);
+        ieZoneSm.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aosubmatrix.index.zone_map"));
+        ieZoneSm.setValue(ODSHelper.createLongNVU("rows", first.getChunkCount()));
+        ieZoneSm.addInstanceAttribute(ODSHelper.createLongNVU(ATTR_CHUNK_ROWS, first.getChunkRows()));
+        ieZoneSm.addInstanceAttribute(ODSHelper.createLongLongNVU(ATTR_ROWS, first.getRowCount()));
+        ieZoneSm.createRelation(relSmMea, ieIndexMea);
+
+        // create 'AoLocalColumn' instance for the first row of the chunks
+        NameValueUnit[] nvuLcRow = new NameValueUnit[6];
+        nvuLcRow[0] = ODSHelper.createStringNVU("mt", "application/x-asam.aolocalcolumn.index.row");
+        nvuLcRow[1] = ODSHelper.createEnumNVU("srp", 2);
+        nvuLcRow[2] = ODSHelper.createShortNVU("idp", (short) 0);
+        nvuLcRow[3] = ODSHelper.createShortNVU("glb", (short) 15);
+        nvuLcRow[4] = ODSHelper.createEnumNVU("axistype", 1);
+        nvuLcRow[5] = ODSHelper.createDoubleSeqNVU("par", new double[] { 0, first.getChunkRows() });
+        InstanceElement ieLcRow = aeLc.createInstance(smName + "_row");
+        ieLcRow.setValueSeq(nvuLcRow);
+        ieZoneSm.createRelation(relSmLc, ieLcRow);
+
+        InstanceElement ieMeqRow = aeMeq.createInstance(smName + "_row");
+        ieMeqRow.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurementquantity.index.row"));
+        ieMeqRow.setValue(ODSHelper.createEnumNVU("dt", 8));
+        ieIndexMea.createRelation(relMeaMeq, ieMeqRow);
+        ieLcRow.createRelation(relLcMeq, ieMeqRow);
+
+        // create 'AoLocalColumn' instances for the minimum and maximum values of each channel
+        for (int i = 0; i < lcs.size(); i++) {
+            String name = smName + "_" + lcs.get(i).getName();
+            ZoneMap zoneMap = zoneMaps.get(i);
+            createZoneLc(aeLc, aeMeq, ieIndexMea, ieZoneSm, name + "_min", MT_ZONE_MIN, zoneMap.getMins(),
+                         relSmLc, relMeaMeq, relLcMeq);
+            createZoneLc(aeLc, aeMeq, ieIndexMea, ieZoneSm, name + "_max", MT_ZONE_MAX, zoneMap.getMaxs(),
+                         relSmLc, relMeaMeq, relLcMeq);
+        }
+    }
+
+    private static void createZoneLc(ApplicationElement aeLc, ApplicationElement aeMeq, InstanceElement ieIndexMea,
+            InstanceElement ieZoneSm, String name, String mt, double[] values, ApplicationRelation relSmLc,
+            ApplicationRelation relMeaMeq, ApplicationRelation relLcMeq) throws AoException {
+        NameValueUnit[] nvuLc = new NameValueUnit[6];
+        nvuLc[0] = ODSHelper.createStringNVU("mt", mt);
+        nvuLc[1] = ODSHelper.createEnumNVU("srp", 0);
+        nvuLc[2] = ODSHelper.createShortNVU("idp", (short) 0);
+        nvuLc[3] = ODSHelper.createShortNVU("glb", (short) 15);
+        nvuLc[4] = ODSHelper.createEnumNVU("axistype", 0);
+        nvuLc[5] = ODSHelper.createDoubleSeqNVU("val", values);
+        InstanceElement ieLc = aeLc.createInstance(name);
+        ieLc.setValueSeq(nvuLc);
+        ieZoneSm.createRelation(relSmLc, ieLc);
+
+        InstanceElement ieMeq = aeMeq.createInstance(name);
+        ieMeq.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurementquantity.index.zone_map"));
+        ieMeq.setValue(ODSHelper.createEnumNVU("dt", 7));
+        ieIndexMea.createRelation(relMeaMeq, ieMeq);
+        ieLc.createRelation(relLcMeq, ieMeq);
+    }
+
+    /**
+     * Reads the zone map of a channel written by {@link #createZoneMaps}.
+     *
+     * @param ieZoneSm The zone map 'AoSubMatrix' instance.
+     * @param channelName The name of the channel's 'AoLocalColumn' instance.
+     * @return The zone map.
+     * @throws AoException Error reading from session.
+     * @throws IOException Channel not found in zone map.
+     */
+    public static ZoneMap readZoneMap(InstanceElement ieZoneSm, String channelName) throws AoException,
+            IOException {
+        int chunkRows = ODSHelper.getLongVal(ieZoneSm.getValue(ATTR_CHUNK_ROWS));
+        long rowCount = ODSHelper.getLongLongVal(ieZoneSm.getValue(ATTR_ROWS));
+        String minName = ieZoneSm.getName() + "_" + channelName + "_min";
+        String maxName = ieZoneSm.getName() + "_" + channelName + "_max";
+
+        double[] mins = null;
+        double[] maxs = null;
+        InstanceElementIterator iter = ieZoneSm.getRelatedInstancesByRelationship(Relationship.CHILD, "*");
+        try {
+            for (int i = 0; i < iter.getCount(); i++) {
+                InstanceElement ieLc = iter.nextOne();
+                if (ieLc.getName().equals(minName)) {
+                    mins = ODSHelper.getDoubleSeq(ieLc.getValue("val"));
+                } else if (ieLc.getName().equals(maxName)) {
+                    maxs = ODSHelper.getDoubleSeq(ieLc.getValue("val"));
+                }
+            }
+        } finally {
+            iter.destroy();
+        }
+        if (mins == null || maxs == null) {
+            throw new IOException("Channel '" + channelName + "' not found in zone map: " + ieZoneSm.getName());
+        }
+        return new ZoneMap(chunkRows, mins, maxs, rowCount);
+    }
+
+    /**
+     * Returns the row ranges of a channel group that may contain values of a channel within [lower,upper], using the
+     * stored zone map of the channel.
+     *
+     * @param ieZoneSm The zone map 'AoSubMatrix' instance.
+     * @param channelName The name of the channel's 'AoLocalColumn' instance.
+     * @param lower The lower bound (inclusive), {@link Double#NEGATIVE_INFINITY} for no lower bound.
+     * @param upper The upper bound (inclusive), {@link Double#POSITIVE_INFINITY} for no upper bound.
+     * @return The candidate row ranges in ascending order.
+     * @throws AoException Error reading from session.
+     * @throws IOException Channel not found in zone map.
+     */
+    public static List<RowRange> getCandidateRanges(InstanceElement ieZoneSm, String channelName, double lower,
+            double upper) throws AoException, IOException {
+        return readZoneMap(ieZoneSm, channelName).getCandidateRanges(lower, upper);
+    }
+
+}
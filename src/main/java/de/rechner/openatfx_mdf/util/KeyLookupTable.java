@@ -0,0 +1,67 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.Arrays;
+
+
+/**
+ * Lookup table for the conversions 'value to text' (MDF4 conversion type 7, MDF3 formula 11).
+ * <p>
+ * The keys are kept in a sorted array, so each lookup is a binary search instead of a linear scan over the table. If
+ * a key exists more than once, the entry appearing first in the table wins, as it would with a linear scan.
+ *
+ * @author Christian Rechner
+ */
+public class KeyLookupTable implements TableLookup {
+
+    // the distinct keys, sorted ascending
+    private final double[] sortedKeys;
+
+    // the index of each sorted key within the original table
+    private final int[] tableIndices;
+
+    /**
+     * Constructor.
+     *
+     * @param keys The keys in table order.
+     */
+    public KeyLookupTable(double[] keys) {
+        int[] order = SortUtil.sortedOrder(keys);
+
+        double[] sk = new double[keys.length];
+        int[] ti = new int[keys.length];
+        int n = 0;
+        for (int i = 0; i < order.length; i++) {
+            double key = keys[order[i]];
+            // the order is stable, so the first occurrence of a duplicate key is the one from the table start
+            if (n > 0 && Double.compare(sk[n - 1], key) == 0) {
+                continue;
+            }
+            sk[n] = key;
+            ti[n] = order[i];
+            n++;
+        }
+        this.sortedKeys = Arrays.copyOf(sk, n);
+        this.tableIndices = Arrays.copyOf(ti, n);
+    }
+
+    /**
+     * Returns the number of distinct keys.
+     *
+     * @return The number of keys.
+     */
+    public int size() {
+        return sortedKeys.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.TableLookup#indexOf(double)
+     */
+    @Override
+    public int indexOf(double raw) {
+        int pos = Arrays.binarySearch(this.sortedKeys, raw);
+        return pos < 0 ? -1 : this.tableIndices[pos];
+    }
+
+}
@@ -0,0 +1,89 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Lock free histogram of latencies, recorded by many threads. The latencies are counted in buckets of powers of two
+ * nanoseconds, so a percentile is accurate within a factor of two, which is enough to spot the slow phase of a
+ * conversion.
+ *
+ * @author Christian Rechner
+ */
+public class LatencyHistogram {
+
+    // bucket i counts the latencies in [2^(i-1), 2^i) nanoseconds, bucket 0 the latencies of 0ns
+    private final AtomicLongArray buckets;
+    private final AtomicLong totalNanos;
+    private final AtomicLong maxNanos;
+
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(65);
+        this.totalNanos = new AtomicLong();
+        this.maxNanos = new AtomicLong();
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds, negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        long n = Math.max(0, nanos);
+        this.buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(n));
+        this.totalNanos.addAndGet(n);
+        long max = this.maxNanos.get();
+        while (n > max && !this.maxNanos.compareAndSet(max, n)) {
+            max = this.maxNanos.get();
+        }
+    }
+
+    /**
+     * Returns the statistics of the recorded latencies. As the values are recorded concurrently, the statistics may
+     * not be consistent to each other.
+     *
+     * @return The statistics.
+     */
+    public LatencyStatistics getStatistics() {
+        long[] snapshot = new long[this.buckets.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = this.buckets.get(i);
+            total += snapshot[i];
+        }
+        long max = this.maxNanos.get();
+        return new LatencyStatistics(total, this.totalNanos.get(), max, percentile(snapshot, total, max, 0.5),
+                                     percentile(snapshot, total, max, 0.9), percentile(snapshot, total, max, 0.99));
+    }
+
+    /**
+     * Clears all recorded latencies.
+     */
+    public void reset() {
+        for (int i = 0; i < this.buckets.length(); i++) {
+            this.buckets.set(i, 0);
+        }
+        this.totalNanos.set(0);
+        this.maxNanos.set(0);
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the percentile, at most the maximum.
+     */
+    private static long percentile(long[] snapshot, long total, long max, double p) {
+        long rank = (long) Math.ceil(total * p);
+        long cumulated = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            cumulated += snapshot[i];
+            if (cumulated >= rank && cumulated > 0) {
+                return i == 0 ? 0 : Math.min(max, i == 64 ? Long.MAX_VALUE : (1L << i) - 1);
+            }
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,73 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Statistics of the latencies recorded by a {@link LatencyHistogram}, in milliseconds.
+ *
+ * @author Christian Rechner
+ */
+public class LatencyStatistics {
+
+    private static final double NANOS_PER_MILLI = 1000000d;
+
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+
+    /**
+     * Constructor.
+     *
+     * @param count The number of recorded latencies.
+     * @param totalNanos The sum of all latencies in nanoseconds.
+     * @param maxNanos The maximum latency in nanoseconds.
+     * @param p50Nanos The median in nanoseconds.
+     * @param p90Nanos The 90th percentile in nanoseconds.
+     * @param p99Nanos The 99th percentile in nanoseconds.
+     */
+    public LatencyStatistics(long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos,
+            long p99Nanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / NANOS_PER_MILLI;
+    }
+
+    public double getMeanMillis() {
+        return count == 0 ? 0 : totalNanos / NANOS_PER_MILLI / count;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / NANOS_PER_MILLI;
+    }
+
+    public double getP50Millis() {
+        return p50Nanos / NANOS_PER_MILLI;
+    }
+
+    public double getP90Millis() {
+        return p90Nanos / NANOS_PER_MILLI;
+    }
+
+    public double getP99Millis() {
+        return p99Nanos / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMeanMillis() + "ms, p50=" + getP50Millis() + "ms, p99="
+                + getP99Millis() + "ms, max=" + getMaxMillis() + "ms";
+    }
+
+}
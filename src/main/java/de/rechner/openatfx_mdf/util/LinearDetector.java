@@ -0,0 +1,142 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Detects equidistant channels, having constant first-order differences of the physical values, while scanning the
+ * records.
+ * <p>
+ * The differences are considered constant if their spread (maximum minus minimum) does not exceed the relative
+ * tolerance of the mean increment. As small differences may add up, e.g. on a slight change of the sampling rate, the
+ * deviation of each value from the line through the first and the last value must not exceed the relative tolerance
+ * of the mean increment either. An equidistant channel can be written as 'implicit_linear' local column having the
+ * generation parameters [start, increment], so its values need not be stored or read at all.
+ *
+ * @author Christian Rechner
+ */
+public class LinearDetector implements SampleListener {
+
+    /** The default tolerance of the differences, relative to the mean increment */
+    public static final double DEFAULT_TOLERANCE = 1e-6;
+
+    private final double tolerance;
+
+    private long count;
+    private double first;
+    private double last;
+    private double minDiff;
+    private double maxDiff;
+    private double firstDiff;
+    private double minError;
+    private double maxError;
+    private double lastError;
+    private boolean linear;
+
+    /**
+     * Constructor.
+     *
+     * @param tolerance The tolerance of the differences, relative to the mean increment.
+     */
+    public LinearDetector(double tolerance) {
+        this.tolerance = tolerance;
+        this.count = 0;
+        this.minDiff = Double.POSITIVE_INFINITY;
+        this.maxDiff = Double.NEGATIVE_INFINITY;
+        this.linear = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.SampleListener#sample(long, double, double, double)
+     */
+    @Override
+    public void sample(long row, double time, double raw, double phys) {
+        if (!this.linear) {
+            return;
+        }
+        if (Double.isNaN(phys) || Double.isInfinite(phys)) {
+            this.linear = false;
+            return;
+        }
+        if (this.count == 0) {
+            this.first = phys;
+        } else {
+            // error against the line having the first difference as slope
+            if (this.count == 1) {
+                this.firstDiff = phys - this.first;
+            }
+            this.lastError = phys - this.first - this.count * this.firstDiff;
+            if (this.lastError < this.minError) {
+                this.minError = this.lastError;
+            }
+            if (this.lastError > this.maxError) {
+                this.maxError = this.lastError;
+            }
+
+            double diff = phys - this.last;
+            if (diff < this.minDiff) {
+                this.minDiff = diff;
+            }
+            if (diff > this.maxDiff) {
+                this.maxDiff = diff;
+            }
+            // fail early to skip the remaining samples
+            if (this.maxDiff - this.minDiff > this.tolerance * Math.abs(this.maxDiff + this.minDiff) / 2) {
+                this.linear = false;
+            }
+        }
+        this.last = phys;
+        this.count++;
+    }
+
+    /**
+     * Returns whether the channel is equidistant. At least two values are required.
+     *
+     * @return True, if the first-order differences are constant and all values are on the line through the first and
+     *         the last value, both within the tolerance.
+     */
+    public boolean isLinear() {
+        if (!this.linear || this.count < 2) {
+            return false;
+        }
+        double limit = this.tolerance * Math.abs(getIncrement());
+        return this.maxDiff - this.minDiff <= limit && getMaxDeviation() <= limit;
+    }
+
+    /**
+     * Returns an upper bound of the absolute deviation of the values from the line through the first and last value.
+     * <p>
+     * The deviation of value i is <code>error(i) - i / (n - 1) * error(n - 1)</code>, with the error against the line
+     * having the first difference as slope. As the factor is within [0, 1], the bound follows from the extreme errors
+     * without storing the values.
+     *
+     * @return The maximum deviation.
+     */
+    double getMaxDeviation() {
+        double upper = this.maxError - Math.min(0, this.lastError);
+        double lower = Math.max(0, this.lastError) - this.minError;
+        return Math.max(upper, lower);
+    }
+
+    /**
+     * Returns the first value.
+     *
+     * @return The start value.
+     */
+    public double getStart() {
+        return this.first;
+    }
+
+    /**
+     * Returns the mean increment between two consecutive values.
+     *
+     * @return The increment.
+     */
+    public double getIncrement() {
+        return (this.last - this.first) / (this.count - 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+}
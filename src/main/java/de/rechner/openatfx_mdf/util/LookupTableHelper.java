@@ -1,6 +1,9 @@
 package de.rechner.openatfx_mdf.util;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.asam.ods.AoException;
 import org.asam.ods.ApplicationElement;
@@ -13,16 +16,127 @@ import org.asam.ods.Relationship;
 
 /**
  * Helper class to convert the MDF lookup tables to a ASAM ODS 'AoMeasurement'.
+ * <p>
+ * By default each channel gets its own lookup 'AoSubMatrix' named after the channel. If lookup tables are shared, a
+ * table is written only once, no matter how many channels use it; the lookup 'AoSubMatrix' is named after the first
+ * channel using it. Tables are identified by the position of the conversion block and, for different conversion blocks
+ * having the same content, by the table content. In both cases each channel 'AoLocalColumn' references its lookup
+ * submatrix by name using the instance attribute {@value #ATTR_LOOKUP_SM}.
  * 
  * @author Christian Rechner
  */
 public class LookupTableHelper {
 
+    /** The name of the 'AoLocalColumn' instance attribute referencing the lookup submatrix */
+    public static final String ATTR_LOOKUP_SM = "lookup_submatrix";
+
+    // write each table only once
+    private final boolean shared;
+
     // the cached lookup instance element
     private InstanceElement lookupMeaIe;
 
+    // the number of lookup submatrices written
+    private int noOfLookupTables;
+
+    // the lookup submatrices, by conversion block position and by table content
+    private final Map<Long, InstanceElement> smByCcPos;
+    private final Map<TableContent, InstanceElement> smByContent;
+
+    /**
+     * Constructor.
+     * 
+     * @param shared Whether identical tables are written only once.
+     */
+    public LookupTableHelper(boolean shared) {
+        this.shared = shared;
+        this.noOfLookupTables = 0;
+        this.smByCcPos = new HashMap<Long, InstanceElement>();
+        this.smByContent = new HashMap<TableContent, InstanceElement>();
+    }
+
+    /**
+     * Returns the number of lookup submatrices written.
+     * 
+     * @return The number of lookup tables.
+     */
+    public synchronized int getNoOfLookupTables() {
+        return this.noOfLookupTables;
+    }
+
+    /**
+     * References the lookup submatrix already written for a conversion block from the channel, to be called before
+     * reading the table content of the conversion block.
+     * 
+     * @param ieLc The channel 'AoLocalColumn' instance.
+     * @param ccPos The position of the conversion block.
+     * @return True, if the lookup submatrix already existed; false, if the table has to be written.
+     * @throws AoException Error writing instance attribute.
+     */
+    public synchronized boolean referenceLookupTable(InstanceElement ieLc, long ccPos) throws AoException {
+        if (!this.shared) {
+            return false;
+        }
+        InstanceElement ieSm = this.smByCcPos.get(ccPos);
+        if (ieSm == null) {
+            return false;
+        }
+        ieLc.addInstanceAttribute(ODSHelper.createStringNVU(ATTR_LOOKUP_SM, ieSm.getName()));
+        return true;
+    }
+
+    /**
+     * Returns the already written lookup submatrix of a table and references it from the channel. If found by content,
+     * the submatrix is also registered for the conversion block position.
+     * 
+     * @param ieLc The channel 'AoLocalColumn' instance.
+     * @param ccPos The position of the conversion block.
+     * @param content The table content.
+     * @return True, if the lookup submatrix already existed.
+     * @throws AoException Error writing instance attribute.
+     */
+    private boolean referenceExistingSm(InstanceElement ieLc, long ccPos, TableContent content) throws AoException {
+        if (!this.shared) {
+            return false;
+        }
+        InstanceElement ieSm = this.smByCcPos.get(ccPos);
+        if (ieSm == null) {
+            ieSm = this.smByContent.get(content);
+            if (ieSm == null) {
+                return false;
+            }
+            this.smByCcPos.put(ccPos, ieSm);
+        }
+        ieLc.addInstanceAttribute(ODSHelper.createStringNVU(ATTR_LOOKUP_SM, ieSm.getName()));
+        return true;
+    }
+
+    /**
+     * Registers a newly written lookup submatrix and references it from the channel.
+     * 
+     * @param ieLc The channel 'AoLocalColumn' instance.
+     * @param ccPos The position of the conversion block.
+     * @param content The table content.
+     * @param ieSm The lookup submatrix.
+     * @throws AoException Error writing instance attribute.
+     */
+    private void registerSm(InstanceElement ieLc, long ccPos, TableContent content, InstanceElement ieSm)
+            throws AoException {
+        if (this.shared) {
+            this.smByCcPos.put(ccPos, ieSm);
+            this.smByContent.put(content, ieSm);
+        }
+        this.noOfLookupTables++;
+        ieLc.addInstanceAttribute(ODSHelper.createStringNVU(ATTR_LOOKUP_SM, ieSm.getName()));
+    }
+
     public synchronized void createMCD2TextTableMeasurement(ODSModelCache modelCache, InstanceElement ieMea,
-            InstanceElement ieLc, double[] keys, String[] values) throws AoException, IOException {
+            InstanceElement ieLc, long ccPos, double[] keys, String[] values) throws AoException, IOException {
+        TableContent content = new TableContent(keys, null, values, null);
+        if (referenceExistingSm(ieLc, ccPos, content)) {
+            return;
+        }
+
         ApplicationElement aeMea = modelCache.getApplicationElement("mea");
         ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
         ApplicationElement aeSm = modelCache.getApplicationElement("sm");
@@ -55,6 +169,7 @@ public class LookupTableHelper {
         ieSm.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aosubmatrix.lookup.value_to_text"));
         ieSm.setValue(ODSHelper.createLongNVU("rows", keys.length));
         ieSm.createRelation(relSmMea, this.lookupMeaIe);
+        registerSm(ieLc, ccPos, content, ieSm);
 
         // create 'AoLocalColumn' instance for key
         NameValueUnit[] nvuLcKey = new NameValueUnit[6];
@@ -96,8 +211,13 @@ public class LookupTableHelper {
     }
 
     public synchronized void createMCD2TextRangeTableMeasurement(ODSModelCache modelCache, InstanceElement ieMea,
-            InstanceElement ieLc, double[] keysMin, double[] keysMax, String[] values, String defaultValue)
+            InstanceElement ieLc, long ccPos, double[] keysMin, double[] keysMax, String[] values, String defaultValue)
             throws AoException, IOException {
+        TableContent content = new TableContent(keysMin, keysMax, values, defaultValue);
+        if (referenceExistingSm(ieLc, ccPos, content)) {
+            return;
+        }
+
         ApplicationElement aeMea = modelCache.getApplicationElement("mea");
         ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
         ApplicationElement aeSm = modelCache.getApplicationElement("sm");
@@ -130,6 +250,7 @@ public class LookupTableHelper {
         ieSm.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aosubmatrix.lookup.value_range_to_value"));
         ieSm.setValue(ODSHelper.createLongNVU("rows", values.length));
         ieSm.createRelation(relSmMea, this.lookupMeaIe);
+        registerSm(ieLc, ccPos, content, ieSm);
 
         // create 'AoLocalColumn' instance for key min
         NameValueUnit[] nvuLcKeyMin = new NameValueUnit[6];
@@ -209,4 +330,48 @@ public class LookupTableHelper {
         ieLcDefValue.createRelation(relLcMeq, ieMeqDefValue);
     }
 
+    /**
+     * The content of a lookup table, used to detect identical tables of different conversion blocks.
+     */
+    private static class TableContent {
+
+        private final double[] keys;
+        private final double[] keysMax;
+        private final String[] values;
+        private final String defaultValue;
+        private final int hash;
+
+        public TableContent(double[] keys, double[] keysMax, String[] values, String defaultValue) {
+            this.keys = keys;
+            this.keysMax = keysMax;
+            this.values = values;
+            this.defaultValue = defaultValue;
+            int h = Arrays.hashCode(keys);
+            h = 31 * h + Arrays.hashCode(keysMax);
+            h = 31 * h + Arrays.hashCode(values);
+            this.hash = 31 * h + (defaultValue == null ? 0 : defaultValue.hashCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TableContent)) {
+                return false;
+            }
+            TableContent other = (TableContent) obj;
+            return this.hash == other.hash && Arrays.equals(this.keys, other.keys)
+                    && Arrays.equals(this.keysMax, other.keysMax) && Arrays.equals(this.values, other.values)
+                    && (this.defaultValue == null ? other.defaultValue == null : this.defaultValue
+                            .equals(other.defaultValue));
+        }
+
+    }
+
 }
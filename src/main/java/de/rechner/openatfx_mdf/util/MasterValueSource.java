@@ -0,0 +1,22 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+
+
+/**
+ * Random access to the master channel values of a channel group.
+ *
+ * @author Christian Rechner
+ */
+public interface MasterValueSource {
+
+    /**
+     * Returns the physical master channel value of a row.
+     *
+     * @param row The row index.
+     * @return The master value.
+     * @throws IOException Error reading value.
+     */
+    double getMasterValue(long row) throws IOException;
+
+}
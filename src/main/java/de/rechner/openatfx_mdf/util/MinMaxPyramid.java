@@ -0,0 +1,247 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.Arrays;
+
+
+/**
+ * Multi-resolution min/max pyramid of a channel, built while streaming over the data.
+ * <p>
+ * Each level reduces the physical values by a fixed factor: every bucket of <code>factor</code> consecutive values is
+ * reduced to its minimum and maximum. The levels are built as a cascade, each completed bucket of a level is passed to
+ * the next level. The factors must be increasing and each factor must be a multiple of the previous one.
+ * <p>
+ * The completed buckets of each level are kept for the preview, at most <code>maxBuckets</code> per level: a level
+ * exceeding this limit is dropped and its buckets are released, while the cascade to the next levels continues. So the
+ * memory of a pyramid is bounded by the number of levels times <code>maxBuckets</code>, independent of the number of
+ * values; for a long channel only the coarse levels are available.
+ * <p>
+ * NaN values are ignored, a bucket having NaN values only gets NaN as minimum and maximum. The last bucket of each
+ * level may be incomplete after {@link #finish()}.
+ *
+ * @author Christian Rechner
+ */
+public class MinMaxPyramid implements SampleListener {
+
+    /** The default reduction factors */
+    public static final int[] DEFAULT_FACTORS = new int[] { 64, 4096, 262144 };
+
+    /** The default maximum number of buckets kept per level */
+    public static final int DEFAULT_MAX_BUCKETS = 4096;
+
+    // the reduction factor of each level
+    private final int[] factors;
+
+    // the number of buckets (resp. values for level 0) of the previous level making one bucket
+    private final int[] ratios;
+
+    // the open bucket of each level
+    private final double[] bucketMin;
+    private final double[] bucketMax;
+    private final int[] bucketCount;
+
+    // the completed buckets of each level, null if the level has been dropped
+    private final int maxBuckets;
+    private final double[][] mins;
+    private final double[][] maxs;
+    private final int[] sizes;
+
+    private boolean finished;
+
+    /**
+     * Constructor using the default factors and maximum number of buckets.
+     */
+    public MinMaxPyramid() {
+        this(DEFAULT_FACTORS, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Constructor using the default maximum number of buckets.
+     *
+     * @param factors The reduction factors of the levels.
+     * @throws IllegalArgumentException if the factors are not valid.
+     */
+    public MinMaxPyramid(int[] factors) {
+        this(factors, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factors The reduction factors of the levels.
+     * @param maxBuckets The maximum number of buckets kept per level.
+     * @throws IllegalArgumentException if the factors or the maximum number of buckets are not valid.
+     */
+    public MinMaxPyramid(int[] factors, int maxBuckets) {
+        checkFactors(factors);
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("Invalid maximum number of buckets: " + maxBuckets);
+        }
+        int levels = factors.length;
+        this.factors = factors.clone();
+        this.ratios = new int[levels];
+        for (int i = 0; i < levels; i++) {
+            this.ratios[i] = (i == 0) ? factors[0] : factors[i] / factors[i - 1];
+        }
+        this.bucketMin = new double[levels];
+        this.bucketMax = new double[levels];
+        this.bucketCount = new int[levels];
+        this.maxBuckets = maxBuckets;
+        this.mins = new double[levels][Math.min(16, maxBuckets)];
+        this.maxs = new double[levels][Math.min(16, maxBuckets)];
+        this.sizes = new int[levels];
+    }
+
+    /**
+     * Checks the reduction factors of a pyramid.
+     *
+     * @param factors The factors.
+     * @throws IllegalArgumentException if the factors are not valid.
+     */
+    public static void checkFactors(int[] factors) {
+        if (factors == null || factors.length < 1) {
+            throw new IllegalArgumentException("At least one reduction factor required");
+        }
+        for (int i = 0; i < factors.length; i++) {
+            int previous = (i == 0) ? 1 : factors[i - 1];
+            if (factors[i] <= previous || (factors[i] % previous) != 0) {
+                throw new IllegalArgumentException("Invalid reduction factors: " + Arrays.toString(factors)
+                        + ", each factor has to be a multiple of the previous one");
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.SampleListener#sample(long, double, double, double)
+     */
+    @Override
+    public void sample(long row, double time, double raw, double phys) {
+        add(0, phys, phys);
+    }
+
+    private void add(int level, double min, double max) {
+        if (this.bucketCount[level] == 0) {
+            this.bucketMin[level] = min;
+            this.bucketMax[level] = max;
+        } else {
+            if (min < this.bucketMin[level] || Double.isNaN(this.bucketMin[level])) {
+                this.bucketMin[level] = min;
+            }
+            if (max > this.bucketMax[level] || Double.isNaN(this.bucketMax[level])) {
+                this.bucketMax[level] = max;
+            }
+        }
+        this.bucketCount[level]++;
+        if (this.bucketCount[level] == this.ratios[level]) {
+            closeBucket(level);
+        }
+    }
+
+    private void closeBucket(int level) {
+        int size = this.sizes[level];
+        if (size == this.maxBuckets) { // drop the level
+            this.mins[level] = null;
+            this.maxs[level] = null;
+        } else if (this.mins[level] != null) {
+            if (size == this.mins[level].length) {
+                int length = (int) Math.min(size * 2L, this.maxBuckets);
+                this.mins[level] = Arrays.copyOf(this.mins[level], length);
+                this.maxs[level] = Arrays.copyOf(this.maxs[level], length);
+            }
+            this.mins[level][size] = this.bucketMin[level];
+            this.maxs[level][size] = this.bucketMax[level];
+        }
+        this.sizes[level]++;
+        this.bucketCount[level] = 0;
+        if (level + 1 < this.factors.length) {
+            add(level + 1, this.bucketMin[level], this.bucketMax[level]);
+        }
+    }
+
+    /**
+     * Closes the incomplete buckets at the end of the data. No values may be added afterwards.
+     */
+    public void finish() {
+        if (this.finished) {
+            return;
+        }
+        for (int level = 0; level < this.factors.length; level++) {
+            if (this.bucketCount[level] > 0) {
+                closeBucket(level);
+            }
+        }
+        this.finished = true;
+    }
+
+    /**
+     * Returns the number of levels.
+     *
+     * @return The number of levels.
+     */
+    public int getLevelCount() {
+        return this.factors.length;
+    }
+
+    /**
+     * Returns the reduction factor of a level.
+     *
+     * @param level The level.
+     * @return The factor.
+     */
+    public int getFactor(int level) {
+        return this.factors[level];
+    }
+
+    /**
+     * Returns the number of completed buckets of a level, including the buckets of a dropped level.
+     *
+     * @param level The level.
+     * @return The number of buckets.
+     */
+    public int getSize(int level) {
+        return this.sizes[level];
+    }
+
+    /**
+     * Returns whether the buckets of a level are available, i.e. the level has not been dropped for exceeding the
+     * maximum number of buckets.
+     *
+     * @param level The level.
+     * @return True, if available.
+     */
+    public boolean isAvailable(int level) {
+        return this.mins[level] != null;
+    }
+
+    /**
+     * Returns the bucket minimums of a level.
+     *
+     * @param level The level.
+     * @return The minimum values.
+     * @throws IllegalStateException if the level has been dropped.
+     */
+    public double[] getMin(int level) {
+        checkAvailable(level);
+        return Arrays.copyOf(this.mins[level], this.sizes[level]);
+    }
+
+    /**
+     * Returns the bucket maximums of a level.
+     *
+     * @param level The level.
+     * @return The maximum values.
+     * @throws IllegalStateException if the level has been dropped.
+     */
+    public double[] getMax(int level) {
+        checkAvailable(level);
+        return Arrays.copyOf(this.maxs[level], this.sizes[level]);
+    }
+
+    private void checkAvailable(int level) {
+        if (!isAvailable(level)) {
+            throw new IllegalStateException("Level " + level + " exceeds " + this.maxBuckets + " buckets");
+        }
+    }
+
+}
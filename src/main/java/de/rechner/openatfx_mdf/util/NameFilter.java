@@ -0,0 +1,138 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+
+/**
+ * Filter for channel or channel group names, built of include and exclude patterns.
+ * <p>
+ * The filter is given as comma separated list of patterns. A pattern enclosed in slashes (e.g. <code>/Eng.*_\d/</code>)
+ * is a regular expression, any other pattern is a glob pattern supporting the wildcards '*' and '?'. Patterns starting
+ * with '!' are exclude patterns. A name is accepted, if it matches any include pattern (or no include pattern is
+ * given) and does not match any exclude pattern. Patterns are matched against the whole name and are case sensitive.
+ * <p>
+ * Example: <code>Eng*,Veh*,!*_raw</code>
+ *
+ * @author Christian Rechner
+ */
+public class NameFilter {
+
+    /** Filter accepting all names */
+    public static final NameFilter ALL = new NameFilter(Collections.<Pattern> emptyList(),
+                                                        Collections.<Pattern> emptyList());
+
+    private final List<Pattern> includes;
+    private final List<Pattern> excludes;
+
+    private NameFilter(List<Pattern> includes, List<Pattern> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Parses a filter definition.
+     *
+     * @param filter The comma separated list of patterns.
+     * @return The filter.
+     * @throws IllegalArgumentException if a regular expression is invalid.
+     */
+    public static NameFilter parse(String filter) {
+        List<Pattern> includes = new ArrayList<Pattern>();
+        List<Pattern> excludes = new ArrayList<Pattern>();
+        for (String part : filter.split(",")) {
+            String str = part.trim();
+            boolean exclude = str.startsWith("!");
+            if (exclude) {
+                str = str.substring(1).trim();
+            }
+            if (str.length() < 1) {
+                continue;
+            }
+            Pattern pattern;
+            if (str.length() > 1 && str.startsWith("/") && str.endsWith("/")) {
+                try {
+                    pattern = Pattern.compile(str.substring(1, str.length() - 1));
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("Invalid regular expression: " + str, e);
+                }
+            } else {
+                pattern = Pattern.compile(globToRegex(str));
+            }
+            if (exclude) {
+                excludes.add(pattern);
+            } else {
+                includes.add(pattern);
+            }
+        }
+        if (includes.isEmpty() && excludes.isEmpty()) {
+            return ALL;
+        }
+        return new NameFilter(includes, excludes);
+    }
+
+    /**
+     * Returns whether the filter accepts all names.
+     *
+     * @return True, if no pattern is given.
+     */
+    public boolean isAll() {
+        return this.includes.isEmpty() && this.excludes.isEmpty();
+    }
+
+    /**
+     * Returns whether any of the names of an object is accepted. An object may have several names, e.g. a channel
+     * group is known by its submatrix name and its acquisition name; null names are ignored.
+     *
+     * @param names The names of the object.
+     * @return True, if an include pattern matches any name (or no include pattern is given) and no exclude pattern
+     *         matches any name.
+     */
+    public boolean accept(String... names) {
+        boolean included = this.includes.isEmpty();
+        for (String name : names) {
+            if (name == null) {
+                continue;
+            }
+            if (matches(this.excludes, name)) {
+                return false;
+            }
+            if (!included && matches(this.includes, name)) {
+                included = true;
+            }
+        }
+        return included;
+    }
+
+    private static boolean matches(List<Pattern> patterns, String name) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String globToRegex(String glob) {
+        StringBuilder sb = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > start) {
+                    sb.append(Pattern.quote(glob.substring(start, i)));
+                }
+                sb.append(c == '*' ? ".*" : ".");
+                start = i + 1;
+            }
+        }
+        if (start < glob.length()) {
+            sb.append(Pattern.quote(glob.substring(start)));
+        }
+        return sb.toString();
+    }
+
+}
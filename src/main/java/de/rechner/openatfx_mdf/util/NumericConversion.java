@@ -0,0 +1,18 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Conversion of a raw value to a physical value, as described by a conversion block of an MDF file.
+ *
+ * @author Christian Rechner
+ */
+public interface NumericConversion {
+
+    /**
+     * Converts a raw value to the physical value.
+     *
+     * @param raw The raw value.
+     * @return The physical value.
+     */
+    double convert(double raw);
+
+}
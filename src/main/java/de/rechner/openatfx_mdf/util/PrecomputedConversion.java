@@ -0,0 +1,85 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Numeric conversion evaluated once for every possible raw value of an integer channel having a bit count of at most
+ * 16, so converting a value is a single array access.
+ * <p>
+ * Raw values outside the integer domain of the channel are passed to the underlying conversion.
+ *
+ * @author Christian Rechner
+ */
+public class PrecomputedConversion implements NumericConversion {
+
+    /** The maximum bit count a conversion is precomputed for */
+    public static final int MAX_BIT_COUNT = 16;
+
+    // the underlying conversion
+    private final NumericConversion conversion;
+
+    // the smallest raw value of the domain
+    private final long minRaw;
+
+    // the physical value for each raw value of the domain, starting with minRaw
+    private final double[] values;
+
+    /**
+     * Constructor.
+     *
+     * @param conversion The conversion to precompute.
+     * @param bitCount The bit count of the raw values, 1 to 16.
+     * @param signed Whether the raw values are signed.
+     */
+    private PrecomputedConversion(NumericConversion conversion, int bitCount, boolean signed) {
+        this.conversion = conversion;
+        this.minRaw = signed ? -(1L << (bitCount - 1)) : 0;
+        this.values = new double[1 << bitCount];
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = conversion.convert(this.minRaw + i);
+        }
+    }
+
+    /**
+     * Converts an integer raw value, without checking the domain.
+     *
+     * @param raw The raw value, must be within the domain of the channel.
+     * @return The physical value.
+     */
+    public double convert(long raw) {
+        return this.values[(int) (raw - this.minRaw)];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.NumericConversion#convert(double)
+     */
+    @Override
+    public double convert(double raw) {
+        long l = (long) raw;
+        long i = l - this.minRaw;
+        if (l == raw && i >= 0 && i < this.values.length) {
+            return this.values[(int) i];
+        }
+        return this.conversion.convert(raw);
+    }
+
+    /**
+     * Returns the conversion to use for a channel. For integer channels having a bit count of at most
+     * {@link #MAX_BIT_COUNT} the conversion is precomputed, otherwise given conversion is returned unchanged.
+     *
+     * @param conversion The conversion.
+     * @param bitCount The bit count of the channel.
+     * @param integer Whether the raw values are integers.
+     * @param signed Whether the raw values are signed.
+     * @return The conversion.
+     */
+    public static NumericConversion forChannel(NumericConversion conversion, int bitCount, boolean integer,
+            boolean signed) {
+        if (conversion == null || conversion == Conversions.IDENTITY || !integer || bitCount < 1
+                || bitCount > MAX_BIT_COUNT || conversion instanceof PrecomputedConversion) {
+            return conversion;
+        }
+        return new PrecomputedConversion(conversion, bitCount, signed);
+    }
+
+}
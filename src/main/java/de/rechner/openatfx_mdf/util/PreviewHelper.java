@@ -0,0 +1,160 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.asam.ods.AoException;
+import org.asam.ods.ApplicationElement;
+import org.asam.ods.ApplicationRelation;
+import org.asam.ods.InstanceElement;
+import org.asam.ods.InstanceElementIterator;
+import org.asam.ods.NameValueUnit;
+import org.asam.ods.Relationship;
+
+
+/**
+ * Helper class to write the min/max pyramids of the channels to a preview 'AoMeasurement'.
+ * <p>
+ * The preview measurement is created next to the measurement of the MDF file. For each channel group and pyramid level
+ * an 'AoSubMatrix' is written, named by the channel group submatrix and the reduction factor. It contains the master
+ * channel (the master value at the start of each bucket) and for each channel the columns '&lt;name&gt;_min' and
+ * '&lt;name&gt;_max', written as explicit values. Levels not reducing the channel group are skipped, as are levels
+ * dropped by the pyramids for exceeding their maximum number of buckets, see {@link MinMaxPyramid}.
+ *
+ * @author Christian Rechner
+ */
+public class PreviewHelper {
+
+    /** The name of the 'AoSubMatrix' instance attribute holding the reduction factor */
+    public static final String ATTR_FACTOR = "preview_factor";
+
+    // the cached preview measurement instance element
+    private InstanceElement previewMeaIe;
+
+    // the measurement quantities of the preview measurement (key=name)
+    private final Map<String, InstanceElement> meqs;
+
+    /**
+     * Constructor.
+     */
+    public PreviewHelper() {
+        this.meqs = new HashMap<String, InstanceElement>();
+    }
+
+    /**
+     * Writes the preview submatrices of a channel group.
+     *
+     * @param modelCache The application model cache.
+     * @param ieMea The 'AoMeasurement' instance of the MDF file.
+     * @param ieSm The 'AoSubMatrix' instance of the channel group.
+     * @param rowCount The number of rows of the channel group.
+     * @param ieMasterLc The 'AoLocalColumn' instance of the master channel, null if the channel group has no master
+     *            channel; the row index is used instead.
+     * @param masterPyramid The pyramid of the master channel values.
+     * @param lcs The 'AoLocalColumn' instances of the channels.
+     * @param pyramids The pyramids of the channels.
+     * @throws AoException Error writing to session.
+     * @throws IOException Error writing to session.
+     */
+    public synchronized void createPreview(ODSModelCache modelCache, InstanceElement ieMea, InstanceElement ieSm,
+            long rowCount, InstanceElement ieMasterLc, MinMaxPyramid masterPyramid, List<InstanceElement> lcs,
+            List<MinMaxPyramid> pyramids) throws AoException, IOException {
+        ApplicationElement aeSm = modelCache.getApplicationElement("sm");
+        ApplicationRelation relSmMea = modelCache.getApplicationRelation("sm", "mea", "mea");
+        String smName = ieSm.getName();
+
+        for (int level = 0; level < masterPyramid.getLevelCount(); level++) {
+            int factor = masterPyramid.getFactor(level);
+            if (rowCount <= factor) {
+                break;
+            } else if (!masterPyramid.isAvailable(level)) {
+                continue;
+            }
+            InstanceElement ieMeaPreview = getPreviewMea(modelCache, ieMea);
+
+            // create 'AoSubMatrix' instance
+            InstanceElement ieSmPreview = aeSm.createInstance(smName + "_" + factor);
+            ieSmPreview.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aosubmatrix.preview"));
+            ieSmPreview.setValue(ODSHelper.createLongNVU("rows", masterPyramid.getSize(level)));
+            ieSmPreview.addInstanceAttribute(ODSHelper.createLongNVU(ATTR_FACTOR, factor));
+            ieSmPreview.createRelation(relSmMea, ieMeaPreview);
+
+            // master channel: the master value at bucket start, or the row index
+            if (ieMasterLc != null) {
+                createLc(modelCache, ieMeaPreview, ieSmPreview, ieMasterLc.getName(), "master", 1, 0,
+                         ODSHelper.createDoubleSeqNVU("val", masterPyramid.getMin(level)));
+            } else {
+                createLc(modelCache, ieMeaPreview, ieSmPreview, "row", "master", 1, 0,
+                         ODSHelper.createDoubleSeqNVU("par", new double[] { 0, factor }));
+            }
+
+            // channels
+            for (int i = 0; i < lcs.size(); i++) {
+                String lcName = lcs.get(i).getName();
+                MinMaxPyramid pyramid = pyramids.get(i);
+                createLc(modelCache, ieMeaPreview, ieSmPreview, lcName + "_min", "min", 0, 1,
+                         ODSHelper.createDoubleSeqNVU("val", pyramid.getMin(level)));
+                createLc(modelCache, ieMeaPreview, ieSmPreview, lcName + "_max", "max", 0, 1,
+                         ODSHelper.createDoubleSeqNVU("val", pyramid.getMax(level)));
+            }
+        }
+    }
+
+    private InstanceElement getPreviewMea(ODSModelCache modelCache, InstanceElement ieMea) throws AoException {
+        if (this.previewMeaIe == null) {
+            ApplicationElement aeMea = modelCache.getApplicationElement("mea");
+            ApplicationRelation relMeaTst = modelCache.getApplicationRelation("mea", "tst", "tst");
+
+            // lookup parent 'AoTest' instance
+            InstanceElementIterator iter = ieMea.getRelatedInstancesByRelationship(Relationship.FATHER, "*");
+            InstanceElement ieTst = iter.nextOne();
+            iter.destroy();
+
+            String meaName = ieMea.getName() + "_preview";
+            this.previewMeaIe = aeMea.createInstance(meaName);
+            this.previewMeaIe.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurement.preview"));
+            this.previewMeaIe.setValue(ieMea.getValue("date_created"));
+            this.previewMeaIe.setValue(ieMea.getValue("mea_begin"));
+            this.previewMeaIe.setValue(ieMea.getValue("mea_end"));
+            this.previewMeaIe.createRelation(relMeaTst, ieTst);
+        }
+        return this.previewMeaIe;
+    }
+
+    /**
+     * Creates an 'AoLocalColumn' instance having explicit values (or implicit linear values if the generation
+     * parameters are given) and its 'AoMeasurementQuantity' instance, if not yet existing.
+     */
+    private void createLc(ODSModelCache modelCache, InstanceElement ieMeaPreview, InstanceElement ieSmPreview,
+            String name, String type, int idp, int axistype, NameValueUnit values) throws AoException {
+        ApplicationElement aeMeq = modelCache.getApplicationElement("meq");
+        ApplicationElement aeLc = modelCache.getApplicationElement("lc");
+        ApplicationRelation relSmLc = modelCache.getApplicationRelation("sm", "lc", "lcs");
+        ApplicationRelation relMeaMeq = modelCache.getApplicationRelation("mea", "meq", "meqs");
+        ApplicationRelation relLcMeq = modelCache.getApplicationRelation("lc", "meq", "meq");
+
+        NameValueUnit[] nvuLc = new NameValueUnit[6];
+        nvuLc[0] = ODSHelper.createStringNVU("mt", "application/x-asam.aolocalcolumn.preview." + type);
+        nvuLc[1] = ODSHelper.createEnumNVU("srp", values.valName.equals("par") ? 2 : 0);
+        nvuLc[2] = ODSHelper.createShortNVU("idp", (short) idp);
+        nvuLc[3] = ODSHelper.createShortNVU("glb", (short) 15);
+        nvuLc[4] = ODSHelper.createEnumNVU("axistype", axistype);
+        nvuLc[5] = values;
+        InstanceElement ieLc = aeLc.createInstance(name);
+        ieLc.setValueSeq(nvuLc);
+        ieSmPreview.createRelation(relSmLc, ieLc);
+
+        InstanceElement ieMeq = this.meqs.get(name);
+        if (ieMeq == null) {
+            ieMeq = aeMeq.createInstance(name);
+            ieMeq.setValue(ODSHelper.createStringNVU("mt", "application/x-asam.aomeasurementquantity.preview." + type));
+            ieMeq.setValue(ODSHelper.createEnumNVU("dt", 7));
+            ieMeaPreview.createRelation(relMeaMeq, ieMeq);
+            this.meqs.put(name, ieMeq);
+        }
+        ieLc.createRelation(relLcMeq, ieMeq);
+    }
+
+}
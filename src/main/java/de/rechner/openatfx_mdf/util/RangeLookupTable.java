@@ -0,0 +1,144 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Lookup table for the conversions 'value range to value' and 'value range to text' (MDF4 conversion types 6 and 8,
+ * MDF3 formula 12).
+ * <p>
+ * The ranges are kept sorted by their lower limit. If the ranges do not overlap, a lookup is a single binary search.
+ * Overlapping ranges are allowed by some writers; for those an interval index (a balanced search tree over the sorted
+ * ranges, augmented with the maximum upper limit of each subtree) is built, so all ranges containing a value are found
+ * in O(log n + k). Of several matching ranges, the one appearing first in the table wins, as it would with a linear
+ * scan.
+ *
+ * @author Christian Rechner
+ */
+public class RangeLookupTable implements TableLookup {
+
+    // the ranges, sorted by lower limit
+    private final double[] lower;
+    private final double[] upper;
+
+    // the index of each sorted range within the original table
+    private final int[] tableIndices;
+
+    // true if the upper limit belongs to the range (integer raw values), false for [lower,upper) (float raw values)
+    private final boolean upperInclusive;
+
+    // the interval index, null if no ranges are overlapping; the maximum upper limit of the subtree [lo,hi) is stored
+    // at the position of its root node (lo+hi)/2
+    private final double[] maxUpper;
+
+    /**
+     * Constructor.
+     *
+     * @param lowerKeys The lower range limits in table order.
+     * @param upperKeys The upper range limits in table order.
+     * @param upperInclusive Whether the upper limit belongs to the range.
+     */
+    public RangeLookupTable(double[] lowerKeys, double[] upperKeys, boolean upperInclusive) {
+        if (lowerKeys.length != upperKeys.length) {
+            throw new IllegalArgumentException("Number of lower and upper range keys differ: " + lowerKeys.length
+                    + "!=" + upperKeys.length);
+        }
+        this.upperInclusive = upperInclusive;
+        this.tableIndices = SortUtil.sortedOrder(lowerKeys);
+        this.lower = new double[lowerKeys.length];
+        this.upper = new double[lowerKeys.length];
+        for (int i = 0; i < this.tableIndices.length; i++) {
+            this.lower[i] = lowerKeys[this.tableIndices[i]];
+            this.upper[i] = upperKeys[this.tableIndices[i]];
+        }
+
+        // build interval index only if needed
+        if (isOverlapping()) {
+            this.maxUpper = new double[this.lower.length];
+            buildIndex(0, this.lower.length);
+        } else {
+            this.maxUpper = null;
+        }
+    }
+
+    /**
+     * Returns whether at least two ranges of the table overlap.
+     *
+     * @return True, if overlapping.
+     */
+    public boolean isOverlapping() {
+        for (int i = 1; i < this.lower.length; i++) {
+            if (contains(i - 1, this.lower[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of ranges.
+     *
+     * @return The number of ranges.
+     */
+    public int size() {
+        return this.lower.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.TableLookup#indexOf(double)
+     */
+    @Override
+    public int indexOf(double raw) {
+        if (this.maxUpper == null) {
+            // last range having a lower limit <= raw
+            int lo = 0;
+            int hi = this.lower.length - 1;
+            int found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (this.lower[mid] <= raw) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return (found >= 0 && contains(found, raw)) ? this.tableIndices[found] : -1;
+        }
+        return searchIndex(0, this.lower.length, raw, -1);
+    }
+
+    private boolean contains(int i, double raw) {
+        return raw >= this.lower[i] && (this.upperInclusive ? raw <= this.upper[i] : raw < this.upper[i]);
+    }
+
+    private double buildIndex(int lo, int hi) {
+        if (lo >= hi) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        int mid = (lo + hi) >>> 1;
+        double max = Math.max(this.upper[mid], Math.max(buildIndex(lo, mid), buildIndex(mid + 1, hi)));
+        this.maxUpper[mid] = max;
+        return max;
+    }
+
+    private int searchIndex(int lo, int hi, double raw, int best) {
+        if (lo >= hi) {
+            return best;
+        }
+        int mid = (lo + hi) >>> 1;
+        // no range within this subtree reaches the value
+        if (this.maxUpper[mid] < raw) {
+            return best;
+        }
+        best = searchIndex(lo, mid, raw, best);
+        // all ranges right of the root start behind the value
+        if (this.lower[mid] > raw) {
+            return best;
+        }
+        if (contains(mid, raw) && (best < 0 || this.tableIndices[mid] < best)) {
+            best = this.tableIndices[mid];
+        }
+        return searchIndex(mid + 1, hi, raw, best);
+    }
+
+}
@@ -0,0 +1,214 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.nio.ByteOrder;
+
+/**
+ * Decoder for the numeric raw value of a channel within a data record.
+ * <p>
+ * The value is located by a byte offset, a bit offset (0-7) and a bit count. Integer values may span up to 8 bytes
+ * including the bit offset, floating point values must have 32 or 64 bits. For big endian values the bytes are combined
+ * in big endian order before the bit offset is applied.
+ * <p>
+ * Byte aligned values of 8, 16, 32 or 64 bits are decoded column wise by the {@link ByteOrderKernels}, unsigned 1-bit
+ * values by the {@link BitKernels}, see {@link #decodeColumn(byte[], int, int, int, double[])}.
+ *
+ * @author Christian Rechner
+ */
+public class RawValueDecoder {
+
+    /** Unsigned integer */
+    public static final int UNSIGNED = 0;
+
+    /** Signed integer (two's complement) */
+    public static final int SIGNED = 1;
+
+    /** IEEE 754 floating point */
+    public static final int FLOAT = 2;
+
+    // the offset of the first byte within the record (including record id)
+    private final int byteOffset;
+
+    // the bit offset within the first byte
+    private final int bitOffset;
+
+    // the number of bits
+    private final int bitCount;
+
+    // the number of bytes to read
+    private final int byteCount;
+
+    // the value kind, one of UNSIGNED, SIGNED, FLOAT
+    private final int kind;
+
+    // true if big endian byte order
+    private final boolean bigEndian;
+
+    // the bit mask for integer values
+    private final long mask;
+
+    // true if the value can be decoded by the byte order kernels
+    private final boolean aligned;
+
+    /**
+     * Constructor.
+     *
+     * @param byteOffset The offset of the first byte within the record.
+     * @param bitOffset The bit offset within the first byte.
+     * @param bitCount The number of bits.
+     * @param kind The value kind, one of {@link #UNSIGNED}, {@link #SIGNED}, {@link #FLOAT}.
+     * @param bigEndian True if big endian byte order.
+     * @throws IllegalArgumentException if the value layout is not supported.
+     */
+    public RawValueDecoder(int byteOffset, int bitOffset, int bitCount, int kind, boolean bigEndian) {
+        this.byteOffset = byteOffset + (bitOffset / 8);
+        this.bitOffset = bitOffset % 8;
+        this.bitCount = bitCount;
+        this.kind = kind;
+        this.bigEndian = bigEndian;
+        if (bitCount < 1 || (this.bitOffset + bitCount) > 64) {
+            throw new IllegalArgumentException("Unsupported bit layout: bitOffset=" + bitOffset + ", bitCount="
+                    + bitCount);
+        }
+        if (kind == FLOAT && ((bitCount != 32 && bitCount != 64) || this.bitOffset != 0)) {
+            throw new IllegalArgumentException("Unsupported floating point bit count: " + bitCount);
+        }
+        this.byteCount = (this.bitOffset + bitCount + 7) / 8;
+        this.mask = bitCount == 64 ? -1L : (1L << bitCount) - 1;
+        this.aligned = this.bitOffset == 0 && (bitCount == 8 || bitCount == 16 || bitCount == 32 || bitCount == 64);
+    }
+
+    public int getByteOffset() {
+        return byteOffset;
+    }
+
+    public int getBitOffset() {
+        return bitOffset;
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+
+    /**
+     * Returns whether the raw values are integers.
+     *
+     * @return True, if integer.
+     */
+    public boolean isInteger() {
+        return this.kind != FLOAT;
+    }
+
+    /**
+     * Returns the number of bytes of the record that have to be available.
+     *
+     * @return The minimum record size.
+     */
+    public int getRequiredRecordSize() {
+        return this.byteOffset + this.byteCount;
+    }
+
+    /**
+     * Decodes the raw bits of the value as unsigned long, not yet sign extended.
+     *
+     * @param data The data.
+     * @param recordStart The start of the record within the data.
+     * @return The bits.
+     */
+    private long bits(byte[] data, int recordStart) {
+        int pos = recordStart + this.byteOffset;
+        long l = 0;
+        if (this.bigEndian) {
+            for (int i = 0; i < this.byteCount; i++) {
+                l = (l << 8) | (data[pos + i] & 0xFFL);
+            }
+        } else {
+            for (int i = this.byteCount - 1; i >= 0; i--) {
+                l = (l << 8) | (data[pos + i] & 0xFFL);
+            }
+        }
+        return (l >>> this.bitOffset) & this.mask;
+    }
+
+    /**
+     * Decodes an integer value. For unsigned 64 bit values above {@link Long#MAX_VALUE} the result is negative.
+     *
+     * @param data The data.
+     * @param recordStart The start of the record within the data.
+     * @return The value.
+     */
+    public long decodeLong(byte[] data, int recordStart) {
+        long l = bits(data, recordStart);
+        if (this.kind == SIGNED && this.bitCount < 64) {
+            int shift = 64 - this.bitCount;
+            l = (l << shift) >> shift;
+        }
+        return l;
+    }
+
+    /**
+     * Decodes the value.
+     *
+     * @param data The data.
+     * @param recordStart The start of the record within the data.
+     * @return The value.
+     */
+    public double decode(byte[] data, int recordStart) {
+        if (this.kind == FLOAT) {
+            long l = bits(data, recordStart);
+            return this.bitCount == 32 ? Float.intBitsToFloat((int) l) : Double.longBitsToDouble(l);
+        }
+        long l = decodeLong(data, recordStart);
+        if (this.kind == UNSIGNED && l < 0) {
+            // unsigned 64 bit value
+            return (double) (l >>> 1) * 2.0 + (l & 1);
+        }
+        return l;
+    }
+
+    /**
+     * Decodes the values of a number of consecutive records.
+     *
+     * @param data The data.
+     * @param offset The start of the first record within the data.
+     * @param recordCount The number of records.
+     * @param recordSize The record size in bytes.
+     * @param target The target array, filled starting at index 0.
+     */
+    public void decodeColumn(byte[] data, int offset, int recordCount, int recordSize, double[] target) {
+        if (this.bitCount == 1 && this.kind == UNSIGNED) {
+            BitKernels.unpackBits(data, offset + this.byteOffset, recordCount, recordSize, this.bitOffset, target);
+            return;
+        }
+        if (!this.aligned) {
+            for (int i = 0; i < recordCount; i++) {
+                target[i] = decode(data, offset + i * recordSize);
+            }
+            return;
+        }
+        int pos = offset + this.byteOffset;
+        ByteOrder order = this.bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        boolean unsigned = this.kind == UNSIGNED;
+        if (this.kind == FLOAT && this.bitCount == 64) {
+            ByteOrderKernels.getDoubles(data, pos, recordCount, recordSize, order, target);
+        } else if (this.kind == FLOAT) {
+            ByteOrderKernels.getFloats(data, pos, recordCount, recordSize, order, target);
+        } else if (this.bitCount == 64) {
+            ByteOrderKernels.getLongs(data, pos, recordCount, recordSize, order, unsigned, target);
+        } else if (this.bitCount == 32) {
+            ByteOrderKernels.getInts(data, pos, recordCount, recordSize, order, unsigned, target);
+        } else if (this.bitCount == 16) {
+            ByteOrderKernels.getShorts(data, pos, recordCount, recordSize, order, unsigned, target);
+        } else {
+            ByteOrderKernels.getBytes(data, pos, recordCount, recordSize, unsigned, target);
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+
+
+/**
+ * Handler for the data records of a channel group, called by the {@link RecordReader} for consecutive blocks of
+ * records.
+ *
+ * @author Christian Rechner
+ */
+public interface RecordHandler {
+
+    /**
+     * Handles a block of records.
+     *
+     * @param data The data, the array may be reused after returning.
+     * @param offset The offset of the first record within the data.
+     * @param recordCount The number of records.
+     * @param recordSize The size of each record in bytes, including the record id.
+     * @throws IOException Error handling the records.
+     */
+    void handleRecords(byte[] data, int offset, int recordCount, int recordSize) throws IOException;
+
+}
@@ -0,0 +1,120 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Reads single master channel values from the fixed length records of a channel group, e.g. for the binary search of a
+ * {@link TimeIndex}.
+ *
+ * @author Christian Rechner
+ */
+public class RecordMasterValueSource implements MasterValueSource {
+
+    private final SeekableByteChannel sbc;
+    private final int recordSize;
+    private final RawValueDecoder decoder;
+    private final NumericConversion conversion;
+
+    // the start positions and the cumulative start offsets of the data fragments
+    private final long[] fragmentPos;
+    private final long[] fragmentOffset;
+
+    private final byte[] record;
+
+    /**
+     * Constructor for records stored in a single contiguous data section.
+     *
+     * @param sbc The channel to read from.
+     * @param pos The start position of the records.
+     * @param recordSize The record size in bytes.
+     * @param decoder The decoder of the master channel, null for a virtual master channel.
+     * @param conversion The conversion of the master channel.
+     */
+    public RecordMasterValueSource(SeekableByteChannel sbc, long pos, int recordSize, RawValueDecoder decoder,
+            NumericConversion conversion) {
+        this(sbc, Collections.singletonList(new long[] { pos, Long.MAX_VALUE }), recordSize, decoder,
+             conversion);
+    }
+
+    /**
+     * Constructor for records stored in several data fragments.
+     *
+     * @param sbc The channel to read from.
+     * @param fragments The fragments, each given as array of start position and length in bytes.
+     * @param recordSize The record size in bytes.
+     * @param decoder The decoder of the master channel, null for a virtual master channel.
+     * @param conversion The conversion of the master channel.
+     */
+    public RecordMasterValueSource(SeekableByteChannel sbc, List<long[]> fragments, int recordSize,
+            RawValueDecoder decoder, NumericConversion conversion) {
+        this.sbc = sbc;
+        this.recordSize = recordSize;
+        this.decoder = decoder;
+        this.conversion = conversion;
+        this.fragmentPos = new long[fragments.size()];
+        this.fragmentOffset = new long[fragments.size() + 1];
+        for (int i = 0; i < fragments.size(); i++) {
+            this.fragmentPos[i] = fragments.get(i)[0];
+            long len = fragments.get(i)[1];
+            this.fragmentOffset[i + 1] = (len == Long.MAX_VALUE) ? Long.MAX_VALUE : this.fragmentOffset[i] + len;
+        }
+        this.record = new byte[recordSize];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.MasterValueSource#getMasterValue(long)
+     */
+    @Override
+    public synchronized double getMasterValue(long row) throws IOException {
+        if (this.decoder == null) {
+            return this.conversion.convert(row);
+        }
+        long offset = row * this.recordSize;
+        ByteBuffer bb = ByteBuffer.wrap(this.record);
+        int fragment = findFragment(offset);
+        while (bb.hasRemaining()) {
+            if (fragment >= this.fragmentPos.length) {
+                throw new IOException("Row " + row + " not available");
+            }
+            long inFragment = offset - this.fragmentOffset[fragment];
+            long available = this.fragmentOffset[fragment + 1] - offset;
+            if (available <= 0) {
+                fragment++;
+                continue;
+            }
+            bb.limit(bb.position() + (int) Math.min(bb.remaining(), available));
+            this.sbc.position(this.fragmentPos[fragment] + inFragment);
+            while (bb.position() < bb.limit()) {
+                if (this.sbc.read(bb) < 0) {
+                    throw new IOException("Unexpected end of file at position " + this.sbc.position());
+                }
+            }
+            offset = row * this.recordSize + bb.position();
+            bb.limit(bb.capacity());
+            fragment++;
+        }
+        return this.conversion.convert(this.decoder.decode(this.record, 0));
+    }
+
+    private int findFragment(long offset) {
+        int lo = 0;
+        int hi = this.fragmentPos.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (this.fragmentOffset[mid] <= offset) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+}
@@ -0,0 +1,157 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.rechner.openatfx_mdf.ConvertMetrics;
+
+
+/**
+ * Sequential reader for the fixed length data records of a channel group.
+ * <p>
+ * The records may be stored in several data fragments (e.g. the DTBLOCKs of a MDF4 data list), a record may span two
+ * fragments. The records are read in large chunks and passed to a {@link RecordHandler}, so all channels of the group
+ * are served by a single pass over the data. The chunk buffer is kept by the reader and reused by subsequent reads,
+ * so a reader must not be shared by several threads.
+ *
+ * @author Christian Rechner
+ */
+public class RecordReader {
+
+    /** The default chunk size in bytes */
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private final SeekableByteChannel sbc;
+    private final int chunkSize;
+
+    /** the chunk buffer, reused by subsequent reads */
+    private byte[] buffer;
+
+    /**
+     * Constructor.
+     *
+     * @param sbc The channel to read from.
+     */
+    public RecordReader(SeekableByteChannel sbc) {
+        this(sbc, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sbc The channel to read from.
+     * @param chunkSize The number of bytes to read at once, at least one record is read.
+     */
+    public RecordReader(SeekableByteChannel sbc, int chunkSize) {
+        this.sbc = sbc;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads all records from a single contiguous data section.
+     *
+     * @param pos The start position of the records.
+     * @param recordSize The record size in bytes.
+     * @param recordCount The number of records.
+     * @param handler The handler.
+     * @throws IOException Error reading records.
+     */
+    public void read(long pos, int recordSize, long recordCount, RecordHandler handler) throws IOException {
+        read(new long[][] { new long[] { pos, recordSize * recordCount } }, recordSize, recordCount, handler);
+    }
+
+    /**
+     * Reads all records from a list of data fragments.
+     *
+     * @param fragments The fragments, each given as array of start position and length in bytes.
+     * @param recordSize The record size in bytes.
+     * @param recordCount The number of records, data behind the last record is ignored.
+     * @param handler The handler.
+     * @throws IOException Error reading records.
+     */
+    public void read(List<long[]> fragments, int recordSize, long recordCount, RecordHandler handler)
+            throws IOException {
+        read(fragments.toArray(new long[0][]), recordSize, recordCount, handler);
+    }
+
+    /**
+     * Reads a range of records from a list of data fragments, the records before the first record are skipped without
+     * being read.
+     *
+     * @param fragments The fragments, each given as array of start position and length in bytes.
+     * @param recordSize The record size in bytes.
+     * @param firstRecord The index of the first record to read.
+     * @param recordCount The number of records to read.
+     * @param handler The handler.
+     * @throws IOException Error reading records.
+     */
+    public void read(List<long[]> fragments, int recordSize, long firstRecord, long recordCount, RecordHandler handler)
+            throws IOException {
+        long skip = firstRecord * recordSize;
+        List<long[]> remaining = new ArrayList<long[]>(fragments.size());
+        for (long[] fragment : fragments) {
+            if (skip >= fragment[1]) {
+                skip -= fragment[1];
+            } else {
+                remaining.add(new long[] { fragment[0] + skip, fragment[1] - skip });
+                skip = 0;
+            }
+        }
+        read(remaining.toArray(new long[0][]), recordSize, recordCount, handler);
+    }
+
+    private void read(long[][] fragments, int recordSize, long recordCount, RecordHandler handler)
+            throws IOException {
+        if (recordSize < 1 || recordCount < 1) {
+            return;
+        }
+        int recordsPerChunk = Math.max(1, this.chunkSize / recordSize);
+        int bufferLength = recordsPerChunk * recordSize;
+        if (this.buffer == null || this.buffer.length < bufferLength) {
+            this.buffer = new byte[bufferLength];
+        }
+        byte[] buffer = this.buffer;
+        ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bufferLength);
+
+        long remaining = recordCount * recordSize;
+        for (long[] fragment : fragments) {
+            long pos = fragment[0];
+            long fragmentRemaining = Math.min(fragment[1], remaining);
+            while (fragmentRemaining > 0) {
+                int len = (int) Math.min(bufferLength - bb.position(), fragmentRemaining);
+                bb.limit(bb.position() + len);
+                this.sbc.position(pos);
+                while (bb.hasRemaining()) {
+                    if (this.sbc.read(bb) < 0) {
+                        throw new IOException("Unexpected end of file at position " + this.sbc.position());
+                    }
+                }
+                ConvertMetrics.dataRead(len);
+                pos += len;
+                fragmentRemaining -= len;
+                remaining -= len;
+
+                // pass complete records, keep an incomplete record for the next fragment
+                int filled = bb.position();
+                int records = filled / recordSize;
+                if (records > 0 && (filled == bufferLength || remaining == 0 || fragmentRemaining == 0)) {
+                    handler.handleRecords(buffer, 0, records, recordSize);
+                    int rest = filled - records * recordSize;
+                    System.arraycopy(buffer, records * recordSize, buffer, 0, rest);
+                    bb.clear();
+                    bb.position(rest);
+                }
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        if (remaining > 0) {
+            throw new IOException("Missing record data: " + remaining + " bytes");
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * A range of consecutive rows of a channel group.
+ *
+ * @author Christian Rechner
+ */
+public class RowRange {
+
+    /** The empty range */
+    public static final RowRange EMPTY = new RowRange(0, 0);
+
+    private final long firstRow;
+    private final long rowCount;
+
+    /**
+     * Constructor.
+     *
+     * @param firstRow The index of the first row.
+     * @param rowCount The number of rows.
+     */
+    public RowRange(long firstRow, long rowCount) {
+        this.firstRow = firstRow;
+        this.rowCount = rowCount;
+    }
+
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the index of the last row.
+     *
+     * @return The last row, firstRow-1 if empty.
+     */
+    public long getLastRow() {
+        return this.firstRow + this.rowCount - 1;
+    }
+
+    public boolean isEmpty() {
+        return this.rowCount < 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + (int) (firstRow ^ (firstRow >>> 32));
+        result = prime * result + (int) (rowCount ^ (rowCount >>> 32));
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        RowRange other = (RowRange) obj;
+        return firstRow == other.firstRow && rowCount == other.rowCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "RowRange [firstRow=" + firstRow + ", rowCount=" + rowCount + "]";
+    }
+
+}
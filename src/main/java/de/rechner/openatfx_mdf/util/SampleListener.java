@@ -0,0 +1,20 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Listener for the decoded samples of a channel during a {@link GroupScan}.
+ *
+ * @author Christian Rechner
+ */
+public interface SampleListener {
+
+    /**
+     * Called for each sample of the channel, in record order.
+     *
+     * @param row The zero based row (record) number.
+     * @param time The physical value of the master channel, NaN if the channel group has no master channel.
+     * @param raw The raw value.
+     * @param phys The physical value, NaN if the conversion is not numeric.
+     */
+    void sample(long row, double time, double raw, double phys);
+
+}
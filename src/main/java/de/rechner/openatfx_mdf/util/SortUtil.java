@@ -0,0 +1,41 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * Utility class for sorting the keys of conversion tables.
+ *
+ * @author Christian Rechner
+ */
+abstract class SortUtil {
+
+    /**
+     * Returns the indices of given values in ascending value order. The sort is stable, so equal values keep their
+     * original order.
+     *
+     * @param values The values.
+     * @return The sorted indices.
+     */
+    public static int[] sortedOrder(final double[] values) {
+        Integer[] order = new Integer[values.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(values[o1], values[o2]);
+            }
+        });
+
+        int[] ret = new int[order.length];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = order[i];
+        }
+        return ret;
+    }
+
+}
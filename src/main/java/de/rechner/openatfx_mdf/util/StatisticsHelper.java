@@ -0,0 +1,126 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.asam.ods.AoException;
+import org.asam.ods.InstanceElement;
+
+
+/**
+ * Helper class to write the channel statistics to the ASAM ODS instances.
+ * <p>
+ * The minimum and maximum of the raw values are written to the application attributes of the 'AoLocalColumn', the
+ * statistics of the physical values to the application attributes of the 'AoMeasurementQuantity'. As a measurement
+ * quantity may be used by several local columns (e.g. the time channel of several channel groups), the statistics of
+ * the measurement quantities are merged. If there is no measurement quantity, the statistics of the physical values
+ * are written as instance attributes of the 'AoLocalColumn'.
+ *
+ * @author Christian Rechner
+ */
+public class StatisticsHelper {
+
+    /** The name of the 'AoLocalColumn' instance attribute holding the number of NaN values */
+    public static final String ATTR_NAN_COUNT = "nan_count";
+
+    /** The name of the 'AoLocalColumn' instance attribute holding the master value of the first sample */
+    public static final String ATTR_FIRST_TIME = "first_time";
+
+    /** The name of the 'AoLocalColumn' instance attribute holding the master value of the last sample */
+    public static final String ATTR_LAST_TIME = "last_time";
+
+    /** The prefix of the 'AoLocalColumn' instance attributes holding the statistics of the physical values */
+    public static final String ATTR_PHYS_PREFIX = "phys_";
+
+    // the merged statistics of the measurement quantities (key=measurement quantity name)
+    private final Map<String, ChannelStatistics> meqStatistics;
+
+    /**
+     * Constructor.
+     */
+    public StatisticsHelper() {
+        this.meqStatistics = new HashMap<String, ChannelStatistics>();
+    }
+
+    /**
+     * Writes the statistics of a channel to its 'AoLocalColumn' instance and merges them into the statistics of the
+     * 'AoMeasurementQuantity' instance.
+     *
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param ieMeq The 'AoMeasurementQuantity' instance, may be null.
+     * @param stats The channel statistics.
+     * @throws AoException Error writing values.
+     */
+    public void writeStatistics(InstanceElement ieLc, InstanceElement ieMeq, ChannelStatistics stats)
+            throws AoException {
+        writeLcStatistics(ieLc, stats);
+        if (ieMeq == null) {
+            writeLcPhysStatistics(ieLc, stats);
+            return;
+        }
+        String meqName = ieMeq.getName();
+        ChannelStatistics merged = this.meqStatistics.get(meqName);
+        if (merged == null) {
+            merged = new ChannelStatistics();
+            this.meqStatistics.put(meqName, merged);
+        }
+        merged.merge(stats);
+        writeMeqStatistics(ieMeq, merged);
+    }
+
+    /**
+     * Writes the raw value range, the NaN count and the first/last master values to an 'AoLocalColumn' instance.
+     *
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param stats The channel statistics.
+     * @throws AoException Error writing values.
+     */
+    public static void writeLcStatistics(InstanceElement ieLc, ChannelStatistics stats) throws AoException {
+        if (stats.getCount() > 0) {
+            ieLc.setValue(ODSHelper.createDoubleNVU("min", stats.getRawMin()));
+            ieLc.setValue(ODSHelper.createDoubleNVU("max", stats.getRawMax()));
+        }
+        ieLc.addInstanceAttribute(ODSHelper.createLongLongNVU(ATTR_NAN_COUNT, stats.getNanCount()));
+        if (!Double.isNaN(stats.getFirstTime())) {
+            ieLc.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_FIRST_TIME, stats.getFirstTime()));
+            ieLc.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_LAST_TIME, stats.getLastTime()));
+        }
+    }
+
+    /**
+     * Writes the physical value range, the mean and the standard deviation as instance attributes to an
+     * 'AoLocalColumn' instance having no measurement quantity.
+     *
+     * @param ieLc The 'AoLocalColumn' instance.
+     * @param stats The channel statistics.
+     * @throws AoException Error writing values.
+     */
+    public static void writeLcPhysStatistics(InstanceElement ieLc, ChannelStatistics stats) throws AoException {
+        if (stats.getCount() < 1) {
+            return;
+        }
+        ieLc.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_PHYS_PREFIX + "min", stats.getMin()));
+        ieLc.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_PHYS_PREFIX + "max", stats.getMax()));
+        ieLc.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_PHYS_PREFIX + "avg", stats.getMean()));
+        ieLc.addInstanceAttribute(ODSHelper.createDoubleNVU(ATTR_PHYS_PREFIX + "stddev",
+                                                            stats.getStandardDeviation()));
+    }
+
+    /**
+     * Writes the physical value range, the mean and the standard deviation to an 'AoMeasurementQuantity' instance.
+     *
+     * @param ieMeq The 'AoMeasurementQuantity' instance.
+     * @param stats The statistics.
+     * @throws AoException Error writing values.
+     */
+    public static void writeMeqStatistics(InstanceElement ieMeq, ChannelStatistics stats) throws AoException {
+        if (stats.getCount() < 1) {
+            return;
+        }
+        ieMeq.setValue(ODSHelper.createDoubleNVU("min", stats.getMin()));
+        ieMeq.setValue(ODSHelper.createDoubleNVU("max", stats.getMax()));
+        ieMeq.setValue(ODSHelper.createDoubleNVU("avg", stats.getMean()));
+        ieMeq.setValue(ODSHelper.createDoubleNVU("stddev", stats.getStandardDeviation()));
+    }
+
+}
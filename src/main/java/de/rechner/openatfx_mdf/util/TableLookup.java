@@ -0,0 +1,19 @@
+package de.rechner.openatfx_mdf.util;
+
+/**
+ * Lookup of the matching table entry for a raw value, used for the tabular conversions mapping a value or a value
+ * range to a text or a value.
+ *
+ * @author Christian Rechner
+ */
+public interface TableLookup {
+
+    /**
+     * Returns the index of the table entry matching given raw value.
+     *
+     * @param raw The raw value.
+     * @return The index within the original table order, -1 if no entry matches (default value to be used).
+     */
+    int indexOf(double raw);
+
+}
@@ -0,0 +1,167 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Dictionary for the value to text and value range to text conversions (MDF3 formulas 11 and 12, MDF4 conversion
+ * types 7 and 8).
+ * <p>
+ * Each distinct text of the conversion table, including the default text, gets an integer code. A text channel can
+ * then be represented by a column of codes and one dictionary shared by all channels using the same conversion,
+ * instead of one string per sample. The codes are assigned in table order starting with 0; if the dictionary holds at
+ * most {@link Short#MAX_VALUE} + 1 texts, the codes fit into a <code>short</code> column.
+ *
+ * @author Christian Rechner
+ */
+public class TextDictionary {
+
+    // the distinct texts, the index is the code
+    private final String[] texts;
+
+    // the code of each table entry
+    private final int[] codes;
+
+    // the code of the default text
+    private final int defaultCode;
+
+    /**
+     * Constructor.
+     *
+     * @param values The texts in table order, may contain null.
+     * @param defaultValue The default text if no table entry matches, may be null.
+     */
+    public TextDictionary(String[] values, String defaultValue) {
+        Map<String, Integer> map = new HashMap<String, Integer>();
+        List<String> list = new ArrayList<String>();
+        this.codes = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            this.codes[i] = code(map, list, values[i]);
+        }
+        this.defaultCode = code(map, list, defaultValue);
+        this.texts = list.toArray(new String[0]);
+    }
+
+    private static int code(Map<String, Integer> map, List<String> list, String text) {
+        Integer code = map.get(text);
+        if (code == null) {
+            code = list.size();
+            map.put(text, code);
+            list.add(text);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the number of distinct texts.
+     *
+     * @return The dictionary size.
+     */
+    public int size() {
+        return this.texts.length;
+    }
+
+    /**
+     * Returns whether all codes fit into a <code>short</code>.
+     *
+     * @return True, if short codes may be used.
+     */
+    public boolean isShortCodes() {
+        return this.texts.length <= Short.MAX_VALUE + 1;
+    }
+
+    /**
+     * Returns the distinct texts, the array index is the code.
+     *
+     * @return The texts.
+     */
+    public String[] getTexts() {
+        return this.texts.clone();
+    }
+
+    /**
+     * Returns the text of a code.
+     *
+     * @param code The code.
+     * @return The text.
+     */
+    public String getText(int code) {
+        return this.texts[code];
+    }
+
+    /**
+     * Returns the code of a table entry.
+     *
+     * @param tableIndex The index of the table entry as returned by a {@link TableLookup}, -1 for the default text.
+     * @return The code.
+     */
+    public int getCode(int tableIndex) {
+        return tableIndex < 0 ? this.defaultCode : this.codes[tableIndex];
+    }
+
+    /**
+     * Encodes raw values to codes.
+     *
+     * @param lookup The lookup of the conversion table.
+     * @param raw The raw values.
+     * @param count The number of raw values to encode, starting at index 0.
+     * @param target The target buffer, filled from its position.
+     */
+    public void encode(TableLookup lookup, double[] raw, int count, IntBuffer target) {
+        for (int i = 0; i < count; i++) {
+            target.put(getCode(lookup.indexOf(raw[i])));
+        }
+    }
+
+    /**
+     * Encodes raw values to short codes.
+     *
+     * @param lookup The lookup of the conversion table.
+     * @param raw The raw values.
+     * @param count The number of raw values to encode, starting at index 0.
+     * @param target The target buffer, filled from its position.
+     * @throws IllegalStateException if the dictionary is too large for short codes.
+     */
+    public void encode(TableLookup lookup, double[] raw, int count, ShortBuffer target) {
+        if (!isShortCodes()) {
+            throw new IllegalStateException("Dictionary too large for short codes: " + this.texts.length);
+        }
+        for (int i = 0; i < count; i++) {
+            target.put((short) getCode(lookup.indexOf(raw[i])));
+        }
+    }
+
+    /**
+     * Decodes codes to texts. The returned strings are the dictionary instances, no copies are made.
+     *
+     * @param codes The codes.
+     * @return The texts.
+     */
+    public String[] decode(int[] codes) {
+        String[] ret = new String[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            ret[i] = this.texts[codes[i]];
+        }
+        return ret;
+    }
+
+    /**
+     * Decodes short codes to texts. The returned strings are the dictionary instances, no copies are made.
+     *
+     * @param codes The codes.
+     * @return The texts.
+     */
+    public String[] decode(short[] codes) {
+        String[] ret = new String[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            ret[i] = this.texts[codes[i]];
+        }
+        return ret;
+    }
+
+}
@@ -0,0 +1,213 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * Sparse index over the master channel of a channel group, mapping a master value range (e.g. a time window) to the
+ * range of rows.
+ * <p>
+ * The index holds the master value of every <code>stride</code>-th row and the value of the last row. A lookup using
+ * the index only returns a range containing all matching rows, extended by at most one stride at each end. Given a
+ * {@link MasterValueSource}, the range boundaries are refined to the exact rows by a binary search over the master
+ * column, reading O(log stride) values.
+ * <p>
+ * The master channel values must not decrease; this is checked while building the index.
+ *
+ * @author Christian Rechner
+ */
+public class TimeIndex implements SampleListener {
+
+    /** The default number of rows between two index entries */
+    public static final int DEFAULT_STRIDE = 1024;
+
+    private final int stride;
+    private double[] values;
+    private int size;
+    private long rowCount;
+    private double lastValue;
+    private boolean monotonic;
+
+    /**
+     * Constructor for building an index while scanning the master channel.
+     *
+     * @param stride The number of rows between two index entries.
+     */
+    public TimeIndex(int stride) {
+        if (stride < 1) {
+            throw new IllegalArgumentException("Invalid stride: " + stride);
+        }
+        this.stride = stride;
+        this.values = new double[16];
+        this.size = 0;
+        this.rowCount = 0;
+        this.lastValue = Double.NaN;
+        this.monotonic = true;
+    }
+
+    /**
+     * Constructor for a stored index.
+     *
+     * @param stride The number of rows between two index entries.
+     * @param values The master values of the rows 0, stride, 2*stride, ...
+     * @param rowCount The total number of rows.
+     * @param lastValue The master value of the last row.
+     */
+    public TimeIndex(int stride, double[] values, long rowCount, double lastValue) {
+        this.stride = stride;
+        this.values = values.clone();
+        this.size = values.length;
+        this.rowCount = rowCount;
+        this.lastValue = lastValue;
+        this.monotonic = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.SampleListener#sample(long, double, double, double)
+     */
+    @Override
+    public void sample(long row, double time, double raw, double phys) {
+        if (Double.isNaN(phys) || phys < this.lastValue) {
+            this.monotonic = false;
+        }
+        if (this.rowCount % this.stride == 0) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size++] = phys;
+        }
+        this.lastValue = phys;
+        this.rowCount++;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public double getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * Returns whether the master values were not decreasing, which is required to use the index.
+     *
+     * @return True, if the index is valid.
+     */
+    public boolean isMonotonic() {
+        return monotonic;
+    }
+
+    /**
+     * Returns the master values of the rows 0, stride, 2*stride, ...
+     *
+     * @return The index values.
+     */
+    public double[] getValues() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    /**
+     * Returns a row range containing all rows having a master value within [start,end], using the index only.
+     *
+     * @param start The start master value (inclusive).
+     * @param end The end master value (inclusive).
+     * @return The row range, may contain up to one stride of non matching rows at each end.
+     */
+    public RowRange getRowRange(double start, double end) {
+        if (this.size < 1 || end < start || end < this.values[0] || start > this.lastValue) {
+            return RowRange.EMPTY;
+        }
+        // last index entry below start: the first matching row is behind this entry
+        int lo = lastIndexBelow(start);
+        long firstRow = (lo < 0) ? 0 : (long) lo * this.stride + 1;
+        // first index entry above end: the last matching row is before this entry
+        int hi = lastIndexBelowOrEqual(end) + 1;
+        long lastRow = (hi >= this.size) ? this.rowCount - 1 : (long) hi * this.stride - 1;
+        return new RowRange(firstRow, Math.max(0, lastRow - firstRow + 1));
+    }
+
+    /**
+     * Returns the exact row range of all rows having a master value within [start,end], reading master values from
+     * given source for the binary search within the index strides.
+     *
+     * @param start The start master value (inclusive).
+     * @param end The end master value (inclusive).
+     * @param source The source of the master values.
+     * @return The row range.
+     * @throws IOException Error reading master values.
+     */
+    public RowRange getRowRange(double start, double end, MasterValueSource source) throws IOException {
+        RowRange range = getRowRange(start, end);
+        if (range.isEmpty()) {
+            return range;
+        }
+        // first row having value >= start
+        long lo = range.getFirstRow();
+        long hi = Math.min(range.getLastRow(), lo + this.stride - 1) + 1;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (source.getMasterValue(mid) < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        long firstRow = lo;
+
+        // last row having value <= end
+        lo = Math.max(firstRow, range.getLastRow() - this.stride + 1) - 1;
+        hi = range.getLastRow();
+        while (lo < hi) {
+            long mid = (lo + hi + 1) >>> 1;
+            if (source.getMasterValue(mid) > end) {
+                hi = mid - 1;
+            } else {
+                lo = mid;
+            }
+        }
+        long lastRow = lo;
+        return new RowRange(firstRow, Math.max(0, lastRow - firstRow + 1));
+    }
+
+    /**
+     * Returns the index of the last entry having a value less than given value.
+     */
+    private int lastIndexBelow(double value) {
+        int lo = 0;
+        int hi = this.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.values[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+    /**
+     * Returns the index of the last entry having a value less or equal than given value.
+     */
+    private int lastIndexBelowOrEqual(double value) {
+        int lo = 0;
+        int hi = this.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.values[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo - 1;
+    }
+
+}
@@ -0,0 +1,96 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.Arrays;
+
+
+/**
+ * Lookup table for the conversions 'value to value' with or without interpolation (MDF4 conversion types 4 and 5,
+ * MDF3 formulas 1 and 2).
+ * <p>
+ * The keys are kept in a sorted array, so each lookup is a binary search instead of a linear scan over the table.
+ * Raw values outside the key range are mapped to the value of the first resp. last key. Without interpolation the
+ * value of the nearest key is used, for equal distance the value of the lower key.
+ *
+ * @author Christian Rechner
+ */
+public class ValueLookupTable {
+
+    // the keys, sorted ascending
+    private final double[] keys;
+
+    // the values, in order of the keys
+    private final double[] values;
+
+    // true to interpolate linearly between the keys
+    private final boolean interpolation;
+
+    /**
+     * Constructor.
+     *
+     * @param keys The keys in table order.
+     * @param values The values in table order.
+     * @param interpolation True to interpolate linearly between the keys.
+     */
+    public ValueLookupTable(double[] keys, double[] values, boolean interpolation) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Number of keys and values differ: " + keys.length + "!="
+                    + values.length);
+        }
+        if (keys.length < 1) {
+            throw new IllegalArgumentException("Value to value table must not be empty");
+        }
+        // keys have to be sorted ascending by the standard, but do not rely on the writer
+        int[] order = SortUtil.sortedOrder(keys);
+        this.keys = new double[keys.length];
+        this.values = new double[keys.length];
+        for (int i = 0; i < order.length; i++) {
+            this.keys[i] = keys[order[i]];
+            this.values[i] = values[order[i]];
+        }
+        this.interpolation = interpolation;
+    }
+
+    /**
+     * Returns the number of table entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return this.keys.length;
+    }
+
+    public boolean isInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Converts a raw value to the physical value.
+     *
+     * @param raw The raw value.
+     * @return The physical value.
+     */
+    public double lookup(double raw) {
+        int last = this.keys.length - 1;
+        if (raw <= this.keys[0]) {
+            return this.values[0];
+        } else if (raw >= this.keys[last]) {
+            return this.values[last];
+        }
+
+        int pos = Arrays.binarySearch(this.keys, raw);
+        if (pos >= 0) {
+            return this.values[pos];
+        }
+
+        // raw lies between keys[hi-1] and keys[hi]
+        int hi = -pos - 1;
+        int lo = hi - 1;
+        double x0 = this.keys[lo];
+        double x1 = this.keys[hi];
+        if (this.interpolation) {
+            return this.values[lo] + (this.values[hi] - this.values[lo]) * (raw - x0) / (x1 - x0);
+        }
+        return (raw - x0) <= (x1 - raw) ? this.values[lo] : this.values[hi];
+    }
+
+}
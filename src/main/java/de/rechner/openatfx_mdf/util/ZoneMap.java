@@ -0,0 +1,160 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Zone map of a channel: the minimum and maximum physical value of each chunk of a fixed number of rows.
+ * <p>
+ * A range predicate on the channel is evaluated against the zone map to get the candidate row ranges, chunks that
+ * cannot contain a matching value never have to be read. NaN values are ignored, a chunk having NaN values only never
+ * matches.
+ *
+ * @author Christian Rechner
+ */
+public class ZoneMap implements SampleListener {
+
+    /** The default number of rows of a chunk */
+    public static final int DEFAULT_CHUNK_ROWS = 8192;
+
+    private final int chunkRows;
+    private double[] mins;
+    private double[] maxs;
+    private int size;
+    private long rowCount;
+
+    /**
+     * Constructor for building a zone map while scanning the channel.
+     *
+     * @param chunkRows The number of rows of a chunk.
+     */
+    public ZoneMap(int chunkRows) {
+        if (chunkRows < 1) {
+            throw new IllegalArgumentException("Invalid chunk rows: " + chunkRows);
+        }
+        this.chunkRows = chunkRows;
+        this.mins = new double[16];
+        this.maxs = new double[16];
+        this.size = 0;
+        this.rowCount = 0;
+    }
+
+    /**
+     * Constructor for a stored zone map.
+     *
+     * @param chunkRows The number of rows of a chunk.
+     * @param mins The minimum of each chunk.
+     * @param maxs The maximum of each chunk.
+     * @param rowCount The total number of rows.
+     */
+    public ZoneMap(int chunkRows, double[] mins, double[] maxs, long rowCount) {
+        if (mins.length != maxs.length) {
+            throw new IllegalArgumentException("Number of minimum and maximum values differ");
+        }
+        this.chunkRows = chunkRows;
+        this.mins = mins.clone();
+        this.maxs = maxs.clone();
+        this.size = mins.length;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see de.rechner.openatfx_mdf.util.SampleListener#sample(long, double, double, double)
+     */
+    @Override
+    public void sample(long row, double time, double raw, double phys) {
+        if (this.rowCount % this.chunkRows == 0) {
+            if (this.size == this.mins.length) {
+                this.mins = Arrays.copyOf(this.mins, this.size * 2);
+                this.maxs = Arrays.copyOf(this.maxs, this.size * 2);
+            }
+            this.mins[this.size] = phys;
+            this.maxs[this.size] = phys;
+            this.size++;
+        } else {
+            int chunk = this.size - 1;
+            if (phys < this.mins[chunk] || Double.isNaN(this.mins[chunk])) {
+                this.mins[chunk] = phys;
+            }
+            if (phys > this.maxs[chunk] || Double.isNaN(this.maxs[chunk])) {
+                this.maxs[chunk] = phys;
+            }
+        }
+        this.rowCount++;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of chunks.
+     *
+     * @return The number of chunks.
+     */
+    public int getChunkCount() {
+        return this.size;
+    }
+
+    public double[] getMins() {
+        return Arrays.copyOf(this.mins, this.size);
+    }
+
+    public double[] getMaxs() {
+        return Arrays.copyOf(this.maxs, this.size);
+    }
+
+    /**
+     * Returns whether any value of the channel may be within [lower,upper].
+     *
+     * @param lower The lower bound (inclusive), {@link Double#NEGATIVE_INFINITY} for no lower bound.
+     * @param upper The upper bound (inclusive), {@link Double#POSITIVE_INFINITY} for no upper bound.
+     * @return True, if a chunk may contain a matching value.
+     */
+    public boolean mayMatch(double lower, double upper) {
+        for (int i = 0; i < this.size; i++) {
+            if (chunkMayMatch(i, lower, upper)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the row ranges that may contain values within [lower,upper]. Adjacent matching chunks are merged into
+     * one range.
+     *
+     * @param lower The lower bound (inclusive), {@link Double#NEGATIVE_INFINITY} for no lower bound.
+     * @param upper The upper bound (inclusive), {@link Double#POSITIVE_INFINITY} for no upper bound.
+     * @return The candidate row ranges in ascending order, empty if no row can match.
+     */
+    public List<RowRange> getCandidateRanges(double lower, double upper) {
+        List<RowRange> ranges = new ArrayList<RowRange>();
+        int first = -1;
+        for (int i = 0; i <= this.size; i++) {
+            boolean match = (i < this.size) && chunkMayMatch(i, lower, upper);
+            if (match && first < 0) {
+                first = i;
+            } else if (!match && first >= 0) {
+                long firstRow = (long) first * this.chunkRows;
+                long endRow = Math.min((long) i * this.chunkRows, this.rowCount);
+                ranges.add(new RowRange(firstRow, endRow - firstRow));
+                first = -1;
+            }
+        }
+        return ranges;
+    }
+
+    private boolean chunkMayMatch(int chunk, double lower, double upper) {
+        return this.maxs[chunk] >= lower && this.mins[chunk] <= upper;
+    }
+
+}
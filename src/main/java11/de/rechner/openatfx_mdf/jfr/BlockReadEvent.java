@@ -0,0 +1,41 @@
+package de.rechner.openatfx_mdf.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+
+/**
+ * Java Flight Recorder event of a MDF block read.
+ *
+ * @author Christian Rechner
+ */
+@Name("de.rechner.openatfx_mdf.BlockRead")
+@Label("MDF Block Read")
+@Description("A block has been read from a MDF file")
+@Category("openATFX MDF")
+@StackTrace(false)
+class BlockReadEvent extends jdk.jfr.Event {
+
+    @Label("Block Type")
+    String type;
+
+    @Label("Offset")
+    long offset;
+
+    @Label("Length")
+    @DataAmount
+    long length;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long parseTime;
+
+}
@@ -0,0 +1,26 @@
+package de.rechner.openatfx_mdf.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * Java Flight Recorder event of a conversion phase, see {@link de.rechner.openatfx_mdf.ConvertPhase}.
+ *
+ * @author Christian Rechner
+ */
+@Name("de.rechner.openatfx_mdf.ConversionPhase")
+@Label("MDF Conversion Phase")
+@Description("A phase of the conversion of a MDF file")
+@Category("openATFX MDF")
+class ConversionPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Detail")
+    String detail;
+
+}
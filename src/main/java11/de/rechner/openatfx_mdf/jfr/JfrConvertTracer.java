@@ -0,0 +1,65 @@
+package de.rechner.openatfx_mdf.jfr;
+
+import de.rechner.openatfx_mdf.ConvertTracer;
+
+
+/**
+ * Tracer emitting Java Flight Recorder events, installed by the system property <code>openatfx_mdf.jfr=true</code>.
+ * <p>
+ * The events are only created if enabled in the recording, so the overhead without a recording is a single check per
+ * block or phase. The block read event is emitted after the read with the measured parse time as duration.
+ *
+ * @author Christian Rechner
+ */
+public class JfrConvertTracer implements ConvertTracer {
+
+    /**
+     * Constructor.
+     */
+    public JfrConvertTracer() {}
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see de.rechner.openatfx_mdf.ConvertTracer#blockRead(java.lang.String, long, long, boolean, long)
+     */
+    public void blockRead(String type, long pos, long length, boolean cacheHit, long parseNanos) {
+        BlockReadEvent event = new BlockReadEvent();
+        if (event.isEnabled()) {
+            event.type = type;
+            event.offset = pos;
+            event.length = length;
+            event.cacheHit = cacheHit;
+            event.parseTime = parseNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see de.rechner.openatfx_mdf.ConvertTracer#beginPhase(java.lang.String, java.lang.String)
+     */
+    public Object beginPhase(String phase, String detail) {
+        ConversionPhaseEvent event = new ConversionPhaseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.phase = phase;
+        event.detail = detail;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see de.rechner.openatfx_mdf.ConvertTracer#endPhase(java.lang.Object)
+     */
+    public void endPhase(Object context) {
+        if (context != null) {
+            ((ConversionPhaseEvent) context).commit();
+        }
+    }
+
+}
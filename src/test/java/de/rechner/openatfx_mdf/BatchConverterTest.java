@@ -0,0 +1,154 @@
+package de.rechner.openatfx_mdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx_mdf.util.FileCollector;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.BatchConverter</code>.
+ *
+ * @author Christian Rechner
+ */
+public class BatchConverterTest {
+
+    private static final String[] mdfFiles = { "de/rechner/openatfx_mdf/mdf3/NI_RealTypes.mdf",
+            "de/rechner/openatfx_mdf/mdf4/datatypes/integer_types/Vector_IntegerTypes.MF4",
+            "de/rechner/openatfx_mdf/mdf4/datatypes/integer_types/dSPACE_IntegerTypes.mf4" };
+
+    private static ORB orb;
+
+    private Path dir;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        orb = ORB.init(new String[0], System.getProperties());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.dir = Files.createTempDirectory("batch");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir)) {
+            for (Path file : stream) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.dir);
+    }
+
+    @Test
+    public void testConvert() {
+        try {
+            for (String mdfFile : mdfFiles) {
+                Path source = Paths.get(ClassLoader.getSystemResource(mdfFile).toURI());
+                Files.copy(source, this.dir.resolve(source.getFileName()));
+            }
+
+            // the files are scheduled biggest first
+            List<Path> files = FileCollector.collect(Collections.singletonList(this.dir.toString()));
+            assertEquals(mdfFiles.length, files.size());
+            for (int i = 1; i < files.size(); i++) {
+                assertTrue(files.toString(), Files.size(files.get(i - 1)) >= Files.size(files.get(i)));
+            }
+
+            // parallel conversion, the result log lists each file as it completes
+            BatchConverter converter = new BatchConverter(orb, new ConvertOptions(), 2, false);
+            StringWriter resultLog = new StringWriter();
+            List<BatchConverter.Result> results = converter.convert(files, resultLog);
+            assertEquals(files.size(), results.size());
+            Set<Path> converted = new HashSet<Path>();
+            Map<Path, Long> modified = new HashMap<Path, Long>();
+            for (BatchConverter.Result result : results) {
+                assertEquals(result.getMessage(), BatchConverter.STATUS_CONVERTED, result.getStatus());
+                assertEquals(Files.size(result.getFile()), result.getBytes());
+                Path atfxFile = MDFConverter.getATFXPath(result.getFile());
+                assertTrue(Files.isRegularFile(atfxFile));
+                converted.add(result.getFile());
+                modified.put(atfxFile, Files.getLastModifiedTime(atfxFile).toMillis());
+            }
+            assertEquals(new HashSet<Path>(files), converted);
+
+            String[] lines = resultLog.toString().split(System.lineSeparator());
+            assertEquals(1 + files.size(), lines.length);
+            assertEquals(BatchConverter.RESULT_LOG_HEADER, lines[0]);
+            Set<Path> logged = new HashSet<Path>();
+            for (int i = 1; i < lines.length; i++) {
+                String[] values = lines[i].split("\t", -1);
+                assertEquals(lines[i], 5, values.length);
+                assertEquals(BatchConverter.STATUS_CONVERTED, values[1]);
+                logged.add(Paths.get(values[0]));
+            }
+            assertEquals(converted, logged);
+
+            // a rerun skips the files having an up to date ATFX file
+            results = converter.convert(files, null);
+            assertEquals(files.size(), results.size());
+            for (BatchConverter.Result result : results) {
+                assertEquals(BatchConverter.STATUS_SKIPPED, result.getStatus());
+            }
+            for (Map.Entry<Path, Long> entry : modified.entrySet()) {
+                assertEquals(entry.getValue().longValue(), Files.getLastModifiedTime(entry.getKey()).toMillis());
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRetryFailed() {
+        try {
+            Path mdfFile = this.dir.resolve("broken.mf4");
+            Files.write(mdfFile, "not a MDF file, but long enough for the identification block........"
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            List<Path> files = Collections.singletonList(mdfFile);
+            BatchConverter converter = new BatchConverter(orb, new ConvertOptions(), 1, false);
+
+            // the failed conversion leaves no ATFX file, so the next run retries instead of skipping the file
+            for (int run = 0; run < 2; run++) {
+                List<BatchConverter.Result> results = converter.convert(files, null);
+                assertEquals(1, results.size());
+                assertEquals(BatchConverter.STATUS_FAILED, results.get(0).getStatus());
+                assertFalse(Files.exists(MDFConverter.getATFXPath(mdfFile)));
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(BatchConverterTest.class);
+    }
+
+}
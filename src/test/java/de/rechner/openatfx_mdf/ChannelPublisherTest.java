@@ -0,0 +1,152 @@
+package de.rechner.openatfx_mdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.DoubleBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.util.ChannelSource;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.ChannelPublisher</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelPublisherTest {
+
+    private static final String MDF4_FILE = "de/rechner/openatfx_mdf/mdf4/datatypes/integer_types/"
+            + "Vector_IntegerTypes.MF4";
+
+    @Test
+    public void testPublish() {
+        try (ChannelReader reader = ChannelReader.open(getPath(MDF4_FILE))) {
+            List<ChannelSource> channels = getGroupChannels(reader);
+            long rowCount = channels.get(0).getRowCount();
+
+            // one chunk requested at a time from within onNext
+            CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE, 1);
+            new ChannelPublisher(reader, channels, 3).subscribe(subscriber);
+            assertTrue(subscriber.completed);
+            assertNull(subscriber.error);
+            assertEquals((rowCount + 2) / 3, subscriber.chunks.size());
+
+            for (int c = 0; c < channels.size(); c++) {
+                DoubleBuffer expected = DoubleBuffer.allocate((int) rowCount);
+                reader.readPhys(channels.get(c), 0, expected);
+                long row = 0;
+                for (ChannelChunk chunk : subscriber.chunks) {
+                    assertEquals(row, chunk.getFirstRow());
+                    for (int i = 0; i < chunk.getRowCount(); i++) {
+                        assertEquals(expected.get((int) row + i), chunk.getValues(c)[i], 0);
+                    }
+                    row += chunk.getRowCount();
+                }
+                assertEquals(rowCount, row);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        try (ChannelReader reader = ChannelReader.open(getPath(MDF4_FILE))) {
+            List<ChannelSource> channels = getGroupChannels(reader);
+            CollectingSubscriber subscriber = new CollectingSubscriber(1, 1);
+            new ChannelPublisher(reader, channels, 1).subscribe(subscriber);
+            assertEquals(1, subscriber.chunks.size());
+            assertTrue(!subscriber.completed);
+            assertNull(subscriber.error);
+
+            // invalid request
+            subscriber = new CollectingSubscriber(Long.MAX_VALUE, 0);
+            new ChannelPublisher(reader, channels, 1).subscribe(subscriber);
+            assertEquals(0, subscriber.chunks.size());
+            assertTrue(subscriber.error instanceof IllegalArgumentException);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static List<ChannelSource> getGroupChannels(ChannelReader reader) {
+        List<ChannelSource> channels = new ArrayList<ChannelSource>();
+        int groupIndex = reader.getChannels().get(0).getGroupIndex();
+        for (ChannelSource channel : reader.getChannels()) {
+            if (channel.getGroupIndex() == groupIndex && channel.getConversion() != null) {
+                channels.add(channel);
+            }
+        }
+        return channels;
+    }
+
+    private static Path getPath(String resource) {
+        try {
+            return Paths.get(ClassLoader.getSystemResource(resource).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Subscriber requesting one chunk after the other up to a maximum number of chunks, then cancelling.
+     */
+    private static class CollectingSubscriber implements Flow.Subscriber<ChannelChunk> {
+
+        private final long maxChunks;
+        private final long initialRequest;
+        private final List<ChannelChunk> chunks = new ArrayList<ChannelChunk>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+        private Throwable error;
+
+        public CollectingSubscriber(long maxChunks, long initialRequest) {
+            this.maxChunks = maxChunks;
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(this.initialRequest);
+        }
+
+        @Override
+        public void onNext(ChannelChunk item) {
+            this.chunks.add(item);
+            if (this.chunks.size() < this.maxChunks) {
+                this.subscription.request(1);
+            } else {
+                this.subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ChannelPublisherTest.class);
+    }
+
+}
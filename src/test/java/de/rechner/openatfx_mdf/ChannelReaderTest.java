@@ -0,0 +1,251 @@
+package de.rechner.openatfx_mdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.mdf4.MDF4Generator;
+import de.rechner.openatfx_mdf.util.ChannelSource;
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.ChannelReader</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ChannelReaderTest {
+
+    private static final String MDF3_FILE = "de/rechner/openatfx_mdf/mdf3/NI_RealTypes.mdf";
+    private static final String MDF4_FILE = "de/rechner/openatfx_mdf/mdf4/datatypes/integer_types/"
+            + "Vector_IntegerTypes.MF4";
+    private static final String VALUE2TEXT_FILE = "de/rechner/openatfx_mdf/mdf4/conversion/lookup_conversion/"
+            + "Vector_Value2TextConversion.mf4";
+    private static final String RANGE2TEXT_FILE = "de/rechner/openatfx_mdf/mdf4/conversion/lookup_conversion/"
+            + "Vector_ValueRange2TextConversion.mf4";
+
+    @Test
+    public void testReadMDF3() {
+        testRead(MDF3_FILE);
+    }
+
+    @Test
+    public void testReadMDF4() {
+        testRead(MDF4_FILE);
+    }
+
+    private static void testRead(String mdfFile) {
+        try (ChannelReader reader = ChannelReader.open(getPath(mdfFile))) {
+            assertFalse(reader.getChannels().isEmpty());
+            for (ChannelSource channel : reader.getChannels()) {
+                assertNotNull(reader.getChannel(channel.getGroupIndex(), channel.getName()));
+                int rowCount = (int) channel.getRowCount();
+
+                // the whole channel at once
+                DoubleBuffer all = DoubleBuffer.allocate(rowCount + 10);
+                assertEquals(rowCount, reader.readRaw(channel, 0, all));
+                assertEquals(rowCount, all.position());
+
+                // chunks of a reused buffer
+                DoubleBuffer chunk = DoubleBuffer.allocate(7);
+                long row = 3;
+                int n;
+                while ((n = reader.readRaw(channel, row, chunk)) > 0) {
+                    for (int i = 0; i < n; i++) {
+                        assertEquals(all.get((int) row + i), chunk.get(i), 0);
+                    }
+                    row += n;
+                    chunk.clear();
+                }
+                assertEquals(Math.max(3, rowCount), row);
+
+                // physical values
+                if (channel.getConversion() != null) {
+                    DoubleBuffer phys = DoubleBuffer.allocate(rowCount);
+                    reader.readPhys(channel, 0, phys);
+                    for (int i = 0; i < rowCount; i++) {
+                        assertEquals(channel.getConversion().convert(all.get(i)), phys.get(i), 0);
+                    }
+                }
+
+                // integer values
+                if (channel.isInteger()) {
+                    LongBuffer longs = LongBuffer.allocate(rowCount);
+                    reader.readRaw(channel, 0, longs);
+                    RawValueDecoder decoder = channel.getDecoder();
+                    for (int i = 0; i < rowCount; i++) {
+                        if (decoder == null || decoder.getBitCount() < 53) {
+                            assertEquals(all.get(i), longs.get(i), 0);
+                        }
+                    }
+                    if (decoder == null || decoder.getBitCount() < 32) {
+                        IntBuffer ints = IntBuffer.allocate(rowCount);
+                        reader.readRaw(channel, 0, ints);
+                        for (int i = 0; i < rowCount; i++) {
+                            assertEquals(longs.get(i), ints.get(i));
+                        }
+                    }
+                } else {
+                    try {
+                        reader.readRaw(channel, 0, LongBuffer.allocate(1));
+                        fail("IllegalArgumentException expected");
+                    } catch (IllegalArgumentException e) {
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadTableIndicesValue2Text() {
+        // keys of the value to text table
+        double[] lower = new double[] { 1, 2, 3, 4, 5 };
+        testReadTableIndices(VALUE2TEXT_FILE, lower, lower);
+    }
+
+    @Test
+    public void testReadTableIndicesRange2Text() {
+        // ranges of the value range to text table, the upper limit is excluded for float values
+        double[] lower = new double[] { 1, 3, 5, 7, 9 };
+        double[] upper = new double[] { 3, 5, 7, 9, 11 };
+        testReadTableIndices(RANGE2TEXT_FILE, lower, upper);
+    }
+
+    private static void testReadTableIndices(String mdfFile, double[] lower, double[] upper) {
+        try (ChannelReader reader = ChannelReader.open(getPath(mdfFile))) {
+            ChannelSource channel = reader.getChannel("Data channel");
+            assertNotNull(channel.getTextLookup());
+            int rowCount = (int) channel.getRowCount();
+            DoubleBuffer raw = DoubleBuffer.allocate(rowCount);
+            reader.readRaw(channel, 0, raw);
+            IntBuffer indices = IntBuffer.allocate(rowCount);
+            assertEquals(rowCount, reader.readTableIndices(channel, 0, indices));
+
+            // compare with a linear scan over the table
+            int matches = 0;
+            for (int i = 0; i < rowCount; i++) {
+                double value = raw.get(i);
+                int expected = -1;
+                for (int k = 0; k < lower.length; k++) {
+                    if (value == lower[k] || (value > lower[k] && value < upper[k])) {
+                        expected = k;
+                        break;
+                    }
+                }
+                assertEquals(expected, indices.get(i));
+                if (expected >= 0) {
+                    matches++;
+                }
+            }
+            assertTrue(matches > 0);
+
+            try {
+                reader.readTableIndices(reader.getChannel("Time channel"), 0, IntBuffer.allocate(1));
+                fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException e) {
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadCodesValue2Text() {
+        testReadCodes(VALUE2TEXT_FILE, "No match");
+    }
+
+    @Test
+    public void testReadCodesRange2Text() {
+        testReadCodes(RANGE2TEXT_FILE, "Out of range");
+    }
+
+    private static void testReadCodes(String mdfFile, String defaultText) {
+        try (ChannelReader reader = ChannelReader.open(getPath(mdfFile))) {
+            ChannelSource channel = reader.getChannel("Data channel");
+            TextDictionary dictionary = channel.getDictionary();
+            assertNotNull(dictionary);
+            assertEquals(defaultText, dictionary.getText(dictionary.getCode(-1)));
+            int rowCount = (int) channel.getRowCount();
+            IntBuffer indices = IntBuffer.allocate(rowCount);
+            reader.readTableIndices(channel, 0, indices);
+
+            // read in chunks to check the buffer positions
+            IntBuffer codes = IntBuffer.allocate(rowCount);
+            ShortBuffer shortCodes = ShortBuffer.allocate(rowCount);
+            for (int row = 0; row < rowCount; row += 7) {
+                codes.limit(Math.min(row + 7, rowCount));
+                shortCodes.limit(codes.limit());
+                assertEquals(codes.limit() - row, reader.readCodes(channel, row, codes));
+                assertEquals(codes.limit() - row, reader.readCodes(channel, row, shortCodes));
+            }
+            for (int i = 0; i < rowCount; i++) {
+                assertEquals(dictionary.getCode(indices.get(i)), codes.get(i));
+                assertEquals(codes.get(i), shortCodes.get(i));
+            }
+
+            try {
+                reader.readCodes(reader.getChannel("Time channel"), 0, IntBuffer.allocate(1));
+                fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException e) {
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnsorted() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setChannelGroupCount(2);
+        spec.setRowCount(100);
+        Path path = null;
+        try {
+            path = Files.createTempFile("unsorted", ".mf4");
+            MDF4Generator.write(path, spec);
+            try (ChannelReader reader = ChannelReader.open(path)) {
+                fail("IOException expected, found " + reader.getChannels().size() + " channels");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("'unsorted'"));
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } finally {
+            if (path != null) {
+                path.toFile().delete();
+            }
+        }
+    }
+
+    private static Path getPath(String resource) {
+        try {
+            return Paths.get(ClassLoader.getSystemResource(resource).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ChannelReaderTest.class);
+    }
+
+}
@@ -0,0 +1,190 @@
+package de.rechner.openatfx_mdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.asam.ods.AoException;
+import org.asam.ods.ApplicationStructure;
+import org.asam.ods.InstanceElement;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx.util.ODSHelper;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.TailSession</code>.
+ *
+ * @author Christian Rechner
+ */
+public class TailSessionTest {
+
+    private static final String mdfFile = "de/rechner/openatfx_mdf/mdf3/NI_RealTypes.mdf";
+
+    // layout of the example file: position of the number of records of the CGBLOCK and of the data records
+    private static final long NO_OF_RECORDS_POS = 9651 + 22;
+    private static final long DATA_POS = 369;
+    private static final int RECORD_SIZE = 40;
+
+    private static ORB orb;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        orb = ORB.init(new String[0], System.getProperties());
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        orb.destroy();
+    }
+
+    @Test
+    public void testRefresh() {
+        Path path = null;
+        try {
+            // the logger has written 100 of 202 records
+            path = Files.createTempFile("tail", ".mdf");
+            Files.copy(Paths.get(ClassLoader.getSystemResource(mdfFile).toURI()), path,
+                       StandardCopyOption.REPLACE_EXISTING);
+            writeNoOfRecords(path, 100);
+
+            try (TailSession tailSession = new TailSession(orb, path, new ConvertOptions())) {
+                ApplicationStructure as = tailSession.getAoSession().getApplicationStructure();
+                InstanceElement ieSm = as.getElementByName("sm").getInstances("sm_00001").nextOne();
+                assertEquals(100, ODSHelper.getLongVal(ieSm.getValue("rows")));
+                int ecCount = as.getElementByName("ec").getInstances("*").getCount();
+
+                // nothing written
+                assertEquals(0, tailSession.refresh());
+
+                // the logger has written all records
+                writeNoOfRecords(path, 202);
+                assertEquals(102, tailSession.refresh());
+                assertEquals(202, ODSHelper.getLongVal(ieSm.getValue("rows")));
+                assertEquals(2 * ecCount, as.getElementByName("ec").getInstances("*").getCount());
+                InstanceElement ieEc = as.getElementByName("ec").getInstances("ec_00002").nextOne();
+                assertEquals(DATA_POS + 100 * RECORD_SIZE,
+                             ODSHelper.asJLong(ieEc.getValue("so").value.u.longlongVal()));
+                assertEquals(102, ODSHelper.getLongVal(ieEc.getValue("cl")));
+            }
+        } catch (AoException e) {
+            fail(e.reason);
+        } catch (ConvertException e) {
+            fail(e.getMessage());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRefreshRetry() {
+        Path path = null;
+        try {
+            path = Files.createTempFile("tail", ".mdf");
+            Files.copy(Paths.get(ClassLoader.getSystemResource(mdfFile).toURI()), path,
+                       StandardCopyOption.REPLACE_EXISTING);
+            writeNoOfRecords(path, 100);
+
+            try (TailSession tailSession = new TailSession(orb, path, new ConvertOptions())) {
+                // the file is unreadable while the logger writes the records
+                writeNoOfRecords(path, 202);
+                FileTime modified = Files.getLastModifiedTime(path);
+                writeFileIdentifier(path, "XXXXXXXX", modified);
+                try {
+                    tailSession.refresh();
+                    fail("ConvertException expected");
+                } catch (ConvertException e) {
+                }
+
+                // the retry reads the records, though size and modification time are unchanged since the failure
+                writeFileIdentifier(path, "MDF     ", modified);
+                assertEquals(102, tailSession.refresh());
+                assertEquals(0, tailSession.refresh());
+            }
+        } catch (ConvertException e) {
+            fail(e.getMessage());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            if (path != null) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testImplicitOptions() {
+        Path path = null;
+        try {
+            path = Paths.get(ClassLoader.getSystemResource(mdfFile).toURI());
+            ConvertOptions options = new ConvertOptions();
+            options.setImplicitLinear(true);
+            try (TailSession tailSession = new TailSession(orb, path, options)) {
+                fail("ConvertException expected");
+            }
+        } catch (ConvertException e) {
+            assertTrue(e.getMessage().contains(ConvertOptions.PARAM_IMPLICIT_LINEAR));
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static void writeFileIdentifier(Path path, String fileIdent, FileTime modified) throws IOException {
+        try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+            sbc.write(ByteBuffer.wrap(fileIdent.getBytes(StandardCharsets.ISO_8859_1)));
+        }
+        Files.setLastModifiedTime(path, modified);
+    }
+
+    private static void writeNoOfRecords(Path path, int noOfRecords) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        bb.putInt(noOfRecords);
+        bb.rewind();
+        try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+            sbc.position(NO_OF_RECORDS_POS);
+            sbc.write(bb);
+        }
+        // the size does not change, make sure the modification is detected
+        FileTime modified = Files.getLastModifiedTime(path);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(modified.toMillis() + 1000));
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(TailSessionTest.class);
+    }
+
+}
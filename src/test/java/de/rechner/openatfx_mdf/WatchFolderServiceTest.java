@@ -0,0 +1,128 @@
+package de.rechner.openatfx_mdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx_mdf.mdf4.MDF4Recovery;
+import de.rechner.openatfx_mdf.util.ConversionJournal;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.WatchFolderService</code>.
+ *
+ * @author Christian Rechner
+ */
+public class WatchFolderServiceTest {
+
+    private static final String mdfFile = "de/rechner/openatfx_mdf/mdf4/simple/Vector_MinimumFile.MF4";
+    private static final long SETTLE_MILLIS = 200;
+    private static final long TIMEOUT_MILLIS = 30000;
+
+    private static ORB orb;
+
+    private Path dir;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        orb = ORB.init(new String[0], System.getProperties());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.dir = Files.createTempDirectory("watch");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.dir)) {
+            for (Path file : stream) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(this.dir);
+    }
+
+    @Test
+    public void testConvertAndRestart() {
+        try {
+            Path source = Paths.get(ClassLoader.getSystemResource(mdfFile).toURI());
+            Path finalized = Files.copy(source, this.dir.resolve("finalized.mf4"));
+            // an unfinalized file, e.g. left by a crashed logger, never gets finalized
+            Path unfinalized = Files.copy(source, this.dir.resolve("unfinalized.mf4"));
+            try (SeekableByteChannel sbc = Files.newByteChannel(unfinalized, StandardOpenOption.WRITE)) {
+                sbc.write(ByteBuffer.wrap("UnFinMF ".getBytes(StandardCharsets.ISO_8859_1)));
+                sbc.position(60);
+                sbc.write(ByteBuffer.wrap(new byte[] { MDF4Recovery.FLAG_CYCLE_COUNTERS, 0 }));
+            }
+            Path journalFile = this.dir.resolve("convert-journal.tsv");
+            ConvertOptions options = new ConvertOptions();
+            options.setRecoverUnfinalized(true);
+
+            // both files are converted after the settle time
+            ConversionJournal journal = new ConversionJournal(journalFile);
+            WatchFolderService service = start(options, journal);
+            long timeout = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (journal.size() < 2 && System.currentTimeMillis() < timeout) {
+                Thread.sleep(SETTLE_MILLIS);
+            }
+            service.close();
+            assertEquals(2, journal.size());
+            Path finalizedAtfx = MDFConverter.getATFXPath(finalized);
+            Path unfinalizedAtfx = MDFConverter.getATFXPath(unfinalized);
+            assertTrue(Files.exists(finalizedAtfx));
+            assertTrue(Files.exists(unfinalizedAtfx));
+            assertEquals(2, Files.readAllLines(journalFile, StandardCharsets.UTF_8).size());
+            for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+                assertTrue(line, line.endsWith("\t" + BatchConverter.STATUS_CONVERTED));
+            }
+
+            // a restarted service skips the files converted before
+            long finalizedModified = Files.getLastModifiedTime(finalizedAtfx).toMillis();
+            long unfinalizedModified = Files.getLastModifiedTime(unfinalizedAtfx).toMillis();
+            service = start(options, new ConversionJournal(journalFile));
+            Thread.sleep(10 * SETTLE_MILLIS);
+            service.close();
+            assertEquals(2, Files.readAllLines(journalFile, StandardCharsets.UTF_8).size());
+            assertEquals(finalizedModified, Files.getLastModifiedTime(finalizedAtfx).toMillis());
+            assertEquals(unfinalizedModified, Files.getLastModifiedTime(unfinalizedAtfx).toMillis());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } catch (InterruptedException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private WatchFolderService start(ConvertOptions options, ConversionJournal journal) throws IOException {
+        BatchConverter converter = new BatchConverter(orb, options, 1, true);
+        WatchFolderService service = new WatchFolderService(this.dir, converter, journal, SETTLE_MILLIS, 1);
+        new Thread(service, "watch-folder").start();
+        return service;
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(WatchFolderServiceTest.class);
+    }
+
+}
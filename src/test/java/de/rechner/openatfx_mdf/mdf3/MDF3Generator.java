@@ -0,0 +1,179 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+import de.rechner.openatfx_mdf.util.GeneratorOutput;
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+
+
+/**
+ * Writes synthetic MDF3 (version 3.30) files for scaling and stress tests. The blocks of each data group are written
+ * in front of its data records, which are streamed to disk record by record.
+ *
+ * @author Christian Rechner
+ */
+public abstract class MDF3Generator {
+
+    private static final Charset CHARSET = Charset.forName("ISO-8859-1");
+
+    private static final int DG_LENGTH = 28;
+    private static final int CG_LENGTH = 30;
+    private static final int CN_LENGTH = 228;
+    private static final long MAX_LINK = 0xffffffffL;
+
+    /**
+     * Writes a MDF3 file.
+     *
+     * @param path The target file, overwritten if existing.
+     * @param spec The file spec, must not use compression, fragmentation or invalidation bytes.
+     * @throws IOException Error writing the file.
+     */
+    public static void write(Path path, GeneratorSpec spec) throws IOException {
+        spec.validate();
+        if (spec.isCompressed() || spec.getFragmentRows() > 0 || spec.isInvalidationBytes()) {
+            throw new IllegalArgumentException("Compression, fragmentation and invalidation bytes are not available "
+                    + "in MDF3: " + spec);
+        }
+        if (spec.getDataBytes() > 0xffff || spec.getRowCount() > MAX_LINK) {
+            throw new IllegalArgumentException("Record size or row count too large for MDF3: " + spec);
+        }
+
+        GeneratorOutput out = new GeneratorOutput(path);
+        try {
+            writeIdBlock(out);
+            writeHdBlock(out, spec);
+            for (int dg = 0; dg < spec.getDataGroupCount(); dg++) {
+                writeDataGroup(out, spec, dg == spec.getDataGroupCount() - 1);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeIdBlock(GeneratorOutput out) throws IOException {
+        out.putChars("MDF     ", 8, CHARSET);
+        out.putChars("3.30    ", 8, CHARSET);
+        out.putChars("openATFX", 8, CHARSET);
+        out.putShort(0); // byte order: little endian
+        out.putShort(0); // floating-point format: IEEE 754
+        out.putShort(330);
+        out.putShort(0); // code page
+        out.putZeros(28);
+        out.putShort(0); // standard unfinalized flags
+        out.putShort(0); // custom unfinalized flags
+    }
+
+    private static void writeHdBlock(GeneratorOutput out, GeneratorSpec spec) throws IOException {
+        out.putChars("HD", 2, CHARSET);
+        out.putShort(164);
+        out.putInt(64 + 164); // first DGBLOCK follows
+        out.putInt(0); // file comment
+        out.putInt(0); // program block
+        out.putShort(spec.getDataGroupCount());
+        out.putChars("01:01:2017", 10, CHARSET);
+        out.putChars("00:00:00", 8, CHARSET);
+        out.putChars("openATFX", 32, CHARSET);
+        out.putChars("", 32, CHARSET);
+        out.putChars("synthetic", 32, CHARSET);
+        out.putChars("", 32, CHARSET);
+    }
+
+    private static void writeDataGroup(GeneratorOutput out, GeneratorSpec spec, boolean last) throws IOException {
+        int cgCount = spec.getChannelGroupCount();
+        int cnCount = spec.getChannelCount() + 1;
+        int recordIdBytes = spec.getRecordIdBytes();
+        long dgPos = out.position();
+        long cgSize = CG_LENGTH + (long) cnCount * CN_LENGTH;
+        long dataPos = dgPos + DG_LENGTH + cgCount * cgSize;
+        long dataSize = spec.getRowCount() * cgCount * (recordIdBytes + spec.getDataBytes());
+        long nextDgPos = last ? 0 : dataPos + dataSize;
+        if (nextDgPos > MAX_LINK || dataPos > MAX_LINK) {
+            throw new IOException("MDF3 links must not exceed 4 GB: " + spec);
+        }
+
+        // DGBLOCK
+        out.putChars("DG", 2, CHARSET);
+        out.putShort(DG_LENGTH);
+        out.putInt(nextDgPos);
+        out.putInt(dgPos + DG_LENGTH);
+        out.putInt(0); // trigger block
+        out.putInt(dataPos);
+        out.putShort(cgCount);
+        out.putShort(recordIdBytes);
+        out.putInt(0); // reserved
+
+        for (int cg = 0; cg < cgCount; cg++) {
+            long cgPos = dgPos + DG_LENGTH + cg * cgSize;
+
+            // CGBLOCK
+            out.putChars("CG", 2, CHARSET);
+            out.putShort(CG_LENGTH);
+            out.putInt(cg < cgCount - 1 ? cgPos + cgSize : 0);
+            out.putInt(cgPos + CG_LENGTH);
+            out.putInt(0); // comment
+            out.putShort(cgCount > 1 ? cg + 1 : 0);
+            out.putShort(cnCount);
+            out.putShort(spec.getDataBytes());
+            out.putInt(spec.getRowCount());
+            out.putInt(0); // sample reduction block
+
+            // CNBLOCKs, the master channel first
+            for (int cn = -1; cn < spec.getChannelCount(); cn++) {
+                long cnPos = cgPos + CG_LENGTH + (cn + 1) * CN_LENGTH;
+                writeCnBlock(out, spec, cn, cn < spec.getChannelCount() - 1 ? cnPos + CN_LENGTH : 0);
+            }
+        }
+
+        // data records, the records of all channel groups alternate in an 'unsorted' data group
+        byte[] record = new byte[recordIdBytes + spec.getDataBytes()];
+        for (long row = 0; row < spec.getRowCount(); row++) {
+            for (int cg = 0; cg < cgCount; cg++) {
+                if (recordIdBytes > 0) {
+                    record[0] = (byte) (cg + 1);
+                }
+                spec.encodeRecord(row, record, recordIdBytes);
+                out.putBytes(record, 0, record.length);
+            }
+        }
+    }
+
+    private static void writeCnBlock(GeneratorOutput out, GeneratorSpec spec, int cn, long nextCnPos)
+            throws IOException {
+        boolean master = cn < 0;
+        long bitPos = master ? 0 : spec.getBitPosition(cn);
+        int bitCount = master ? 64 : spec.getBitCount();
+        int dataType;
+        if (master) {
+            dataType = 3;
+        } else if (spec.getDataType() == RawValueDecoder.FLOAT) {
+            dataType = bitCount == 32 ? 2 : 3;
+        } else {
+            dataType = spec.getDataType() == RawValueDecoder.SIGNED ? 1 : 0;
+        }
+
+        out.putChars("CN", 2, CHARSET);
+        out.putShort(CN_LENGTH);
+        out.putInt(nextCnPos);
+        out.putInt(0); // conversion
+        out.putInt(0); // source extension
+        out.putInt(0); // dependency
+        out.putInt(0); // comment
+        out.putShort(master ? 1 : 0);
+        out.putChars(GeneratorSpec.getChannelName(cn), 32, CHARSET);
+        out.putChars("", 128, CHARSET);
+        out.putShort(bitPos <= 0xffff ? (int) bitPos : (int) (bitPos % 8));
+        out.putShort(bitCount);
+        out.putShort(dataType);
+        out.putShort(0); // value range not known
+        out.putDouble(0);
+        out.putDouble(0);
+        out.putDouble(GeneratorSpec.TIME_STEP);
+        out.putInt(0); // MCD unique name
+        out.putInt(0); // display identifier
+        out.putShort(bitPos <= 0xffff ? 0 : (int) (bitPos / 8));
+    }
+
+}
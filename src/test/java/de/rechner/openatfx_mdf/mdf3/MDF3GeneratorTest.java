@@ -0,0 +1,162 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.ChannelReader;
+import de.rechner.openatfx_mdf.util.ChannelSource;
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.mdf3.MDF3Generator</code>.
+ *
+ * @author Christian Rechner
+ */
+public class MDF3GeneratorTest {
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        this.path = Files.createTempFile("generated", ".mdf");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.path);
+    }
+
+    @Test
+    public void testSorted() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setDataGroupCount(3);
+        spec.setChannelCount(5);
+        spec.setRowCount(777);
+        spec.setDataType(RawValueDecoder.SIGNED);
+        spec.setBitCount(32);
+        checkValues(spec);
+    }
+
+    @Test
+    public void testBitPacking() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setChannelCount(9);
+        spec.setRowCount(300);
+        spec.setBitCount(5);
+        spec.setBitPacking(true);
+        assertEquals(14, spec.getDataBytes());
+        checkValues(spec);
+    }
+
+    @Test
+    public void testFloat() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setDataGroupCount(2);
+        spec.setRowCount(100);
+        spec.setDataType(RawValueDecoder.FLOAT);
+        spec.setBitCount(32);
+        checkValues(spec);
+    }
+
+    @Test
+    public void testUnsorted() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setDataGroupCount(2);
+        spec.setChannelGroupCount(3);
+        spec.setChannelCount(2);
+        spec.setRowCount(50);
+        try (SeekableByteChannel sbc = write(spec)) {
+            DGBLOCK dgBlock = IDBLOCK.read(this.path, sbc).getHDBlock().getFirstFileGroup();
+            assertEquals(3, dgBlock.getNoChannelGroups());
+            assertEquals(1, dgBlock.getNoRecordIds());
+            CGBLOCK cgBlock = dgBlock.getNextCgBlock();
+            for (int i = 1; i <= 3; i++) {
+                assertEquals(i, cgBlock.getRecordId());
+                assertEquals(50, cgBlock.getNoOfRecords());
+                cgBlock = cgBlock.getNextCgBlock();
+            }
+            assertNull(cgBlock);
+
+            // record ids alternate, the second data group follows the records of the first one
+            int recordLength = 1 + spec.getDataBytes();
+            for (int i = 0; i < 6; i++) {
+                assertEquals((i % 3) + 1, readByte(sbc, dgBlock.getLnkDataRecords() + i * recordLength));
+            }
+            assertEquals(dgBlock.getLnkDataRecords() + 150 * recordLength, dgBlock.getLnkNextDgBlock());
+            assertNull(dgBlock.getNextDgBlock().getNextDgBlock());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnsupportedSpec() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setFragmentRows(100);
+        try {
+            MDF3Generator.write(this.path, spec);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private SeekableByteChannel write(GeneratorSpec spec) throws IOException {
+        MDF3Generator.write(this.path, spec);
+        return Files.newByteChannel(this.path, StandardOpenOption.READ);
+    }
+
+    private static int readByte(SeekableByteChannel sbc, long pos) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(1);
+        sbc.position(pos);
+        sbc.read(bb);
+        return bb.get(0);
+    }
+
+    private void checkValues(GeneratorSpec spec) {
+        try {
+            MDF3Generator.write(this.path, spec);
+            try (ChannelReader reader = ChannelReader.open(this.path)) {
+                assertEquals(spec.getDataGroupCount() * (spec.getChannelCount() + 1), reader.getChannels().size());
+                int rowCount = (int) spec.getRowCount();
+                DoubleBuffer values = DoubleBuffer.allocate(rowCount);
+                for (ChannelSource channel : reader.getChannels()) {
+                    assertEquals(spec.getRowCount(), channel.getRowCount());
+                    values.clear();
+                    assertEquals(rowCount, reader.readRaw(channel, 0, values));
+                    int cn = channel.isMaster() ? -1 : Integer.parseInt(channel.getName().substring(3)) - 1;
+                    assertEquals(GeneratorSpec.getChannelName(cn), channel.getName());
+                    for (int row = 0; row < rowCount; row++) {
+                        double expected = cn < 0 ? GeneratorSpec.getTime(row) : spec.getValue(cn, row);
+                        assertEquals(expected, values.get(row), 0);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(MDF3GeneratorTest.class);
+    }
+
+}
@@ -0,0 +1,146 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.util.Allocations;
+import de.rechner.openatfx_mdf.util.ByteArrayChannel;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.mdf3.Mdf3Util</code>.
+ *
+ * @author Christian Rechner
+ */
+public class Mdf3UtilTest {
+
+    private static final int ITERATIONS = 10000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void testReadUInt64() {
+        try {
+            ByteBuffer bb = createBuffer(16);
+            bb.putLong(1234567890123456789L);
+            bb.putLong(-1L);
+            bb.rewind();
+            assertEquals(1234567890123456789L, Mdf3Util.readUInt64(bb));
+            try {
+                Mdf3Util.readUInt64(bb);
+                fail("IOException expected");
+            } catch (IOException e) {
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadBlockId() {
+        try {
+            ByteBuffer bb = createBuffer(4);
+            bb.put("CNXY".getBytes(StandardCharsets.ISO_8859_1));
+            bb.rewind();
+            assertSame(CNBLOCK.BLOCK_ID, Mdf3Util.readBlockId(bb));
+            assertEquals("XY", Mdf3Util.readBlockId(bb));
+            assertEquals(4, bb.position());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadChars() {
+        try {
+            byte[] data = "speed\0\0\0".getBytes(StandardCharsets.ISO_8859_1);
+            assertEquals("speed", Mdf3Util.readChars(ByteBuffer.wrap(data), data.length));
+
+            // a direct buffer is decoded using the scratch array
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data);
+            direct.rewind();
+            assertEquals("speed", Mdf3Util.readChars(direct, data.length));
+            assertEquals(data.length, direct.position());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadDgBlockAllocations() {
+        Assume.assumeTrue(Allocations.isSupported()); // e.g. not a HotSpot JVM
+        try {
+            final SeekableByteChannel channel = new ByteArrayChannel(createDgBlock(createBuffer(28)).array());
+            final Object[] result = new Object[2];
+
+            // the block object and its buffer are expected, any other garbage shows up in every round
+            long expected = Allocations.measure(new Allocations.Task() {
+
+                @Override
+                public void run() {
+                    result[0] = new DGBLOCK(channel, 0);
+                    result[1] = ByteBuffer.allocate(28).order(ByteOrder.LITTLE_ENDIAN);
+                }
+
+            }, ITERATIONS, ROUNDS);
+            long allocated = Allocations.measure(new Allocations.Task() {
+
+                @Override
+                public void run() throws IOException {
+                    result[0] = DGBLOCK.read(channel, 0);
+                }
+
+            }, ITERATIONS, ROUNDS);
+            assertTrue("bytes allocated by " + ITERATIONS + " block reads: " + allocated + ", expected: " + expected,
+                       allocated <= expected);
+
+            DGBLOCK dgBlock = (DGBLOCK) result[0];
+            assertEquals(DGBLOCK.BLOCK_ID, dgBlock.getId());
+            assertEquals(28, dgBlock.getLength());
+            assertEquals(0x100, dgBlock.getLnkNextDgBlock());
+            assertEquals(0x200, dgBlock.getLnkNextCgBlock());
+            assertEquals(0, dgBlock.getLnkTrBlock());
+            assertEquals(0x300, dgBlock.getLnkDataRecords());
+            assertEquals(1, dgBlock.getNoChannelGroups());
+            assertEquals(0, dgBlock.getNoRecordIds());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static ByteBuffer createBuffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer createDgBlock(ByteBuffer bb) {
+        bb.put(DGBLOCK.BLOCK_ID.getBytes(StandardCharsets.ISO_8859_1));
+        bb.putShort((short) 28);
+        bb.putInt(0x100);
+        bb.putInt(0x200);
+        bb.putInt(0);
+        bb.putInt(0x300);
+        bb.putShort((short) 1);
+        bb.putShort((short) 0);
+        bb.putInt(0);
+        bb.rewind();
+        return bb;
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(Mdf3UtilTest.class);
+    }
+
+}
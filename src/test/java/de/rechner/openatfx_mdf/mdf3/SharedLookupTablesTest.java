@@ -0,0 +1,264 @@
+package de.rechner.openatfx_mdf.mdf3;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.asam.ods.AoException;
+import org.asam.ods.AoSession;
+import org.asam.ods.ApplicationElement;
+import org.asam.ods.ApplicationStructure;
+import org.asam.ods.InstanceElement;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx.util.ODSHelper;
+import de.rechner.openatfx_mdf.ConvertException;
+import de.rechner.openatfx_mdf.ConvertOptions;
+import de.rechner.openatfx_mdf.MDFConverter;
+import de.rechner.openatfx_mdf.util.LookupTableHelper;
+
+
+/**
+ * Test case for the lookup tables written by <code>de.rechner.openatfx_mdf.mdf3.AoSessionWriter</code> for a MDF3
+ * file, whose channels 'a' and 'b' share a text table conversion block and whose channel 'c' has another conversion
+ * block with identical content.
+ *
+ * @author Christian Rechner
+ */
+public class SharedLookupTablesTest {
+
+    private static final int HD_POS = 64;
+    private static final int DG_POS = HD_POS + 164;
+    private static final int CG_POS = DG_POS + 28;
+    private static final int CN_POS = CG_POS + 30;
+    private static final int CN_LENGTH = 228;
+    private static final int CC_LENGTH = 46 + 2 * 40;
+    private static final int CC1_POS = CN_POS + 4 * CN_LENGTH;
+    private static final int CC2_POS = CC1_POS + CC_LENGTH;
+    private static final int DATA_POS = CC2_POS + CC_LENGTH;
+    private static final int RECORD_SIZE = 11;
+    private static final int ROWS = 2;
+
+    private static ORB orb;
+    private static Path path;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        orb = ORB.init(new String[0], System.getProperties());
+        path = Files.createTempFile("lookup", ".dat");
+        Files.write(path, createMdfFile());
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testSeparateLookupTables() {
+        AoSession aoSession = null;
+        try {
+            aoSession = new MDFConverter().getAoSessionForMDF(orb, path, new ConvertOptions());
+            ApplicationStructure as = aoSession.getApplicationStructure();
+            ApplicationElement aeSm = as.getElementByName("sm");
+            ApplicationElement aeLc = as.getElementByName("lc");
+
+            // data submatrix and one lookup submatrix named after each channel
+            assertEquals(4, aeSm.getInstances("*").getCount());
+            for (String name : new String[] { "a", "b", "c" }) {
+                InstanceElement ieSm = aeSm.getInstances(name).nextOne();
+                assertEquals(2, ODSHelper.getLongVal(ieSm.getValue("rows")));
+                InstanceElement ieLc = aeLc.getInstances(name).nextOne();
+                assertEquals(name, ODSHelper.getStringVal(ieLc.getValue(LookupTableHelper.ATTR_LOOKUP_SM)));
+            }
+        } catch (AoException e) {
+            fail(e.reason);
+        } catch (ConvertException e) {
+            fail(e.getMessage());
+        } finally {
+            close(aoSession);
+        }
+    }
+
+    @Test
+    public void testSharedLookupTables() {
+        AoSession aoSession = null;
+        try {
+            ConvertOptions options = new ConvertOptions();
+            options.setSharedLookupTables(true);
+            aoSession = new MDFConverter().getAoSessionForMDF(orb, path, options);
+            ApplicationStructure as = aoSession.getApplicationStructure();
+            ApplicationElement aeSm = as.getElementByName("sm");
+            ApplicationElement aeLc = as.getElementByName("lc");
+
+            // data submatrix and a single lookup submatrix, named after the first channel
+            assertEquals(2, aeSm.getInstances("*").getCount());
+            assertEquals(1, aeSm.getInstances("a").getCount());
+            assertEquals(0, aeSm.getInstances("b").getCount());
+            assertEquals(0, aeSm.getInstances("c").getCount());
+            assertEquals(1, aeLc.getInstances("a_key").getCount());
+            assertEquals(1, aeLc.getInstances("a_value").getCount());
+
+            // all channels reference the shared lookup submatrix: 'b' by conversion block, 'c' by content
+            for (String name : new String[] { "a", "b", "c" }) {
+                InstanceElement ieLc = aeLc.getInstances(name).nextOne();
+                assertEquals("a", ODSHelper.getStringVal(ieLc.getValue(LookupTableHelper.ATTR_LOOKUP_SM)));
+            }
+        } catch (AoException e) {
+            fail(e.reason);
+        } catch (ConvertException e) {
+            fail(e.getMessage());
+        } finally {
+            close(aoSession);
+        }
+    }
+
+    private static void close(AoSession aoSession) {
+        try {
+            if (aoSession != null) {
+                aoSession.close();
+            }
+        } catch (AoException e) {
+            fail(e.reason);
+        }
+    }
+
+    /**
+     * Creates a MDF3 file having a master channel and three 8 bit channels with text table conversions.
+     *
+     * @return The file content.
+     * @throws IOException Error creating the content.
+     */
+    private static byte[] createMdfFile() throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(DATA_POS + ROWS * RECORD_SIZE);
+        bb.order(ByteOrder.LITTLE_ENDIAN);
+
+        // IDBLOCK
+        putChars(bb, "MDF     ", 8);
+        putChars(bb, "3.30    ", 8);
+        putChars(bb, "openATFX", 8);
+        bb.putShort((short) 0); // little endian
+        bb.putShort((short) 0); // IEEE 754
+        bb.putShort((short) 330);
+        bb.position(HD_POS);
+
+        // HDBLOCK
+        putChars(bb, "HD", 2);
+        bb.putShort((short) 164);
+        bb.putInt(DG_POS);
+        bb.putInt(0); // file comment
+        bb.putInt(0); // program block
+        bb.putShort((short) 1);
+        putChars(bb, "01:01:2017", 10);
+        putChars(bb, "00:00:00", 8);
+        putChars(bb, "openATFX", 32);
+        putChars(bb, "", 32);
+        putChars(bb, "lookup", 32);
+        putChars(bb, "", 32);
+
+        // DGBLOCK
+        putChars(bb, "DG", 2);
+        bb.putShort((short) 28);
+        bb.putInt(0); // next DGBLOCK
+        bb.putInt(CG_POS);
+        bb.putInt(0); // trigger block
+        bb.putInt(DATA_POS);
+        bb.putShort((short) 1);
+        bb.putShort((short) 0); // no record ids
+        bb.putInt(0);
+
+        // CGBLOCK
+        putChars(bb, "CG", 2);
+        bb.putShort((short) 30);
+        bb.putInt(0); // next CGBLOCK
+        bb.putInt(CN_POS);
+        bb.putInt(0); // comment
+        bb.putShort((short) 0); // record id
+        bb.putShort((short) 4);
+        bb.putShort((short) RECORD_SIZE);
+        bb.putInt(ROWS);
+        bb.putInt(0); // sample reduction block
+
+        // CNBLOCKs: master, 'a' and 'b' sharing the first CCBLOCK, 'c' using the identical second CCBLOCK
+        putCnBlock(bb, CN_POS + CN_LENGTH, 0, 1, "time", 0, 64, 3);
+        putCnBlock(bb, CN_POS + 2 * CN_LENGTH, CC1_POS, 0, "a", 64, 8, 0);
+        putCnBlock(bb, CN_POS + 3 * CN_LENGTH, CC1_POS, 0, "b", 72, 8, 0);
+        putCnBlock(bb, 0, CC2_POS, 0, "c", 80, 8, 0);
+
+        // CCBLOCKs
+        putCcBlock(bb);
+        putCcBlock(bb);
+
+        // data records
+        for (int row = 0; row < ROWS; row++) {
+            bb.putDouble(row * 0.1);
+            bb.put((byte) row);
+            bb.put((byte) (1 - row));
+            bb.put((byte) row);
+        }
+        return bb.array();
+    }
+
+    private static void putCnBlock(ByteBuffer bb, int nextCnPos, int ccPos, int channelType, String name, int bitPos,
+            int bitCount, int dataType) {
+        putChars(bb, "CN", 2);
+        bb.putShort((short) CN_LENGTH);
+        bb.putInt(nextCnPos);
+        bb.putInt(ccPos);
+        bb.putInt(0); // source extension
+        bb.putInt(0); // dependency
+        bb.putInt(0); // comment
+        bb.putShort((short) channelType);
+        putChars(bb, name, 32);
+        putChars(bb, "", 128);
+        bb.putShort((short) bitPos);
+        bb.putShort((short) bitCount);
+        bb.putShort((short) dataType);
+        bb.putShort((short) 0); // value range not known
+        bb.putDouble(0);
+        bb.putDouble(0);
+        bb.putDouble(0.1);
+        bb.putInt(0); // MCD unique name
+        bb.putInt(0); // display identifier
+        bb.putShort((short) 0); // additional byte offset
+    }
+
+    private static void putCcBlock(ByteBuffer bb) {
+        putChars(bb, "CC", 2);
+        bb.putShort((short) CC_LENGTH);
+        bb.putShort((short) 0); // value range not known
+        bb.putDouble(0);
+        bb.putDouble(0);
+        putChars(bb, "", 20);
+        bb.putShort((short) 11); // ASAM-MCD2 Text Table
+        bb.putShort((short) 2);
+        bb.putDouble(0);
+        putChars(bb, "off", 32);
+        bb.putDouble(1);
+        putChars(bb, "on", 32);
+    }
+
+    private static void putChars(ByteBuffer bb, String str, int length) {
+        byte[] b = str.getBytes(StandardCharsets.ISO_8859_1);
+        bb.put(b);
+        for (int i = b.length; i < length; i++) {
+            bb.put((byte) 0);
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(SharedLookupTablesTest.class);
+    }
+
+}
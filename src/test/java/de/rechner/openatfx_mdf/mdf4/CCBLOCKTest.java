@@ -0,0 +1,128 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.util.ByteArrayChannel;
+import de.rechner.openatfx_mdf.util.TextDictionary;
+
+
+/**
+ * Test case for the text conversions of <code>de.rechner.openatfx_mdf.mdf4.CCBLOCK</code>.
+ *
+ * @author Christian Rechner
+ */
+public class CCBLOCKTest {
+
+    private static final int TX_LENGTH = 32;
+
+    @Test
+    public void testTextDictionary() {
+        try {
+            ByteBuffer bb = createBuffer();
+            putCcBlock(bb, 7, new long[] { 0x100, 0x100 + TX_LENGTH, 0x100 + 2 * TX_LENGTH }, new double[] { 1, 2 });
+            putTxBlocks(bb, "one", "two", "default");
+
+            TextDictionary dictionary = read(bb).getTextDictionary();
+            assertArrayEquals(new String[] { "one", "two", "default" }, dictionary.getTexts());
+            assertEquals(1, dictionary.getCode(1));
+            assertEquals(2, dictionary.getCode(-1));
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTextDictionaryWithoutReferences() {
+        try {
+            ByteBuffer bb = createBuffer();
+            putCcBlock(bb, 8, new long[0], new double[] { 0, 1, 2, 3 });
+
+            // neither the two ranges nor the default have a text
+            TextDictionary dictionary = read(bb).getTextDictionary();
+            assertArrayEquals(new String[] { null }, dictionary.getTexts());
+            assertEquals(0, dictionary.getCode(1));
+            assertEquals(0, dictionary.getCode(-1));
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testScaleConversionReference() {
+        ByteBuffer bb = createBuffer();
+        putCcBlock(bb, 7, new long[] { 0x100, 0x200, 0x100 + TX_LENGTH }, new double[] { 1, 2 });
+        putTxBlocks(bb, "one", "default");
+        bb.position(0x200);
+        putCcBlock(bb, 1, new long[0], new double[] { 0, 2 }); // linear scale conversion
+        try {
+            read(bb).getTextDictionary();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("cc_ref[1]"));
+        }
+    }
+
+    private static ByteBuffer createBuffer() {
+        return ByteBuffer.allocate(0x300).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static CCBLOCK read(ByteBuffer bb) throws IOException {
+        return CCBLOCK.read(new ByteArrayChannel(bb.array()), 0);
+    }
+
+    private static void putCcBlock(ByteBuffer bb, int type, long[] ccRef, double[] ccVal) {
+        putHeader(bb, CCBLOCK.BLOCK_ID, 24 + 8 * (4 + ccRef.length) + 24 + 8 * ccVal.length, 4 + ccRef.length);
+        bb.putLong(0); // name
+        bb.putLong(0); // unit
+        bb.putLong(0); // comment
+        bb.putLong(0); // inverse conversion
+        for (long lnk : ccRef) {
+            bb.putLong(lnk);
+        }
+        bb.put((byte) type);
+        bb.put((byte) 0); // precision
+        bb.putShort((short) 0); // flags
+        bb.putShort((short) ccRef.length);
+        bb.putShort((short) ccVal.length);
+        bb.putDouble(0);
+        bb.putDouble(0);
+        for (double val : ccVal) {
+            bb.putDouble(val);
+        }
+    }
+
+    private static void putTxBlocks(ByteBuffer bb, String... texts) {
+        int txPos = 0x100;
+        for (String text : texts) {
+            bb.position(txPos);
+            byte[] b = text.getBytes(StandardCharsets.UTF_8);
+            putHeader(bb, TXBLOCK.BLOCK_ID, 24 + b.length + 1, 0);
+            bb.put(b);
+            txPos += TX_LENGTH;
+        }
+    }
+
+    private static void putHeader(ByteBuffer bb, String id, long length, long linkCount) {
+        bb.put(id.getBytes(StandardCharsets.ISO_8859_1));
+        bb.putInt(0);
+        bb.putLong(length);
+        bb.putLong(linkCount);
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(CCBLOCKTest.class);
+    }
+
+}
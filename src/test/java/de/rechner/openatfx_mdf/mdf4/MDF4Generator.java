@@ -0,0 +1,302 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import de.rechner.openatfx_mdf.util.GeneratorOutput;
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+
+
+/**
+ * Writes synthetic MDF4 (version 4.10) files for scaling and stress tests. The blocks of each data group are written
+ * in front of its data blocks (DTBLOCKs or DZBLOCKs, optionally listed by a DLBLOCK), whose records are streamed to
+ * disk record by record; the links to the data are patched afterwards.
+ *
+ * @author Christian Rechner
+ */
+public abstract class MDF4Generator {
+
+    private static final Charset CHARSET_ISO8859 = Charset.forName("ISO-8859-1");
+    private static final Charset CHARSET_UTF8 = Charset.forName("UTF-8");
+
+    private static final int HEADER_LENGTH = 24;
+    private static final int HD_LENGTH = 104;
+    private static final int FH_LENGTH = 56;
+    private static final int DG_LENGTH = 64;
+    private static final int CG_LENGTH = 104;
+    private static final int CN_LENGTH = 160;
+    private static final int DZ_LENGTH = 48;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final String FH_COMMENT = "<FHcomment xmlns=\"http://www.asam.net/mdf/v4\">"
+            + "<TX>Synthetic test file</TX><tool_id>openATFX</tool_id><tool_vendor>openATFX</tool_vendor>"
+            + "<tool_version>1.0</tool_version></FHcomment>";
+
+    /**
+     * Writes a MDF4 file.
+     *
+     * @param path The target file, overwritten if existing.
+     * @param spec The file spec.
+     * @throws IOException Error writing the file.
+     */
+    public static void write(Path path, GeneratorSpec spec) throws IOException {
+        spec.validate();
+        GeneratorOutput out = new GeneratorOutput(path);
+        try {
+            writeIdBlock(out);
+
+            // HDBLOCK, FHBLOCK and its comment
+            long hdPos = out.position();
+            long fhPos = hdPos + HD_LENGTH;
+            long mdPos = fhPos + FH_LENGTH;
+            writeHeader(out, "##HD", HD_LENGTH, 6);
+            out.putLong(0); // first DGBLOCK, patched below
+            out.putLong(fhPos);
+            out.putZeros(4 * 8); // CHBLOCK, ATBLOCK, EVBLOCK, comment
+            out.putLong(1483228800000000000L); // 2017-01-01 00:00:00 UTC
+            out.putZeros(8); // time zone and DST offsets, flags, reserved
+            out.putDouble(0);
+            out.putDouble(0);
+            writeHeader(out, "##FH", FH_LENGTH, 2);
+            out.putLong(0);
+            out.putLong(mdPos);
+            out.putLong(1483228800000000000L);
+            out.putZeros(8);
+            writeTextBlock(out, "##MD", FH_COMMENT);
+
+            long lnkPos = hdPos + HEADER_LENGTH;
+            for (int dg = 0; dg < spec.getDataGroupCount(); dg++) {
+                long dgPos = out.position();
+                out.patchLong(lnkPos, dgPos);
+                writeDataGroup(out, spec);
+                lnkPos = dgPos + HEADER_LENGTH;
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeIdBlock(GeneratorOutput out) throws IOException {
+        out.putChars("MDF     ", 8, CHARSET_ISO8859);
+        out.putChars("4.10    ", 8, CHARSET_ISO8859);
+        out.putChars("openATFX", 8, CHARSET_ISO8859);
+        out.putZeros(4);
+        out.putShort(410);
+        out.putZeros(30);
+        out.putShort(0); // standard unfinalized flags
+        out.putShort(0); // custom unfinalized flags
+    }
+
+    private static void writeHeader(GeneratorOutput out, String id, long length, long linkCount) throws IOException {
+        out.putChars(id, 4, CHARSET_ISO8859);
+        out.putZeros(4);
+        out.putLong(length);
+        out.putLong(linkCount);
+    }
+
+    private static void writeTextBlock(GeneratorOutput out, String id, String text) throws IOException {
+        byte[] b = text.getBytes(CHARSET_UTF8);
+        writeHeader(out, id, HEADER_LENGTH + b.length + 1, 0);
+        out.putBytes(b, 0, b.length);
+        out.putByte(0);
+        out.align();
+    }
+
+    private static long getTextBlockSize(String text) {
+        long length = HEADER_LENGTH + text.getBytes(CHARSET_UTF8).length + 1;
+        return (length + 7) / 8 * 8;
+    }
+
+    private static void writeDataGroup(GeneratorOutput out, GeneratorSpec spec) throws IOException {
+        int cgCount = spec.getChannelGroupCount();
+        long dgPos = out.position();
+
+        // DGBLOCK
+        writeHeader(out, "##DG", DG_LENGTH, 4);
+        out.putLong(0); // next DGBLOCK, patched by caller
+        out.putLong(dgPos + DG_LENGTH);
+        out.putLong(0); // data, patched below
+        out.putLong(0); // comment
+        out.putByte(spec.getRecordIdBytes());
+        out.putZeros(7);
+
+        // CGBLOCKs, each followed by its CNBLOCKs and their names
+        long cgSize = CG_LENGTH;
+        for (int cn = -1; cn < spec.getChannelCount(); cn++) {
+            cgSize += CN_LENGTH + getTextBlockSize(GeneratorSpec.getChannelName(cn));
+        }
+        for (int cg = 0; cg < cgCount; cg++) {
+            long cgPos = out.position();
+            writeHeader(out, "##CG", CG_LENGTH, 6);
+            out.putLong(cg < cgCount - 1 ? cgPos + cgSize : 0);
+            out.putLong(cgPos + CG_LENGTH);
+            out.putZeros(4 * 8); // acquisition name and source, sample reduction, comment
+            out.putLong(cgCount > 1 ? cg + 1 : 0);
+            out.putLong(spec.getRowCount());
+            out.putShort(0); // flags
+            out.putShort(0); // path separator
+            out.putZeros(4);
+            out.putInt(spec.getDataBytes());
+            out.putInt(spec.getInvalBytes());
+            for (int cn = -1; cn < spec.getChannelCount(); cn++) {
+                writeCnBlock(out, spec, cn, cn == spec.getChannelCount() - 1);
+            }
+        }
+
+        // data blocks, the records of all channel groups alternate in an 'unsorted' data group
+        long rowCount = spec.getRowCount();
+        long fragmentRows = spec.getFragmentRows() > 0 ? spec.getFragmentRows() : rowCount;
+        List<Long> blockPositions = new ArrayList<Long>();
+        List<Long> blockOffsets = new ArrayList<Long>();
+        long recordLength = spec.getRecordIdBytes() + spec.getDataBytes() + spec.getInvalBytes();
+        for (long row = 0; row < rowCount; row += fragmentRows) {
+            long toRow = Math.min(rowCount, row + fragmentRows);
+            blockPositions.add(out.position());
+            blockOffsets.add(row * cgCount * recordLength);
+            if (spec.isCompressed()) {
+                writeDzBlock(out, spec, row, toRow);
+            } else {
+                writeDtBlock(out, spec, row, toRow);
+            }
+        }
+        long lnkData = 0;
+        if (spec.getFragmentRows() > 0 && !blockPositions.isEmpty()) {
+            lnkData = out.position();
+            int count = blockPositions.size();
+            writeHeader(out, "##DL", HEADER_LENGTH + 8 * (1 + count) + 8 + 8 * count, 1 + count);
+            out.putLong(0);
+            for (long blockPos : blockPositions) {
+                out.putLong(blockPos);
+            }
+            out.putByte(0); // flags: no equal length
+            out.putZeros(3);
+            out.putInt(count);
+            for (long offset : blockOffsets) {
+                out.putLong(offset);
+            }
+        } else if (!blockPositions.isEmpty()) {
+            lnkData = blockPositions.get(0);
+        }
+        out.patchLong(dgPos + HEADER_LENGTH + 16, lnkData);
+    }
+
+    private static void writeCnBlock(GeneratorOutput out, GeneratorSpec spec, int cn, boolean last)
+            throws IOException {
+        boolean master = cn < 0;
+        String name = GeneratorSpec.getChannelName(cn);
+        long cnPos = out.position();
+        long txPos = cnPos + CN_LENGTH;
+        long bitPos = master ? 0 : spec.getBitPosition(cn);
+        int dataType;
+        if (master || spec.getDataType() == RawValueDecoder.FLOAT) {
+            dataType = 4;
+        } else {
+            dataType = spec.getDataType() == RawValueDecoder.SIGNED ? 2 : 0;
+        }
+
+        writeHeader(out, "##CN", CN_LENGTH, 8);
+        out.putLong(last ? 0 : txPos + getTextBlockSize(name));
+        out.putLong(0); // composition
+        out.putLong(txPos);
+        out.putZeros(5 * 8); // source, conversion, signal data, unit, comment
+        out.putByte(master ? 2 : 0); // channel type
+        out.putByte(master ? 1 : 0); // sync type
+        out.putByte(dataType);
+        out.putByte((int) (bitPos % 8));
+        out.putInt(bitPos / 8);
+        out.putInt(master ? 64 : spec.getBitCount());
+        boolean inval = !master && spec.isInvalidationBytes();
+        out.putInt(inval ? 0x02 : 0); // flags: invalidation bit valid
+        out.putInt(inval ? cn : 0);
+        out.putByte(0); // precision
+        out.putByte(0);
+        out.putShort(0); // attachment count
+        out.putZeros(6 * 8); // value range and limits
+        writeTextBlock(out, "##TX", name);
+    }
+
+    private static void writeDtBlock(GeneratorOutput out, GeneratorSpec spec, long fromRow, long toRow)
+            throws IOException {
+        int recordIdBytes = spec.getRecordIdBytes();
+        byte[] record = new byte[recordIdBytes + spec.getDataBytes() + spec.getInvalBytes()];
+        int cgCount = spec.getChannelGroupCount();
+        writeHeader(out, "##DT", HEADER_LENGTH + (toRow - fromRow) * cgCount * record.length, 0);
+        for (long row = fromRow; row < toRow; row++) {
+            for (int cg = 0; cg < cgCount; cg++) {
+                if (recordIdBytes > 0) {
+                    record[0] = (byte) (cg + 1);
+                }
+                spec.encodeRecord(row, record, recordIdBytes);
+                out.putBytes(record, 0, record.length);
+            }
+        }
+        out.align();
+    }
+
+    private static void writeDzBlock(GeneratorOutput out, GeneratorSpec spec, long fromRow, long toRow)
+            throws IOException {
+        int recordIdBytes = spec.getRecordIdBytes();
+        byte[] record = new byte[recordIdBytes + spec.getDataBytes() + spec.getInvalBytes()];
+        int cgCount = spec.getChannelGroupCount();
+        long dzPos = out.position();
+        writeHeader(out, "##DZ", 0, 0); // length patched below
+        out.putChars("DT", 2, CHARSET_ISO8859);
+        out.putByte(0); // zip type: deflate
+        out.putByte(0);
+        out.putInt(0); // zip parameter
+        out.putLong((toRow - fromRow) * cgCount * record.length);
+        out.putLong(0); // compressed length, patched below
+
+        // the records are collected into chunks, deflating each record separately is slow
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] chunk = new byte[Math.max(CHUNK_SIZE, record.length)];
+        byte[] zipped = new byte[CHUNK_SIZE];
+        int chunkLength = 0;
+        long zippedLength = 0;
+        try {
+            for (long row = fromRow; row < toRow; row++) {
+                for (int cg = 0; cg < cgCount; cg++) {
+                    if (chunkLength + record.length > chunk.length) {
+                        zippedLength += deflate(out, deflater, chunk, chunkLength, zipped);
+                        chunkLength = 0;
+                    }
+                    if (recordIdBytes > 0) {
+                        chunk[chunkLength] = (byte) (cg + 1);
+                    }
+                    spec.encodeRecord(row, chunk, chunkLength + recordIdBytes);
+                    chunkLength += record.length;
+                }
+            }
+            zippedLength += deflate(out, deflater, chunk, chunkLength, zipped);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(zipped);
+                out.putBytes(zipped, 0, n);
+                zippedLength += n;
+            }
+        } finally {
+            deflater.end();
+        }
+        out.patchLong(dzPos + 8, DZ_LENGTH + zippedLength);
+        out.patchLong(dzPos + 40, zippedLength);
+        out.align();
+    }
+
+    private static long deflate(GeneratorOutput out, Deflater deflater, byte[] data, int length, byte[] zipped)
+            throws IOException {
+        long zippedLength = 0;
+        deflater.setInput(data, 0, length);
+        while (!deflater.needsInput()) {
+            int n = deflater.deflate(zipped);
+            out.putBytes(zipped, 0, n);
+            zippedLength += n;
+        }
+        return zippedLength;
+    }
+
+}
@@ -0,0 +1,230 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.ChannelReader;
+import de.rechner.openatfx_mdf.util.ChannelSource;
+import de.rechner.openatfx_mdf.util.GeneratorSpec;
+import de.rechner.openatfx_mdf.util.RawValueDecoder;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.mdf4.MDF4Generator</code>.
+ *
+ * @author Christian Rechner
+ */
+public class MDF4GeneratorTest {
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException {
+        this.path = Files.createTempFile("generated", ".mf4");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.path);
+    }
+
+    @Test
+    public void testSorted() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setDataGroupCount(3);
+        spec.setChannelCount(5);
+        spec.setRowCount(777);
+        spec.setDataType(RawValueDecoder.FLOAT);
+        spec.setBitCount(64);
+        checkValues(spec);
+    }
+
+    @Test
+    public void testBitPacking() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setChannelCount(7);
+        spec.setRowCount(300);
+        spec.setDataType(RawValueDecoder.SIGNED);
+        spec.setBitCount(11);
+        spec.setBitPacking(true);
+        assertEquals(18, spec.getDataBytes());
+        checkValues(spec);
+    }
+
+    @Test
+    public void testFragmented() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setDataGroupCount(2);
+        spec.setRowCount(1000);
+        spec.setFragmentRows(128);
+        checkValues(spec);
+        try (SeekableByteChannel sbc = Files.newByteChannel(this.path, StandardOpenOption.READ)) {
+            DGBLOCK dgBlock = IDBLOCK.read(this.path, sbc).getHDBlock().getDgFirstBlock();
+            DLBLOCK dlBlock = DLBLOCK.read(sbc, dgBlock.getLnkData());
+            assertEquals(8, dlBlock.getCount());
+            assertEquals(7 * 128 * (long) spec.getDataBytes(), dlBlock.getOffset()[7]);
+            List<long[]> fragments = dgBlock.getDataFragments();
+            assertEquals(8, fragments.size());
+            assertEquals(104 * spec.getDataBytes(), fragments.get(7)[1]);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testInvalidationBytes() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setChannelCount(10);
+        spec.setRowCount(20);
+        spec.setBitCount(8);
+        spec.setInvalidationBytes(true);
+        checkValues(spec);
+        try (SeekableByteChannel sbc = Files.newByteChannel(this.path, StandardOpenOption.READ)) {
+            DGBLOCK dgBlock = IDBLOCK.read(this.path, sbc).getHDBlock().getDgFirstBlock();
+            CGBLOCK cgBlock = dgBlock.getCgFirstBlock();
+            assertEquals(2, cgBlock.getInvalBytes());
+            int recordSize = dgBlock.getRecordSize(cgBlock);
+            long dataPos = dgBlock.getDataFragments().get(0)[0];
+            ByteBuffer bb = read(sbc, dataPos, recordSize * 20);
+            CNBLOCK cnBlock = cgBlock.getCnFirstBlock().getCnNextBlock();
+            for (int cn = 0; cn < 10; cn++) {
+                assertEquals(2, cnBlock.getFlags());
+                assertEquals(cn, cnBlock.getInvalBitPos());
+                for (int row = 0; row < 20; row++) {
+                    int b = bb.get(row * recordSize + spec.getDataBytes() + cn / 8);
+                    assertEquals(GeneratorSpec.isInvalid(cn, row), (b & (1 << (cn % 8))) != 0);
+                }
+                cnBlock = cnBlock.getCnNextBlock();
+            }
+            assertNull(cnBlock);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCompressed() {
+        GeneratorSpec spec = new GeneratorSpec();
+        spec.setChannelGroupCount(2);
+        spec.setChannelCount(3);
+        spec.setRowCount(1000);
+        spec.setFragmentRows(400);
+        spec.setCompressed(true);
+        try (SeekableByteChannel sbc = write(spec)) {
+            DGBLOCK dgBlock = IDBLOCK.read(this.path, sbc).getHDBlock().getDgFirstBlock();
+            assertEquals(1, dgBlock.getRecIdSize());
+            CGBLOCK cgBlock = dgBlock.getCgFirstBlock();
+            assertEquals(1, cgBlock.getRecordId());
+            assertEquals(2, cgBlock.getCgNextBlock().getRecordId());
+            assertNull(cgBlock.getCgNextBlock().getCgNextBlock());
+
+            // inflate the DZBLOCKs and compare with the expected records
+            DLBLOCK dlBlock = DLBLOCK.read(sbc, dgBlock.getLnkData());
+            assertEquals(3, dlBlock.getCount());
+            int recordLength = 1 + spec.getDataBytes();
+            byte[] expected = new byte[recordLength];
+            long row = 0;
+            for (long lnkDz : dlBlock.getLnkDlData()) {
+                ByteBuffer header = read(sbc, lnkDz, 48);
+                assertEquals("##DZ", new String(header.array(), 0, 4, "ISO-8859-1"));
+                assertEquals("DT", new String(header.array(), 24, 2, "ISO-8859-1"));
+                long orgLength = header.getLong(32);
+                long zippedLength = header.getLong(40);
+                assertEquals(48 + zippedLength, header.getLong(8));
+                byte[] data = inflate(read(sbc, lnkDz + 48, (int) zippedLength).array(), (int) orgLength);
+                for (int pos = 0; pos < data.length; pos += 2 * recordLength) {
+                    for (int cg = 0; cg < 2; cg++) {
+                        expected[0] = (byte) (cg + 1);
+                        spec.encodeRecord(row, expected, 1);
+                        byte[] actual = new byte[recordLength];
+                        System.arraycopy(data, pos + cg * recordLength, actual, 0, recordLength);
+                        assertArrayEquals(expected, actual);
+                    }
+                    row++;
+                }
+            }
+            assertEquals(1000, row);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private SeekableByteChannel write(GeneratorSpec spec) throws IOException {
+        MDF4Generator.write(this.path, spec);
+        return Files.newByteChannel(this.path, StandardOpenOption.READ);
+    }
+
+    private static ByteBuffer read(SeekableByteChannel sbc, long pos, int length) throws IOException {
+        ByteBuffer bb = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        sbc.position(pos);
+        while (bb.hasRemaining() && sbc.read(bb) > 0) {
+            // read fully
+        }
+        return bb;
+    }
+
+    private static byte[] inflate(byte[] zipped, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(zipped);
+            byte[] data = new byte[length];
+            assertEquals(length, inflater.inflate(data));
+            assertTrue(inflater.finished());
+            return data;
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void checkValues(GeneratorSpec spec) {
+        try {
+            MDF4Generator.write(this.path, spec);
+            try (ChannelReader reader = ChannelReader.open(this.path)) {
+                assertEquals(spec.getDataGroupCount() * (spec.getChannelCount() + 1), reader.getChannels().size());
+                int rowCount = (int) spec.getRowCount();
+                DoubleBuffer values = DoubleBuffer.allocate(rowCount);
+                for (ChannelSource channel : reader.getChannels()) {
+                    assertEquals(spec.getRowCount(), channel.getRowCount());
+                    values.clear();
+                    assertEquals(rowCount, reader.readRaw(channel, 0, values));
+                    int cn = channel.isMaster() ? -1 : Integer.parseInt(channel.getName().substring(3)) - 1;
+                    assertEquals(GeneratorSpec.getChannelName(cn), channel.getName());
+                    for (int row = 0; row < rowCount; row++) {
+                        double expected = cn < 0 ? GeneratorSpec.getTime(row) : spec.getValue(cn, row);
+                        assertEquals(expected, values.get(row), 0);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(MDF4GeneratorTest.class);
+    }
+
+}
@@ -0,0 +1,289 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.mdf4.MDF4Recovery</code>.
+ *
+ * @author Christian Rechner
+ */
+public class MDF4RecoveryTest {
+
+    private static final String mdfFile = "de/rechner/openatfx_mdf/mdf4/datatypes/integer_types/"
+            + "Vector_IntegerTypes.MF4";
+
+    // block positions of the example file
+    private static final long CG_POS = 5568;
+    private static final long DT_POS = 5736;
+    private static final long DT_LENGTH = 13296;
+    private static final long CYCLE_COUNT = 201;
+
+    @Test
+    public void testFinalized() {
+        Path path = null;
+        try {
+            path = copyExampleFile();
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                assertSame(sbc, MDF4Recovery.recover(sbc));
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    @Test
+    public void testCycleCount() {
+        Path path = null;
+        try {
+            path = copyExampleFile();
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+                write(sbc, 0, "UnFinMF ".getBytes(StandardCharsets.ISO_8859_1));
+                write(sbc, 60, toBytes(MDF4Recovery.FLAG_CYCLE_COUNTERS, 2));
+                write(sbc, CG_POS + 80, toBytes(0, 8));
+            }
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                try {
+                    IDBLOCK.read(path, sbc);
+                    fail("IOException expected");
+                } catch (IOException e) {
+                }
+                SeekableByteChannel rc = MDF4Recovery.recover(sbc);
+                assertTrue(rc instanceof RecoveryChannel);
+                IDBLOCK idBlock = IDBLOCK.read(path, rc);
+                assertEquals(0, idBlock.getIdUnfinFlags());
+                CGBLOCK cgBlock = idBlock.getHDBlock().getDgFirstBlock().getCgFirstBlock();
+                assertEquals(CYCLE_COUNT, cgBlock.getCycleCount());
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    @Test
+    public void testLastDataBlock() {
+        Path path = null;
+        try {
+            path = copyExampleFile();
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+                // the logger stopped after writing the data, having neither length nor cycle count updated
+                sbc.truncate(DT_POS + DT_LENGTH);
+                write(sbc, 0, "UnFinMF ".getBytes(StandardCharsets.ISO_8859_1));
+                write(sbc, 60, toBytes(MDF4Recovery.FLAG_CYCLE_COUNTERS | MDF4Recovery.FLAG_LAST_DT_LENGTH, 2));
+                write(sbc, CG_POS + 80, toBytes(0, 8));
+                write(sbc, DT_POS + 8, toBytes(24, 8));
+            }
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                IDBLOCK idBlock = IDBLOCK.read(path, MDF4Recovery.recover(sbc));
+                DGBLOCK dgBlock = idBlock.getHDBlock().getDgFirstBlock();
+                assertEquals(DT_LENGTH - 24, dgBlock.getDataFragments().get(0)[1]);
+                assertEquals(CYCLE_COUNT, dgBlock.getCgFirstBlock().getCycleCount());
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    @Test
+    public void testDanglingLink() {
+        Path path = null;
+        try {
+            path = copyExampleFile();
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.WRITE)) {
+                write(sbc, 0, "UnFinMF ".getBytes(StandardCharsets.ISO_8859_1));
+                write(sbc, CG_POS + 24, toBytes(1L << 40, 8)); // cg_next behind the end of the file
+            }
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                IDBLOCK idBlock = IDBLOCK.read(path, MDF4Recovery.recover(sbc));
+                CGBLOCK cgBlock = idBlock.getHDBlock().getDgFirstBlock().getCgFirstBlock();
+                assertEquals(null, cgBlock.getCgNextBlock());
+                assertEquals(CYCLE_COUNT, cgBlock.getCycleCount());
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    @Test
+    public void testOpenDataList() {
+        Path path = null;
+        try {
+            path = copyExampleFile();
+            long dlPos;
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ,
+                                                                StandardOpenOption.WRITE)) {
+                // the logger appended a data list for two blocks, but wrote neither the second block nor the next list
+                dlPos = appendDataList(sbc, 1L << 40, 2, true);
+                write(sbc, 0, "UnFinMF ".getBytes(StandardCharsets.ISO_8859_1));
+                write(sbc, 60, toBytes(MDF4Recovery.FLAG_CYCLE_COUNTERS | MDF4Recovery.FLAG_LAST_DL, 2));
+                write(sbc, CG_POS + 80, toBytes(0, 8));
+            }
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                SeekableByteChannel rc = MDF4Recovery.recover(sbc);
+                IDBLOCK idBlock = IDBLOCK.read(path, rc);
+                DGBLOCK dgBlock = idBlock.getHDBlock().getDgFirstBlock();
+                assertEquals(dlPos, dgBlock.getLnkData());
+
+                // dl_count patched to the written block, dl_dl_next cut
+                DLBLOCK dlBlock = DLBLOCK.read(rc, dlPos);
+                assertEquals(1, dlBlock.getCount());
+                assertEquals(0, dlBlock.getLnkDlNext());
+
+                List<long[]> fragments = dgBlock.getDataFragments();
+                assertEquals(1, fragments.size());
+                assertArrayEquals(new long[] { DT_POS + 24, DT_LENGTH - 24 }, fragments.get(0));
+                assertEquals(CYCLE_COUNT, dgBlock.getCgFirstBlock().getCycleCount());
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    @Test
+    public void testDataListCountBehindEndOfFile() {
+        Path path = null;
+        try {
+            path = copyExampleFile();
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ,
+                                                                StandardOpenOption.WRITE)) {
+                // the logger stopped after writing the links of the data list, dl_count is missing
+                appendDataList(sbc, 0, 1, false);
+                write(sbc, 0, "UnFinMF ".getBytes(StandardCharsets.ISO_8859_1));
+            }
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                IDBLOCK idBlock = IDBLOCK.read(path, MDF4Recovery.recover(sbc));
+                DGBLOCK dgBlock = idBlock.getHDBlock().getDgFirstBlock();
+
+                // the list is read as empty, the cycle count recomputed from no data
+                assertEquals(0, dgBlock.getDataFragments().size());
+                assertEquals(0, dgBlock.getCgFirstBlock().getCycleCount());
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        } finally {
+            delete(path);
+        }
+    }
+
+    /**
+     * Appends a DLBLOCK listing the DTBLOCK of the example file followed by unwritten (0) links, and links the data
+     * group to it.
+     *
+     * @param sbc The channel of the file.
+     * @param dlNext The dl_dl_next link.
+     * @param count The number of referenced blocks (dl_count).
+     * @param complete False to end the file behind the links, leaving dl_count unwritten.
+     * @return The position of the DLBLOCK.
+     * @throws IOException Error writing the file.
+     */
+    private static long appendDataList(SeekableByteChannel sbc, long dlNext, int count, boolean complete)
+            throws IOException {
+        long dlPos = (sbc.size() + 7) / 8 * 8;
+        ByteBuffer bb = ByteBuffer.allocate(24 + 8 * (1 + count) + 8 + 8 * count).order(ByteOrder.LITTLE_ENDIAN);
+        bb.put("##DL".getBytes(StandardCharsets.ISO_8859_1));
+        bb.putInt(0);
+        bb.putLong(bb.capacity());
+        bb.putLong(1 + count);
+        bb.putLong(dlNext);
+        bb.putLong(DT_POS);
+        bb.position(24 + 8 * (1 + count));
+        if (complete) {
+            bb.putInt(0); // flags: no equal length
+            bb.putInt(count);
+            for (int i = 0; i < count; i++) {
+                bb.putLong(i * (DT_LENGTH - 24));
+            }
+        }
+        bb.flip();
+        sbc.position(dlPos);
+        sbc.write(bb);
+
+        // dg_data of the first DGBLOCK
+        ByteBuffer link = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        sbc.position(64 + 24);
+        sbc.read(link);
+        write(sbc, link.getLong(0) + 40, toBytes(dlPos, 8));
+        return dlPos;
+    }
+
+    private static Path copyExampleFile() throws IOException, URISyntaxException {
+        Path source = Paths.get(ClassLoader.getSystemResource(mdfFile).toURI());
+        Path target = Files.createTempFile("recovery", ".mf4");
+        return Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void write(SeekableByteChannel sbc, long pos, byte[] data) throws IOException {
+        sbc.position(pos);
+        sbc.write(ByteBuffer.wrap(data));
+    }
+
+    private static byte[] toBytes(long value, int length) {
+        ByteBuffer bb = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        bb.putLong(value);
+        byte[] b = new byte[length];
+        System.arraycopy(bb.array(), 0, b, 0, length);
+        return b;
+    }
+
+    private static void delete(Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(MDF4RecoveryTest.class);
+    }
+
+}
@@ -0,0 +1,177 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import de.rechner.openatfx_mdf.util.Allocations;
+import de.rechner.openatfx_mdf.util.ByteArrayChannel;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.mdf4.MDF4Util</code>.
+ *
+ * @author Christian Rechner
+ */
+public class MDF4UtilTest {
+
+    private static final int ITERATIONS = 10000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void testReadUInt64() {
+        try {
+            ByteBuffer bb = createBuffer(16);
+            bb.putLong(0x0123456789ABCDEFL);
+            bb.putLong(-1L);
+            bb.rewind();
+            assertEquals(0x0123456789ABCDEFL, MDF4Util.readUInt64(bb));
+            assertEquals(8, bb.position());
+            try {
+                MDF4Util.readUInt64(bb);
+                fail("IOException expected");
+            } catch (IOException e) {
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadLink() {
+        try {
+            ByteBuffer bb = createBuffer(16);
+            bb.putLong(0x7FFFFFFF8L);
+            bb.putLong(Long.MIN_VALUE);
+            bb.rewind();
+            assertEquals(0x7FFFFFFF8L, MDF4Util.readLink(bb));
+            try {
+                MDF4Util.readLink(bb);
+                fail("IOException expected");
+            } catch (IOException e) {
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReadBlockId() {
+        ByteBuffer bb = createBuffer(8);
+        bb.put("##DG##XY".getBytes(StandardCharsets.ISO_8859_1));
+        bb.rewind();
+        assertSame(DGBLOCK.BLOCK_ID, MDF4Util.readBlockId(bb));
+        assertEquals("##XY", MDF4Util.readBlockId(bb));
+        assertEquals(8, bb.position());
+    }
+
+    @Test
+    public void testReadChars() {
+        try {
+            byte[] data = "\u00fcber\0\0\0\0".getBytes(StandardCharsets.UTF_8);
+            ByteBuffer bb = ByteBuffer.wrap(data);
+            assertEquals("\u00fcber", MDF4Util.readCharsUTF8(bb, data.length));
+            assertEquals(data.length, bb.position());
+
+            // a direct buffer is decoded using the scratch array
+            ByteBuffer direct = ByteBuffer.allocateDirect(data.length + 1);
+            direct.put((byte) 'x');
+            direct.put(data);
+            direct.position(1);
+            assertEquals("\u00fcber", MDF4Util.readCharsUTF8(direct, data.length));
+            direct.position(0);
+            assertEquals("x\u00c3\u00bcber", MDF4Util.readCharsISO8859(direct, 6));
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testSkip() {
+        ByteBuffer bb = createBuffer(8);
+        MDF4Util.skip(bb, 4);
+        assertEquals(4, bb.position());
+        try {
+            MDF4Util.skip(bb, 5);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testReadDgBlockAllocations() {
+        Assume.assumeTrue(Allocations.isSupported()); // e.g. not a HotSpot JVM
+        try {
+            final SeekableByteChannel channel = new ByteArrayChannel(createDgBlock(createBuffer(64)).array());
+            final Object[] result = new Object[2];
+
+            // the block object and its buffer are expected, any other garbage shows up in every round
+            long expected = Allocations.measure(new Allocations.Task() {
+
+                @Override
+                public void run() {
+                    result[0] = new DGBLOCK(channel, 0);
+                    result[1] = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+                }
+
+            }, ITERATIONS, ROUNDS);
+            long allocated = Allocations.measure(new Allocations.Task() {
+
+                @Override
+                public void run() throws IOException {
+                    result[0] = DGBLOCK.read(channel, 0);
+                }
+
+            }, ITERATIONS, ROUNDS);
+            assertTrue("bytes allocated by " + ITERATIONS + " block reads: " + allocated + ", expected: " + expected,
+                       allocated <= expected);
+
+            DGBLOCK dgBlock = (DGBLOCK) result[0];
+            assertEquals(DGBLOCK.BLOCK_ID, dgBlock.getId());
+            assertEquals(64, dgBlock.getLength());
+            assertEquals(4, dgBlock.getLinkCount());
+            assertEquals(0x2000, dgBlock.getLnkDgNext());
+            assertEquals(0x1000, dgBlock.getLnkCgFirst());
+            assertEquals(0, dgBlock.getLnkData());
+            assertEquals(0x3008, dgBlock.getLnkMdComment());
+            assertEquals(1, dgBlock.getRecIdSize());
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    private static ByteBuffer createBuffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer createDgBlock(ByteBuffer bb) {
+        bb.put(DGBLOCK.BLOCK_ID.getBytes(StandardCharsets.ISO_8859_1));
+        bb.putInt(0);
+        bb.putLong(64);
+        bb.putLong(4);
+        bb.putLong(0x2000);
+        bb.putLong(0x1000);
+        bb.putLong(0);
+        bb.putLong(0x3008);
+        bb.put((byte) 1);
+        bb.rewind();
+        return bb;
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(MDF4UtilTest.class);
+    }
+
+}
@@ -0,0 +1,58 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.mdf4.SequenceRepresentations</code>.
+ *
+ * @author Christian Rechner
+ */
+public class SequenceRepresentationsTest {
+
+    @Test
+    public void testLinear() {
+        double[] p = new double[] { -4.8, -3.2 };
+        assertEquals(8, SequenceRepresentations.getSeqRep(1, p));
+        assertArrayEquals(new double[] { -4.8, -3.2 }, SequenceRepresentations.getGenerationParameters(1, p), 0);
+    }
+
+    @Test
+    public void testRationalConstantDenominator() {
+        // phys = (4 * int^2 + 6 * int + 8) / 2
+        double[] p = new double[] { 4, 6, 8, 0, 0, 2 };
+        assertEquals(9, SequenceRepresentations.getSeqRep(2, p));
+        assertArrayEquals(new double[] { 2, 4, 3, 2 }, SequenceRepresentations.getGenerationParameters(2, p), 0);
+    }
+
+    @Test
+    public void testRational() {
+        double[] p = new double[] { 1, 2, 3, 4, 5, 6 };
+        assertEquals(13, SequenceRepresentations.getSeqRep(2, p));
+        assertArrayEquals(p, SequenceRepresentations.getGenerationParameters(2, p), 0);
+        // zero denominator is no polynomial
+        p = new double[] { 1, 0, 1, 0, 0, 0 };
+        assertEquals(13, SequenceRepresentations.getSeqRep(2, p));
+    }
+
+    @Test
+    public void testNoGenerationParameters() {
+        // 1:1 and algebraic conversion
+        assertEquals(7, SequenceRepresentations.getSeqRep(0, new double[0]));
+        assertEquals(0, SequenceRepresentations.getGenerationParameters(0, new double[0]).length);
+        assertEquals(7, SequenceRepresentations.getSeqRep(3, new double[0]));
+        assertEquals(0, SequenceRepresentations.getGenerationParameters(3, new double[0]).length);
+        assertEquals(7, SequenceRepresentations.getSeqRep(null));
+        assertEquals(0, SequenceRepresentations.getGenerationParameters(null).length);
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(SequenceRepresentationsTest.class);
+    }
+
+}
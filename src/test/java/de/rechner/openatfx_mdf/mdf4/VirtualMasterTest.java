@@ -0,0 +1,278 @@
+package de.rechner.openatfx_mdf.mdf4;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.asam.ods.AoException;
+import org.asam.ods.AoSession;
+import org.asam.ods.ApplicationElement;
+import org.asam.ods.InstanceElement;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.omg.CORBA.ORB;
+
+import de.rechner.openatfx.util.ODSHelper;
+import de.rechner.openatfx_mdf.ConvertException;
+import de.rechner.openatfx_mdf.MDFConverter;
+
+
+/**
+ * Test case for the virtual master channels written by <code>de.rechner.openatfx_mdf.mdf4.AoSessionWriter</code> for
+ * a MDF4 file having two data groups, whose virtual master channels 't1' and 't2' have a linear and a rational
+ * conversion of the record index.
+ *
+ * @author Christian Rechner
+ */
+public class VirtualMasterTest {
+
+    private static final int HD_POS = 64;
+    private static final int HD_LENGTH = 104;
+    private static final int DG_LENGTH = 64;
+    private static final int CG_LENGTH = 104;
+    private static final int CN_LENGTH = 160;
+    private static final int TX_LENGTH = 32;
+    private static final int ROWS = 3;
+
+    private static ORB orb;
+    private static Path path;
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        orb = ORB.init(new String[0], System.getProperties());
+        path = Files.createTempFile("virtual", ".mf4");
+        Files.write(path, createMdfFile());
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws Exception {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testLinearConversion() {
+        AoSession aoSession = null;
+        try {
+            aoSession = new MDFConverter().getAoSessionForMDF(orb, path);
+            ApplicationElement aeLc = aoSession.getApplicationStructure().getElementByName("lc");
+
+            // phys = 0.5 * record index + 1.5
+            InstanceElement ieLc = aeLc.getInstances("t1").nextOne();
+            assertEquals(2, ODSHelper.getEnumVal(ieLc.getValue("srp")));
+            assertArrayEquals(new double[] { 1.5, 0.5 }, ieLc.getValue("par").value.u.doubleSeq(), 0);
+            assertEquals(1, ODSHelper.getShortVal(ieLc.getValue("idp")));
+        } catch (AoException e) {
+            fail(e.reason);
+        } catch (ConvertException e) {
+            fail(e.getMessage());
+        } finally {
+            close(aoSession);
+        }
+    }
+
+    @Test
+    public void testRationalConversion() {
+        AoSession aoSession = null;
+        try {
+            aoSession = new MDFConverter().getAoSessionForMDF(orb, path);
+            ApplicationElement aeLc = aoSession.getApplicationStructure().getElementByName("lc");
+
+            // phys = (1 * int^2 + 2 * int + 3) / 2 => 'raw_polynomial_external'
+            InstanceElement ieLc = aeLc.getInstances("t2").nextOne();
+            assertEquals(9, ODSHelper.getEnumVal(ieLc.getValue("srp")));
+            assertArrayEquals(new double[] { 2, 1.5, 1, 0.5 }, ieLc.getValue("par").value.u.doubleSeq(), 0);
+            assertEquals(1, ODSHelper.getShortVal(ieLc.getValue("idp")));
+        } catch (AoException e) {
+            fail(e.reason);
+        } catch (ConvertException e) {
+            fail(e.getMessage());
+        } finally {
+            close(aoSession);
+        }
+    }
+
+    private static void close(AoSession aoSession) {
+        try {
+            if (aoSession != null) {
+                aoSession.close();
+            }
+        } catch (AoException e) {
+            fail(e.reason);
+        }
+    }
+
+    /**
+     * Creates a MDF4 file having two data groups, each with a virtual master channel and an 8 bit channel.
+     *
+     * @return The file content.
+     * @throws IOException Error creating the content.
+     */
+    private static byte[] createMdfFile() throws IOException {
+        double[] linear = new double[] { 1.5, 0.5 };
+        double[] rational = new double[] { 1, 2, 3, 0, 0, 2 };
+        int dg1Pos = HD_POS + HD_LENGTH;
+        int dg2Pos = dg1Pos + getDataGroupLength(linear);
+        ByteBuffer bb = ByteBuffer.allocate(dg2Pos + getDataGroupLength(rational));
+        bb.order(ByteOrder.LITTLE_ENDIAN);
+
+        // IDBLOCK
+        putChars(bb, "MDF     ", 8);
+        putChars(bb, "4.10    ", 8);
+        putChars(bb, "openATFX", 8);
+        bb.putInt(0);
+        bb.putShort((short) 410);
+        bb.position(HD_POS);
+
+        // HDBLOCK
+        putHeader(bb, "##HD", HD_LENGTH, 6);
+        bb.putLong(dg1Pos);
+        bb.putLong(0); // file history
+        bb.putLong(0); // channel hierarchy
+        bb.putLong(0); // attachment
+        bb.putLong(0); // event
+        bb.putLong(0); // comment
+        bb.putLong(1483228800000000000L); // 2017-01-01 00:00:00 UTC
+        bb.putLong(0); // time zone and DST offsets, flags, reserved
+        bb.putDouble(0);
+        bb.putDouble(0);
+
+        putDataGroup(bb, dg2Pos, "1", 1, linear);
+        putDataGroup(bb, 0, "2", 2, rational);
+        return bb.array();
+    }
+
+    private static int getDataGroupLength(double[] ccVal) {
+        return DG_LENGTH + CG_LENGTH + 2 * CN_LENGTH + 2 * TX_LENGTH + getCcLength(ccVal) + 32;
+    }
+
+    private static int getCcLength(double[] ccVal) {
+        return 24 + 4 * 8 + 24 + 8 * ccVal.length;
+    }
+
+    private static void putDataGroup(ByteBuffer bb, int nextDgPos, String suffix, int ccType, double[] ccVal) {
+        int dgPos = bb.position();
+        int cgPos = dgPos + DG_LENGTH;
+        int cn1Pos = cgPos + CG_LENGTH;
+        int cn2Pos = cn1Pos + CN_LENGTH;
+        int tx1Pos = cn2Pos + CN_LENGTH;
+        int tx2Pos = tx1Pos + TX_LENGTH;
+        int ccPos = tx2Pos + TX_LENGTH;
+        int dtPos = ccPos + getCcLength(ccVal);
+
+        // DGBLOCK
+        putHeader(bb, "##DG", DG_LENGTH, 4);
+        bb.putLong(nextDgPos);
+        bb.putLong(cgPos);
+        bb.putLong(dtPos);
+        bb.putLong(0); // comment
+        bb.putLong(0); // no record ids
+
+        // CGBLOCK
+        putHeader(bb, "##CG", CG_LENGTH, 6);
+        bb.putLong(0); // next CGBLOCK
+        bb.putLong(cn1Pos);
+        bb.putLong(0); // acquisition name
+        bb.putLong(0); // acquisition source
+        bb.putLong(0); // sample reduction
+        bb.putLong(0); // comment
+        bb.putLong(0); // record id
+        bb.putLong(ROWS);
+        bb.putLong(0); // flags, path separator, reserved
+        bb.putInt(1); // data bytes
+        bb.putInt(0); // invalidation bytes
+
+        // CNBLOCKs: virtual master and value channel
+        putCnBlock(bb, cn2Pos, tx1Pos, ccPos, 3, 1, 0);
+        putCnBlock(bb, 0, tx2Pos, 0, 0, 0, 8);
+        putTxBlock(bb, "t" + suffix);
+        putTxBlock(bb, "v" + suffix);
+
+        // CCBLOCK
+        putHeader(bb, "##CC", getCcLength(ccVal), 4);
+        bb.putLong(0); // name
+        bb.putLong(0); // unit
+        bb.putLong(0); // comment
+        bb.putLong(0); // inverse conversion
+        bb.put((byte) ccType);
+        bb.put((byte) 0); // precision
+        bb.putShort((short) 0); // flags
+        bb.putShort((short) 0); // no cc_ref
+        bb.putShort((short) ccVal.length);
+        bb.putDouble(0);
+        bb.putDouble(0);
+        for (double val : ccVal) {
+            bb.putDouble(val);
+        }
+
+        // DTBLOCK
+        putHeader(bb, "##DT", 24 + ROWS, 0);
+        for (int row = 0; row < ROWS; row++) {
+            bb.put((byte) row);
+        }
+        bb.position(dtPos + 32);
+    }
+
+    private static void putCnBlock(ByteBuffer bb, int nextCnPos, int txPos, int ccPos, int channelType, int syncType,
+            int bitCount) {
+        putHeader(bb, "##CN", CN_LENGTH, 8);
+        bb.putLong(nextCnPos);
+        bb.putLong(0); // composition
+        bb.putLong(txPos);
+        bb.putLong(0); // source
+        bb.putLong(ccPos);
+        bb.putLong(0); // signal data
+        bb.putLong(0); // unit
+        bb.putLong(0); // comment
+        bb.put((byte) channelType);
+        bb.put((byte) syncType);
+        bb.put((byte) 0); // unsigned integer, little endian
+        bb.put((byte) 0); // bit offset
+        bb.putInt(0); // byte offset
+        bb.putInt(bitCount);
+        bb.putInt(0); // flags
+        bb.putInt(0); // invalidation bit position
+        bb.put((byte) 0); // precision
+        bb.put((byte) 0);
+        bb.putShort((short) 0); // attachment count
+        for (int i = 0; i < 6; i++) { // value range and limits
+            bb.putDouble(0);
+        }
+    }
+
+    private static void putTxBlock(ByteBuffer bb, String text) {
+        int txPos = bb.position();
+        putHeader(bb, "##TX", 24 + text.length() + 1, 0);
+        putChars(bb, text, text.length() + 1);
+        bb.position(txPos + TX_LENGTH);
+    }
+
+    private static void putHeader(ByteBuffer bb, String id, long length, long linkCount) {
+        putChars(bb, id, 4);
+        bb.putInt(0);
+        bb.putLong(length);
+        bb.putLong(linkCount);
+    }
+
+    private static void putChars(ByteBuffer bb, String str, int length) {
+        byte[] b = str.getBytes(StandardCharsets.ISO_8859_1);
+        bb.put(b);
+        for (int i = b.length; i < length; i++) {
+            bb.put((byte) 0);
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(VirtualMasterTest.class);
+    }
+
+}
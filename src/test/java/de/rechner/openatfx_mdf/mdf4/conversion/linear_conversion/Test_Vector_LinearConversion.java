@@ -1,10 +1,16 @@
 package de.rechner.openatfx_mdf.mdf4.conversion.linear_conversion;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -19,6 +25,8 @@ import org.omg.CORBA.ORB;
 
 import de.rechner.openatfx.util.ODSHelper;
 import de.rechner.openatfx_mdf.MDFConverter;
+import de.rechner.openatfx_mdf.mdf4.IDBLOCK;
+import de.rechner.openatfx_mdf.mdf4.SequenceRepresentations;
 
 
 /**
@@ -64,6 +72,27 @@ public class Test_Vector_LinearConversion {
         }
     }
 
+    @Test
+    public void testReadSeqRep() {
+        try {
+            Path path = Paths.get(ClassLoader.getSystemResource(mdfFile).toURI());
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                IDBLOCK idBlock = IDBLOCK.read(path, sbc);
+                // raw_linear_external: [P1, P2]
+                assertEquals(8, SequenceRepresentations.getSeqRep(idBlock, "Data channel"));
+                assertArrayEquals(new double[] { -4.8, -3.2 },
+                                  SequenceRepresentations.getGenerationParameters(idBlock, "Data channel"), 1E-9);
+                // no conversion: 'external_component'
+                assertEquals(7, SequenceRepresentations.getSeqRep(idBlock, "Time channel"));
+                assertEquals(0, SequenceRepresentations.getGenerationParameters(idBlock, "Time channel").length);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        }
+    }
+
     public static junit.framework.Test suite() {
         return new JUnit4TestAdapter(Test_Vector_LinearConversion.class);
     }
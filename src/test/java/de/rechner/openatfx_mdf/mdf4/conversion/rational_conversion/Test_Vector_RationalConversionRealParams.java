@@ -1,10 +1,16 @@
 package de.rechner.openatfx_mdf.mdf4.conversion.rational_conversion;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import junit.framework.JUnit4TestAdapter;
 
@@ -19,6 +25,8 @@ import org.omg.CORBA.ORB;
 
 import de.rechner.openatfx.util.ODSHelper;
 import de.rechner.openatfx_mdf.MDFConverter;
+import de.rechner.openatfx_mdf.mdf4.IDBLOCK;
+import de.rechner.openatfx_mdf.mdf4.SequenceRepresentations;
 
 
 /**
@@ -64,6 +72,27 @@ public class Test_Vector_RationalConversionRealParams {
         }
     }
 
+    @Test
+    public void testReadSeqRep() {
+        try {
+            Path path = Paths.get(ClassLoader.getSystemResource(mdfFile).toURI());
+            try (SeekableByteChannel sbc = Files.newByteChannel(path, StandardOpenOption.READ)) {
+                IDBLOCK idBlock = IDBLOCK.read(path, sbc);
+                // raw_rational_external: [P1, P2, P3, P4, P5, P6]
+                assertEquals(13, SequenceRepresentations.getSeqRep(idBlock, "Data channel"));
+                assertArrayEquals(new double[] { 3.2, 1.4, 1.1, -0.8, 3.0, -8.0 },
+                                  SequenceRepresentations.getGenerationParameters(idBlock, "Data channel"), 1E-9);
+                // no conversion: 'external_component'
+                assertEquals(7, SequenceRepresentations.getSeqRep(idBlock, "Time channel"));
+                assertEquals(0, SequenceRepresentations.getGenerationParameters(idBlock, "Time channel").length);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } catch (URISyntaxException e) {
+            fail(e.getMessage());
+        }
+    }
+
     public static junit.framework.Test suite() {
         return new JUnit4TestAdapter(Test_Vector_RationalConversionRealParams.class);
     }
@@ -0,0 +1,96 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+
+/**
+ * Utility class measuring the bytes allocated on the heap by the current thread, used to assert that parsing code does
+ * not produce garbage.
+ *
+ * @author Christian Rechner
+ */
+public abstract class Allocations {
+
+    /**
+     * The measured code.
+     */
+    public interface Task {
+
+        /**
+         * Runs the measured code once.
+         *
+         * @throws IOException Error running the code.
+         */
+        void run() throws IOException;
+
+    }
+
+    /**
+     * Returns whether the JVM supports measuring the allocated bytes of a thread.
+     *
+     * @return True, if supported and enabled.
+     */
+    public static boolean isSupported() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return false;
+        }
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported()) {
+            return false;
+        }
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return true;
+    }
+
+    /**
+     * Returns the total number of bytes the current thread has allocated so far.
+     *
+     * @return The number of bytes.
+     */
+    public static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the number of bytes allocated by the measurement itself, to be subtracted from a measured value.
+     *
+     * @return The number of bytes.
+     */
+    public static long getOverhead() {
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long before = getAllocatedBytes();
+            overhead = Math.min(overhead, getAllocatedBytes() - before);
+        }
+        return overhead;
+    }
+
+    /**
+     * Returns the number of bytes allocated by running a task a number of times. The first rounds may allocate while
+     * the JIT compiles the task, so the minimum of several rounds is returned.
+     *
+     * @param task The task.
+     * @param iterations The number of runs per round.
+     * @param rounds The maximum number of rounds.
+     * @return The number of bytes allocated by the runs of a round.
+     * @throws IOException Error running the task.
+     */
+    public static long measure(Task task, int iterations, int rounds) throws IOException {
+        task.run(); // e.g. class initialization
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < rounds && allocated > 0; round++) {
+            long overhead = getOverhead();
+            long before = getAllocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                task.run();
+            }
+            allocated = Math.min(allocated, getAllocatedBytes() - before - overhead);
+        }
+        return allocated;
+    }
+
+}
@@ -0,0 +1,53 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.BitKernels</code>.
+ *
+ * @author Christian Rechner
+ */
+public class BitKernelsTest {
+
+    @Test
+    public void testUnpackAndPack() {
+        Random random = new Random(42);
+        for (int stride : new int[] { 1, 3, 8 }) {
+            for (int count : new int[] { 0, 1, 7, 8, 63, 64, 65, 1000 }) {
+                byte[] data = new byte[5 + count * stride + 8];
+                random.nextBytes(data);
+                for (int bitOffset = 0; bitOffset < 8; bitOffset++) {
+                    RawValueDecoder decoder = new RawValueDecoder(5, bitOffset, 1, RawValueDecoder.UNSIGNED, false);
+                    byte[] bytes = new byte[count];
+                    double[] doubles = new double[count];
+                    long[] bitmap = new long[(count + 63) / 64];
+                    BitKernels.unpackBits(data, 5, count, stride, bitOffset, bytes);
+                    BitKernels.packBits(data, 5, count, stride, bitOffset, bitmap);
+                    decoder.decodeColumn(data, 0, count, stride, doubles);
+                    for (int i = 0; i < count; i++) {
+                        double expected = decoder.decode(data, i * stride);
+                        assertEquals(expected, bytes[i], 0);
+                        assertEquals(expected, doubles[i], 0);
+                        assertEquals(expected == 1, BitKernels.isSet(bitmap, i));
+                    }
+                    // unused bits of the last word are cleared
+                    for (int i = count; i < bitmap.length * 64; i++) {
+                        assertEquals(false, BitKernels.isSet(bitmap, i));
+                    }
+                }
+            }
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(BitKernelsTest.class);
+    }
+
+}
@@ -0,0 +1,92 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+
+/**
+ * Read-only channel on a byte array, used to read blocks from memory. Reading does not allocate.
+ *
+ * @author Christian Rechner
+ */
+public class ByteArrayChannel implements SeekableByteChannel {
+
+    private final byte[] data;
+    private long position;
+    private boolean open;
+
+    /**
+     * Constructor.
+     *
+     * @param data The content of the channel, not copied.
+     */
+    public ByteArrayChannel(byte[] data) {
+        this.data = data;
+        this.position = 0;
+        this.open = true;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        checkOpen();
+        if (this.position >= this.data.length) {
+            return -1;
+        }
+        int length = (int) Math.min(dst.remaining(), this.data.length - this.position);
+        dst.put(this.data, (int) this.position, length);
+        this.position += length;
+        return length;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return this.position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Invalid position: " + newPosition);
+        }
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return this.data.length;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return this.open;
+    }
+
+    @Override
+    public void close() {
+        this.open = false;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!this.open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.ByteOrderKernels</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ByteOrderKernelsTest {
+
+    private static final int[] KINDS = { RawValueDecoder.UNSIGNED, RawValueDecoder.SIGNED, RawValueDecoder.FLOAT };
+
+    /**
+     * Compares the column wise decoding with the decoding of single values for all aligned and some unaligned layouts.
+     */
+    @Test
+    public void testDecodeColumn() {
+        Random random = new Random(4711);
+        int recordCount = 100;
+        for (int recordSize : new int[] { 2, 8, 13 }) {
+            byte[] data = new byte[3 + recordCount * recordSize];
+            random.nextBytes(data);
+            for (int kind : KINDS) {
+                for (int bitCount : new int[] { 8, 12, 16, 32, 64 }) {
+                    for (int bitOffset : new int[] { 0, 3 }) {
+                        if (bitOffset + bitCount > 64
+                                || (kind == RawValueDecoder.FLOAT && (bitCount < 32 || bitOffset > 0))) {
+                            continue;
+                        }
+                        for (boolean bigEndian : new boolean[] { false, true }) {
+                            RawValueDecoder decoder = new RawValueDecoder(0, bitOffset, bitCount, kind, bigEndian);
+                            if (decoder.getRequiredRecordSize() > recordSize) {
+                                continue;
+                            }
+                            double[] column = new double[recordCount];
+                            decoder.decodeColumn(data, 3, recordCount, recordSize, column);
+                            for (int i = 0; i < recordCount; i++) {
+                                double expected = decoder.decode(data, 3 + i * recordSize);
+                                assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(column[i]));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testContiguous() {
+        ByteBuffer bb = ByteBuffer.allocate(80).order(ByteOrder.BIG_ENDIAN);
+        for (int i = 0; i < 10; i++) {
+            bb.putDouble(i * 1.5);
+        }
+        double[] target = new double[10];
+        ByteOrderKernels.getDoubles(bb.array(), 0, 10, 8, ByteOrder.BIG_ENDIAN, target);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * 1.5, target[i], 0);
+        }
+
+        bb = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 10; i++) {
+            bb.putShort((short) (-i));
+        }
+        ByteOrderKernels.getShorts(bb.array(), 0, 10, 2, ByteOrder.LITTLE_ENDIAN, false, target);
+        assertEquals(-9, target[9], 0);
+        ByteOrderKernels.getShorts(bb.array(), 0, 10, 2, ByteOrder.LITTLE_ENDIAN, true, target);
+        assertEquals(65536 - 9, target[9], 0);
+
+        bb = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
+        bb.putLong(-1L);
+        ByteOrderKernels.getLongs(bb.array(), 0, 1, 8, ByteOrder.BIG_ENDIAN, true, target);
+        assertEquals(18446744073709551615.0, target[0], 0);
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ByteOrderKernelsTest.class);
+    }
+
+}
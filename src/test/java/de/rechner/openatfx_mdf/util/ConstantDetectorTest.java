@@ -0,0 +1,55 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.ConstantDetector</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ConstantDetectorTest {
+
+    @Test
+    public void testConstant() {
+        ConstantDetector detector = new ConstantDetector();
+        assertFalse(detector.isConstant());
+        for (int row = 0; row < 1000; row++) {
+            detector.sample(row, row, 42, 4.2);
+        }
+        assertTrue(detector.isConstant());
+        assertEquals(4.2, detector.getValue(), 0);
+        assertEquals(1000, detector.getCount());
+
+        // NaN raw values
+        detector = new ConstantDetector();
+        detector.sample(0, 0, Double.NaN, Double.NaN);
+        detector.sample(1, 1, Double.NaN, Double.NaN);
+        assertTrue(detector.isConstant());
+    }
+
+    @Test
+    public void testNotConstant() {
+        ConstantDetector detector = new ConstantDetector();
+        for (int row = 0; row < 1000; row++) {
+            detector.sample(row, row, row == 999 ? 1 : 0, 0);
+        }
+        assertFalse(detector.isConstant());
+
+        detector = new ConstantDetector();
+        detector.sample(0, 0, 0.0, 0.0);
+        detector.sample(1, 1, -0.0, -0.0);
+        assertFalse(detector.isConstant());
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ConstantDetectorTest.class);
+    }
+
+}
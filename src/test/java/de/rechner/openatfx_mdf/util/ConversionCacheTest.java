@@ -0,0 +1,138 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.ConversionCache</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ConversionCacheTest {
+
+    @Test
+    public void testPrecomputedConversion() {
+        NumericConversion rational = Conversions.rational(new double[] { 0, 1, 0, 0, 0.5, 1 });
+        NumericConversion precomputed = PrecomputedConversion.forChannel(rational, 16, true, true);
+        assertTrue(precomputed instanceof PrecomputedConversion);
+        for (int raw = -32768; raw < 32768; raw += 7) {
+            assertEquals(rational.convert(raw), precomputed.convert(raw), 0);
+        }
+        // values outside the domain are delegated
+        assertEquals(rational.convert(40000), precomputed.convert(40000), 0);
+        assertEquals(rational.convert(1.5), precomputed.convert(1.5), 0);
+
+        // no precomputation for wide or float channels
+        assertTrue(PrecomputedConversion.forChannel(rational, 17, true, false) == rational);
+        assertTrue(PrecomputedConversion.forChannel(rational, 8, false, false) == rational);
+    }
+
+    @Test
+    public void testCache() {
+        ConversionCache cache = new ConversionCache();
+        TestBlock block = new TestBlock(100, Conversions.linear(1, 2));
+
+        NumericConversion c = cache.getConversion(block, 8, true, false);
+        assertTrue(c instanceof PrecomputedConversion);
+        assertEquals(511, c.convert(255), 0);
+        assertTrue(cache.getConversion(block, 8, true, false) == c);
+        assertEquals(1, block.created);
+
+        // the domain depends on bit count, sign and integer type
+        assertTrue(cache.getConversion(block, 8, true, true) != c);
+        assertTrue(cache.getConversion(block, 16, true, false) != c);
+        assertEquals(3, block.created);
+
+        // a float channel sharing the block of an integer channel of the same bit count
+        NumericConversion f = cache.getConversion(block, 16, false, false);
+        assertFalse(f instanceof PrecomputedConversion);
+        assertEquals(3.5, f.convert(1.25), 0);
+        assertTrue(cache.getConversion(block, 16, false, false) == f);
+
+        // missing and text conversions are not applied
+        assertTrue(cache.getConversion(null, 8, true, false) == Conversions.IDENTITY);
+        TestBlock text = new TestBlock(300, null);
+        text.textConversion = true;
+        assertTrue(cache.getConversion(text, 8, true, false) == Conversions.IDENTITY);
+        assertNull(cache.getConversion(new TestBlock(400, null), 8, true, false));
+
+        // text conversions get a table lookup
+        assertNull(cache.getTextLookup(block, 4, true, false));
+        text.textLookup = new KeyLookupTable(new double[] { 3, 2, 1 });
+        TableLookup l = cache.getTextLookup(text, 4, true, false);
+        assertTrue(l instanceof DirectLookupTable);
+        assertTrue(cache.getTextLookup(text, 4, true, false) == l);
+        assertEquals(2, l.indexOf(1));
+        assertTrue(cache.getTextLookup(text, 4, false, false) == text.textLookup);
+
+        // text conversions share one dictionary
+        try {
+            assertNull(cache.getTextDictionary(block));
+            TextDictionary dict = cache.getTextDictionary(text);
+            assertEquals(3, dict.size());
+            assertTrue(cache.getTextDictionary(text) == dict);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+        assertEquals(7, cache.size());
+    }
+
+    /**
+     * Conversion block counting the created conversions.
+     */
+    private static class TestBlock implements ConversionBlock {
+
+        private final long pos;
+        private final NumericConversion conversion;
+        private boolean textConversion;
+        private TableLookup textLookup;
+        private int created;
+
+        public TestBlock(long pos, NumericConversion conversion) {
+            this.pos = pos;
+            this.conversion = conversion;
+        }
+
+        @Override
+        public long getPos() {
+            return this.pos;
+        }
+
+        @Override
+        public boolean isTextConversion() {
+            return this.textConversion;
+        }
+
+        @Override
+        public NumericConversion getNumericConversion(boolean integerRaw) {
+            this.created++;
+            return this.conversion;
+        }
+
+        @Override
+        public TableLookup getTextTableLookup(boolean integerRaw) {
+            return this.textLookup;
+        }
+
+        @Override
+        public TextDictionary getTextDictionary() {
+            return new TextDictionary(new String[] { "a", "b", "c" }, "a");
+        }
+
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ConversionCacheTest.class);
+    }
+
+}
@@ -0,0 +1,78 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.ConversionJournal</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ConversionJournalTest {
+
+    @Test
+    public void testRestart() {
+        Path journalFile = null;
+        try {
+            journalFile = Files.createTempFile("journal", ".tsv");
+            Files.delete(journalFile);
+            Path mdfFile = journalFile.resolveSibling("test.mf4");
+
+            ConversionJournal journal = new ConversionJournal(journalFile);
+            assertEquals(0, journal.size());
+            assertFalse(journal.isDone(mdfFile, 100, 5000));
+            journal.add(mdfFile, 100, 5000, "CONVERTED");
+            assertTrue(journal.isDone(mdfFile, 100, 5000));
+
+            // incomplete line of a crash
+            Files.write(journalFile, "/other.mf4\t1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+            // restart
+            journal = new ConversionJournal(journalFile);
+            assertEquals(1, journal.size());
+            assertTrue(journal.isDone(mdfFile, 100, 5000));
+            assertFalse(journal.isDone(mdfFile, 101, 5000));
+            assertFalse(journal.isDone(mdfFile, 100, 5001));
+
+            // only converted files are done, the last entry counts
+            Path failedFile = journalFile.resolveSibling("failed.mf4");
+            journal.add(failedFile, 200, 6000, "FAILED");
+            journal.add(journalFile.resolveSibling("skipped.mf4"), 300, 7000, "SKIPPED");
+            assertFalse(journal.isDone(failedFile, 200, 6000));
+            assertFalse(journal.isDone(journalFile.resolveSibling("skipped.mf4"), 300, 7000));
+            journal.add(mdfFile, 100, 5000, "FAILED");
+            assertFalse(journal.isDone(mdfFile, 100, 5000));
+            journal.add(failedFile, 200, 6000, "CONVERTED");
+            journal = new ConversionJournal(journalFile);
+            assertTrue(journal.isDone(failedFile, 200, 6000));
+            assertFalse(journal.isDone(mdfFile, 100, 5000));
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } finally {
+            if (journalFile != null) {
+                try {
+                    Files.deleteIfExists(journalFile);
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ConversionJournalTest.class);
+    }
+
+}
@@ -0,0 +1,105 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.FileCollector</code>.
+ *
+ * @author Christian Rechner
+ */
+public class FileCollectorTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        this.dir = Files.createTempDirectory("collect");
+        Files.createDirectory(this.dir.resolve("sub"));
+        Files.write(this.dir.resolve("small.mdf"), new byte[10]);
+        Files.write(this.dir.resolve("big.MF4"), new byte[30]);
+        Files.write(this.dir.resolve("notes.txt"), new byte[50]);
+        Files.write(this.dir.resolve("sub/medium.mf4"), new byte[20]);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (String name : new String[] { "small.mdf", "big.MF4", "notes.txt", "sub/medium.mf4", "sub" }) {
+            Files.deleteIfExists(this.dir.resolve(name));
+        }
+        Files.deleteIfExists(this.dir);
+    }
+
+    @Test
+    public void testCollectDirectory() {
+        try {
+            List<Path> files = FileCollector.collect(Collections.singletonList(this.dir.toString()));
+            assertEquals(Arrays.asList(this.dir.resolve("big.MF4"), this.dir.resolve("sub/medium.mf4"),
+                                       this.dir.resolve("small.mdf")), files);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCollectGlob() {
+        try {
+            String base = this.dir.toString().replace('\\', '/');
+            List<Path> files = FileCollector.collect(Collections.singletonList(base + "/**/*.mf4"));
+            assertEquals(Collections.singletonList(this.dir.resolve("sub/medium.mf4")), files);
+
+            // explicit files are taken regardless of the extension, duplicates are removed
+            files = FileCollector.collect(Arrays.asList(base + "/*.txt", this.dir.resolve("notes.txt").toString()));
+            assertEquals(Collections.singletonList(this.dir.resolve("notes.txt")), files);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFileNotFound() {
+        try {
+            FileCollector.collect(Collections.singletonList(this.dir.resolve("missing.mdf").toString()));
+            fail("IOException expected");
+        } catch (IOException e) {
+        }
+    }
+
+    @Test
+    public void testUpToDate() {
+        try {
+            Path source = this.dir.resolve("small.mdf");
+            Path target = this.dir.resolve("notes.txt");
+            assertFalse(FileCollector.isUpToDate(source, this.dir.resolve("missing.atfx")));
+            Files.setLastModifiedTime(source, FileTime.fromMillis(1000000));
+            Files.setLastModifiedTime(target, FileTime.fromMillis(2000000));
+            assertTrue(FileCollector.isUpToDate(source, target));
+            Files.setLastModifiedTime(target, FileTime.fromMillis(500000));
+            assertFalse(FileCollector.isUpToDate(source, target));
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(FileCollectorTest.class);
+    }
+
+}
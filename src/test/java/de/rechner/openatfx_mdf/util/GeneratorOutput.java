@@ -0,0 +1,164 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Buffered little endian output of the MDF generators, streaming the blocks to disk and patching links afterwards.
+ *
+ * @author Christian Rechner
+ */
+public class GeneratorOutput implements Closeable {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long flushedPos;
+
+    /**
+     * Constructor, creates or truncates the file.
+     *
+     * @param path The file path.
+     * @throws IOException Error creating the file.
+     */
+    public GeneratorOutput(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.flushedPos = 0;
+    }
+
+    /**
+     * Returns the current write position.
+     *
+     * @return The position.
+     */
+    public long position() {
+        return this.flushedPos + this.buffer.position();
+    }
+
+    public void putByte(int value) throws IOException {
+        ensure(1).put((byte) value);
+    }
+
+    public void putShort(int value) throws IOException {
+        ensure(2).putShort((short) value);
+    }
+
+    public void putInt(long value) throws IOException {
+        ensure(4).putInt((int) value);
+    }
+
+    public void putLong(long value) throws IOException {
+        ensure(8).putLong(value);
+    }
+
+    public void putDouble(double value) throws IOException {
+        ensure(8).putDouble(value);
+    }
+
+    public void putBytes(byte[] data, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = Math.min(length, this.buffer.capacity());
+            ensure(n).put(data, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * Writes a zero padded fixed length string.
+     *
+     * @param value The string.
+     * @param length The length in bytes.
+     * @param charset The charset.
+     * @throws IOException Error writing to file.
+     */
+    public void putChars(String value, int length, Charset charset) throws IOException {
+        byte[] b = value.getBytes(charset);
+        int n = Math.min(b.length, length);
+        putBytes(b, 0, n);
+        putZeros(length - n);
+    }
+
+    public void putZeros(long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            putByte(0);
+        }
+    }
+
+    /**
+     * Writes zero bytes up to the next multiple of 8.
+     *
+     * @throws IOException Error writing to file.
+     */
+    public void align() throws IOException {
+        putZeros((8 - (position() % 8)) % 8);
+    }
+
+    /**
+     * Overwrites 8 bytes already written, e.g. a link or a length.
+     *
+     * @param pos The file position.
+     * @param value The value.
+     * @throws IOException Error writing to file.
+     */
+    public void patchLong(long pos, long value) throws IOException {
+        patch(pos, ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, value));
+    }
+
+    /**
+     * Overwrites 4 bytes already written.
+     *
+     * @param pos The file position.
+     * @param value The value.
+     * @throws IOException Error writing to file.
+     */
+    public void patchInt(long pos, long value) throws IOException {
+        patch(pos, ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, (int) value));
+    }
+
+    private void patch(long pos, ByteBuffer bb) throws IOException {
+        flush();
+        while (bb.hasRemaining()) {
+            this.channel.write(bb, pos + bb.position());
+        }
+    }
+
+    private ByteBuffer ensure(int length) throws IOException {
+        if (this.buffer.remaining() < length) {
+            flush();
+        }
+        return this.buffer;
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.flushedPos += this.channel.write(this.buffer, this.flushedPos);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.io.Closeable#close()
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+}
@@ -0,0 +1,439 @@
+package de.rechner.openatfx_mdf.util;
+
+import java.util.Arrays;
+
+
+/**
+ * Describes a synthetic MDF file written by the MDF3 and MDF4 generators of the test sources, and computes its
+ * deterministic content, so tests can check the values read back without storing them. The generators are published
+ * with the test-jar, e.g. for the benchmarks; a spec may be given as text, see {@link #parse(String)}.
+ * <p>
+ * Each channel group has a FLOAT64 master channel 'time' at byte 0, followed by the value channels 'ch_0001' ... of the
+ * configured data type. Integer channels are byte aligned unless bit packing is enabled, in which case they follow
+ * each other without gaps. The values only depend on the channel and row index.
+ *
+ * @author Christian Rechner
+ */
+public class GeneratorSpec {
+
+    /** The size of the master channel in bytes */
+    public static final int MASTER_SIZE = 8;
+
+    /** The time between two rows in seconds */
+    public static final double TIME_STEP = 0.001;
+
+    private int dataGroupCount;
+    private int channelGroupCount;
+    private int channelCount;
+    private long rowCount;
+    private int dataType;
+    private int bitCount;
+    private boolean bitPacking;
+    private boolean compressed;
+    private long fragmentRows;
+    private boolean invalidationBytes;
+
+    /**
+     * Constructor, a sorted file with one group of four UINT16 channels and 1000 rows.
+     */
+    public GeneratorSpec() {
+        this.dataGroupCount = 1;
+        this.channelGroupCount = 1;
+        this.channelCount = 4;
+        this.rowCount = 1000;
+        this.dataType = RawValueDecoder.UNSIGNED;
+        this.bitCount = 16;
+        this.bitPacking = false;
+        this.compressed = false;
+        this.fragmentRows = 0;
+        this.invalidationBytes = false;
+    }
+
+    public int getDataGroupCount() {
+        return dataGroupCount;
+    }
+
+    public void setDataGroupCount(int dataGroupCount) {
+        this.dataGroupCount = dataGroupCount;
+    }
+
+    public int getChannelGroupCount() {
+        return channelGroupCount;
+    }
+
+    /**
+     * Sets the number of channel groups per data group, more than one channel group results in an 'unsorted' file
+     * having a record id of one byte before each record.
+     *
+     * @param channelGroupCount The number of channel groups per data group.
+     */
+    public void setChannelGroupCount(int channelGroupCount) {
+        this.channelGroupCount = channelGroupCount;
+    }
+
+    public int getChannelCount() {
+        return channelCount;
+    }
+
+    /**
+     * Sets the number of value channels of each channel group, without the master channel.
+     *
+     * @param channelCount The number of value channels.
+     */
+    public void setChannelCount(int channelCount) {
+        this.channelCount = channelCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Sets the number of rows (records) of each channel group.
+     *
+     * @param rowCount The number of rows.
+     */
+    public void setRowCount(long rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public int getDataType() {
+        return dataType;
+    }
+
+    /**
+     * Sets the data type of the value channels.
+     *
+     * @param dataType The data type, one of {@link RawValueDecoder#UNSIGNED}, {@link RawValueDecoder#SIGNED} or
+     *            {@link RawValueDecoder#FLOAT}, always little endian.
+     */
+    public void setDataType(int dataType) {
+        this.dataType = dataType;
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Sets the number of bits of the value channels.
+     *
+     * @param bitCount The number of bits, 1-64 for integers, 32 or 64 for floating point values.
+     */
+    public void setBitCount(int bitCount) {
+        this.bitCount = bitCount;
+    }
+
+    public boolean isBitPacking() {
+        return bitPacking;
+    }
+
+    /**
+     * Sets whether integer channels are packed without gaps instead of being byte aligned.
+     *
+     * @param bitPacking True to pack the channels.
+     */
+    public void setBitPacking(boolean bitPacking) {
+        this.bitPacking = bitPacking;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Sets whether the data blocks are written as deflate compressed DZBLOCKs (MDF4 only).
+     *
+     * @param compressed True to compress the data.
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public long getFragmentRows() {
+        return fragmentRows;
+    }
+
+    /**
+     * Sets the number of rows per data block. If greater 0, the data of each data group is split into data blocks
+     * referenced by a DLBLOCK (MDF4 only).
+     *
+     * @param fragmentRows The rows per data block, 0 for a single data block.
+     */
+    public void setFragmentRows(long fragmentRows) {
+        this.fragmentRows = fragmentRows;
+    }
+
+    public boolean isInvalidationBytes() {
+        return invalidationBytes;
+    }
+
+    /**
+     * Sets whether each record has invalidation bytes holding an invalidation bit per value channel (MDF4 only).
+     *
+     * @param invalidationBytes True to write invalidation bytes.
+     */
+    public void setInvalidationBytes(boolean invalidationBytes) {
+        this.invalidationBytes = invalidationBytes;
+    }
+
+    /**
+     * Parses a spec given as semicolon separated list of <code>key=value</code> pairs, e.g.
+     * <code>channels=100;rows=1000000;dataType=float;bits=32</code>. Keys not given keep their default value:
+     * <ul>
+     * <li>dataGroups, channelGroups, channels, rows: the counts,</li>
+     * <li>dataType: <code>unsigned</code>, <code>signed</code> or <code>float</code>,</li>
+     * <li>bits: the number of bits of the value channels,</li>
+     * <li>bitPacking, compressed, invalidationBytes: <code>true</code> or <code>false</code>,</li>
+     * <li>fragmentRows: the rows per data block.</li>
+     * </ul>
+     *
+     * @param str The text, may be empty for the default spec.
+     * @return The validated spec.
+     * @throws IllegalArgumentException Unknown key or invalid value.
+     */
+    public static GeneratorSpec parse(String str) {
+        GeneratorSpec spec = new GeneratorSpec();
+        for (String part : str.split(";")) {
+            if (part.trim().isEmpty()) {
+                continue;
+            }
+            int idx = part.indexOf('=');
+            if (idx < 0) {
+                throw new IllegalArgumentException("Expected 'key=value': " + part);
+            }
+            String key = part.substring(0, idx).trim();
+            String value = part.substring(idx + 1).trim();
+            if (key.equals("dataGroups")) {
+                spec.setDataGroupCount(Integer.parseInt(value));
+            } else if (key.equals("channelGroups")) {
+                spec.setChannelGroupCount(Integer.parseInt(value));
+            } else if (key.equals("channels")) {
+                spec.setChannelCount(Integer.parseInt(value));
+            } else if (key.equals("rows")) {
+                spec.setRowCount(Long.parseLong(value));
+            } else if (key.equals("dataType")) {
+                spec.setDataType(parseDataType(value));
+            } else if (key.equals("bits")) {
+                spec.setBitCount(Integer.parseInt(value));
+            } else if (key.equals("bitPacking")) {
+                spec.setBitPacking(Boolean.parseBoolean(value));
+            } else if (key.equals("compressed")) {
+                spec.setCompressed(Boolean.parseBoolean(value));
+            } else if (key.equals("fragmentRows")) {
+                spec.setFragmentRows(Long.parseLong(value));
+            } else if (key.equals("invalidationBytes")) {
+                spec.setInvalidationBytes(Boolean.parseBoolean(value));
+            } else {
+                throw new IllegalArgumentException("Unknown key: " + key);
+            }
+        }
+        spec.validate();
+        return spec;
+    }
+
+    private static int parseDataType(String value) {
+        if (value.equals("unsigned")) {
+            return RawValueDecoder.UNSIGNED;
+        } else if (value.equals("signed")) {
+            return RawValueDecoder.SIGNED;
+        } else if (value.equals("float")) {
+            return RawValueDecoder.FLOAT;
+        }
+        throw new IllegalArgumentException("Unknown data type: " + value);
+    }
+
+    /**
+     * Checks the spec.
+     *
+     * @throws IllegalArgumentException Invalid spec.
+     */
+    public void validate() {
+        if (this.dataGroupCount < 1 || this.channelGroupCount < 1 || this.channelCount < 1 || this.rowCount < 0) {
+            throw new IllegalArgumentException("Invalid group, channel or row count: " + this);
+        }
+        if (this.channelGroupCount > 255) {
+            throw new IllegalArgumentException("Only 255 channel groups per data group supported: " + this);
+        }
+        if (this.dataType == RawValueDecoder.FLOAT) {
+            if (this.bitCount != 32 && this.bitCount != 64) {
+                throw new IllegalArgumentException("Floating point values must have 32 or 64 bits: " + this);
+            }
+        } else if (this.dataType == RawValueDecoder.UNSIGNED || this.dataType == RawValueDecoder.SIGNED) {
+            if (this.bitCount < 1 || this.bitCount > 64 || (this.bitPacking && this.bitCount > 56)) {
+                throw new IllegalArgumentException("Unsupported integer bit count: " + this);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported data type: " + this);
+        }
+        if (this.fragmentRows < 0) {
+            throw new IllegalArgumentException("Invalid fragment rows: " + this);
+        }
+    }
+
+    /**
+     * Returns the name of a channel.
+     *
+     * @param channel The index of the value channel starting with 0, -1 for the master channel.
+     * @return The name.
+     */
+    public static String getChannelName(int channel) {
+        if (channel < 0) {
+            return "time";
+        }
+        return String.format("ch_%04d", channel + 1);
+    }
+
+    /**
+     * Returns the position of a value channel within the data bytes of a record.
+     *
+     * @param channel The index of the value channel starting with 0.
+     * @return The position in bits.
+     */
+    public long getBitPosition(int channel) {
+        if (this.bitPacking && this.dataType != RawValueDecoder.FLOAT) {
+            return MASTER_SIZE * 8L + (long) channel * this.bitCount;
+        }
+        return MASTER_SIZE * 8L + (long) channel * getAlignedSize() * 8;
+    }
+
+    /**
+     * Returns the number of data bytes of a record, without record id and invalidation bytes.
+     *
+     * @return The number of bytes.
+     */
+    public int getDataBytes() {
+        long bits = getBitPosition(this.channelCount);
+        return (int) ((bits + 7) / 8);
+    }
+
+    /**
+     * Returns the number of invalidation bytes of a record.
+     *
+     * @return The number of bytes, 0 if no invalidation bytes are written.
+     */
+    public int getInvalBytes() {
+        return this.invalidationBytes ? (this.channelCount + 7) / 8 : 0;
+    }
+
+    /**
+     * Returns the number of record id bytes before each record.
+     *
+     * @return 1 for 'unsorted' files, otherwise 0.
+     */
+    public int getRecordIdBytes() {
+        return this.channelGroupCount > 1 ? 1 : 0;
+    }
+
+    /**
+     * Returns the time of a row, the value of the master channel.
+     *
+     * @param row The row index.
+     * @return The time in seconds.
+     */
+    public static double getTime(long row) {
+        return row * TIME_STEP;
+    }
+
+    /**
+     * Returns the raw value of a channel. Integers are truncated to the bit count, floating point values are returned
+     * as their IEEE 754 bits.
+     *
+     * @param channel The index of the value channel starting with 0.
+     * @param row The row index.
+     * @return The raw value, sign extended for signed integers.
+     */
+    public long getRawValue(int channel, long row) {
+        long value = row * 7 + channel * 13;
+        if (this.dataType == RawValueDecoder.FLOAT) {
+            return this.bitCount == 32 ? Float.floatToIntBits(value * 0.25f) : Double.doubleToLongBits(value * 0.25);
+        }
+        if (this.bitCount == 64) {
+            return value;
+        }
+        long masked = value & ((1L << this.bitCount) - 1);
+        if (this.dataType == RawValueDecoder.SIGNED) {
+            int shift = 64 - this.bitCount;
+            return (masked << shift) >> shift;
+        }
+        return masked;
+    }
+
+    /**
+     * Returns the value of a channel, as returned by a {@link RawValueDecoder}.
+     *
+     * @param channel The index of the value channel starting with 0.
+     * @param row The row index.
+     * @return The value.
+     */
+    public double getValue(int channel, long row) {
+        long raw = getRawValue(channel, row);
+        if (this.dataType == RawValueDecoder.FLOAT) {
+            return this.bitCount == 32 ? Float.intBitsToFloat((int) raw) : Double.longBitsToDouble(raw);
+        }
+        if (this.dataType == RawValueDecoder.UNSIGNED && raw < 0) {
+            return (raw >>> 1) * 2.0 + (raw & 1);
+        }
+        return raw;
+    }
+
+    /**
+     * Returns whether the value of a channel is marked invalid by its invalidation bit, every fifth value of a channel
+     * is invalid.
+     *
+     * @param channel The index of the value channel starting with 0.
+     * @param row The row index.
+     * @return True, if invalid.
+     */
+    public static boolean isInvalid(int channel, long row) {
+        return (row + channel) % 5 == 0;
+    }
+
+    /**
+     * Encodes a record, without the record id.
+     *
+     * @param row The row index.
+     * @param target The target array.
+     * @param offset The position of the record within the target array.
+     */
+    public void encodeRecord(long row, byte[] target, int offset) {
+        int dataBytes = getDataBytes();
+        int invalBytes = getInvalBytes();
+        Arrays.fill(target, offset, offset + dataBytes + invalBytes, (byte) 0);
+        putBits(target, offset, 0, 64, Double.doubleToLongBits(getTime(row)));
+        for (int i = 0; i < this.channelCount; i++) {
+            putBits(target, offset, getBitPosition(i), this.bitCount, getRawValue(i, row));
+            if (invalBytes > 0 && isInvalid(i, row)) {
+                target[offset + dataBytes + (i >>> 3)] |= (byte) (1 << (i & 7));
+            }
+        }
+    }
+
+    private int getAlignedSize() {
+        return (this.bitCount + 7) / 8;
+    }
+
+    /**
+     * Writes the lowest bits of a value little endian into a zeroed record.
+     */
+    private static void putBits(byte[] target, int offset, long bitPos, int bitCount, long value) {
+        long bits = bitCount == 64 ? value : value & ((1L << bitCount) - 1);
+        int pos = offset + (int) (bitPos >>> 3);
+        int shift = (int) (bitPos & 7);
+        int byteCount = (shift + bitCount + 7) / 8;
+        for (int i = 0; i < byteCount; i++) {
+            int bitIndex = i * 8 - shift;
+            long b = bitIndex < 0 ? bits << -bitIndex : bits >>> bitIndex;
+            target[pos + i] |= (byte) b;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GeneratorSpec [dataGroupCount=" + dataGroupCount + ", channelGroupCount=" + channelGroupCount
+                + ", channelCount=" + channelCount + ", rowCount=" + rowCount + ", dataType=" + dataType
+                + ", bitCount=" + bitCount + ", bitPacking=" + bitPacking + ", compressed=" + compressed
+                + ", fragmentRows=" + fragmentRows + ", invalidationBytes=" + invalidationBytes + "]";
+    }
+
+}
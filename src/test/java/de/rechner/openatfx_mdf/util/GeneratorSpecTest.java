@@ -0,0 +1,66 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.GeneratorSpec</code>.
+ *
+ * @author Christian Rechner
+ */
+public class GeneratorSpecTest {
+
+    @Test
+    public void testParse() {
+        GeneratorSpec spec = GeneratorSpec.parse("dataGroups=2; channelGroups=3;channels=100;rows=1000000;"
+                + "dataType=signed;bits=12;bitPacking=true;compressed=true;fragmentRows=4096;invalidationBytes=true");
+        assertEquals(2, spec.getDataGroupCount());
+        assertEquals(3, spec.getChannelGroupCount());
+        assertEquals(100, spec.getChannelCount());
+        assertEquals(1000000, spec.getRowCount());
+        assertEquals(RawValueDecoder.SIGNED, spec.getDataType());
+        assertEquals(12, spec.getBitCount());
+        assertTrue(spec.isBitPacking());
+        assertTrue(spec.isCompressed());
+        assertEquals(4096, spec.getFragmentRows());
+        assertTrue(spec.isInvalidationBytes());
+    }
+
+    @Test
+    public void testParseDefaults() {
+        GeneratorSpec spec = GeneratorSpec.parse("");
+        assertEquals(1, spec.getDataGroupCount());
+        assertEquals(4, spec.getChannelCount());
+        assertEquals(1000, spec.getRowCount());
+        assertEquals(RawValueDecoder.UNSIGNED, spec.getDataType());
+        assertEquals(16, spec.getBitCount());
+        assertFalse(spec.isCompressed());
+
+        spec = GeneratorSpec.parse("dataType=float;bits=32");
+        assertEquals(RawValueDecoder.FLOAT, spec.getDataType());
+        assertEquals(32, spec.getBitCount());
+    }
+
+    @Test
+    public void testParseInvalid() {
+        for (String str : new String[] { "channel=5", "rows", "dataType=double", "rows=x", "dataType=float;bits=16" }) {
+            try {
+                GeneratorSpec.parse(str);
+                fail("IllegalArgumentException expected: " + str);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(GeneratorSpecTest.class);
+    }
+
+}
@@ -0,0 +1,164 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.GroupScan</code>.
+ *
+ * @author Christian Rechner
+ */
+public class GroupScanTest {
+
+    @Test
+    public void testRawValueDecoder() {
+        byte[] data = new byte[] { (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 0x01 };
+        assertEquals(0xCDAB, new RawValueDecoder(0, 0, 16, RawValueDecoder.UNSIGNED, false).decode(data, 0), 0);
+        assertEquals(0xABCD, new RawValueDecoder(0, 0, 16, RawValueDecoder.UNSIGNED, true).decode(data, 0), 0);
+        assertEquals((short) 0xCDAB, new RawValueDecoder(0, 0, 16, RawValueDecoder.SIGNED, false).decode(data, 0),
+                     0);
+        // 4 bits at bit offset 12 (byte 1, bit 4)
+        assertEquals(0xC, new RawValueDecoder(0, 12, 4, RawValueDecoder.UNSIGNED, false).decode(data, 0), 0);
+        assertEquals(-4, new RawValueDecoder(0, 12, 4, RawValueDecoder.SIGNED, false).decode(data, 0), 0);
+        // record start
+        assertEquals(0x01EF, new RawValueDecoder(1, 0, 16, RawValueDecoder.UNSIGNED, false).decode(data, 1), 0);
+
+        ByteBuffer bb = ByteBuffer.allocate(12).order(ByteOrder.BIG_ENDIAN);
+        bb.putFloat(1.5f).putDouble(-2.25);
+        assertEquals(1.5, new RawValueDecoder(0, 0, 32, RawValueDecoder.FLOAT, true).decode(bb.array(), 0), 0);
+        assertEquals(-2.25, new RawValueDecoder(4, 0, 64, RawValueDecoder.FLOAT, true).decode(bb.array(), 0), 0);
+
+        // unsigned 64 bit
+        byte[] max = new byte[] { -1, -1, -1, -1, -1, -1, -1, -1 };
+        assertEquals(18446744073709551615d,
+                     new RawValueDecoder(0, 0, 64, RawValueDecoder.UNSIGNED, false).decode(max, 0), 0);
+
+        try {
+            new RawValueDecoder(0, 3, 32, RawValueDecoder.FLOAT, false);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testChannelStatistics() {
+        ChannelStatistics stats = new ChannelStatistics();
+        double[] values = new double[] { 2, 4, Double.NaN, 4, 4, 5, 5, 7, 9 };
+        for (int i = 0; i < values.length; i++) {
+            stats.sample(i, i * 0.1, i, values[i]);
+        }
+        assertEquals(8, stats.getCount());
+        assertEquals(1, stats.getNanCount());
+        assertEquals(2, stats.getMin(), 0);
+        assertEquals(9, stats.getMax(), 0);
+        assertEquals(5, stats.getMean(), 1e-12);
+        assertEquals(2, stats.getStandardDeviation(), 1e-12);
+        assertEquals(0, stats.getFirstTime(), 0);
+        assertEquals(0.8, stats.getLastTime(), 1e-12);
+
+        // merging two parts gives the same result
+        ChannelStatistics part1 = new ChannelStatistics();
+        ChannelStatistics part2 = new ChannelStatistics();
+        for (int i = 0; i < values.length; i++) {
+            (i < 4 ? part1 : part2).sample(i, i * 0.1, i, values[i]);
+        }
+        part1.merge(part2);
+        assertEquals(stats.getCount(), part1.getCount());
+        assertEquals(stats.getNanCount(), part1.getNanCount());
+        assertEquals(stats.getMean(), part1.getMean(), 1e-12);
+        assertEquals(stats.getStandardDeviation(), part1.getStandardDeviation(), 1e-12);
+        assertEquals(stats.getLastTime(), part1.getLastTime(), 0);
+    }
+
+    @Test
+    public void testScanFragments() {
+        File file = null;
+        try {
+            // 1000 records of 5 bytes: record id, UINT16 LE time (ms), INT16 LE value
+            int recordCount = 1000;
+            ByteBuffer bb = ByteBuffer.allocate(recordCount * 5).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < recordCount; i++) {
+                bb.put((byte) 1).putShort((short) (i * 10)).putShort((short) (i - 500));
+            }
+            file = File.createTempFile("scan", ".dat");
+            // split into fragments not aligned to the record size, with gaps
+            byte[] data = bb.array();
+            ByteBuffer fileData = ByteBuffer.allocate(data.length + 300);
+            List<long[]> fragments = new ArrayList<long[]>();
+            int pos = 0;
+            int[] lengths = new int[] { 7, 1993, 3000 };
+            for (int len : lengths) {
+                fileData.position(fileData.position() + 100);
+                fragments.add(new long[] { fileData.position(), len });
+                fileData.put(data, pos, len);
+                pos += len;
+            }
+            Files.write(file.toPath(), fileData.array());
+
+            GroupScan scan = new GroupScan();
+            scan.setMaster(new RawValueDecoder(1, 0, 16, RawValueDecoder.UNSIGNED, false),
+                           Conversions.linear(0, 0.001));
+            int idx = scan.addChannel(new RawValueDecoder(3, 0, 16, RawValueDecoder.SIGNED, false),
+                                      Conversions.linear(1, 2));
+            ChannelStatistics stats = new ChannelStatistics();
+            scan.addListener(idx, stats);
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(file.toPath(), StandardOpenOption.READ)) {
+                new RecordReader(sbc, 64).read(fragments, 5, recordCount, scan);
+            }
+            assertEquals(recordCount, scan.getRowCount());
+            assertEquals(recordCount, stats.getCount());
+            assertEquals(-500, stats.getRawMin(), 0);
+            assertEquals(499, stats.getRawMax(), 0);
+            assertEquals(-999, stats.getMin(), 0);
+            assertEquals(999, stats.getMax(), 0);
+            assertEquals(0, stats.getMean(), 1e-9);
+            assertEquals(0, stats.getFirstTime(), 0);
+            assertEquals(9.99, stats.getLastTime(), 1e-9);
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testMissingData() {
+        File file = null;
+        try {
+            file = File.createTempFile("scan", ".dat");
+            Files.write(file.toPath(), new byte[10]);
+            try (SeekableByteChannel sbc = Files.newByteChannel(file.toPath(), StandardOpenOption.READ)) {
+                new RecordReader(sbc).read(0, 4, 3, new GroupScan());
+                fail("IOException expected");
+            }
+        } catch (IOException e) {
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(GroupScanTest.class);
+    }
+
+}
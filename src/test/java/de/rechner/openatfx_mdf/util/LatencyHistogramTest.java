@@ -0,0 +1,52 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.LatencyHistogram</code>.
+ *
+ * @author Christian Rechner
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testStatistics() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getStatistics().getCount());
+        assertEquals(0, histogram.getStatistics().getMeanMillis(), 0);
+
+        // 98 fast (1ms) and 2 slow (100ms) latencies
+        for (int i = 0; i < 98; i++) {
+            histogram.record(1000000);
+        }
+        histogram.record(100000000);
+        histogram.record(100000000);
+
+        LatencyStatistics statistics = histogram.getStatistics();
+        assertEquals(100, statistics.getCount());
+        assertEquals(298, statistics.getTotalMillis(), 1e-9);
+        assertEquals(2.98, statistics.getMeanMillis(), 1e-9);
+        assertEquals(100, statistics.getMaxMillis(), 1e-9);
+        // the percentiles are accurate within a factor of two
+        assertEquals(1, statistics.getP50Millis(), 1);
+        assertEquals(1, statistics.getP90Millis(), 1);
+        assertEquals(100, statistics.getP99Millis(), 1e-9);
+
+        histogram.record(-5);
+        assertEquals(101, histogram.getStatistics().getCount());
+
+        histogram.reset();
+        assertEquals(0, histogram.getStatistics().getCount());
+        assertEquals(0, histogram.getStatistics().getMaxMillis(), 0);
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(LatencyHistogramTest.class);
+    }
+
+}
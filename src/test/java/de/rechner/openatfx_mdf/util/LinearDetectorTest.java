@@ -0,0 +1,95 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.LinearDetector</code>.
+ *
+ * @author Christian Rechner
+ */
+public class LinearDetectorTest {
+
+    @Test
+    public void testLinear() {
+        // integer time stamps converted with a linear conversion
+        NumericConversion conversion = Conversions.linear(0.5, 0.001);
+        LinearDetector detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        for (int row = 0; row < 100000; row++) {
+            detector.sample(row, 0, row * 10, conversion.convert(row * 10));
+        }
+        assertTrue(detector.isLinear());
+        assertEquals(0.5, detector.getStart(), 0);
+        assertEquals(0.01, detector.getIncrement(), 1e-12);
+        assertEquals(100000, detector.getCount());
+    }
+
+    @Test
+    public void testDecreasing() {
+        LinearDetector detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        for (int row = 0; row < 10; row++) {
+            detector.sample(row, 0, row, 100 - row * 2.5);
+        }
+        assertTrue(detector.isLinear());
+        assertEquals(-2.5, detector.getIncrement(), 0);
+    }
+
+    @Test
+    public void testRateChange() {
+        // the increment changes slightly halfway, each difference is within the tolerance
+        LinearDetector detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        for (int row = 0; row < 1000; row++) {
+            detector.sample(row, 0, row, row < 500 ? row : 499 + (row - 499) * (1 + 5e-7));
+        }
+        assertFalse(detector.isLinear());
+        // the deviation at the middle is 1.25e-4
+        assertTrue(detector.getMaxDeviation() >= 1.25e-4);
+
+        // the same change on a short channel stays within the tolerance
+        detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        for (int row = 0; row < 3; row++) {
+            detector.sample(row, 0, row, row < 2 ? row : 1 + (row - 1) * (1 + 5e-7));
+        }
+        assertTrue(detector.isLinear());
+    }
+
+    @Test
+    public void testNotLinear() {
+        // a single missing sample
+        LinearDetector detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        for (int row = 0; row < 1000; row++) {
+            detector.sample(row, 0, row, row < 500 ? row : row + 1);
+        }
+        assertFalse(detector.isLinear());
+
+        // jitter beyond the tolerance
+        detector = new LinearDetector(1e-3);
+        for (int row = 0; row < 1000; row++) {
+            detector.sample(row, 0, row, row + ((row % 2 == 0) ? 0.01 : 0));
+        }
+        assertFalse(detector.isLinear());
+
+        // NaN value
+        detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        detector.sample(0, 0, 0, 0);
+        detector.sample(1, 0, 1, Double.NaN);
+        detector.sample(2, 0, 2, 2);
+        assertFalse(detector.isLinear());
+
+        // a single value
+        detector = new LinearDetector(LinearDetector.DEFAULT_TOLERANCE);
+        detector.sample(0, 0, 0, 0);
+        assertFalse(detector.isLinear());
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(LinearDetectorTest.class);
+    }
+
+}
@@ -0,0 +1,93 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.MinMaxPyramid</code>.
+ *
+ * @author Christian Rechner
+ */
+public class MinMaxPyramidTest {
+
+    @Test
+    public void testPyramid() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(new int[] { 4, 16 });
+        // 0,1,2,...,36 with a spike at row 5
+        for (int i = 0; i < 37; i++) {
+            pyramid.sample(i, i, i, i == 5 ? 100 : i);
+        }
+        pyramid.finish();
+
+        assertEquals(2, pyramid.getLevelCount());
+        assertEquals(10, pyramid.getSize(0));
+        assertArrayEquals(new double[] { 0, 4, 8, 12, 16, 20, 24, 28, 32, 36 }, pyramid.getMin(0), 0);
+        assertArrayEquals(new double[] { 3, 100, 11, 15, 19, 23, 27, 31, 35, 36 }, pyramid.getMax(0), 0);
+
+        assertEquals(3, pyramid.getSize(1));
+        assertArrayEquals(new double[] { 0, 16, 32 }, pyramid.getMin(1), 0);
+        assertArrayEquals(new double[] { 100, 31, 36 }, pyramid.getMax(1), 0);
+    }
+
+    @Test
+    public void testNaN() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(new int[] { 2 });
+        double[] values = new double[] { Double.NaN, 1, 2, Double.NaN, Double.NaN, Double.NaN };
+        for (int i = 0; i < values.length; i++) {
+            pyramid.sample(i, i, i, values[i]);
+        }
+        pyramid.finish();
+        assertArrayEquals(new double[] { 1, 2, Double.NaN }, pyramid.getMin(0), 0);
+        assertArrayEquals(new double[] { 1, 2, Double.NaN }, pyramid.getMax(0), 0);
+    }
+
+    @Test
+    public void testMaxBuckets() {
+        MinMaxPyramid pyramid = new MinMaxPyramid(new int[] { 2, 4, 8 }, 3);
+        for (int i = 0; i < 20; i++) {
+            pyramid.sample(i, i, i, i);
+        }
+        pyramid.finish();
+
+        // levels 0 and 1 exceed 3 buckets and are dropped, the cascade to level 2 continues
+        assertFalse(pyramid.isAvailable(0));
+        assertFalse(pyramid.isAvailable(1));
+        assertTrue(pyramid.isAvailable(2));
+        assertEquals(10, pyramid.getSize(0));
+        assertEquals(5, pyramid.getSize(1));
+        assertArrayEquals(new double[] { 0, 8, 16 }, pyramid.getMin(2), 0);
+        assertArrayEquals(new double[] { 7, 15, 19 }, pyramid.getMax(2), 0);
+        try {
+            pyramid.getMin(0);
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void testInvalidFactors() {
+        try {
+            new MinMaxPyramid(new int[] { 64, 100 });
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            new MinMaxPyramid(new int[0]);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(MinMaxPyramidTest.class);
+    }
+
+}
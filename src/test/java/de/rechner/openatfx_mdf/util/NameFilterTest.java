@@ -0,0 +1,76 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.NameFilter</code>.
+ *
+ * @author Christian Rechner
+ */
+public class NameFilterTest {
+
+    @Test
+    public void testGlob() {
+        NameFilter filter = NameFilter.parse("Eng*, Veh?Speed ,!*_raw");
+        assertFalse(filter.isAll());
+        assertTrue(filter.accept("EngSpeed"));
+        assertTrue(filter.accept("Eng"));
+        assertTrue(filter.accept("VehXSpeed"));
+        assertFalse(filter.accept("VehSpeed"));
+        assertFalse(filter.accept("EngSpeed_raw"));
+        assertFalse(filter.accept("engSpeed"));
+        assertFalse(filter.accept("Time"));
+        // special regex characters are literals in glob patterns
+        assertTrue(NameFilter.parse("a.b[1]").accept("a.b[1]"));
+        assertFalse(NameFilter.parse("a.b[1]").accept("axb1"));
+    }
+
+    @Test
+    public void testRegex() {
+        NameFilter filter = NameFilter.parse("/Eng.*_\\d/");
+        assertTrue(filter.accept("EngSpeed_2"));
+        assertFalse(filter.accept("EngSpeed"));
+        try {
+            NameFilter.parse("/Eng[/");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testExcludeOnly() {
+        NameFilter filter = NameFilter.parse("!CAN*");
+        assertTrue(filter.accept("EngSpeed"));
+        assertFalse(filter.accept("CAN1_Msg"));
+    }
+
+    @Test
+    public void testSeveralNames() {
+        NameFilter filter = NameFilter.parse("sm_00002,Engine,!Debug");
+        assertTrue(filter.accept("sm_00001", "Engine"));
+        assertTrue(filter.accept("sm_00002", null));
+        assertFalse(filter.accept("sm_00001", null));
+        assertFalse(filter.accept("sm_00002", "Debug"));
+    }
+
+    @Test
+    public void testAll() {
+        assertSame(NameFilter.ALL, NameFilter.parse(""));
+        assertSame(NameFilter.ALL, NameFilter.parse(" , "));
+        assertTrue(NameFilter.ALL.isAll());
+        assertTrue(NameFilter.ALL.accept("anything"));
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(NameFilterTest.class);
+    }
+
+}
@@ -0,0 +1,111 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for the table conversion lookups <code>KeyLookupTable</code>, <code>RangeLookupTable</code>,
+ * <code>ValueLookupTable</code> and <code>DirectLookupTable</code>.
+ *
+ * @author Christian Rechner
+ */
+public class TableLookupTest {
+
+    @Test
+    public void testKeyLookupTable() {
+        KeyLookupTable lookup = new KeyLookupTable(new double[] { 5, 1, 3, 1 });
+        assertEquals(3, lookup.size());
+        assertEquals(0, lookup.indexOf(5));
+        assertEquals(1, lookup.indexOf(1));
+        assertEquals(2, lookup.indexOf(3));
+        assertEquals(-1, lookup.indexOf(2));
+        assertEquals(-1, lookup.indexOf(6));
+    }
+
+    @Test
+    public void testRangeLookupTable() {
+        // not overlapping, unsorted
+        RangeLookupTable lookup = new RangeLookupTable(new double[] { 10, 0, 20 }, new double[] { 20, 10, 30 }, false);
+        assertFalse(lookup.isOverlapping());
+        assertEquals(1, lookup.indexOf(0));
+        assertEquals(1, lookup.indexOf(9.9));
+        assertEquals(0, lookup.indexOf(10));
+        assertEquals(2, lookup.indexOf(29.9));
+        assertEquals(-1, lookup.indexOf(30));
+        assertEquals(-1, lookup.indexOf(-1));
+
+        // upper limit inclusive
+        lookup = new RangeLookupTable(new double[] { 0, 11 }, new double[] { 10, 20 }, true);
+        assertFalse(lookup.isOverlapping());
+        assertEquals(0, lookup.indexOf(10));
+        assertEquals(-1, lookup.indexOf(10.5));
+        assertEquals(1, lookup.indexOf(20));
+    }
+
+    @Test
+    public void testRangeLookupTableOverlapping() {
+        double[] lower = new double[] { 5, 0, 8, 2, 50 };
+        double[] upper = new double[] { 6, 100, 9, 3, 60 };
+        RangeLookupTable lookup = new RangeLookupTable(lower, upper, true);
+        assertTrue(lookup.isOverlapping());
+        // the first matching range of the table wins
+        for (int raw = -5; raw <= 105; raw++) {
+            assertEquals("raw=" + raw, linearScan(lower, upper, raw), lookup.indexOf(raw));
+        }
+    }
+
+    @Test
+    public void testValueLookupTable() {
+        ValueLookupTable interpolation = new ValueLookupTable(new double[] { 0, 10, 20 }, new double[] { 0, 100, 0 },
+                                                              true);
+        assertEquals(0, interpolation.lookup(-5), 0);
+        assertEquals(50, interpolation.lookup(5), 0);
+        assertEquals(100, interpolation.lookup(10), 0);
+        assertEquals(75, interpolation.lookup(12.5), 0);
+        assertEquals(0, interpolation.lookup(25), 0);
+
+        ValueLookupTable nearest = new ValueLookupTable(new double[] { 0, 10, 20 }, new double[] { 1, 2, 3 }, false);
+        assertEquals(1, nearest.lookup(4), 0);
+        assertEquals(1, nearest.lookup(5), 0);
+        assertEquals(2, nearest.lookup(6), 0);
+        assertEquals(3, nearest.lookup(100), 0);
+    }
+
+    @Test
+    public void testDirectLookupTable() {
+        double[] lower = new double[] { -100, -10, 3 };
+        double[] upper = new double[] { -50, 5, 3 };
+        RangeLookupTable range = new RangeLookupTable(lower, upper, true);
+        TableLookup direct = DirectLookupTable.forChannel(range, 8, true, true);
+        assertTrue(direct instanceof DirectLookupTable);
+        for (int raw = -128; raw < 128; raw++) {
+            assertEquals("raw=" + raw, range.indexOf(raw), direct.indexOf(raw));
+        }
+        // values outside the domain are delegated
+        assertEquals(1, direct.indexOf(-0.5));
+
+        // no precomputation for wide or float channels
+        assertTrue(DirectLookupTable.forChannel(range, 32, true, true) == range);
+        assertTrue(DirectLookupTable.forChannel(range, 16, false, true) == range);
+    }
+
+    private static int linearScan(double[] lower, double[] upper, double raw) {
+        for (int i = 0; i < lower.length; i++) {
+            if (raw >= lower[i] && raw <= upper[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(TableLookupTest.class);
+    }
+
+}
@@ -0,0 +1,63 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.TextDictionary</code>.
+ *
+ * @author Christian Rechner
+ */
+public class TextDictionaryTest {
+
+    @Test
+    public void testDictionary() {
+        TextDictionary dict = new TextDictionary(new String[] { "off", "on", "off", "error" }, "n/a");
+        assertEquals(4, dict.size());
+        assertTrue(dict.isShortCodes());
+        assertArrayEquals(new String[] { "off", "on", "error", "n/a" }, dict.getTexts());
+        assertEquals(0, dict.getCode(0));
+        assertEquals(1, dict.getCode(1));
+        assertEquals(0, dict.getCode(2));
+        assertEquals(2, dict.getCode(3));
+        assertEquals(3, dict.getCode(-1));
+    }
+
+    @Test
+    public void testEncode() {
+        TextDictionary dict = new TextDictionary(new String[] { "off", "on" }, null);
+        KeyLookupTable lookup = new KeyLookupTable(new double[] { 0, 1 });
+        double[] raw = new double[] { 0, 1, 1, 5, 0 };
+
+        IntBuffer codes = IntBuffer.allocate(6);
+        codes.put(7);
+        dict.encode(lookup, raw, raw.length, codes);
+        assertEquals(6, codes.position());
+        int[] encoded = new int[5];
+        System.arraycopy(codes.array(), 1, encoded, 0, 5);
+        assertArrayEquals(new int[] { 0, 1, 1, 2, 0 }, encoded);
+        assertArrayEquals(new String[] { "off", "on", "on", null, "off" }, dict.decode(encoded));
+
+        ShortBuffer shortCodes = ShortBuffer.allocate(5);
+        dict.encode(lookup, raw, 4, shortCodes);
+        assertEquals(4, shortCodes.position());
+        assertEquals(2, shortCodes.get(3));
+        String[] texts = dict.decode(shortCodes.array());
+        // decoded strings are shared
+        assertTrue(texts[1] == texts[2]);
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(TextDictionaryTest.class);
+    }
+
+}
@@ -0,0 +1,155 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.TimeIndex</code>.
+ *
+ * @author Christian Rechner
+ */
+public class TimeIndexTest {
+
+    // master values: 0.0, 0.5, 1.0, ... with each value repeated 3 times
+    private static double time(long row) {
+        return (row / 3) * 0.5;
+    }
+
+    private static TimeIndex buildIndex(int rows, int stride) {
+        TimeIndex index = new TimeIndex(stride);
+        for (int row = 0; row < rows; row++) {
+            index.sample(row, time(row), row, time(row));
+        }
+        return index;
+    }
+
+    /**
+     * Computes the expected range by a linear scan.
+     */
+    private static RowRange expected(int rows, double start, double end) {
+        long first = -1;
+        long count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (time(row) >= start && time(row) <= end) {
+                if (first < 0) {
+                    first = row;
+                }
+                count++;
+            }
+        }
+        return count == 0 ? null : new RowRange(first, count);
+    }
+
+    @Test
+    public void testRowRange() {
+        int rows = 1000;
+        MasterValueSource source = new MasterValueSource() {
+
+            @Override
+            public double getMasterValue(long row) throws IOException {
+                return time(row);
+            }
+        };
+        try {
+            for (int stride : new int[] { 1, 7, 64, 2000 }) {
+                TimeIndex index = buildIndex(rows, stride);
+                assertTrue(index.isMonotonic());
+                for (double start = -1; start < 170; start += 3.25) {
+                    for (double end = start; end < start + 20; end += 0.75) {
+                        RowRange exp = expected(rows, start, end);
+                        RowRange coarse = index.getRowRange(start, end);
+                        RowRange exact = index.getRowRange(start, end, source);
+                        if (exp == null) {
+                            assertTrue(exact.isEmpty());
+                        } else {
+                            assertEquals(exp, exact);
+                            assertTrue(coarse.getFirstRow() <= exp.getFirstRow());
+                            assertTrue(coarse.getLastRow() >= exp.getLastRow());
+                            assertTrue(coarse.getRowCount() <= exp.getRowCount() + 2 * stride);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStoredIndex() {
+        TimeIndex index = buildIndex(100, 10);
+        assertEquals(10, index.getValues().length);
+        TimeIndex stored = new TimeIndex(10, index.getValues(), index.getRowCount(), index.getLastValue());
+        assertEquals(index.getRowRange(3, 7), stored.getRowRange(3, 7));
+        assertTrue(stored.getRowRange(100, 200).isEmpty());
+        assertTrue(stored.getRowRange(-10, -1).isEmpty());
+    }
+
+    @Test
+    public void testNotMonotonic() {
+        TimeIndex index = new TimeIndex(4);
+        index.sample(0, 1, 1, 1);
+        index.sample(1, 0.5, 0.5, 0.5);
+        assertFalse(index.isMonotonic());
+    }
+
+    @Test
+    public void testRecordMasterValueSource() {
+        File file = null;
+        try {
+            // 100 records of 6 bytes: UINT16 BE counter, FLOAT32 LE value, split into fragments with gaps
+            ByteBuffer bb = ByteBuffer.allocate(600);
+            for (int i = 0; i < 100; i++) {
+                bb.order(ByteOrder.BIG_ENDIAN).putShort((short) (i * 2));
+                bb.order(ByteOrder.LITTLE_ENDIAN).putFloat(i);
+            }
+            byte[] fileData = new byte[700];
+            System.arraycopy(bb.array(), 0, fileData, 10, 250);
+            System.arraycopy(bb.array(), 250, fileData, 300, 350);
+            file = File.createTempFile("index", ".dat");
+            Files.write(file.toPath(), fileData);
+
+            try (SeekableByteChannel sbc = Files.newByteChannel(file.toPath(), StandardOpenOption.READ)) {
+                MasterValueSource source = new RecordMasterValueSource(sbc, Arrays.asList(new long[] { 10, 250 },
+                                                                                          new long[] { 300, 350 }), 6,
+                                                                       new RawValueDecoder(0, 0, 16,
+                                                                                           RawValueDecoder.UNSIGNED,
+                                                                                           true),
+                                                                       Conversions.linear(0, 0.5));
+                for (int row = 0; row < 100; row++) {
+                    assertEquals(row, source.getMasterValue(row), 0);
+                }
+                // virtual master channel
+                MasterValueSource virtual = new RecordMasterValueSource(sbc, 0, 6, null, Conversions.linear(1, 2));
+                assertEquals(21, virtual.getMasterValue(10), 0);
+            }
+        } catch (IOException e) {
+            fail(e.getMessage());
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(TimeIndexTest.class);
+    }
+
+}
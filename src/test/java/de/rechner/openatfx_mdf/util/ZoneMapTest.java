@@ -0,0 +1,107 @@
+package de.rechner.openatfx_mdf.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import junit.framework.JUnit4TestAdapter;
+
+import org.junit.Test;
+
+
+/**
+ * Test case for <code>de.rechner.openatfx_mdf.util.ZoneMap</code>.
+ *
+ * @author Christian Rechner
+ */
+public class ZoneMapTest {
+
+    // a ramp 0..99 repeated, with NaN values at rows 250..299
+    private static double value(long row) {
+        if (row >= 250 && row < 300) {
+            return Double.NaN;
+        }
+        return row % 100;
+    }
+
+    private static ZoneMap buildZoneMap(int rows, int chunkRows) {
+        ZoneMap zoneMap = new ZoneMap(chunkRows);
+        for (int row = 0; row < rows; row++) {
+            zoneMap.sample(row, row, row, value(row));
+        }
+        return zoneMap;
+    }
+
+    @Test
+    public void testCandidateRanges() {
+        int rows = 1010;
+        for (int chunkRows : new int[] { 1, 7, 50, 64, 2000 }) {
+            ZoneMap zoneMap = buildZoneMap(rows, chunkRows);
+            assertEquals((rows + chunkRows - 1) / chunkRows, zoneMap.getChunkCount());
+            for (double lower = -5; lower < 110; lower += 7.5) {
+                for (double upper = lower; upper < lower + 30; upper += 4) {
+                    List<RowRange> ranges = zoneMap.getCandidateRanges(lower, upper);
+                    // every matching row must be within a candidate range
+                    for (int row = 0; row < rows; row++) {
+                        if (value(row) >= lower && value(row) <= upper) {
+                            assertTrue(contains(ranges, row));
+                        }
+                    }
+                    // ranges are ascending, disjoint and within the rows
+                    long end = 0;
+                    for (RowRange range : ranges) {
+                        assertTrue(range.getFirstRow() >= end);
+                        assertTrue(range.getRowCount() > 0);
+                        end = range.getLastRow() + 1;
+                    }
+                    assertTrue(end <= rows);
+                    assertEquals(!ranges.isEmpty(), zoneMap.mayMatch(lower, upper));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPruning() {
+        ZoneMap zoneMap = buildZoneMap(1000, 50);
+        // values 10..20 only occur in the first half of each ramp
+        List<RowRange> ranges = zoneMap.getCandidateRanges(10, 20);
+        assertEquals(10, ranges.size());
+        assertEquals(new RowRange(0, 50), ranges.get(0));
+        assertEquals(new RowRange(900, 50), ranges.get(9));
+        // the chunk having NaN values only never matches
+        ranges = zoneMap.getCandidateRanges(60, 70);
+        assertEquals(9, ranges.size());
+        for (RowRange range : ranges) {
+            assertFalse(range.getFirstRow() == 250);
+        }
+        assertTrue(zoneMap.getCandidateRanges(100, 200).isEmpty());
+        assertEquals(2, zoneMap.getCandidateRanges(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY).size());
+    }
+
+    @Test
+    public void testStoredZoneMap() {
+        ZoneMap zoneMap = buildZoneMap(123, 10);
+        ZoneMap stored = new ZoneMap(10, zoneMap.getMins(), zoneMap.getMaxs(), zoneMap.getRowCount());
+        assertEquals(zoneMap.getCandidateRanges(5, 8), stored.getCandidateRanges(5, 8));
+        List<RowRange> all = stored.getCandidateRanges(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        assertEquals(1, all.size());
+        assertEquals(new RowRange(0, 123), all.get(0));
+    }
+
+    private static boolean contains(List<RowRange> ranges, long row) {
+        for (RowRange range : ranges) {
+            if (row >= range.getFirstRow() && row <= range.getLastRow()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static junit.framework.Test suite() {
+        return new JUnit4TestAdapter(ZoneMapTest.class);
+    }
+
+}